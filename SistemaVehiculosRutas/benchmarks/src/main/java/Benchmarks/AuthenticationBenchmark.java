@@ -0,0 +1,107 @@
+/*
+ * Nombre del Archivo: AuthenticationBenchmark.java
+ *
+ * Descripcion: Benchmarks de AuthenticationService.login por cantidad de
+ *              usuarios registrados, en un solo hilo y con 16 hilos sobre el
+ *              mismo repositorio de usuarios. La prueba de carga con miles de
+ *              inicios de sesión simultáneos está en LoginLoadTest.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Binary.BinaryDataManager;
+import Interfaces.SerializationException;
+import Repository.DataStore;
+import Services.AuthenticationService;
+
+/**
+ * Benchmarks de autenticación
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    /**
+     * Repositorio de usuarios compartido por todos los hilos
+     */
+    @State(Scope.Benchmark)
+    public static class Accounts {
+        @Param({"1000", "100000", "1000000"})
+        int users;
+
+        Path directory;
+        DataStore dataStore;
+
+        @Setup
+        public void setUp() throws IOException, SerializationException {
+            directory = BenchmarkData.tempDirectory();
+            dataStore = new DataStore(new BinaryDataManager(directory.toString()));
+            dataStore.getUsers().replaceAll(BenchmarkData.users(users));
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            BenchmarkData.deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Servicio de autenticación por hilo (cada uno mantiene su propia sesión)
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        AuthenticationService authService;
+
+        @Setup
+        public void setUp(Accounts accounts) {
+            authService = new AuthenticationService(accounts.dataStore);
+        }
+    }
+
+    @Benchmark
+    public boolean login(Accounts accounts, Client client) {
+        return loginRandomUser(accounts, client);
+    }
+
+    /**
+     * Rendimiento con contención: 16 hilos sobre el mismo repositorio
+     * (la prueba de carga con verificación de resultados es LoginLoadTest)
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean parallelLogin(Accounts accounts, Client client) {
+        return loginRandomUser(accounts, client);
+    }
+
+    private static boolean loginRandomUser(Accounts accounts, Client client) {
+        int i = ThreadLocalRandom.current().nextInt(accounts.users);
+        return client.authService.login("user" + i, "pw" + i);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Nombre del Archivo: BenchmarkData.java
+ *
+ * Descripcion: Utilidades compartidas por los benchmarks para construir datos
+ *              sintéticos reproducibles (ciudades, conexiones, estaciones y
+ *              usuarios) a partir de un tamaño, una densidad y una semilla, y
+ *              para crear y eliminar directorios de datos temporales.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import Graph.AdjacencyMatrixGraph;
+import Graph.CityNode;
+import Graph.ConnectionEdge;
+import Models.ChargingStation;
+import Models.City;
+import Models.Connection;
+import Models.FuelStation;
+import User.User;
+import User.UserRole;
+import Vehicle.ChargerType;
+import Vehicle.FuelType;
+
+/**
+ * Generación de datos sintéticos para benchmarks
+ *
+ * Notas:
+ * - La misma semilla produce siempre los mismos datos
+ * - La densidad es la probabilidad de que exista una conexión dirigida entre
+ *   cada par ordenado de ciudades; además se agrega una cadena que recorre
+ *   todas las ciudades para que el grafo siempre sea conexo
+ */
+final class BenchmarkData {
+    static final long SEED = 42L;
+
+    static final List<ChargerType> CHARGER_TYPES = List.of(
+        new ChargerType("type2", "Type 2", "IEC 62196", 22),
+        new ChargerType("ccs2", "CCS2", "IEC 62196-3", 150),
+        new ChargerType("chademo", "CHAdeMO", "CHAdeMO", 50));
+
+    static final List<FuelType> FUEL_TYPES = List.of(
+        new FuelType("regular", "Regular", "Gasoline 91"),
+        new FuelType("super", "Super", "Gasoline 95"),
+        new FuelType("diesel", "Diesel", "Diesel"));
+
+    private BenchmarkData() {} // Clase de utilidades
+
+    /**
+     * Genera ciudades con coordenadas dentro de un rectángulo de 3x3 grados
+     *
+     * @param count Número de ciudades
+     * @param stationsPerCity Estaciones por ciudad (tipos aleatorios)
+     * @param random Generador de números aleatorios
+     * @return Lista de ciudades
+     */
+    static List<City> cities(int count, int stationsPerCity, Random random) {
+        List<City> cities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            City city = new City("City " + i, 8.0 + random.nextDouble() * 3.0, -86.0 + random.nextDouble() * 3.0);
+            for (int s = 0; s < stationsPerCity; s++) {
+                if (random.nextBoolean()) {
+                    city.addStation(new ChargingStation("Charger " + i + "-" + s, "Street " + s,
+                        List.of(CHARGER_TYPES.get(random.nextInt(CHARGER_TYPES.size()))), true));
+                } else {
+                    city.addStation(new FuelStation("Fuel " + i + "-" + s, "Street " + s,
+                        List.of(FUEL_TYPES.get(random.nextInt(FUEL_TYPES.size())))));
+                }
+            }
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    /**
+     * Genera conexiones aleatorias entre ciudades
+     *
+     * @param cities Ciudades a conectar
+     * @param density Probabilidad de conexión dirigida por par de ciudades
+     * @param random Generador de números aleatorios
+     * @return Lista de conexiones (sin pares repetidos)
+     */
+    static List<Connection> connections(List<City> cities, double density, Random random) {
+        int n = cities.size();
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                boolean chain = j == i + 1 || i == j + 1;
+                if (i != j && (chain || random.nextDouble() < density)) {
+                    connections.add(connect(cities.get(i), cities.get(j), random));
+                }
+            }
+        }
+        return connections;
+    }
+
+    /**
+     * Construye un grafo de matriz de adyacencia a partir de ciudades y conexiones
+     */
+    static AdjacencyMatrixGraph<CityNode> graph(List<City> cities, List<Connection> connections) {
+        AdjacencyMatrixGraph<CityNode> graph = new AdjacencyMatrixGraph<>();
+        for (City city : cities) {
+            graph.addNode(new CityNode(city));
+        }
+        for (Connection connection : connections) {
+            graph.addEdge(new ConnectionEdge(connection));
+        }
+        return graph;
+    }
+
+    /**
+     * Genera usuarios con nombre "userN" y contraseña "pwN"
+     */
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User("user" + i, "pw" + i, UserRole.USER));
+        }
+        return users;
+    }
+
+    /**
+     * Crea un directorio de datos temporal
+     */
+    static Path tempDirectory() throws IOException {
+        return Files.createTempDirectory("route-bench");
+    }
+
+    /**
+     * Elimina un directorio temporal con todo su contenido
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Connection connect(City from, City to, Random random) {
+        double distance = 5 + random.nextDouble() * 95;
+        int minutes = (int) Math.round(distance * (0.8 + random.nextDouble() * 0.8));
+        return new Connection(from, to, distance, Math.max(1, minutes), distance * 0.12);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Nombre del Archivo: CompatibleStationsBenchmark.java
+ *
+ * Descripcion: Benchmarks de búsqueda de estaciones compatibles a lo largo de
+ *              una ruta: recorrido de estaciones (Route.getCompatibleStations)
+ *              frente al índice por tipo de energía de RouteService, por
+ *              longitud de la ruta y cantidad de estaciones por ciudad.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Binary.BinaryDataManager;
+import Interfaces.SerializationException;
+import Models.City;
+import Models.Connection;
+import Models.Route;
+import Models.Station;
+import Repository.DataStore;
+import Services.RouteService;
+import Vehicle.ElectricVehicle;
+import Vehicle.FuelVehicle;
+import Vehicle.Vehicle;
+
+/**
+ * Benchmarks de estaciones compatibles en una ruta
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompatibleStationsBenchmark {
+
+    @Param({"5", "20", "100"})
+    int routeLength;
+
+    @Param({"2", "10", "50"})
+    int stationsPerCity;
+
+    private Path directory;
+    private RouteService routeService;
+    private Route route;
+    private Vehicle electricVehicle;
+    private Vehicle fuelVehicle;
+
+    @Setup
+    public void setUp() throws IOException, SerializationException {
+        Random random = new Random(BenchmarkData.SEED);
+        List<City> cities = BenchmarkData.cities(routeLength, stationsPerCity, random);
+        List<Connection> connections = BenchmarkData.connections(cities, 0, random);
+
+        directory = BenchmarkData.tempDirectory();
+        DataStore dataStore = new DataStore(new BinaryDataManager(directory.toString()));
+        dataStore.getCities().replaceAll(cities);
+        dataStore.getConnections().replaceAll(connections);
+        routeService = new RouteService(dataStore);
+
+        route = routeService.findRoutes(cities.get(0).getLatitude(), cities.get(0).getLongitude(),
+                                        cities.get(routeLength - 1).getLatitude(),
+                                        cities.get(routeLength - 1).getLongitude()).stream()
+            .findFirst()
+            .orElse(new Route(cities, List.of()));
+        electricVehicle = new ElectricVehicle("Bench", "EV", 2024, "EV-001",
+            List.of(BenchmarkData.CHARGER_TYPES.get(1)), 75);
+        fuelVehicle = new FuelVehicle("Bench", "ICE", 2024, "ICE-001", BenchmarkData.FUEL_TYPES.get(2), 50);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Station> routeScanElectric() {
+        return route.getCompatibleStations(electricVehicle);
+    }
+
+    @Benchmark
+    public List<Station> routeScanFuel() {
+        return route.getCompatibleStations(fuelVehicle);
+    }
+
+    @Benchmark
+    public List<Station> energyIndexElectric() {
+        return routeService.getCompatibleStationsOnRoute(route, electricVehicle);
+    }
+
+    @Benchmark
+    public List<Station> energyIndexFuel() {
+        return routeService.getCompatibleStationsOnRoute(route, fuelVehicle);
+    }
+}
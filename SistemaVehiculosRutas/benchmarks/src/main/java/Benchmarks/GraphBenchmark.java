@@ -0,0 +1,123 @@
+/*
+ * Nombre del Archivo: GraphBenchmark.java
+ *
+ * Descripcion: Benchmarks de búsqueda de rutas sobre AdjacencyMatrixGraph:
+ *              ruta más corta (findPath) por tamaño y densidad del grafo, y
+ *              enumeración de todas las rutas (findAllPaths) sobre grafos
+ *              pequeños, ya que su costo crece de forma exponencial.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Graph.AdjacencyMatrixGraph;
+import Graph.CityNode;
+import Models.City;
+import Models.Connection;
+
+/**
+ * Benchmarks del grafo de ciudades
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    /**
+     * Grafo para la ruta más corta
+     */
+    @State(Scope.Benchmark)
+    public static class ShortestPathGraph {
+        @Param({"50", "200", "800"})
+        int nodes;
+
+        @Param({"0.01", "0.05", "0.2"})
+        double density;
+
+        AdjacencyMatrixGraph<CityNode> graph;
+        CityNode[][] pairs;
+        int next;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(BenchmarkData.SEED);
+            List<City> cities = BenchmarkData.cities(nodes, 0, random);
+            List<Connection> connections = BenchmarkData.connections(cities, density, random);
+            graph = BenchmarkData.graph(cities, connections);
+            pairs = randomPairs(graph, 64, random);
+        }
+    }
+
+    /**
+     * Grafo pequeño para la enumeración de todas las rutas
+     */
+    @State(Scope.Benchmark)
+    public static class AllPathsGraph {
+        @Param({"8", "12", "16"})
+        int nodes;
+
+        @Param({"0.1", "0.2"})
+        double density;
+
+        AdjacencyMatrixGraph<CityNode> graph;
+        CityNode[][] pairs;
+        int next;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(BenchmarkData.SEED);
+            List<City> cities = BenchmarkData.cities(nodes, 0, random);
+            List<Connection> connections = BenchmarkData.connections(cities, density, random);
+            graph = BenchmarkData.graph(cities, connections);
+            pairs = randomPairs(graph, 16, random);
+        }
+    }
+
+    @Benchmark
+    public List<CityNode> findPath(ShortestPathGraph state) {
+        CityNode[] pair = state.pairs[state.next++ & (state.pairs.length - 1)];
+        return state.graph.findPath(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public List<List<CityNode>> findAllPaths(AllPathsGraph state) {
+        CityNode[] pair = state.pairs[state.next++ & (state.pairs.length - 1)];
+        return state.graph.findAllPaths(pair[0], pair[1]);
+    }
+
+    /**
+     * Elige pares origen/destino distintos (la cantidad debe ser potencia de 2)
+     */
+    static CityNode[][] randomPairs(AdjacencyMatrixGraph<CityNode> graph, int count, Random random) {
+        List<CityNode> nodes = graph.getNodes();
+        CityNode[][] pairs = new CityNode[count][];
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(nodes.size());
+            int to = (from + 1 + random.nextInt(nodes.size() - 1)) % nodes.size();
+            pairs[i] = new CityNode[] { nodes.get(from), nodes.get(to) };
+        }
+        return pairs;
+    }
+}
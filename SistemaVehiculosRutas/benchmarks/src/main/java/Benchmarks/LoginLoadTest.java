@@ -0,0 +1,203 @@
+/*
+ * Nombre del Archivo: LoginLoadTest.java
+ *
+ * Descripcion: Prueba de carga de autenticación. Lanza miles de inicios de
+ *              sesión simultáneos, cada uno en su propio hilo virtual, contra
+ *              un repositorio sintético grande de usuarios, y luego registra
+ *              los mismos nombres nuevos desde varios hilos a la vez. Verifica
+ *              que todos los inicios de sesión tengan éxito y que cada nombre
+ *              se registre una sola vez.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import Binary.BinaryDataManager;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Repository.DataStore;
+import Services.AuthenticationService;
+import User.UserRole;
+
+/**
+ * Prueba de carga de inicios de sesión y registros concurrentes
+ *
+ * Uso:
+ * <pre>
+ * java -cp target/benchmarks.jar Benchmarks.LoginLoadTest [logins] [users] [names]
+ * </pre>
+ * - logins: inicios de sesión simultáneos (por defecto 20000)
+ * - users: usuarios del repositorio sintético (por defecto 200000)
+ * - names: nombres nuevos a registrar, cada uno desde REGISTER_ATTEMPTS hilos (por defecto 1000)
+ *
+ * Proceso:
+ * - Genera "userN"/"pwN" en un directorio temporal
+ * - Lanza todos los inicios de sesión en hilos virtuales que esperan una
+ *   misma señal de salida, para que compitan por el repositorio a la vez
+ * - Repite con los registros: cada nombre nuevo se intenta desde varios
+ *   hilos, y además se intenta registrar nombres ya existentes
+ * - Inicia sesión con cada usuario registrado
+ *
+ * Verificaciones (la prueba termina con código 1 si alguna falla):
+ * - Todos los inicios de sesión con credenciales válidas abren una sesión
+ * - Cada nombre nuevo se registra exactamente una vez
+ * - Ningún nombre existente se vuelve a registrar
+ * - Los usuarios registrados pueden iniciar sesión
+ *
+ * Notas:
+ * - Todos los hilos comparten un AuthenticationService y usan openSession,
+ *   igual que el servidor HTTP; login() guarda la sesión de la interfaz local
+ */
+public final class LoginLoadTest {
+    private static final int DEFAULT_LOGINS = 20_000;
+    private static final int DEFAULT_USERS = 200_000;
+    private static final int DEFAULT_NAMES = 1_000;
+    // Hilos que intentan registrar cada nombre nuevo
+    private static final int REGISTER_ATTEMPTS = 8;
+
+    private LoginLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LOGINS;
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_USERS;
+        int names = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NAMES;
+
+        Path directory = BenchmarkData.tempDirectory();
+        DataStore dataStore = null;
+        boolean passed;
+        try {
+            dataStore = new DataStore(new BinaryDataManager(directory.toString()));
+            dataStore.getUsers().replaceAll(BenchmarkData.users(userCount));
+            AuthenticationService authService = new AuthenticationService(dataStore);
+            System.out.printf("%,d users in %d shards%n", userCount, dataStore.getUsers().getShardCount());
+
+            passed = runLogins(authService, logins, userCount);
+            passed &= runRegistrations(authService, names, userCount);
+        } finally {
+            if (dataStore != null) {
+                dataStore.close();
+            }
+            BenchmarkData.deleteRecursively(directory);
+        }
+
+        System.out.println(passed ? "PASSED" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lanza los inicios de sesión simultáneos
+     *
+     * @return true si todos abrieron una sesión
+     */
+    private static boolean runLogins(AuthenticationService authService, int logins, int userCount)
+            throws InterruptedException {
+        LatencyHistogram latency = new MetricsRegistry().histogram("login");
+        LongAdder failures = new LongAdder();
+        Random random = new Random(BenchmarkData.SEED);
+        CountDownLatch go = new CountDownLatch(1);
+
+        long start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < logins; i++) {
+                int user = random.nextInt(userCount);
+                executor.submit(() -> {
+                    go.await();
+                    long begin = System.nanoTime();
+                    if (authService.openSession("user" + user, "pw" + user) == null) {
+                        failures.increment();
+                    }
+                    latency.recordSince(begin);
+                    return null;
+                });
+            }
+            start = System.nanoTime();
+            go.countDown();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        System.out.printf("Logins: %,d in %.2f s (%,.0f/s), %,d failed%n",
+            logins, elapsed, logins / elapsed, failures.sum());
+        System.out.printf("Latency (ms): p50 %.3f  p99 %.3f  p999 %.3f  max %.3f%n",
+            s.p50() / 1e6, s.p99() / 1e6, s.p999() / 1e6, s.max() / 1e6);
+        return check(failures.sum() == 0, "every valid login opens a session");
+    }
+
+    /**
+     * Registra cada nombre nuevo desde varios hilos y reintenta nombres existentes
+     *
+     * @return true si cada nombre nuevo se registró una vez y ningún existente se duplicó
+     */
+    private static boolean runRegistrations(AuthenticationService authService, int names, int userCount)
+            throws InterruptedException {
+        AtomicIntegerArray created = new AtomicIntegerArray(names);
+        LongAdder duplicatesAccepted = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+
+        long start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int attempt = 0; attempt < REGISTER_ATTEMPTS; attempt++) {
+                for (int i = 0; i < names; i++) {
+                    int name = i;
+                    executor.submit(() -> {
+                        go.await();
+                        if (authService.register("newuser" + name, "newpw" + name, UserRole.USER) != null) {
+                            created.incrementAndGet(name);
+                        }
+                        // Nombre existente, con otras mayúsculas (el índice no las distingue)
+                        int existing = name % userCount;
+                        if (authService.register("USER" + existing, "other", UserRole.USER) != null) {
+                            duplicatesAccepted.increment();
+                        }
+                        return null;
+                    });
+                }
+            }
+            start = System.nanoTime();
+            go.countDown();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        List<Integer> wrongCounts = new ArrayList<>();
+        int loginFailures = 0;
+        for (int i = 0; i < names; i++) {
+            if (created.get(i) != 1) {
+                wrongCounts.add(i);
+            }
+            if (authService.openSession("newuser" + i, "newpw" + i) == null) {
+                loginFailures++;
+            }
+        }
+        System.out.printf("Registrations: %,d attempts for %,d new names in %.2f s%n",
+            (long) names * REGISTER_ATTEMPTS * 2, names, elapsed);
+
+        boolean passed = check(wrongCounts.isEmpty(),
+            "each new name is registered exactly once" + (wrongCounts.isEmpty() ? "" : " (wrong for " + wrongCounts.size() + " names)"));
+        passed &= check(duplicatesAccepted.sum() == 0,
+            "existing names are rejected (" + duplicatesAccepted.sum() + " accepted)");
+        passed &= check(loginFailures == 0,
+            "registered users can log in (" + loginFailures + " failed)");
+        return passed;
+    }
+
+    private static boolean check(boolean condition, String description) {
+        System.out.println((condition ? "  ok    " : "  FAIL  ") + description);
+        return condition;
+    }
+}
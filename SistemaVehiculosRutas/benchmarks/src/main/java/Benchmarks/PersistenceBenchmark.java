@@ -0,0 +1,103 @@
+/*
+ * Nombre del Archivo: PersistenceBenchmark.java
+ *
+ * Descripcion: Benchmarks de BinaryDataManager.saveList y loadList sobre
+ *              archivos de ciudades (con estaciones) y de conexiones, por
+ *              número de ciudades y densidad de conexiones.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Binary.BinaryDataManager;
+import Interfaces.SerializationException;
+import Models.City;
+import Models.Connection;
+
+/**
+ * Benchmarks de persistencia binaria
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final String CITIES_FILE = "bench_cities.dat";
+    private static final String CONNECTIONS_FILE = "bench_connections.dat";
+
+    @Param({"100", "1000", "5000"})
+    int nodes;
+
+    @Param({"0.001", "0.01"})
+    double density;
+
+    @Param({"4"})
+    int stationsPerCity;
+
+    private Path directory;
+    private BinaryDataManager dataManager;
+    private List<City> cities;
+    private List<Connection> connections;
+
+    @Setup
+    public void setUp() throws IOException, SerializationException {
+        Random random = new Random(BenchmarkData.SEED);
+        cities = BenchmarkData.cities(nodes, stationsPerCity, random);
+        connections = BenchmarkData.connections(cities, density, random);
+
+        directory = BenchmarkData.tempDirectory();
+        dataManager = new BinaryDataManager(directory.toString());
+        dataManager.saveList(cities, CITIES_FILE);
+        dataManager.saveList(connections, CONNECTIONS_FILE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void saveCities() throws SerializationException {
+        dataManager.saveList(cities, CITIES_FILE);
+    }
+
+    @Benchmark
+    public List<City> loadCities() throws SerializationException {
+        return dataManager.loadList(CITIES_FILE, City::new);
+    }
+
+    @Benchmark
+    public void saveConnections() throws SerializationException {
+        dataManager.saveList(connections, CONNECTIONS_FILE);
+    }
+
+    @Benchmark
+    public List<Connection> loadConnections() throws SerializationException {
+        return dataManager.loadList(CONNECTIONS_FILE, Connection::new);
+    }
+}
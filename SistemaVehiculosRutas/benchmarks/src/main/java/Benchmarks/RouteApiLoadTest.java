@@ -0,0 +1,198 @@
+/*
+ * Nombre del Archivo: RouteApiLoadTest.java
+ *
+ * Descripcion: Prueba de carga del servidor HTTP de rutas. Envía solicitudes a
+ *              una tasa fija (por defecto 10 000 por segundo) contra
+ *              localhost, cada una en su propio hilo virtual, y reporta la
+ *              tasa alcanzada, los errores y la latencia p50/p99/p999.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import Binary.BinaryDataManager;
+import Binary.SyntheticDataGenerator;
+import Main.Entry;
+import Main.RouteSystemContext;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Models.City;
+import Server.RouteApiServer;
+
+/**
+ * Prueba de carga de la API de rutas con tasa de llegada fija
+ *
+ * Uso:
+ * <pre>
+ * java -cp target/benchmarks.jar Benchmarks.RouteApiLoadTest [rps] [seconds] [cities]
+ * </pre>
+ * - rps: solicitudes por segundo (por defecto 10000)
+ * - seconds: duración de la medición (por defecto 10), precedida por la mitad de calentamiento
+ * - cities: ciudades del conjunto sintético (por defecto 200)
+ *
+ * Proceso:
+ * - Genera un conjunto sintético en un directorio temporal
+ * - Inicia el servidor en este mismo proceso en un puerto libre de localhost
+ * - Calienta y luego mide con la tasa indicada
+ *
+ * Mezcla de solicitudes:
+ * - 40% rutas entre coordenadas, 10% rutas entre ciudades vecinas
+ * - 25% isócronas de 30 minutos, 25% estaciones de una ciudad
+ *
+ * Notas:
+ * - Carga de lazo abierto: las solicitudes se envían según el calendario
+ *   aunque las anteriores no hayan terminado, y la latencia se mide desde el
+ *   instante programado, así que las colas del servidor sí se reflejan en p99
+ * - Se limitan las solicitudes en curso a MAX_IN_FLIGHT para no agotar los
+ *   descriptores de archivo; si el servidor no da abasto, el envío se atrasa
+ *   y ese atraso también aparece en la latencia
+ * - Las rutas por ID usan ciudades vecinas porque las alternativas de rutas
+ *   entre ciudades lejanas recorren muchos caminos (ver MAX_ROUTE_SEARCH_DEPTH)
+ */
+public final class RouteApiLoadTest {
+    private static final int DEFAULT_RPS = 10_000;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_CITIES = 200;
+    private static final int REQUEST_POOL = 4096;
+    // Máximo de solicitudes en curso (y por lo tanto de conexiones abiertas)
+    private static final int MAX_IN_FLIGHT = 256;
+
+    private RouteApiLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int rps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RPS;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+        int cityCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CITIES;
+
+        Path directory = BenchmarkData.tempDirectory();
+        RouteApiServer server = null;
+        try {
+            new SyntheticDataGenerator(new BinaryDataManager(directory.toString()), BenchmarkData.SEED)
+                .generate(cityCount, 10);
+            RouteSystemContext context = Entry.initializeSystem(directory.toString());
+            server = new RouteApiServer(context, 0);
+            if (!server.start()) {
+                return;
+            }
+            String baseUrl = "http://localhost:" + server.getPort();
+
+            List<URI> requests = buildRequests(baseUrl, context);
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+            System.out.printf("Target %,d req/s against %s%n", rps, baseUrl);
+            run(client, requests, rps, Math.max(1, seconds / 2), false);
+            run(client, requests, rps, seconds, true);
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+            BenchmarkData.deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Envía solicitudes a tasa fija durante un tiempo y reporta los resultados
+     */
+    private static void run(HttpClient client, List<URI> requests, int rps, int seconds, boolean report)
+            throws InterruptedException {
+        LatencyHistogram latency = new MetricsRegistry().histogram("loadtest");
+        LongAdder errors = new LongAdder();
+        long total = (long) rps * seconds;
+        long intervalNanos = 1_000_000_000L / rps;
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquire();
+                HttpRequest request = HttpRequest.newBuilder(requests.get((int) (i % requests.size())))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+                executor.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.increment();
+                        }
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                    latency.recordSince(scheduled);
+                    inFlight.release();
+                });
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        if (report) {
+            LatencyHistogram.Snapshot s = latency.snapshot();
+            System.out.printf("Sent %,d requests in %.1f s: %,.0f req/s, %,d errors%n",
+                total, elapsed, total / elapsed, errors.sum());
+            System.out.printf("Latency (ms): p50 %.2f  p99 %.2f  p999 %.2f  max %.2f%n",
+                s.p50() / 1e6, s.p99() / 1e6, s.p999() / 1e6, s.max() / 1e6);
+        }
+    }
+
+    /**
+     * Arma un conjunto fijo de URIs con la mezcla de solicitudes
+     */
+    private static List<URI> buildRequests(String baseUrl, RouteSystemContext context) {
+        List<City> cities = context.getRouteService().getAllCities();
+        Random random = new Random(BenchmarkData.SEED);
+        List<URI> requests = new ArrayList<>(REQUEST_POOL);
+
+        for (int i = 0; i < REQUEST_POOL; i++) {
+            if (cities.size() < 2) {
+                requests.add(URI.create(baseUrl + "/api/health"));
+                continue;
+            }
+            City city = cities.get(random.nextInt(cities.size()));
+            int kind = random.nextInt(100);
+            String path;
+            if (kind < 40) {
+                City other = cities.get(random.nextInt(cities.size()));
+                path = String.format(Locale.ROOT, "/api/routes?fromLat=%.5f&fromLon=%.5f&toLat=%.5f&toLon=%.5f",
+                    city.getLatitude(), city.getLongitude(), other.getLatitude(), other.getLongitude());
+            } else if (kind < 50) {
+                List<City> nearest = context.getRouteService()
+                    .findNearestCities(city.getLatitude(), city.getLongitude(), 4);
+                City neighbour = nearest.get(nearest.size() - 1);
+                path = "/api/routes?from=" + city.getId() + "&to=" + neighbour.getId();
+            } else if (kind < 75) {
+                path = "/api/isochrone?city=" + city.getId() + "&minutes=30";
+            } else {
+                path = "/api/stations?city=" + city.getId();
+            }
+            requests.add(URI.create(baseUrl + path));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Nombre del Archivo: RouteServiceBenchmark.java
+ *
+ * Descripcion: Benchmarks de RouteService sobre un almacén de datos temporal:
+ *              búsqueda de rutas entre ciudades (incluye rutas alternativas,
+ *              por lo que se mide sobre grafos pequeños) y búsqueda de rutas
+ *              entre coordenadas sobre grafos grandes y sobre una red vial
+ *              generada por SyntheticDataGenerator.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Binary.BinaryDataManager;
+import Binary.SyntheticDataGenerator;
+import Interfaces.SerializationException;
+import Models.City;
+import Models.Connection;
+import Models.Route;
+import Repository.DataStore;
+import Services.RouteService;
+
+/**
+ * Benchmarks del servicio de rutas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteServiceBenchmark {
+
+    /**
+     * Servicio de rutas sobre datos sintéticos persistidos en un directorio temporal
+     */
+    public abstract static class ServiceState {
+        Path directory;
+        RouteService routeService;
+        List<City> cities;
+        int next;
+
+        void build(int nodes, double density) throws IOException, SerializationException {
+            Random random = new Random(BenchmarkData.SEED);
+            cities = BenchmarkData.cities(nodes, 0, random);
+            List<Connection> connections = BenchmarkData.connections(cities, density, random);
+
+            directory = BenchmarkData.tempDirectory();
+            DataStore dataStore = new DataStore(new BinaryDataManager(directory.toString()));
+            dataStore.getCities().replaceAll(cities);
+            dataStore.getConnections().replaceAll(connections);
+            routeService = new RouteService(dataStore);
+        }
+
+        City city(int index) {
+            return cities.get(Math.floorMod(index, cities.size()));
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            BenchmarkData.deleteRecursively(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallGraph extends ServiceState {
+        @Param({"8", "12", "16"})
+        int nodes;
+
+        @Param({"0.1", "0.2"})
+        double density;
+
+        @Setup
+        public void setUp() throws IOException, SerializationException {
+            build(nodes, density);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeGraph extends ServiceState {
+        @Param({"50", "200", "800"})
+        int nodes;
+
+        @Param({"0.01", "0.05", "0.2"})
+        double density;
+
+        @Setup
+        public void setUp() throws IOException, SerializationException {
+            build(nodes, density);
+        }
+    }
+
+    /**
+     * Red vial plana generada (grado promedio cercano a 3)
+     */
+    @State(Scope.Benchmark)
+    public static class RoadNetwork extends ServiceState {
+        @Param({"1000", "4000"})
+        int roadCities;
+
+        @Setup
+        public void setUp() throws IOException, SerializationException {
+            directory = BenchmarkData.tempDirectory();
+            BinaryDataManager dataManager = new BinaryDataManager(directory.toString());
+            if (!new SyntheticDataGenerator(dataManager, BenchmarkData.SEED).generate(roadCities, 0)) {
+                throw new IllegalStateException("Synthetic data generation failed");
+            }
+            DataStore dataStore = new DataStore(dataManager);
+            cities = dataStore.getCities().getAll();
+            routeService = new RouteService(dataStore);
+        }
+    }
+
+    @Benchmark
+    public List<Route> findRoutesByCityId(SmallGraph state) {
+        int i = state.next++;
+        return state.routeService.findRoutes(state.city(i).getId(), state.city(i * 7 + 3).getId());
+    }
+
+    @Benchmark
+    public List<Route> findRoutesByCoordinates(LargeGraph state) {
+        int i = state.next++;
+        City from = state.city(i);
+        City to = state.city(i * 7 + 3);
+        return state.routeService.findRoutes(from.getLatitude() + 0.01, from.getLongitude() - 0.01,
+                                             to.getLatitude() - 0.01, to.getLongitude() + 0.01);
+    }
+
+    @Benchmark
+    public List<Route> findRoutesOnRoadNetwork(RoadNetwork state) {
+        int i = state.next++;
+        City from = state.city(i);
+        City to = state.city(i * 7 + 3);
+        return state.routeService.findRoutes(from.getLatitude(), from.getLongitude(),
+                                             to.getLatitude(), to.getLongitude());
+    }
+}
@@ -15,6 +15,7 @@
 package Admin;
 
 import Services.AuthenticationService;
+import Services.Session;
 
 /**
  * Servicio principal de administración del sistema
@@ -61,6 +62,16 @@ public class AdminService {
         return authService.isCurrentUserAdmin();
     }
     
+    /**
+     * Verifica si el usuario de una sesión tiene privilegios de administrador
+     * 
+     * @param session Sesión a verificar (por ejemplo obtenida por token)
+     * @return true si la sesión está activa y su usuario es administrador
+     */
+    public boolean hasAdminPrivileges(Session session) {
+        return session != null && session.isAdmin();
+    }
+    
     /**
      * Obtiene el servicio de gestión de ciudades
      * 
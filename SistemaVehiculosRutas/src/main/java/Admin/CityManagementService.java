@@ -16,31 +16,62 @@ package Admin;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
 import Binary.FileConstants;
+import Graph.ConnectionResolver;
 import Interfaces.DataManager;
 import Interfaces.SerializationException;
 import Models.City;
 import Models.Connection;
+import Repository.CityRepository;
+import Repository.CitySpatialIndex;
+import Repository.DataStore;
+import Repository.EntityRepository;
+import Repository.StationEnergyIndex;
+import Repository.StripedLocks;
 
 /**
  * Servicio de gestión de ciudades y conexiones
  * 
  * Esta clase proporciona métodos para administrar ciudades y sus conexiones,
  * incluyendo operaciones CRUD completas y manejo de archivos corruptos.
+ * 
+ * Concurrencia:
+ * - Cada operación toma el candado de entidad de las ciudades que toca (ver
+ *   EntityRepository.entityLock), así que dos administradores pueden editar
+ *   ciudades distintas a la vez y las ediciones de una misma ciudad (o de
+ *   una conexión y sus ciudades) se aplican una después de la otra
+ * - Los índices espacial y de estaciones se actualizan dentro del mismo
+ *   candado que la escritura, por lo que siguen el orden del repositorio
  */
 public class CityManagementService {
+    // Máximo de conexiones colgantes que se listan en la advertencia
+    private static final int DANGLING_REPORT_LIMIT = 10;
     
     private final DataManager dataManager;
+    private final CityRepository cityRepository;
+    private final EntityRepository<Connection> connectionRepository;
+    private final CitySpatialIndex spatialIndex;
+    private final StationEnergyIndex stationIndex;
+    private final ReadWriteLock catalogUsageLock;
     
     /**
      * Constructor del servicio de gestión de ciudades
      * 
-     * @param dataManager El gestor de datos para persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
+     * 
+     * Notas:
+     * - El gestor de datos solo se usa para eliminar archivos corruptos
      */
-    public CityManagementService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public CityManagementService(DataStore dataStore) {
+        this.dataManager = dataStore.getDataManager();
+        this.cityRepository = dataStore.getCities();
+        this.connectionRepository = dataStore.getConnections();
+        this.spatialIndex = dataStore.getCitySpatialIndex();
+        this.stationIndex = dataStore.getStationEnergyIndex();
+        this.catalogUsageLock = dataStore.getCatalogUsageLock();
     }
     
     // ========== GESTIÓN DE CIUDADES ==========
@@ -53,31 +84,44 @@ public class CityManagementService {
      * 
      * Restricciones:
      * - La ciudad no puede ser null
-     * - No puede existir otra ciudad con el mismo nombre (ignorando mayúsculas/minúsculas)
+     * - No puede existir otra ciudad con el mismo nombre (ignorando mayúsculas,
+     *   acentos y espacios repetidos, ver CityRepository.normalizeName)
+     * 
+     * Notas:
+     * - La ciudad creada se agrega al índice espacial y al índice de estaciones
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de un tipo de
+     *   energía que alguna de sus estaciones use
      */
     public boolean createCity(City city) {
         if (city == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
+        Lock lock = cityRepository.entityLock(city.getId());
+        lock.lock();
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            
-            // Verificar nombres duplicados
-            boolean nameExists = cities.stream()
-                .anyMatch(c -> city.getName().equalsIgnoreCase(c.getName()));
-            
-            if (nameExists) {
+            // Verificar nombres duplicados (el repositorio también rechaza de
+            // forma atómica un nombre ya registrado)
+            if (cityRepository.findByName(city.getName()) != null) {
                 return false; // Ya existe una ciudad con ese nombre
             }
             
-            cities.add(city);
-            dataManager.saveList(cities, FileConstants.CITIES_FILE);
+            if (!cityRepository.add(city)) {
+                return false;
+            }
+            
+            spatialIndex.add(city);
+            stationIndex.addCity(city);
             return true;
             
         } catch (SerializationException e) {
             System.err.println("Error creating city: " + e.getMessage());
             return false;
+        } finally {
+            lock.unlock();
+            catalogUsageLock.readLock().unlock();
         }
     }
     
@@ -92,25 +136,37 @@ public class CityManagementService {
      * - El ID de la ciudad no puede ser null
      * - La ciudad actualizada no puede ser null
      * - La ciudad debe existir en el sistema
+     * 
+     * Notas:
+     * - La ciudad se reubica en el índice espacial por si cambiaron sus coordenadas
+     * - Sus estaciones se vuelven a indexar por tipo de energía
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de un tipo de
+     *   energía que alguna de sus estaciones use
      */
     public boolean updateCity(String cityId, City updatedCity) {
         if (cityId == null || updatedCity == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
+        Lock lock = cityRepository.entityLock(cityId);
+        lock.lock();
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            
-            for (int i = 0; i < cities.size(); i++) {
-                if (cityId.equals(cities.get(i).getId())) {
-                    cities.set(i, updatedCity);
-                    dataManager.saveList(cities, FileConstants.CITIES_FILE);
-                    return true;
-                }
+            if (!cityRepository.update(cityId, updatedCity)) {
+                return false;
             }
             
+            spatialIndex.remove(cityId);
+            spatialIndex.add(updatedCity);
+            stationIndex.removeCity(cityId);
+            stationIndex.addCity(updatedCity);
+            return true;
         } catch (SerializationException e) {
             System.err.println("Error updating city: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            catalogUsageLock.readLock().unlock();
         }
         
         return false;
@@ -126,16 +182,22 @@ public class CityManagementService {
      * - El ID de la ciudad no puede ser null
      * - La ciudad no puede tener conexiones existentes
      * - La ciudad debe existir en el sistema
+     * 
+     * Notas:
+     * - La ciudad eliminada se quita del índice espacial y del índice de estaciones
+     * - La verificación de conexiones y la baja son atómicas respecto a
+     *   createConnection, que toma el mismo candado de ciudad
      */
     public boolean deleteCity(String cityId) {
         if (cityId == null) {
             return false;
         }
         
+        Lock lock = cityRepository.entityLock(cityId);
+        lock.lock();
         try {
             // Verificar conexiones existentes
-            List<Connection> connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
-            boolean hasConnections = connections.stream()
+            boolean hasConnections = connectionRepository.stream()
                 .anyMatch(conn -> cityId.equals(conn.getFromCityId()) || cityId.equals(conn.getToCityId()));
             
             if (hasConnections) {
@@ -143,16 +205,17 @@ public class CityManagementService {
             }
             
             // Eliminar la ciudad
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            boolean removed = cities.removeIf(city -> cityId.equals(city.getId()));
-            
-            if (removed) {
-                dataManager.saveList(cities, FileConstants.CITIES_FILE);
-                return true;
+            if (!cityRepository.remove(cityId)) {
+                return false;
             }
             
+            spatialIndex.remove(cityId);
+            stationIndex.removeCity(cityId);
+            return true;
         } catch (SerializationException e) {
             System.err.println("Error deleting city: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
         
         return false;
@@ -165,7 +228,7 @@ public class CityManagementService {
      */
     public List<City> getAllCities() {
         try {
-            return dataManager.loadList(FileConstants.CITIES_FILE, City::new);
+            return cityRepository.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading cities: " + e.getMessage());
             return new ArrayList<>();
@@ -177,12 +240,17 @@ public class CityManagementService {
      * 
      * @param cityId El ID de la ciudad a buscar
      * @return La ciudad encontrada, o null si no existe
+     * 
+     * Notas:
+     * - Búsqueda en el índice por ID del repositorio
      */
     public City findCityById(String cityId) {
-        return getAllCities().stream()
-            .filter(city -> cityId.equals(city.getId()))
-            .findFirst()
-            .orElse(null);
+        try {
+            return cityRepository.findById(cityId);
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return null;
+        }
     }
     
     // ========== GESTIÓN DE CONEXIONES ==========
@@ -197,6 +265,8 @@ public class CityManagementService {
      * - La conexión no puede ser null
      * - Las ciudades de origen y destino no pueden ser null
      * - No puede existir una conexión idéntica entre las mismas ciudades
+     * - Ambas ciudades deben seguir existiendo (una baja simultánea de la ciudad
+     *   espera a que termine el alta, o el alta a que termine la baja)
      * - Maneja automáticamente archivos corruptos eliminándolos y creando nuevos
      */
     public boolean createConnection(Connection connection) {
@@ -204,23 +274,26 @@ public class CityManagementService {
             return false;
         }
         
+        Lock[] locks = cityRepository.entityLocks(connection.getFromCity().getId(), connection.getToCity().getId());
+        StripedLocks.lockAll(locks);
         try {
+            if (!cityRepository.containsId(connection.getFromCity().getId())
+                    || !cityRepository.containsId(connection.getToCity().getId())) {
+                return false; // Alguna de las ciudades ya no existe
+            }
+            
             List<Connection> connections;
             
-            // Verificar si el archivo de conexiones existe, si no crear lista vacía
-            if (dataManager.fileExists(FileConstants.CONNECTIONS_FILE)) {
-                try {
-                    connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
-                    // System.out.println("Debug: Loaded " + connections.size() + " existing connections");
-                } catch (SerializationException e) {
-                    // El archivo existe pero está corrupto, eliminarlo y crear nuevo
-                    System.out.println("Debug: Connections file is corrupted, deleting and creating new");
-                    dataManager.deleteFile(FileConstants.CONNECTIONS_FILE);
-                    connections = new ArrayList<>();
-                }
-            } else {
+            // Obtener conexiones del repositorio (lista vacía si el archivo no existe)
+            try {
+                connections = connectionRepository.getAll();
+                // System.out.println("Debug: Loaded " + connections.size() + " existing connections");
+            } catch (SerializationException e) {
+                // El archivo existe pero está corrupto, eliminarlo y crear nuevo
+                System.out.println("Debug: Connections file is corrupted, deleting and creating new");
+                dataManager.deleteFile(FileConstants.CONNECTIONS_FILE);
+                connectionRepository.invalidate();
                 connections = new ArrayList<>();
-                // System.out.println("Debug: Connections file not found, creating new list");
             }
             
             // Verificar conexiones duplicadas usando IDs de ciudades
@@ -247,14 +320,13 @@ public class CityManagementService {
             }
             
             // System.out.println("Debug: Adding new connection to list");
-            connections.add(connection);
-            dataManager.saveList(connections, FileConstants.CONNECTIONS_FILE);
-            // System.out.println("Debug: Connection saved successfully");
-            return true;
+            return connectionRepository.add(connection);
             
         } catch (SerializationException e) {
             System.err.println("Error creating connection: " + e.getMessage());
             return false;
+        } finally {
+            StripedLocks.unlockAll(locks);
         }
     }
     
@@ -276,38 +348,22 @@ public class CityManagementService {
             return false;
         }
         
+        Lock[] locks = cityRepository.entityLocks(fromCityId, toCityId);
+        StripedLocks.lockAll(locks);
         try {
-            List<Connection> connections;
+            List<Connection> connections = connectionRepository.getAll();
             List<City> cities = getAllCities();
             
-            // Verificar si el archivo de conexiones existe, si no retornar false
-            if (dataManager.fileExists(FileConstants.CONNECTIONS_FILE)) {
-                connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
-                
-                // Resolver referencias de ciudades
-                Function<String, City> cityResolver = cityId -> 
-                    cities.stream().filter(c -> cityId.equals(c.getId())).findFirst().orElse(null);
-                
-                for (Connection conn : connections) {
-                    conn.resolveCityReferences(cityResolver);
-                }
-                
-                // Buscar y actualizar la conexión
-                for (int i = 0; i < connections.size(); i++) {
-                    Connection conn = connections.get(i);
-                    if (fromCityId.equals(conn.getFromCity() != null ? conn.getFromCity().getId() : conn.getFromCityId()) && 
-                        toCityId.equals(conn.getToCity() != null ? conn.getToCity().getId() : conn.getToCityId())) {
-                        connections.set(i, updatedConnection);
-                        dataManager.saveList(connections, FileConstants.CONNECTIONS_FILE);
-                        return true;
-                    }
-                }
-            } else {
-                // System.out.println("Debug: Connections file not found, nothing to update");
-            }
+            // Resolver referencias de ciudades
+            resolveCityReferences(connections, cities);
+            
+            // Buscar y actualizar la conexión por su clave origen->destino
+            return connectionRepository.update(DataStore.connectionKey(fromCityId, toCityId), updatedConnection);
             
         } catch (SerializationException e) {
             System.err.println("Error updating connection: " + e.getMessage());
+        } finally {
+            StripedLocks.unlockAll(locks);
         }
         
         return false;
@@ -330,40 +386,33 @@ public class CityManagementService {
             return false;
         }
         
+        Lock[] locks = cityRepository.entityLocks(fromCityId, toCityId);
+        StripedLocks.lockAll(locks);
         try {
-            List<Connection> connections;
+            List<Connection> connections = connectionRepository.getAll();
             List<City> cities = getAllCities();
             
-            // Verificar si el archivo de conexiones existe, si no retornar false
-            if (dataManager.fileExists(FileConstants.CONNECTIONS_FILE)) {
-                connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
-                
-                // Primero migrar conexiones para asegurar que tengan IDs de ciudades apropiados
-                migrateConnections(connections, cities);
-                
-                // System.out.println("Debug: Attempting to delete connection from " + fromCityId + " to " + toCityId);
-                // System.out.println("Debug: Found " + connections.size() + " connections to check");
-                
-                boolean removed = connections.removeIf(conn -> {
-                    String connFromId = conn.getFromCityId();
-                    String connToId = conn.getToCityId();
-                    boolean matches = fromCityId.equals(connFromId) && toCityId.equals(connToId);
-                    // System.out.println("Debug: Checking connection " + connFromId + " -> " + connToId + " matches: " + matches);
-                    return matches;
-                });
-                
-                // System.out.println("Debug: Connection removed: " + removed);
-                
-                if (removed) {
-                    dataManager.saveList(connections, FileConstants.CONNECTIONS_FILE);
-                    return true;
-                }
-            } else {
-                // System.out.println("Debug: Connections file not found, nothing to delete");
-            }
+            // Primero migrar conexiones para asegurar que tengan IDs de ciudades apropiados
+            migrateConnections(connections, cities);
+            
+            // System.out.println("Debug: Attempting to delete connection from " + fromCityId + " to " + toCityId);
+            // System.out.println("Debug: Found " + connections.size() + " connections to check");
+            
+            boolean removed = connectionRepository.removeIf(conn -> {
+                String connFromId = conn.getFromCityId();
+                String connToId = conn.getToCityId();
+                boolean matches = fromCityId.equals(connFromId) && toCityId.equals(connToId);
+                // System.out.println("Debug: Checking connection " + connFromId + " -> " + connToId + " matches: " + matches);
+                return matches;
+            });
+            
+            // System.out.println("Debug: Connection removed: " + removed);
+            return removed;
             
         } catch (SerializationException e) {
             System.err.println("Error deleting connection: " + e.getMessage());
+        } finally {
+            StripedLocks.unlockAll(locks);
         }
         
         return false;
@@ -380,37 +429,31 @@ public class CityManagementService {
      */
     public List<Connection> getAllConnections() {
         try {
-            List<Connection> connections;
+            // Lista vacía si el archivo de conexiones no existe
+            List<Connection> connections = connectionRepository.getAll();
             List<City> cities = getAllCities();
+            // System.out.println("Debug: Loaded " + connections.size() + " connections and " + cities.size() + " cities");
             
-            // Verificar si el archivo de conexiones existe, si no retornar lista vacía
-            if (dataManager.fileExists(FileConstants.CONNECTIONS_FILE)) {
-                connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
-                // System.out.println("Debug: Loaded " + connections.size() + " connections and " + cities.size() + " cities");
-                
-                // Verificar conexiones corruptas y registrarlas
-                long corruptedCount = connections.stream()
-                    .filter(conn -> conn.getFromCityId() == null || conn.getToCityId() == null)
-                    .count();
-                
-                if (corruptedCount > 0) {
-                    System.out.println("Debug: Found " + corruptedCount + " connections with null city IDs");
-                    System.out.println("Debug: Use 'Fix Corrupted Connections' option to resolve this issue");
-                }
-                
-                // Migrar conexiones para asegurar que tengan IDs de ciudades apropiados
-                migrateConnections(connections, cities);
-            } else {
-                connections = new ArrayList<>();
-                // System.out.println("Debug: Connections file not found, returning empty list");
+            // Verificar conexiones corruptas y registrarlas
+            long corruptedCount = connections.stream()
+                .filter(conn -> conn.getFromCityId() == null || conn.getToCityId() == null)
+                .count();
+            
+            if (corruptedCount > 0) {
+                System.out.println("Debug: Found " + corruptedCount + " connections with null city IDs");
+                System.out.println("Debug: Use 'Fix Corrupted Connections' option to resolve this issue");
             }
             
+            // Migrar conexiones para asegurar que tengan IDs de ciudades apropiados
+            migrateConnections(connections, cities);
+            
             return connections;
             
         } catch (SerializationException e) {
             // El archivo existe pero está corrupto, eliminarlo y retornar lista vacía
             System.out.println("Debug: Connections file is corrupted, deleting and returning empty list");
             dataManager.deleteFile(FileConstants.CONNECTIONS_FILE);
+            connectionRepository.invalidate();
             System.err.println("Error loading connections: " + e.getMessage());
             return new ArrayList<>();
         }
@@ -424,37 +467,15 @@ public class CityManagementService {
      * 
      * Notas:
      * - Resuelve referencias de ciudades que están null
+     * - Las conexiones son las instancias residentes del repositorio
      * - Guarda automáticamente si se realizan cambios
      */
     private void migrateConnections(List<Connection> connections, List<City> cities) {
-        Function<String, City> cityResolver = cityId -> 
-            cities.stream().filter(c -> cityId.equals(c.getId())).findFirst().orElse(null);
-        
-        boolean needsSave = false;
-        for (Connection conn : connections) {
-            // Si los IDs de ciudades existen pero las referencias de ciudades son null, resolverlas
-            if (conn.getFromCityId() != null && conn.getFromCity() == null) {
-                City fromCity = cityResolver.apply(conn.getFromCityId());
-                if (fromCity != null) {
-                    conn.setFromCity(fromCity);
-                    needsSave = true;
-                }
-            }
-            if (conn.getToCityId() != null && conn.getToCity() == null) {
-                City toCity = cityResolver.apply(conn.getToCityId());
-                if (toCity != null) {
-                    conn.setToCity(toCity);
-                    needsSave = true;
-                }
-            }
-            
-            // También resolver cualquier referencia null restante
-            conn.resolveCityReferences(cityResolver);
-        }
+        boolean needsSave = resolveCityReferences(connections, cities);
         
         if (needsSave) {
             try {
-                dataManager.saveList(connections, FileConstants.CONNECTIONS_FILE);
+                connectionRepository.save();
                 // System.out.println("Debug: Migrated and saved connections with proper city IDs");
             } catch (SerializationException e) {
                 System.err.println("Error saving migrated connections: " + e.getMessage());
@@ -462,6 +483,39 @@ public class CityManagementService {
         }
     }
     
+    /**
+     * Resuelve las referencias de ciudades de todas las conexiones
+     * 
+     * @param connections Conexiones a resolver (instancias residentes)
+     * @param cities Ciudades disponibles
+     * @return true si alguna referencia que estaba null quedó resuelta
+     * 
+     * Proceso:
+     * - Indexa las ciudades por ID una sola vez (ConnectionResolver)
+     * - Resuelve origen y destino de todas las conexiones en una pasada
+     * - Aplica las referencias y detecta las que se resolvieron por primera vez
+     * - Informa en un solo mensaje las conexiones a ciudades inexistentes
+     */
+    private boolean resolveCityReferences(List<Connection> connections, List<City> cities) {
+        ConnectionResolver.Resolution resolution = new ConnectionResolver(cities).resolve(connections);
+        
+        boolean resolvedNew = false;
+        for (int i = 0; i < connections.size(); i++) {
+            Connection conn = connections.get(i);
+            City fromCity = resolution.getFromCity(i);
+            City toCity = resolution.getToCity(i);
+            if ((fromCity != null && conn.getFromCity() == null) || (toCity != null && conn.getToCity() == null)) {
+                resolvedNew = true;
+            }
+            conn.resolveCityReferences(fromCity, toCity);
+        }
+        
+        if (resolution.hasDangling()) {
+            System.err.println("Warning: " + resolution.describeDangling(DANGLING_REPORT_LIMIT));
+        }
+        return resolvedNew;
+    }
+    
     /**
      * Obtiene las conexiones que salen de una ciudad específica
      * 
@@ -507,9 +561,6 @@ public class CityManagementService {
             
             // System.out.println("Debug: Recreating default connections...");
             
-            // Eliminar archivo de conexiones existente
-            dataManager.deleteFile(FileConstants.CONNECTIONS_FILE);
-            
             // Recrear conexiones por defecto
             City sanJose = cities.get(0);
             City cartago = cities.get(1);
@@ -531,7 +582,8 @@ public class CityManagementService {
                 new Connection(liberia, alajuela, 215, 180, 6500)
             );
             
-            dataManager.saveList(defaultConnections, FileConstants.CONNECTIONS_FILE);
+            // Reemplazar todas las conexiones existentes
+            connectionRepository.replaceAll(defaultConnections);
             // System.out.println("Debug: Recreated " + defaultConnections.size() + " connections");
             return true;
             
@@ -16,14 +16,23 @@ package Admin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
-import Binary.FileConstants;
-import Interfaces.DataManager;
 import Interfaces.SerializationException;
+import Models.ChargingStation;
 import Models.City;
+import Models.FuelStation;
 import Models.Station;
+import Repository.DataStore;
+import Repository.EntityRepository;
+import Repository.StationEnergyIndex;
+import Repository.UserRepository;
 import Vehicle.ChargerType;
+import Vehicle.ElectricVehicle;
+import Vehicle.EnergyTypeOrdinals;
 import Vehicle.FuelType;
+import Vehicle.FuelVehicle;
 
 /**
  * Servicio de gestión de estaciones y tipos de energía
@@ -34,18 +43,34 @@ import Vehicle.FuelType;
  * - Estaciones asociadas a ciudades específicas
  * 
  * Todas las operaciones incluyen validación de datos y manejo de errores.
+ * Un tipo de energía que todavía usa alguna estación o vehículo no se puede
+ * eliminar: los archivos guardan solo el ID del tipo (ver CatalogRegistry),
+ * así que al recargarlos la referencia quedaría sin nombre ni datos.
+ * Agregar o quitar estaciones modifica la ciudad en el lugar, así que se
+ * hace bajo el candado de entidad de esa ciudad: dos administradores pueden
+ * editar ciudades distintas a la vez sin perder estaciones de la misma.
  */
 public class StationManagementService {
     
-    private final DataManager dataManager;
+    private final EntityRepository<FuelType> fuelTypes;
+    private final EntityRepository<ChargerType> chargerTypes;
+    private final EntityRepository<City> cities;
+    private final UserRepository users;
+    private final StationEnergyIndex stationIndex;
+    private final ReadWriteLock catalogUsageLock;
     
     /**
      * Constructor del servicio de gestión de estaciones
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      */
-    public StationManagementService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public StationManagementService(DataStore dataStore) {
+        this.fuelTypes = dataStore.getFuelTypes();
+        this.chargerTypes = dataStore.getChargerTypes();
+        this.cities = dataStore.getCities();
+        this.users = dataStore.getUsers();
+        this.stationIndex = dataStore.getStationEnergyIndex();
+        this.catalogUsageLock = dataStore.getCatalogUsageLock();
     }
     
     // ========== GESTIÓN DE TIPOS DE COMBUSTIBLE ==========
@@ -67,19 +92,8 @@ public class StationManagementService {
         }
         
         try {
-            List<FuelType> fuelTypes = dataManager.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
-            
-            // Verificar IDs duplicados
-            boolean idExists = fuelTypes.stream()
-                .anyMatch(ft -> fuelType.getId().equals(ft.getId()));
-            
-            if (idExists) {
-                return false;
-            }
-            
-            fuelTypes.add(fuelType);
-            dataManager.saveList(fuelTypes, FileConstants.FUEL_TYPES_FILE);
-            return true;
+            // Verificar IDs duplicados (el repositorio rechaza IDs existentes)
+            return fuelTypes.add(fuelType);
             
         } catch (SerializationException e) {
             System.err.println("Error creating fuel type: " + e.getMessage());
@@ -105,16 +119,7 @@ public class StationManagementService {
         }
         
         try {
-            List<FuelType> fuelTypes = dataManager.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
-            
-            for (int i = 0; i < fuelTypes.size(); i++) {
-                if (fuelTypeId.equals(fuelTypes.get(i).getId())) {
-                    fuelTypes.set(i, updatedFuelType);
-                    dataManager.saveList(fuelTypes, FileConstants.FUEL_TYPES_FILE);
-                    return true;
-                }
-            }
-            
+            return fuelTypes.update(fuelTypeId, updatedFuelType);
         } catch (SerializationException e) {
             System.err.println("Error updating fuel type: " + e.getMessage());
         }
@@ -132,23 +137,29 @@ public class StationManagementService {
      * - Busca y elimina el tipo de combustible por ID
      * - Actualiza la persistencia de datos
      * - Maneja errores de serialización
+     * 
+     * Restricciones:
+     * - No se elimina si alguna estación o vehículo todavía usa el tipo
+     * - La verificación y la baja ocurren bajo el candado de escritura de uso
+     *   de catálogos (ver DataStore.getCatalogUsageLock), así que ninguna
+     *   estación ni vehículo nuevo puede empezar a usar el tipo entre ambas
      */
     public boolean deleteFuelType(String fuelTypeId) {
         if (fuelTypeId == null) {
             return false;
         }
         
+        catalogUsageLock.writeLock().lock();
         try {
-            List<FuelType> fuelTypes = dataManager.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
-            boolean removed = fuelTypes.removeIf(ft -> fuelTypeId.equals(ft.getId()));
-            
-            if (removed) {
-                dataManager.saveList(fuelTypes, FileConstants.FUEL_TYPES_FILE);
-                return true;
+            if (isFuelTypeInUse(fuelTypeId)) {
+                System.err.println("Cannot delete fuel type " + fuelTypeId + ": it is still used by stations or vehicles");
+                return false;
             }
-            
+            return fuelTypes.remove(fuelTypeId);
         } catch (SerializationException e) {
             System.err.println("Error deleting fuel type: " + e.getMessage());
+        } finally {
+            catalogUsageLock.writeLock().unlock();
         }
         
         return false;
@@ -173,19 +184,8 @@ public class StationManagementService {
         }
         
         try {
-            List<ChargerType> chargerTypes = dataManager.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
-            
-            // Verificar IDs duplicados
-            boolean idExists = chargerTypes.stream()
-                .anyMatch(ct -> chargerType.getId().equals(ct.getId()));
-            
-            if (idExists) {
-                return false;
-            }
-            
-            chargerTypes.add(chargerType);
-            dataManager.saveList(chargerTypes, FileConstants.CHARGER_TYPES_FILE);
-            return true;
+            // Verificar IDs duplicados (el repositorio rechaza IDs existentes)
+            return chargerTypes.add(chargerType);
             
         } catch (SerializationException e) {
             System.err.println("Error creating charger type: " + e.getMessage());
@@ -211,16 +211,7 @@ public class StationManagementService {
         }
         
         try {
-            List<ChargerType> chargerTypes = dataManager.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
-            
-            for (int i = 0; i < chargerTypes.size(); i++) {
-                if (chargerTypeId.equals(chargerTypes.get(i).getId())) {
-                    chargerTypes.set(i, updatedChargerType);
-                    dataManager.saveList(chargerTypes, FileConstants.CHARGER_TYPES_FILE);
-                    return true;
-                }
-            }
-            
+            return chargerTypes.update(chargerTypeId, updatedChargerType);
         } catch (SerializationException e) {
             System.err.println("Error updating charger type: " + e.getMessage());
         }
@@ -238,23 +229,27 @@ public class StationManagementService {
      * - Busca y elimina el tipo de cargador por ID
      * - Actualiza la persistencia de datos
      * - Maneja errores de serialización
+     * 
+     * Restricciones:
+     * - No se elimina si alguna estación o vehículo todavía usa el tipo
+     * - Igual que deleteFuelType, la verificación y la baja son atómicas
      */
     public boolean deleteChargerType(String chargerTypeId) {
         if (chargerTypeId == null) {
             return false;
         }
         
+        catalogUsageLock.writeLock().lock();
         try {
-            List<ChargerType> chargerTypes = dataManager.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
-            boolean removed = chargerTypes.removeIf(ct -> chargerTypeId.equals(ct.getId()));
-            
-            if (removed) {
-                dataManager.saveList(chargerTypes, FileConstants.CHARGER_TYPES_FILE);
-                return true;
+            if (isChargerTypeInUse(chargerTypeId)) {
+                System.err.println("Cannot delete charger type " + chargerTypeId + ": it is still used by stations or vehicles");
+                return false;
             }
-            
+            return chargerTypes.remove(chargerTypeId);
         } catch (SerializationException e) {
             System.err.println("Error deleting charger type: " + e.getMessage());
+        } finally {
+            catalogUsageLock.writeLock().unlock();
         }
         
         return false;
@@ -270,28 +265,45 @@ public class StationManagementService {
      * @return true si se agregó exitosamente, false en caso contrario
      * 
      * Notas:
-     * - Busca la ciudad por ID
+     * - Busca la ciudad por ID en el índice del repositorio
      * - Agrega la estación a la lista de estaciones de la ciudad
      * - Actualiza la persistencia de datos
+     * - Indexa la estación por cada tipo de energía que ofrece
+     * - La modificación y el guardado ocurren con cities.modify, bajo el
+     *   candado de escritura del repositorio; si el guardado falla, la ciudad
+     *   recupera su lista de estaciones anterior
+     * - El candado de la ciudad mantiene el índice por energía en el mismo
+     *   orden que las ediciones
+     * - Toma el candado de lectura de uso de catálogos: no coincide con la
+     *   baja de un tipo que la estación ofrece
      */
     public boolean addStationToCity(String cityId, Station station) {
         if (cityId == null || station == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
+        Lock lock = cities.entityLock(cityId);
+        lock.lock();
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            
-            for (City city : cities) {
-                if (cityId.equals(city.getId())) {
-                    city.addStation(station);
-                    dataManager.saveList(cities, FileConstants.CITIES_FILE);
-                    return true;
-                }
+            boolean added = cities.modify(cityId, city -> {
+                List<Station> previous = city.getStations();
+                City previousCity = station.getCity();
+                city.addStation(station);
+                return () -> {
+                    city.setStations(previous);
+                    station.setCity(previousCity);
+                };
+            });
+            if (added) {
+                stationIndex.addStation(cityId, station);
+                return true;
             }
-            
         } catch (SerializationException e) {
             System.err.println("Error adding station to city: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            catalogUsageLock.readLock().unlock();
         }
         
         return false;
@@ -305,30 +317,48 @@ public class StationManagementService {
      * @return true si se eliminó exitosamente, false en caso contrario
      * 
      * Notas:
-     * - Busca la ciudad por ID
+     * - Busca la ciudad por ID en el índice del repositorio
      * - Elimina la estación de la lista de estaciones de la ciudad
      * - Actualiza la persistencia de datos
+     * - Quita la estación del índice por tipo de energía
+     * - La modificación y el guardado ocurren con cities.modify, bajo el
+     *   candado de escritura del repositorio; si el guardado falla, la ciudad
+     *   recupera su lista de estaciones anterior
+     * - El candado de la ciudad mantiene el índice por energía en el mismo
+     *   orden que las ediciones
      */
     public boolean removeStationFromCity(String cityId, String stationId) {
         if (cityId == null || stationId == null) {
             return false;
         }
         
+        Lock lock = cities.entityLock(cityId);
+        lock.lock();
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            
-            for (City city : cities) {
-                if (cityId.equals(city.getId())) {
-                    boolean removed = city.getStations().removeIf(station -> stationId.equals(station.getId()));
-                    if (removed) {
-                        dataManager.saveList(cities, FileConstants.CITIES_FILE);
-                        return true;
-                    }
+            Station[] removed = new Station[1];
+            boolean found = cities.modify(cityId, city -> {
+                List<Station> previous = city.getStations();
+                Station target = previous.stream()
+                    .filter(station -> stationId.equals(station.getId()))
+                    .findFirst()
+                    .orElse(null);
+                if (target == null || !city.removeStation(target)) {
+                    return null;
                 }
+                removed[0] = target;
+                return () -> {
+                    city.setStations(previous);
+                    target.setCity(city);
+                };
+            });
+            if (found) {
+                stationIndex.removeStation(cityId, removed[0]);
+                return true;
             }
-            
         } catch (SerializationException e) {
             System.err.println("Error removing station from city: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
         
         return false;
@@ -345,7 +375,7 @@ public class StationManagementService {
      */
     public List<FuelType> getAllFuelTypes() {
         try {
-            return dataManager.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
+            return fuelTypes.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading fuel types: " + e.getMessage());
             return new ArrayList<>();
@@ -363,10 +393,68 @@ public class StationManagementService {
      */
     public List<ChargerType> getAllChargerTypes() {
         try {
-            return dataManager.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
+            return chargerTypes.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading charger types: " + e.getMessage());
             return new ArrayList<>();
         }
     }
+    
+    // ========== REFERENCIAS A TIPOS DE ENERGÍA ==========
+    
+    /**
+     * Verifica si alguna estación o vehículo usa un tipo de combustible
+     * 
+     * @param fuelTypeId ID del tipo de combustible
+     * @return true si está referenciado
+     * @throws SerializationException Si no se pudieron cargar ciudades o usuarios
+     * 
+     * Notas:
+     * - Solo se revisan las estaciones de las ciudades que el índice de
+     *   energía reporta como candidatas
+     * - Los vehículos se recorren sin copiar los usuarios
+     */
+    private boolean isFuelTypeInUse(String fuelTypeId) throws SerializationException {
+        long mask = EnergyTypeOrdinals.bit(EnergyTypeOrdinals.ofFuel(fuelTypeId));
+        for (String cityId : stationIndex.findCitiesOffering(mask)) {
+            City city = cities.findById(cityId);
+            if (city != null && city.getStations().stream().anyMatch(station ->
+                    station instanceof FuelStation fuelStation
+                    && fuelStation.getAvailableFuels().stream().anyMatch(fuel -> fuelTypeId.equals(fuel.getId())))) {
+                return true;
+            }
+        }
+        return users.stream()
+            .flatMap(user -> user.getVehicles().stream())
+            .anyMatch(vehicle -> vehicle instanceof FuelVehicle fuelVehicle
+                && fuelVehicle.getFuelType() != null
+                && fuelTypeId.equals(fuelVehicle.getFuelType().getId()));
+    }
+    
+    /**
+     * Verifica si alguna estación o vehículo usa un tipo de cargador
+     * 
+     * @param chargerTypeId ID del tipo de cargador
+     * @return true si está referenciado
+     * @throws SerializationException Si no se pudieron cargar ciudades o usuarios
+     * 
+     * Notas:
+     * - Mismo recorrido que isFuelTypeInUse, con estaciones de carga y
+     *   vehículos eléctricos
+     */
+    private boolean isChargerTypeInUse(String chargerTypeId) throws SerializationException {
+        long mask = EnergyTypeOrdinals.bit(EnergyTypeOrdinals.ofCharger(chargerTypeId));
+        for (String cityId : stationIndex.findCitiesOffering(mask)) {
+            City city = cities.findById(cityId);
+            if (city != null && city.getStations().stream().anyMatch(station ->
+                    station instanceof ChargingStation chargingStation
+                    && chargingStation.getAvailableChargers().stream().anyMatch(charger -> chargerTypeId.equals(charger.getId())))) {
+                return true;
+            }
+        }
+        return users.stream()
+            .flatMap(user -> user.getVehicles().stream())
+            .anyMatch(vehicle -> vehicle instanceof ElectricVehicle electricVehicle
+                && electricVehicle.getSupportedChargers().stream().anyMatch(charger -> chargerTypeId.equals(charger.getId())));
+    }
 }
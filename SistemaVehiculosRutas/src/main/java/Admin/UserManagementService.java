@@ -17,10 +17,12 @@ package Admin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
-import Binary.FileConstants;
-import Interfaces.DataManager;
 import Interfaces.SerializationException;
+import Repository.DataStore;
+import Repository.UserRepository;
 import User.User;
 import User.UserRole;
 
@@ -35,18 +37,23 @@ import User.UserRole;
  * - Estadísticas de usuarios del sistema
  * 
  * Todas las operaciones incluyen validación de datos y manejo de errores.
+ * Las modificaciones de un usuario se hacen bajo su candado de entidad
+ * (UserRepository.entityLock), de modo que las ediciones de usuarios
+ * distintos no se esperan entre sí y las de un mismo usuario no se pisan.
  */
 public class UserManagementService {
     
-    private final DataManager dataManager;
+    private final UserRepository users;
+    private final ReadWriteLock catalogUsageLock;
     
     /**
      * Constructor del servicio de gestión de usuarios
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      */
-    public UserManagementService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public UserManagementService(DataStore dataStore) {
+        this.users = dataStore.getUsers();
+        this.catalogUsageLock = dataStore.getCatalogUsageLock();
     }
     
     /**
@@ -60,7 +67,7 @@ public class UserManagementService {
      */
     public List<User> getAllUsers() {
         try {
-            return dataManager.loadList(FileConstants.USERS_FILE, User::new);
+            return users.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading users: " + e.getMessage());
             return new ArrayList<>();
@@ -77,30 +84,32 @@ public class UserManagementService {
      * - El usuario no puede ser null
      * - No se permiten nombres de usuario duplicados
      * - Se valida la integridad de los datos antes de guardar
+     * 
+     * Notas:
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de un tipo de
+     *   energía que alguno de sus vehículos use
      */
     public boolean createUser(User user) {
         if (user == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
         try {
-            List<User> users = getAllUsers();
-            
-            // Verificar nombres de usuario duplicados
-            boolean usernameExists = users.stream()
-                .anyMatch(u -> user.getUsername().equals(u.getUsername()));
-            
-            if (usernameExists) {
+            // Verificar nombres de usuario duplicados (el repositorio también
+            // rechaza de forma atómica un nombre ya registrado)
+            if (users.usernameExists(user.getUsername())) {
                 return false;
             }
             
-            users.add(user);
-            dataManager.saveList(users, FileConstants.USERS_FILE);
-            return true;
+            return users.add(user);
             
         } catch (SerializationException e) {
             System.err.println("Error creating user: " + e.getMessage());
             return false;
+        } finally {
+            catalogUsageLock.readLock().unlock();
         }
     }
     
@@ -115,25 +124,25 @@ public class UserManagementService {
      * - Busca el usuario por ID
      * - Reemplaza completamente la información existente
      * - Mantiene la integridad de los datos
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de un tipo de
+     *   energía que alguno de sus vehículos use
      */
     public boolean updateUser(String userId, User updatedUser) {
         if (userId == null || updatedUser == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
+        Lock lock = users.entityLock(userId);
+        lock.lock();
         try {
-            List<User> users = getAllUsers();
-            
-            for (int i = 0; i < users.size(); i++) {
-                if (userId.equals(users.get(i).getId())) {
-                    users.set(i, updatedUser);
-                    dataManager.saveList(users, FileConstants.USERS_FILE);
-                    return true;
-                }
-            }
-            
+            return users.update(userId, updatedUser);
         } catch (SerializationException e) {
             System.err.println("Error updating user: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            catalogUsageLock.readLock().unlock();
         }
         
         return false;
@@ -155,17 +164,14 @@ public class UserManagementService {
             return false;
         }
         
+        Lock lock = users.entityLock(userId);
+        lock.lock();
         try {
-            List<User> users = getAllUsers();
-            boolean removed = users.removeIf(user -> userId.equals(user.getId()));
-            
-            if (removed) {
-                dataManager.saveList(users, FileConstants.USERS_FILE);
-                return true;
-            }
-            
+            return users.remove(userId);
         } catch (SerializationException e) {
             System.err.println("Error deleting user: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
         
         return false;
@@ -182,25 +188,25 @@ public class UserManagementService {
      * - Busca el usuario por ID
      * - Actualiza solo el rol del usuario
      * - Mantiene el resto de la información del usuario intacta
+     * - La lectura y el guardado ocurren bajo el candado del usuario
      */
     public boolean changeUserRole(String userId, UserRole newRole) {
         if (userId == null || newRole == null) {
             return false;
         }
         
+        Lock lock = users.entityLock(userId);
+        lock.lock();
         try {
-            List<User> users = getAllUsers();
-            
-            for (User user : users) {
-                if (userId.equals(user.getId())) {
-                    user.setRole(newRole);
-                    dataManager.saveList(users, FileConstants.USERS_FILE);
-                    return true;
-                }
+            User user = users.findById(userId);
+            if (user != null) {
+                user.setRole(newRole);
+                return users.update(userId, user);
             }
-            
         } catch (SerializationException e) {
             System.err.println("Error changing user role: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
         
         return false;
@@ -213,14 +219,16 @@ public class UserManagementService {
      * @return El usuario encontrado, o null si no existe
      * 
      * Notas:
-     * - Utiliza búsqueda por stream para eficiencia
-     * - Retorna null si no se encuentra el usuario
+     * - Búsqueda en el índice por ID del repositorio
+     * - Retorna null si no se encuentra el usuario o hay errores de carga
      */
     public User findUserById(String userId) {
-        return getAllUsers().stream()
-            .filter(user -> userId.equals(user.getId()))
-            .findFirst()
-            .orElse(null);
+        try {
+            return users.findById(userId);
+        } catch (SerializationException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -230,15 +238,18 @@ public class UserManagementService {
      * @return El usuario encontrado, o null si no existe
      * 
      * Notas:
-     * - Utiliza búsqueda por stream para eficiencia
+     * - Búsqueda en el índice por nombre del repositorio
+     * - No distingue mayúsculas ni espacios extremos
      * - Retorna null si no se encuentra el usuario
      * - Los nombres de usuario son únicos en el sistema
      */
     public User findUserByUsername(String username) {
-        return getAllUsers().stream()
-            .filter(user -> username.equals(user.getUsername()))
-            .findFirst()
-            .orElse(null);
+        try {
+            return users.findByUsername(username);
+        } catch (SerializationException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -248,13 +259,18 @@ public class UserManagementService {
      * @return Lista de usuarios que tienen el rol especificado
      * 
      * Notas:
-     * - Utiliza filtrado por stream para eficiencia
-     * - Retorna una lista vacía si no hay usuarios con ese rol
+     * - Filtra directamente sobre los usuarios residentes, sin copiar la lista completa
+     * - Retorna una lista vacía si no hay usuarios con ese rol o hay errores de carga
      */
     public List<User> getUsersByRole(UserRole role) {
-        return getAllUsers().stream()
-            .filter(user -> role.equals(user.getRole()))
-            .toList();
+        try {
+            return users.stream()
+                .filter(user -> role.equals(user.getRole()))
+                .toList();
+        } catch (SerializationException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
     
     /**
@@ -266,13 +282,23 @@ public class UserManagementService {
      * - Total de usuarios en el sistema
      * - Número de administradores
      * - Número de usuarios regulares
+     * 
+     * Notas:
+     * - Cuenta sobre los usuarios residentes sin copiar la lista completa
      */
     public String getUserStatistics() {
-        List<User> users = getAllUsers();
-        long adminCount = users.stream().filter(u -> u.getRole() == UserRole.ADMIN).count();
-        long userCount = users.stream().filter(u -> u.getRole() == UserRole.USER).count();
+        int total = 0;
+        long adminCount = 0;
+        long userCount = 0;
+        try {
+            total = users.size();
+            adminCount = users.stream().filter(u -> u.getRole() == UserRole.ADMIN).count();
+            userCount = users.stream().filter(u -> u.getRole() == UserRole.USER).count();
+        } catch (SerializationException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+        }
         
         return String.format("Total Users: %d%nAdmins: %d%nRegular Users: %d", 
-                           users.size(), adminCount, userCount);
+                           total, adminCount, userCount);
     }
 }
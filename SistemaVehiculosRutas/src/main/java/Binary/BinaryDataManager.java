@@ -16,22 +16,39 @@
  */
 package Binary;
 
-import java.io.DataInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import Interfaces.DataManager;
 import Interfaces.Serializable;
 import Interfaces.SerializableFactory;
 import Interfaces.SerializationException;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Metrics.PersistenceEvent;
 
 /**
  * Gestor de datos binarios para persistencia de objetos
@@ -47,11 +64,30 @@ import Interfaces.SerializationException;
  * - Operaciones de respaldo y restauración de archivos
  * - Validaciones de archivos y manejo de errores
  * - Información detallada del directorio de datos
+ * - Métricas de latencia, bytes y registros leídos y escritos (ver MetricsRegistry)
+ * - Un PersistenceEvent de JFR por cada lectura o escritura de archivo
+ * - Archivos de anexos: registros que se agregan al final sin reescribir el archivo
+ * - Lectura incremental de listas (ver stream) para recorridos en memoria constante
  */
-public class BinaryDataManager implements DataManager {
+public final class BinaryDataManager implements DataManager {
     private final String dataDirectory;
+    private final CatalogRegistry catalogRegistry;
     private static final String DATA_DIR_DEFAULT = "data";
     
+    // Tamaño inicial del buffer donde se codifica un registro anexado
+    private static final int APPEND_BUFFER_BYTES = 256;
+    // Tamaño del búfer de lectura de stream(); solo este bloque del archivo está en memoria
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+    
+    // Métricas de persistencia compartidas por todos los directorios de datos
+    private static final LatencyHistogram SAVE_LIST_LATENCY = MetricsRegistry.getDefault().histogram("persistence.saveList");
+    private static final LatencyHistogram LOAD_LIST_LATENCY = MetricsRegistry.getDefault().histogram("persistence.loadList");
+    private static final LatencyHistogram APPEND_LATENCY = MetricsRegistry.getDefault().histogram("persistence.append");
+    private static final LongAdder BYTES_WRITTEN = MetricsRegistry.getDefault().counter("persistence.bytesWritten");
+    private static final LongAdder BYTES_READ = MetricsRegistry.getDefault().counter("persistence.bytesRead");
+    private static final LongAdder RECORDS_WRITTEN = MetricsRegistry.getDefault().counter("persistence.recordsWritten");
+    private static final LongAdder RECORDS_READ = MetricsRegistry.getDefault().counter("persistence.recordsRead");
+    
     /**
      * Constructor por defecto del gestor de datos binarios
      * 
@@ -70,6 +106,7 @@ public class BinaryDataManager implements DataManager {
      * Proceso:
      * - Asigna el directorio de datos especificado
      * - Crea el directorio si no existe
+     * - Obtiene el registro de catálogos compartido del directorio
      * 
      * Notas:
      * - Lanza RuntimeException si no puede crear el directorio
@@ -78,6 +115,15 @@ public class BinaryDataManager implements DataManager {
     public BinaryDataManager(String dataDirectory) {
         this.dataDirectory = dataDirectory;
         createDataDirectoryIfNotExists();
+        this.catalogRegistry = CatalogRegistry.forDirectory(Paths.get(dataDirectory), this);
+    }
+    
+    /**
+     * Obtiene el registro canónico de tipos de cargador y combustible
+     * @return Registro de catálogos compartido por este directorio de datos
+     */
+    public CatalogRegistry getCatalogRegistry() {
+        return catalogRegistry;
     }
     
     /**
@@ -125,7 +171,7 @@ public class BinaryDataManager implements DataManager {
      * 
      * Proceso:
      * - Valida que el objeto no sea null
-     * - Crea streams de salida para el archivo
+     * - Crea streams de salida para el archivo (escribe el encabezado del formato)
      * - Serializa el objeto usando su método serialize()
      * - Cierra los streams automáticamente
      * 
@@ -140,10 +186,12 @@ public class BinaryDataManager implements DataManager {
             throw new SerializationException("No se puede guardar un objeto null");
         }
         
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         String filePath = getFilePath(filename);
         
         try (FileOutputStream fos = new FileOutputStream(filePath);
-             DataOutputStream dos = new DataOutputStream(fos)) {
+             RecordOutputStream dos = new RecordOutputStream(new BufferedOutputStream(fos))) {
             
             object.serialize(dos);
             dos.flush();
@@ -151,6 +199,12 @@ public class BinaryDataManager implements DataManager {
         } catch (IOException e) {
             throw new SerializationException("Error al guardar objeto en archivo: " + filename, e);
         }
+        
+        long bytes = new File(filePath).length();
+        BYTES_WRITTEN.add(bytes);
+        RECORDS_WRITTEN.increment();
+        commitEvent(event, "save", filename, bytes, 1);
+        catalogRegistry.adopt(object);
     }
     
     /**
@@ -167,6 +221,7 @@ public class BinaryDataManager implements DataManager {
      * - Valida que ningún objeto en la lista sea null
      * 
      * Formato del archivo:
+     * - Encabezado: número mágico y versión (ver RecordFormat)
      * - Entero: número de objetos en la lista
      * - Objeto 1 serializado
      * - Objeto 2 serializado
@@ -183,10 +238,13 @@ public class BinaryDataManager implements DataManager {
             throw new SerializationException("No se puede guardar una lista null");
         }
         
+        long start = System.nanoTime();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         String filePath = getFilePath(filename);
         
         try (FileOutputStream fos = new FileOutputStream(filePath);
-             DataOutputStream dos = new DataOutputStream(fos)) {
+             RecordOutputStream dos = new RecordOutputStream(new BufferedOutputStream(fos))) {
             
             // Escribe el número de objetos primero
             dos.writeInt(objects.size());
@@ -204,6 +262,17 @@ public class BinaryDataManager implements DataManager {
         } catch (IOException e) {
             throw new SerializationException("Error al guardar lista en archivo: " + filename, e);
         }
+        
+        long bytes = new File(filePath).length();
+        BYTES_WRITTEN.add(bytes);
+        RECORDS_WRITTEN.add(objects.size());
+        SAVE_LIST_LATENCY.recordSince(start);
+        commitEvent(event, "saveList", filename, bytes, objects.size());
+        
+        // Los tipos de catálogo guardados pasan a ser (o actualizan) las instancias canónicas
+        for (Serializable object : objects) {
+            catalogRegistry.adopt(object);
+        }
     }
     
     /**
@@ -217,7 +286,7 @@ public class BinaryDataManager implements DataManager {
      * Proceso:
      * - Valida que la factory no sea null
      * - Verifica que el archivo existe
-     * - Crea streams de entrada para el archivo
+     * - Crea streams de entrada para el archivo (detecta la versión del formato)
      * - Crea una nueva instancia usando la factory
      * - Deserializa el objeto usando su método deserialize()
      * 
@@ -238,12 +307,18 @@ public class BinaryDataManager implements DataManager {
             throw new SerializationException("El archivo no existe: " + filename);
         }
         
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         try (FileInputStream fis = new FileInputStream(filePath);
-             DataInputStream dis = new DataInputStream(fis)) {
+             RecordInputStream dis = new RecordInputStream(new BufferedInputStream(fis), catalogRegistry)) {
             
             T object = factory.create();
             object.deserialize(dis);
-            return object;
+            long bytes = new File(filePath).length();
+            BYTES_READ.add(bytes);
+            RECORDS_READ.increment();
+            commitEvent(event, "load", filename, bytes, 1);
+            return catalogRegistry.adopt(object);
             
         } catch (IOException e) {
             throw new SerializationException("Error al cargar objeto desde archivo: " + filename, e);
@@ -265,6 +340,7 @@ public class BinaryDataManager implements DataManager {
      * - Crea y deserializa cada objeto individualmente
      * 
      * Formato esperado del archivo:
+     * - Encabezado opcional: número mágico y versión (ausente en archivos antiguos)
      * - Entero: número de objetos en la lista
      * - Objeto 1 deserializado
      * - Objeto 2 deserializado
@@ -287,8 +363,11 @@ public class BinaryDataManager implements DataManager {
             return new ArrayList<>(); // Retorna lista vacía si el archivo no existe
         }
         
+        long start = System.nanoTime();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
         try (FileInputStream fis = new FileInputStream(filePath);
-             DataInputStream dis = new DataInputStream(fis)) {
+             RecordInputStream dis = new RecordInputStream(new BufferedInputStream(fis), catalogRegistry)) {
             
             int count = dis.readInt();
             List<T> objects = new ArrayList<>(count);
@@ -296,9 +375,14 @@ public class BinaryDataManager implements DataManager {
             for (int i = 0; i < count; i++) {
                 T object = factory.create();
                 object.deserialize(dis);
-                objects.add(object);
+                objects.add(catalogRegistry.adopt(object));
             }
             
+            long bytes = new File(filePath).length();
+            BYTES_READ.add(bytes);
+            RECORDS_READ.add(count);
+            LOAD_LIST_LATENCY.recordSince(start);
+            commitEvent(event, "loadList", filename, bytes, count);
             return objects;
             
         } catch (IOException e) {
@@ -306,6 +390,321 @@ public class BinaryDataManager implements DataManager {
         }
     }
     
+    /**
+     * Recorre los objetos de un archivo de lista decodificándolos bajo demanda
+     * 
+     * @param filename Nombre del archivo a recorrer
+     * @param factory Factory para crear instancias del tipo de objeto
+     * @return Stream perezoso de los objetos en orden de archivo; debe cerrarse
+     * @throws SerializationException Si la factory es null o el archivo no se
+     *         puede abrir o tiene un encabezado inválido
+     * 
+     * Proceso:
+     * - Abre el archivo como FileChannel con un búfer de STREAM_BUFFER_BYTES
+     * - Lee el encabezado y el número de objetos (el stream conoce su tamaño)
+     * - Decodifica cada objeto solo cuando el stream lo pide
+     * - Al cerrar el stream cierra el archivo y registra las métricas de lectura
+     * 
+     * Notas:
+     * - Mismo formato que loadList; filtros y conteos sobre archivos grandes
+     *   usan memoria constante
+     * - count() sin filtros no decodifica ningún objeto
+     * - Si el archivo no existe retorna un stream vacío
+     * - Un objeto que no se puede decodificar termina el recorrido con
+     *   UncheckedIOException (el archivo se cierra igualmente al cerrar el stream)
+     */
+    @Override
+    public <T extends Serializable> Stream<T> stream(String filename, SerializableFactory<T> factory) throws SerializationException {
+        if (factory == null) {
+            throw new SerializationException("La factory no puede ser null");
+        }
+        
+        if (!fileExists(filename)) {
+            return Stream.empty();
+        }
+        
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(Paths.get(getFilePath(filename)), StandardOpenOption.READ);
+            RecordInputStream input = new RecordInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel), STREAM_BUFFER_BYTES), catalogRegistry);
+            int count = input.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid record count: " + count);
+            }
+            RecordSpliterator<T> records = new RecordSpliterator<>(filename, channel, input, factory, count);
+            return StreamSupport.stream(records, false).onClose(records::close);
+            
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Se reporta el error original
+                }
+            }
+            throw new SerializationException("Error al cargar lista desde archivo: " + filename, e);
+        }
+    }
+    
+    /**
+     * Recorrido incremental de los objetos de un archivo de lista
+     * 
+     * Notas:
+     * - Solo el hilo que consume el stream lo usa; no se divide para paralelismo
+     * - close() es idempotente y registra las métricas con los objetos leídos
+     */
+    private final class RecordSpliterator<T extends Serializable> extends Spliterators.AbstractSpliterator<T> {
+        private final String filename;
+        private final FileChannel channel;
+        private final RecordInputStream input;
+        private final SerializableFactory<T> factory;
+        private final long start = System.nanoTime();
+        private final PersistenceEvent event = new PersistenceEvent();
+        private int remaining;
+        private int read;
+        private boolean closed;
+        
+        RecordSpliterator(String filename, FileChannel channel, RecordInputStream input,
+                          SerializableFactory<T> factory, int count) {
+            super(count, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL);
+            this.filename = filename;
+            this.channel = channel;
+            this.input = input;
+            this.factory = factory;
+            this.remaining = count;
+            event.begin();
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining <= 0 || closed) {
+                return false;
+            }
+            T object = factory.create();
+            try {
+                object.deserialize(input);
+            } catch (IOException e) {
+                remaining = 0;
+                throw new UncheckedIOException("Error al cargar lista desde archivo: " + filename, e);
+            }
+            remaining--;
+            read++;
+            action.accept(catalogRegistry.adopt(object));
+            return true;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+        
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long bytes = 0;
+            try {
+                bytes = channel.position();
+                input.close();
+            } catch (IOException e) {
+                System.err.println("Error closing " + filename + ": " + e.getMessage());
+            }
+            BYTES_READ.add(bytes);
+            RECORDS_READ.add(read);
+            LOAD_LIST_LATENCY.recordSince(start);
+            commitEvent(event, "stream", filename, bytes, read);
+        }
+    }
+    
+    /**
+     * Anexa un registro al final de un archivo de anexos
+     * 
+     * @param object Registro a anexar
+     * @param filename Nombre del archivo de anexos (se crea si no existe)
+     * @throws SerializationException Si el objeto es null o hay error de escritura
+     * 
+     * Proceso:
+     * - Codifica el registro en memoria
+     * - Arma la trama: longitud del registro seguida de sus bytes (y el
+     *   encabezado del formato si el archivo está vacío)
+     * - Escribe la trama completa al final del archivo con una sola escritura
+     * 
+     * Formato del archivo:
+     * - Encabezado: número mágico y versión (ver RecordFormat)
+     * - Entero: longitud del registro 1, seguido del registro 1
+     * - Entero: longitud del registro 2, seguido del registro 2
+     * - ... (un par por cada llamada a append)
+     * 
+     * Notas:
+     * - El costo depende solo del tamaño del registro, no del tamaño del archivo
+     * - Los anexos concurrentes a un mismo archivo deben serializarse por el
+     *   llamador; a archivos distintos pueden hacerse en paralelo
+     * - La longitud permite a loadAppended descartar un último registro incompleto
+     */
+    @Override
+    public void append(Serializable object, String filename) throws SerializationException {
+        if (object == null) {
+            throw new SerializationException("No se puede anexar un objeto null");
+        }
+        
+        long start = System.nanoTime();
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        String filePath = getFilePath(filename);
+        
+        int frameBytes;
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(APPEND_BUFFER_BYTES);
+            try (RecordOutputStream record = new RecordOutputStream(payload, false)) {
+                object.serialize(record);
+            }
+            
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.size() + RecordFormat.HEADER_BYTES + 4);
+            DataOutputStream out = new DataOutputStream(frame);
+            if (new File(filePath).length() == 0) {
+                out.writeInt(RecordFormat.MAGIC);
+                out.writeShort(RecordFormat.CURRENT_VERSION);
+            }
+            out.writeInt(payload.size());
+            payload.writeTo(out);
+            frameBytes = frame.size();
+            
+            try (FileOutputStream fos = new FileOutputStream(filePath, true)) {
+                frame.writeTo(fos);
+            }
+            
+        } catch (IOException e) {
+            throw new SerializationException("Error al anexar registro en archivo: " + filename, e);
+        }
+        
+        BYTES_WRITTEN.add(frameBytes);
+        RECORDS_WRITTEN.increment();
+        APPEND_LATENCY.recordSince(start);
+        commitEvent(event, "append", filename, frameBytes, 1);
+    }
+    
+    /**
+     * Carga todos los registros de un archivo de anexos
+     * 
+     * @param filename Nombre del archivo de anexos
+     * @param factory Factory para crear instancias de los registros
+     * @return Registros en el orden en que se anexaron, o lista vacía si el archivo no existe
+     * @throws SerializationException Si hay error de lectura o un registro completo está dañado
+     * 
+     * Proceso:
+     * - Lee el encabezado para conocer la versión del formato
+     * - Lee cada trama (longitud y bytes) y deserializa el registro
+     * - Si la última trama está incompleta (por ejemplo, el proceso terminó
+     *   a mitad de una escritura), la descarta y recorta el archivo para que
+     *   los siguientes anexos queden a continuación del último registro válido
+     * 
+     * Manejo de errores:
+     * - Valida factory null antes de procesar
+     * - Un archivo sin encabezado no es un archivo de anexos y se rechaza
+     */
+    @Override
+    public <T extends Serializable> List<T> loadAppended(String filename, SerializableFactory<T> factory)
+            throws SerializationException {
+        if (factory == null) {
+            throw new SerializationException("La factory no puede ser null");
+        }
+        
+        if (!fileExists(filename)) {
+            return new ArrayList<>();
+        }
+        
+        PersistenceEvent event = new PersistenceEvent();
+        event.begin();
+        String filePath = getFilePath(filename);
+        long fileLength = new File(filePath).length();
+        List<T> objects = new ArrayList<>();
+        long validBytes = 0;
+        
+        if (fileLength >= RecordFormat.HEADER_BYTES) {
+            try (FileInputStream fis = new FileInputStream(filePath);
+                 RecordInputStream dis = new RecordInputStream(new BufferedInputStream(fis), catalogRegistry)) {
+                
+                int version = dis.getFormatVersion();
+                if (version == RecordFormat.VERSION_LEGACY) {
+                    throw new SerializationException("El archivo no es un archivo de anexos: " + filename);
+                }
+                validBytes = RecordFormat.HEADER_BYTES;
+                
+                while (fileLength - validBytes >= 4) {
+                    int length = dis.readInt();
+                    if (length < 0 || length > fileLength - validBytes - 4) {
+                        break; // Última trama incompleta
+                    }
+                    byte[] payload = new byte[length];
+                    dis.readFully(payload);
+                    
+                    T object = factory.create();
+                    object.deserialize(new RecordInputStream(new ByteArrayInputStream(payload), catalogRegistry, version));
+                    objects.add(catalogRegistry.adopt(object));
+                    validBytes += 4 + length;
+                }
+                
+            } catch (EOFException e) {
+                // El archivo se acortó mientras se leía; se conserva lo leído
+            } catch (IOException e) {
+                throw new SerializationException("Error al cargar anexos desde archivo: " + filename, e);
+            }
+        }
+        
+        if (validBytes < fileLength) {
+            truncate(filePath, validBytes);
+            System.err.println("Discarded incomplete record at the end of " + filename
+                + " (" + (fileLength - validBytes) + " bytes)");
+        }
+        
+        BYTES_READ.add(validBytes);
+        RECORDS_READ.add(objects.size());
+        commitEvent(event, "loadAppended", filename, validBytes, objects.size());
+        return objects;
+    }
+    
+    /**
+     * Recorta un archivo a una longitud dada
+     * 
+     * @param filePath Ruta completa del archivo
+     * @param length Nueva longitud en bytes
+     * @throws SerializationException Si no se pudo recortar el archivo
+     */
+    private static void truncate(String filePath, long length) throws SerializationException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        } catch (IOException e) {
+            throw new SerializationException("Error al recortar archivo: " + filePath, e);
+        }
+    }
+    
+    /**
+     * Registra un evento de persistencia si hay una grabación JFR activa
+     * 
+     * @param event Evento iniciado con begin() antes de la operación
+     * @param operation Nombre de la operación (save, saveList, load, loadList,
+     *                  stream, append o loadAppended)
+     * @param filename Nombre del archivo leído o escrito
+     * @param bytes Bytes leídos o escritos por la operación
+     * @param records Número de registros leídos o escritos
+     * 
+     * Notas:
+     * - Los campos solo se asignan si el evento se va a registrar
+     */
+    private static void commitEvent(PersistenceEvent event, String operation, String filename,
+                                    long bytes, int records) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.filename = filename;
+            event.bytes = bytes;
+            event.records = records;
+            event.commit();
+        }
+    }
+    
     /**
      * Verifica si un archivo existe en el directorio de datos
      * 
@@ -322,6 +721,17 @@ public class BinaryDataManager implements DataManager {
         return Files.exists(Paths.get(filePath));
     }
     
+    /**
+     * Obtiene la ruta de un archivo en el directorio de datos
+     * 
+     * @param filename Nombre del archivo
+     * @return Ruta completa del archivo (exista o no)
+     */
+    @Override
+    public Path resolve(String filename) {
+        return Paths.get(getFilePath(filename));
+    }
+    
     /**
      * Elimina un archivo del directorio de datos
      * 
@@ -0,0 +1,331 @@
+/*
+ * Nombre del Archivo: CatalogRegistry.java
+ *
+ * Descripcion: Registro canónico (flyweight) de los catálogos de tipos de
+ *              cargador y de combustible. Las estaciones y los vehículos ya
+ *              no almacenan su propia copia de cada tipo: en el formato
+ *              binario se escribe solo el ID del tipo y al cargar se
+ *              resuelve contra una única instancia por ID, cargada desde
+ *              charger_types.dat y fuel_types.dat.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Vehicle.ChargerType;
+import Vehicle.FuelType;
+
+/**
+ * Registro canónico de tipos de cargador y de combustible
+ *
+ * Características:
+ * - Una sola instancia de ChargerType/FuelType por ID para todo el directorio de datos
+ * - Carga perezosa de los catálogos la primera vez que se resuelve una referencia
+ * - Las instancias canónicas se actualizan en el lugar cuando se guarda o
+ *   recarga el catálogo, por lo que todas las estaciones y vehículos ven el cambio
+ * - Permite comparar tipos por identidad (==)
+ *
+ * Notas:
+ * - Existe un registro por directorio de datos, compartido por todos los
+ *   BinaryDataManager que apunten al mismo directorio
+ * - Un ID que no existe en el catálogo se resuelve a un marcador de posición
+ *   (nombre = ID) que se completa si el tipo se agrega después al catálogo
+ */
+public final class CatalogRegistry {
+    // Registros por directorio de datos (ruta absoluta normalizada)
+    private static final ConcurrentHashMap<Path, CatalogRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private final DataManager source;
+    private final ConcurrentHashMap<String, ChargerType> chargerTypes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FuelType> fuelTypes = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Hilo que está cargando los catálogos (solo se lee con el monitor tomado)
+    private Thread loadingThread;
+
+    /**
+     * Constructor privado, usar forDirectory
+     *
+     * @param source Gestor de datos desde el cual se cargan los catálogos
+     */
+    private CatalogRegistry(DataManager source) {
+        this.source = source;
+    }
+
+    /**
+     * Obtiene el registro asociado a un directorio de datos
+     *
+     * @param directory Directorio de datos
+     * @param source Gestor de datos que se usará para cargar los catálogos si
+     *               el registro aún no existe
+     * @return El registro compartido del directorio
+     */
+    static CatalogRegistry forDirectory(Path directory, DataManager source) {
+        Path key = directory.toAbsolutePath().normalize();
+        return REGISTRIES.computeIfAbsent(key, k -> new CatalogRegistry(source));
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Obtiene el tipo de cargador canónico para un ID
+     *
+     * @param id ID del tipo de cargador
+     * @return La instancia canónica, o null si el ID es null o vacío
+     *
+     * Notas:
+     * - Carga los catálogos si aún no se han cargado
+     * - Si el ID no existe en el catálogo se registra un marcador de posición
+     */
+    public ChargerType getChargerType(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        ensureLoaded();
+        return chargerTypes.computeIfAbsent(id, k -> new ChargerType(k, k, "", 0));
+    }
+
+    /**
+     * Obtiene el tipo de combustible canónico para un ID
+     *
+     * @param id ID del tipo de combustible
+     * @return La instancia canónica, o null si el ID es null o vacío
+     *
+     * Notas:
+     * - Carga los catálogos si aún no se han cargado
+     * - Si el ID no existe en el catálogo se registra un marcador de posición
+     */
+    public FuelType getFuelType(String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        ensureLoaded();
+        return fuelTypes.computeIfAbsent(id, k -> new FuelType(k, k, ""));
+    }
+
+    /**
+     * Obtiene todos los tipos de cargador registrados
+     * @return Copia de la lista de instancias canónicas
+     */
+    public List<ChargerType> getChargerTypes() {
+        ensureLoaded();
+        return new ArrayList<>(chargerTypes.values());
+    }
+
+    /**
+     * Obtiene todos los tipos de combustible registrados
+     * @return Copia de la lista de instancias canónicas
+     */
+    public List<FuelType> getFuelTypes() {
+        ensureLoaded();
+        return new ArrayList<>(fuelTypes.values());
+    }
+
+    // ========== CANONICALIZACIÓN ==========
+
+    /**
+     * Adopta un registro completo del catálogo como instancia canónica
+     *
+     * @param object Objeto leído o guardado en un archivo de catálogo
+     * @return La instancia canónica si el objeto es un tipo de catálogo, o el
+     *         mismo objeto en cualquier otro caso
+     *
+     * Proceso:
+     * - Si no existe instancia para el ID, el objeto pasa a ser la canónica
+     * - Si existe, se copian los datos del objeto en la instancia canónica y
+     *   se retorna esta última
+     *
+     * Notas:
+     * - Utilizado por BinaryDataManager al cargar y guardar cualquier archivo
+     */
+    @SuppressWarnings("unchecked")
+    <T> T adopt(T object) {
+        if (object instanceof ChargerType charger && charger.getId() != null && !charger.getId().isEmpty()) {
+            ChargerType canonical = chargerTypes.putIfAbsent(charger.getId(), charger);
+            if (canonical == null || canonical == charger) {
+                return object;
+            }
+            canonical.setName(charger.getName());
+            canonical.setStandard(charger.getStandard());
+            canonical.setMaxPowerKW(charger.getMaxPowerKW());
+            return (T) canonical;
+        }
+        if (object instanceof FuelType fuel && fuel.getId() != null && !fuel.getId().isEmpty()) {
+            FuelType canonical = fuelTypes.putIfAbsent(fuel.getId(), fuel);
+            if (canonical == null || canonical == fuel) {
+                return object;
+            }
+            canonical.setName(fuel.getName());
+            canonical.setDescription(fuel.getDescription());
+            return (T) canonical;
+        }
+        return object;
+    }
+
+    /**
+     * Resuelve un tipo de cargador embebido (formato anterior) a su instancia canónica
+     *
+     * @param charger Copia leída de un archivo antiguo
+     * @return La instancia canónica; la copia solo se registra si el catálogo no la contiene
+     */
+    ChargerType resolveEmbedded(ChargerType charger) {
+        ensureLoaded();
+        ChargerType canonical = chargerTypes.putIfAbsent(charger.getId(), charger);
+        return canonical != null ? canonical : charger;
+    }
+
+    /**
+     * Resuelve un tipo de combustible embebido (formato anterior) a su instancia canónica
+     *
+     * @param fuel Copia leída de un archivo antiguo
+     * @return La instancia canónica; la copia solo se registra si el catálogo no la contiene
+     */
+    FuelType resolveEmbedded(FuelType fuel) {
+        ensureLoaded();
+        FuelType canonical = fuelTypes.putIfAbsent(fuel.getId(), fuel);
+        return canonical != null ? canonical : fuel;
+    }
+
+    /**
+     * Carga los catálogos desde el gestor de datos una sola vez
+     *
+     * Notas:
+     * - loaded se publica solo al terminar la carga; los demás hilos esperan
+     *   en el monitor en lugar de ver un catálogo a medio cargar y crear
+     *   marcadores de posición para tipos que sí existen
+     * - Si la carga vuelve a entrar desde el mismo hilo, retorna sin cargar
+     *   de nuevo
+     *
+     * Manejo de errores:
+     * - Si un catálogo no se puede leer, se informa el error y se continúa;
+     *   las referencias se resolverán a marcadores de posición
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded || loadingThread == Thread.currentThread()) {
+                return;
+            }
+            loadingThread = Thread.currentThread();
+            try {
+                source.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
+                source.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
+            } catch (SerializationException e) {
+                System.err.println("Error loading catalogs: " + e.getMessage());
+            } finally {
+                loadingThread = null;
+                loaded = true;
+            }
+        }
+    }
+
+    // ========== CODIFICACIÓN DE REFERENCIAS ==========
+
+    /**
+     * Escribe una referencia a un tipo de cargador
+     *
+     * @param out Stream de salida
+     * @param charger Tipo de cargador referenciado
+     * @throws IOException Si ocurre un error durante la escritura
+     *
+     * Notas:
+     * - En un RecordOutputStream solo se escribe el ID
+     * - En cualquier otro stream se escribe el registro completo, como antes
+     */
+    public static void writeChargerRef(DataOutputStream out, ChargerType charger) throws IOException {
+        if (out instanceof RecordOutputStream) {
+            RecordFormat.writeId(out, charger.getId());
+        } else {
+            charger.serialize(out);
+        }
+    }
+
+    /**
+     * Lee una referencia a un tipo de cargador
+     *
+     * @param in Stream de entrada
+     * @return La instancia canónica del tipo de cargador
+     * @throws IOException Si ocurre un error durante la lectura
+     *
+     * Notas:
+     * - Desde la versión 3 del formato la referencia es solo el ID
+     * - En versiones anteriores se lee el registro completo y se canonicaliza
+     * - Sin registro asociado al stream se retorna la copia leída
+     */
+    public static ChargerType readChargerRef(DataInputStream in) throws IOException {
+        CatalogRegistry registry = registryOf(in);
+        if (isReferenceFormat(in)) {
+            String id = RecordFormat.readId(in);
+            return registry != null ? registry.getChargerType(id) : new ChargerType(id, id, "", 0);
+        }
+        ChargerType charger = new ChargerType();
+        charger.deserialize(in);
+        return registry != null ? registry.resolveEmbedded(charger) : charger;
+    }
+
+    /**
+     * Escribe una referencia a un tipo de combustible
+     *
+     * @param out Stream de salida
+     * @param fuel Tipo de combustible referenciado
+     * @throws IOException Si ocurre un error durante la escritura
+     *
+     * Notas:
+     * - En un RecordOutputStream solo se escribe el ID
+     * - En cualquier otro stream se escribe el registro completo, como antes
+     */
+    public static void writeFuelRef(DataOutputStream out, FuelType fuel) throws IOException {
+        if (out instanceof RecordOutputStream) {
+            RecordFormat.writeId(out, fuel.getId());
+        } else {
+            fuel.serialize(out);
+        }
+    }
+
+    /**
+     * Lee una referencia a un tipo de combustible
+     *
+     * @param in Stream de entrada
+     * @return La instancia canónica del tipo de combustible
+     * @throws IOException Si ocurre un error durante la lectura
+     *
+     * Notas:
+     * - Desde la versión 3 del formato la referencia es solo el ID
+     * - En versiones anteriores se lee el registro completo y se canonicaliza
+     * - Sin registro asociado al stream se retorna la copia leída
+     */
+    public static FuelType readFuelRef(DataInputStream in) throws IOException {
+        CatalogRegistry registry = registryOf(in);
+        if (isReferenceFormat(in)) {
+            String id = RecordFormat.readId(in);
+            return registry != null ? registry.getFuelType(id) : new FuelType(id, id, "");
+        }
+        FuelType fuel = new FuelType();
+        fuel.deserialize(in);
+        return registry != null ? registry.resolveEmbedded(fuel) : fuel;
+    }
+
+    private static boolean isReferenceFormat(DataInputStream in) {
+        return in instanceof RecordInputStream record
+                && record.getFormatVersion() >= RecordFormat.VERSION_CATALOG_REFS;
+    }
+
+    private static CatalogRegistry registryOf(DataInputStream in) {
+        return in instanceof RecordInputStream record ? record.getCatalogRegistry() : null;
+    }
+}
@@ -16,8 +16,10 @@
  */
 package Binary;
 
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import Interfaces.DataManager;
 import Interfaces.SerializationException;
@@ -98,7 +100,7 @@ public class DataInitializationService {
      * Crea usuarios por defecto si el archivo de usuarios no existe
      * 
      * Proceso:
-     * - Verifica si existe el archivo de usuarios
+     * - Verifica si existe el archivo de usuarios o la partición en fragmentos
      * - Crea usuario administrador con credenciales por defecto
      * - Crea usuario de prueba para testing
      * - Guarda la lista de usuarios en el archivo correspondiente
@@ -113,7 +115,9 @@ public class DataInitializationService {
      * - Muestra confirmación en consola si la creación es exitosa
      */
     private void initializeDefaultUsers() {
-        if (!dataManager.fileExists(FileConstants.USERS_FILE)) {
+        // Los usuarios pueden estar ya repartidos en fragmentos (ver UserRepository)
+        if (!dataManager.fileExists(FileConstants.USERS_FILE)
+                && !dataManager.fileExists(FileConstants.USER_SHARDS_FILE)) {
             try {
                 User admin = new User("admin", "admin123", UserRole.ADMIN);
                 User testUser = new User("user", "user123", UserRole.USER);
@@ -150,13 +154,7 @@ public class DataInitializationService {
     private void initializeDefaultFuelTypes() {
         if (!dataManager.fileExists(FileConstants.FUEL_TYPES_FILE)) {
             try {
-                List<FuelType> defaultFuels = Arrays.asList(
-                    new FuelType("regular", "Regular Gasoline", "Octane 87 - Regular unleaded gasoline"),
-                    new FuelType("super", "Super Gasoline", "Octane 91+ - Premium unleaded gasoline"),
-                    new FuelType("diesel", "Diesel", "Ultra-low sulfur diesel fuel"),
-                    new FuelType("lp", "LP Gas", "Liquefied petroleum gas (propane)")
-                );
-                
+                List<FuelType> defaultFuels = defaultFuelTypes();
                 dataManager.saveList(defaultFuels, FileConstants.FUEL_TYPES_FILE);
                 System.out.println("Created default fuel types");
             } catch (SerializationException e) {
@@ -189,15 +187,7 @@ public class DataInitializationService {
     private void initializeDefaultChargerTypes() {
         if (!dataManager.fileExists(FileConstants.CHARGER_TYPES_FILE)) {
             try {
-                List<ChargerType> defaultChargers = Arrays.asList(
-                    new ChargerType("schuko", "Schuko", "Standard EU plug", 3),
-                    new ChargerType("type1", "Type 1 (J1772)", "SAE J1772", 7),
-                    new ChargerType("type2", "Type 2 (Mennekes)", "IEC 62196-2", 22),
-                    new ChargerType("chademo", "CHAdeMO", "CHAdeMO fast charging", 50),
-                    new ChargerType("ccs", "CCS", "Combined Charging System", 150),
-                    new ChargerType("tesla", "Tesla Supercharger", "Tesla proprietary", 250)
-                );
-                
+                List<ChargerType> defaultChargers = defaultChargerTypes();
                 dataManager.saveList(defaultChargers, FileConstants.CHARGER_TYPES_FILE);
                 System.out.println("Created default charger types");
             } catch (SerializationException e) {
@@ -206,6 +196,40 @@ public class DataInitializationService {
         }
     }
     
+    /**
+     * Construye la lista de tipos de combustible por defecto
+     * 
+     * @return Nueva lista con los tipos de combustible estándar
+     * 
+     * Notas:
+     * - Compartida con SyntheticDataGenerator para que los datos sintéticos
+     *   usen el mismo catálogo que el sistema
+     */
+    static List<FuelType> defaultFuelTypes() {
+        return Arrays.asList(
+            new FuelType("regular", "Regular Gasoline", "Octane 87 - Regular unleaded gasoline"),
+            new FuelType("super", "Super Gasoline", "Octane 91+ - Premium unleaded gasoline"),
+            new FuelType("diesel", "Diesel", "Ultra-low sulfur diesel fuel"),
+            new FuelType("lp", "LP Gas", "Liquefied petroleum gas (propane)")
+        );
+    }
+    
+    /**
+     * Construye la lista de tipos de cargadores por defecto
+     * 
+     * @return Nueva lista con los tipos de cargadores estándar
+     */
+    static List<ChargerType> defaultChargerTypes() {
+        return Arrays.asList(
+            new ChargerType("schuko", "Schuko", "Standard EU plug", 3),
+            new ChargerType("type1", "Type 1 (J1772)", "SAE J1772", 7),
+            new ChargerType("type2", "Type 2 (Mennekes)", "IEC 62196-2", 22),
+            new ChargerType("chademo", "CHAdeMO", "CHAdeMO fast charging", 50),
+            new ChargerType("ccs", "CCS", "Combined Charging System", 150),
+            new ChargerType("tesla", "Tesla Supercharger", "Tesla proprietary", 250)
+        );
+    }
+    
     /**
      * Crea ciudades por defecto si el archivo no existe
      * 
@@ -280,8 +304,11 @@ public class DataInitializationService {
     private void initializeDefaultConnections() {
         if (!dataManager.fileExists(FileConstants.CONNECTIONS_FILE)) {
             try {
-                // Carga ciudades para crear conexiones
-                List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
+                // Lee solo las primeras ciudades (el archivo puede ser grande)
+                List<City> cities;
+                try (Stream<City> stream = dataManager.stream(FileConstants.CITIES_FILE, City::new)) {
+                    cities = stream.limit(6).toList();
+                }
                 
                 if (cities.size() >= 6) {
                     City sanJose = cities.get(0);
@@ -307,7 +334,7 @@ public class DataInitializationService {
                     dataManager.saveList(defaultConnections, FileConstants.CONNECTIONS_FILE);
                     System.out.println("Created default city connections");
                 }
-            } catch (SerializationException e) {
+            } catch (SerializationException | UncheckedIOException e) {
                 System.err.println("Failed to create default connections: " + e.getMessage());
             }
         }
@@ -322,7 +349,8 @@ public class DataInitializationService {
      * - Ejecuta la inicialización completa
      * 
      * Archivos eliminados:
-     * - users.dat
+     * - users.dat (y su diario de vehículos) y la partición en fragmentos
+     *   (los fragmentos se reescriben al migrar los usuarios por defecto)
      * - fuel_types.dat
      * - charger_types.dat
      * - cities.dat
@@ -341,6 +369,8 @@ public class DataInitializationService {
     public void resetToDefaults() {
         // Elimina archivos existentes
         dataManager.deleteFile(FileConstants.USERS_FILE);
+        dataManager.deleteFile(FileConstants.USER_VEHICLES_JOURNAL_FILE);
+        dataManager.deleteFile(FileConstants.USER_SHARDS_FILE);
         dataManager.deleteFile(FileConstants.FUEL_TYPES_FILE);
         dataManager.deleteFile(FileConstants.CHARGER_TYPES_FILE);
         dataManager.deleteFile(FileConstants.CITIES_FILE);
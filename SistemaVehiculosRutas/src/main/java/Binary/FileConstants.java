@@ -33,6 +33,10 @@ package Binary;
 public final class FileConstants {
     // Archivos de datos de usuarios
     public static final String USERS_FILE = "users.dat";
+    public static final String USER_VEHICLES_JOURNAL_FILE = "user_vehicles.journal";
+    public static final String USER_SHARDS_FILE = "users.shards";
+    public static final String USER_SHARD_PREFIX = "users_";
+    public static final String USER_SHARD_JOURNAL_PREFIX = "user_vehicles_";
     public static final String SESSIONS_FILE = "sessions.dat";
     
     // Archivos de tipos de vehículos y estaciones
@@ -43,6 +47,9 @@ public final class FileConstants {
     public static final String CITIES_FILE = "cities.dat";
     public static final String CONNECTIONS_FILE = "connections.dat";
     
+    // Imagen precompilada del grafo (derivada de ciudades y conexiones)
+    public static final String GRAPH_IMAGE_FILE = "graph.img";
+    
     // Configuración del sistema
     public static final String SYSTEM_CONFIG_FILE = "system_config.dat";
     
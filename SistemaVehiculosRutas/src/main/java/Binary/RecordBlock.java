@@ -0,0 +1,143 @@
+/*
+ * Nombre del Archivo: RecordBlock.java
+ *
+ * Descripcion: Bloque de bytes con longitud dentro de un registro, que se
+ *              guarda sin decodificar al leer el archivo y se decodifica solo
+ *              cuando se necesita su contenido. Utilizado para las estaciones
+ *              de cada ciudad, que la mayoría de las consultas no usan.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Bloque de un registro con decodificación diferida
+ *
+ * Formato (versión 4 en adelante, ver RecordFormat):
+ * - Entero: longitud del bloque en bytes
+ * - Bytes del bloque, codificados igual que el resto del registro
+ *
+ * Características:
+ * - read() copia los bytes del bloque sin crear ningún objeto
+ * - open() retorna un RecordInputStream sobre el bloque con la misma versión
+ *   y el mismo registro de catálogos que el archivo de origen
+ * - Un bloque de la versión actual se vuelve a escribir tal cual, sin decodificarlo
+ *
+ * Notas:
+ * - En streams que no son RecordInputStream/RecordOutputStream, o en
+ *   archivos anteriores a la versión 4, el contenido va directamente en el
+ *   registro sin longitud; en ese caso read() retorna null y el llamador lo
+ *   decodifica en el momento
+ * - Es inmutable y se puede decodificar desde varios hilos
+ */
+public final class RecordBlock {
+    private final byte[] bytes;
+    private final CatalogRegistry catalogRegistry;
+    private final int formatVersion;
+
+    private RecordBlock(byte[] bytes, CatalogRegistry catalogRegistry, int formatVersion) {
+        this.bytes = bytes;
+        this.catalogRegistry = catalogRegistry;
+        this.formatVersion = formatVersion;
+    }
+
+    /**
+     * Lee un bloque sin decodificarlo
+     *
+     * @param in Stream de entrada posicionado al inicio del bloque
+     * @return El bloque leído, o null si el stream no usa bloques con longitud
+     * @throws IOException Si la longitud es inválida o el stream termina antes del bloque
+     */
+    public static RecordBlock read(DataInputStream in) throws IOException {
+        if (!(in instanceof RecordInputStream record) || record.getFormatVersion() < RecordFormat.VERSION_LAZY_BLOCKS) {
+            return null;
+        }
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid block length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new RecordBlock(bytes, record.getCatalogRegistry(), record.getFormatVersion());
+    }
+
+    /**
+     * Escribe un bloque codificando su contenido
+     *
+     * @param out Stream de salida
+     * @param content Acción que escribe el contenido del bloque
+     * @throws IOException Si ocurre un error durante la escritura
+     *
+     * Notas:
+     * - En un RecordOutputStream el contenido se codifica primero en memoria
+     *   para poder escribir su longitud; en cualquier otro stream se escribe
+     *   directamente, sin longitud
+     */
+    public static void write(DataOutputStream out, BlockContent content) throws IOException {
+        if (!(out instanceof RecordOutputStream)) {
+            content.writeTo(out);
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (RecordOutputStream block = new RecordOutputStream(buffer, false)) {
+            content.writeTo(block);
+        }
+        out.writeInt(buffer.size());
+        buffer.writeTo(out);
+    }
+
+    /**
+     * Verifica si el bloque se puede volver a escribir sin decodificarlo
+     *
+     * @param out Stream donde se escribiría
+     * @return true si el stream usa bloques y el bloque está en la versión actual
+     */
+    public boolean canCopyTo(DataOutputStream out) {
+        return out instanceof RecordOutputStream && formatVersion == RecordFormat.CURRENT_VERSION;
+    }
+
+    /**
+     * Vuelve a escribir el bloque tal cual (longitud y bytes)
+     *
+     * @param out Stream de salida (ver canCopyTo)
+     * @throws IOException Si ocurre un error durante la escritura
+     */
+    public void copyTo(DataOutputStream out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Abre el bloque para decodificar su contenido
+     * @return Stream sobre los bytes del bloque, con la versión y los catálogos del archivo
+     */
+    public RecordInputStream open() {
+        return new RecordInputStream(new ByteArrayInputStream(bytes), catalogRegistry, formatVersion);
+    }
+
+    /**
+     * Obtiene el tamaño del bloque
+     * @return Número de bytes del contenido
+     */
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * Contenido de un bloque a escribir
+     */
+    @FunctionalInterface
+    public interface BlockContent {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+}
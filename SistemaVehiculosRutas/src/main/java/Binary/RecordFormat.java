@@ -0,0 +1,218 @@
+/*
+ * Nombre del Archivo: RecordFormat.java
+ *
+ * Descripcion: Definición del formato binario versionado de los archivos de
+ *              datos. Declara el encabezado (número mágico y versión) que
+ *              escribe BinaryDataManager y proporciona la codificación
+ *              compacta de identificadores: los UUID se almacenan como 16
+ *              bytes en lugar de 36 caracteres y, al cargarlos, se internan
+ *              para que el heap mantenga una sola instancia por ID.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * Formato binario versionado de los archivos de datos
+ *
+ * Los archivos escritos por BinaryDataManager comienzan con un encabezado
+ * (número mágico + versión). Los archivos antiguos, sin encabezado, se siguen
+ * leyendo como versión 1 (identificadores escritos con writeUTF).
+ *
+ * Codificación de identificadores (versión 2 en adelante):
+ * - Byte de etiqueta ID_EMPTY: identificador null o vacío
+ * - Byte de etiqueta ID_UUID: UUID canónico en 16 bytes (dos long)
+ * - Byte de etiqueta ID_TEXT: cualquier otro identificador como UTF
+ *
+ * Referencias a catálogos (versión 3 en adelante):
+ * - Los tipos de cargador y combustible dentro de estaciones y vehículos se
+ *   escriben solo como ID y se resuelven con CatalogRegistry
+ *
+ * Bloques diferidos (versión 4 en adelante):
+ * - Las estaciones de cada ciudad se escriben como un bloque con longitud
+ *   (ver RecordBlock), que se decodifica solo cuando se consultan
+ *
+ * Notas:
+ * - El formato se decide por el tipo de stream: solo RecordOutputStream y
+ *   RecordInputStream usan la codificación compacta, cualquier otro
+ *   DataOutputStream/DataInputStream sigue usando writeUTF/readUTF
+ * - Todos los identificadores leídos se internan en un pool compartido con
+ *   referencias débiles: un ID sale del pool cuando ninguna entidad lo usa
+ */
+public final class RecordFormat {
+    // Encabezado de archivo: "SVDR" en ASCII
+    public static final int MAGIC = 0x53564452;
+
+    // Versiones del formato
+    public static final int VERSION_LEGACY = 1;
+    public static final int VERSION_BINARY_IDS = 2;
+    public static final int VERSION_CATALOG_REFS = 3;
+    public static final int VERSION_LAZY_BLOCKS = 4;
+    public static final int CURRENT_VERSION = VERSION_LAZY_BLOCKS;
+
+    // Tamaño del encabezado: número mágico (int) y versión (short)
+    public static final int HEADER_BYTES = 6;
+
+    // Etiquetas de codificación de identificadores
+    private static final int ID_EMPTY = 0;
+    private static final int ID_UUID = 1;
+    private static final int ID_TEXT = 2;
+
+    private static final int UUID_LENGTH = 36;
+
+    // Pool de identificadores: una sola instancia de String por ID en uso,
+    // repartido en segmentos para que las cargas paralelas no compitan por un solo candado
+    private static final int ID_POOL_STRIPES = 16;
+    private static final List<Map<String, WeakReference<String>>> ID_POOL = createIdPool();
+
+    /**
+     * Constructor privado para evitar instanciación
+     */
+    private RecordFormat() {
+        // Clase de utilidad - prevenir instanciación
+    }
+
+    /**
+     * Escribe un identificador en el stream
+     *
+     * @param out Stream de salida
+     * @param id Identificador a escribir (puede ser null)
+     * @throws IOException Si ocurre un error durante la escritura
+     *
+     * Notas:
+     * - En un RecordOutputStream los UUID canónicos ocupan 17 bytes en vez de 38
+     * - En cualquier otro stream se mantiene el formato writeUTF original
+     * - null se escribe como identificador vacío, igual que antes
+     */
+    public static void writeId(DataOutputStream out, String id) throws IOException {
+        if (!(out instanceof RecordOutputStream)) {
+            out.writeUTF(id != null ? id : "");
+            return;
+        }
+
+        if (id == null || id.isEmpty()) {
+            out.writeByte(ID_EMPTY);
+        } else if (isCanonicalUuid(id)) {
+            UUID uuid = UUID.fromString(id);
+            out.writeByte(ID_UUID);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(ID_TEXT);
+            out.writeUTF(id);
+        }
+    }
+
+    /**
+     * Lee un identificador del stream y lo interna
+     *
+     * @param in Stream de entrada
+     * @return El identificador leído, o cadena vacía si no había identificador
+     * @throws IOException Si ocurre un error durante la lectura o la etiqueta es inválida
+     *
+     * Notas:
+     * - Detecta la versión del archivo a través de RecordInputStream
+     * - Retorna "" para identificadores vacíos, igual que readUTF en el formato original
+     */
+    public static String readId(DataInputStream in) throws IOException {
+        if (!(in instanceof RecordInputStream record) || record.getFormatVersion() < VERSION_BINARY_IDS) {
+            return intern(in.readUTF());
+        }
+
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case ID_EMPTY:
+                return "";
+            case ID_UUID:
+                long mostSigBits = in.readLong();
+                long leastSigBits = in.readLong();
+                return intern(new UUID(mostSigBits, leastSigBits).toString());
+            case ID_TEXT:
+                return intern(in.readUTF());
+            default:
+                throw new IOException("Unknown id tag: " + tag);
+        }
+    }
+
+    /**
+     * Retorna la instancia canónica de un identificador
+     *
+     * @param id Identificador a internar
+     * @return La instancia compartida del identificador
+     *
+     * Notas:
+     * - Las cadenas vacías o null se retornan sin registrar
+     * - El pool no retiene los identificadores: la clave y el valor son
+     *   débiles, así que los IDs de entidades eliminadas o de archivos
+     *   recargados se liberan con el recolector de basura
+     * - Seguro para uso concurrente
+     */
+    public static String intern(String id) {
+        if (id == null || id.isEmpty()) {
+            return id;
+        }
+        int hash = id.hashCode();
+        Map<String, WeakReference<String>> stripe = ID_POOL.get((hash ^ (hash >>> 16)) & (ID_POOL_STRIPES - 1));
+        synchronized (stripe) {
+            WeakReference<String> ref = stripe.get(id);
+            String existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            stripe.put(id, new WeakReference<>(id));
+            return id;
+        }
+    }
+
+    /**
+     * Crea los segmentos vacíos del pool de identificadores
+     * @return Lista de ID_POOL_STRIPES mapas débiles
+     */
+    private static List<Map<String, WeakReference<String>>> createIdPool() {
+        List<Map<String, WeakReference<String>>> pool = new ArrayList<>(ID_POOL_STRIPES);
+        for (int i = 0; i < ID_POOL_STRIPES; i++) {
+            pool.add(new WeakHashMap<>());
+        }
+        return pool;
+    }
+
+    /**
+     * Verifica si un identificador es un UUID en forma canónica
+     *
+     * @param id Identificador a verificar
+     * @return true si tiene 36 caracteres hexadecimales en minúscula con guiones
+     *         en las posiciones estándar
+     *
+     * Notas:
+     * - Solo la forma canónica sobrevive el viaje binario → toString sin cambios,
+     *   por eso los UUID en mayúsculas se escriben como texto
+     */
+    private static boolean isCanonicalUuid(String id) {
+        if (id.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Nombre del Archivo: RecordInputStream.java
+ *
+ * Descripcion: Stream de entrada de datos que lee archivos del sistema en
+ *              cualquiera de las versiones del formato binario. Detecta el
+ *              encabezado al crearse; si no existe, trata el archivo como
+ *              formato original (versión 1) sin consumir ningún byte.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream de entrada para el formato binario versionado
+ *
+ * Características:
+ * - Detecta automáticamente la versión del archivo
+ * - Compatible con archivos escritos antes de existir el encabezado
+ * - Expone la versión para que los modelos decodifiquen correctamente
+ */
+public final class RecordInputStream extends DataInputStream {
+    private static final int HEADER_PROBE_BYTES = 4;
+
+    private final int formatVersion;
+    private final CatalogRegistry catalogRegistry;
+
+    /**
+     * Crea el stream y detecta la versión del formato
+     *
+     * @param in Stream subyacente
+     * @throws IOException Si ocurre un error al leer el encabezado o la versión no es soportada
+     *
+     * Proceso:
+     * - Envuelve el stream en un BufferedInputStream con soporte de mark/reset
+     * - Lee los primeros 4 bytes y los compara con el número mágico
+     * - Si no coinciden, retrocede y asume el formato original
+     */
+    public RecordInputStream(InputStream in) throws IOException {
+        this(in, null);
+    }
+
+    /**
+     * Crea el stream asociado a un registro de catálogos
+     *
+     * @param in Stream subyacente
+     * @param catalogRegistry Registro contra el cual se resuelven las referencias
+     *                        a tipos de cargador y combustible (puede ser null)
+     * @throws IOException Si ocurre un error al leer el encabezado o la versión no es soportada
+     */
+    public RecordInputStream(InputStream in, CatalogRegistry catalogRegistry) throws IOException {
+        super(in.markSupported() ? in : new BufferedInputStream(in));
+        this.catalogRegistry = catalogRegistry;
+        this.formatVersion = detectVersion();
+    }
+
+    /**
+     * Crea el stream para datos sin encabezado de una versión conocida
+     *
+     * @param in Stream subyacente
+     * @param catalogRegistry Registro de catálogos (puede ser null)
+     * @param formatVersion Versión del formato con que se escribieron los datos
+     *
+     * Notas:
+     * - Utilizado para decodificar registros individuales de un archivo de
+     *   anexos, cuya versión se leyó del encabezado del archivo
+     */
+    RecordInputStream(InputStream in, CatalogRegistry catalogRegistry, int formatVersion) {
+        super(in);
+        this.catalogRegistry = catalogRegistry;
+        this.formatVersion = formatVersion;
+    }
+
+    /**
+     * Obtiene la versión del formato del archivo que se está leyendo
+     * @return Versión del formato (VERSION_LEGACY para archivos sin encabezado)
+     */
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    /**
+     * Obtiene el registro de catálogos asociado al stream
+     * @return Registro de catálogos, o null si el stream no tiene uno
+     */
+    public CatalogRegistry getCatalogRegistry() {
+        return catalogRegistry;
+    }
+
+    /**
+     * Detecta la versión leyendo el encabezado si existe
+     *
+     * @return Versión del formato
+     * @throws IOException Si la versión del encabezado es más nueva que la soportada
+     */
+    private int detectVersion() throws IOException {
+        in.mark(HEADER_PROBE_BYTES);
+        int probe = 0;
+        int read = 0;
+        while (read < HEADER_PROBE_BYTES) {
+            int b = in.read();
+            if (b < 0) break;
+            probe = (probe << 8) | b;
+            read++;
+        }
+
+        if (read == HEADER_PROBE_BYTES && probe == RecordFormat.MAGIC) {
+            int version = readUnsignedShort();
+            if (version > RecordFormat.CURRENT_VERSION) {
+                throw new IOException("Unsupported data format version: " + version);
+            }
+            return version;
+        }
+
+        in.reset();
+        return RecordFormat.VERSION_LEGACY;
+    }
+}
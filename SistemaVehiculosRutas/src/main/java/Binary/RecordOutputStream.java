@@ -0,0 +1,58 @@
+/*
+ * Nombre del Archivo: RecordOutputStream.java
+ *
+ * Descripcion: Stream de salida de datos que escribe archivos en el formato
+ *              binario versionado del sistema. Escribe el encabezado del
+ *              formato al crearse y habilita la codificación compacta de
+ *              identificadores definida en RecordFormat.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream de salida para el formato binario versionado
+ *
+ * Características:
+ * - Escribe número mágico y versión actual al abrirse
+ * - Permite a los modelos detectar que deben usar la codificación compacta
+ */
+public final class RecordOutputStream extends DataOutputStream {
+
+    /**
+     * Crea el stream y escribe el encabezado del formato
+     *
+     * @param out Stream subyacente (se recomienda que sea buffered)
+     * @throws IOException Si ocurre un error al escribir el encabezado
+     */
+    public RecordOutputStream(OutputStream out) throws IOException {
+        this(out, true);
+    }
+
+    /**
+     * Crea el stream escribiendo o no el encabezado
+     *
+     * @param out Stream subyacente
+     * @param writeHeader true para escribir el encabezado del formato
+     * @throws IOException Si ocurre un error al escribir el encabezado
+     *
+     * Notas:
+     * - Sin encabezado se utiliza para codificar registros que se anexan a un
+     *   archivo cuyo encabezado ya fue escrito (ver BinaryDataManager.append)
+     */
+    RecordOutputStream(OutputStream out, boolean writeHeader) throws IOException {
+        super(out);
+        if (writeHeader) {
+            writeInt(RecordFormat.MAGIC);
+            writeShort(RecordFormat.CURRENT_VERSION);
+        }
+    }
+}
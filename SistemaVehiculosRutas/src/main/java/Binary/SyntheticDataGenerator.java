@@ -0,0 +1,573 @@
+/*
+ * Nombre del Archivo: SyntheticDataGenerator.java
+ *
+ * Descripcion: Generador de datos sintéticos a gran escala para pruebas de
+ *              carga y benchmarks. Escribe archivos válidos de ciudades,
+ *              conexiones, usuarios y catálogos a través del DataManager, desde
+ *              miles hasta un millón de ciudades, con una red de carreteras
+ *              plana parecida a una red vial real, estaciones distribuidas
+ *              según el tamaño de cada ciudad y varios vehículos por usuario.
+ *              La misma semilla produce siempre los mismos archivos.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Binary;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Models.ChargingStation;
+import Models.City;
+import Models.Connection;
+import Models.FuelStation;
+import Models.Station;
+import Repository.CitySpatialIndex;
+import User.User;
+import User.UserRole;
+import Vehicle.ChargerType;
+import Vehicle.ElectricVehicle;
+import Vehicle.FuelType;
+import Vehicle.FuelVehicle;
+import Vehicle.Vehicle;
+
+/**
+ * Generador de datos sintéticos reproducibles
+ *
+ * Topología de la red:
+ * - Las ciudades se ubican en una cuadrícula con desplazamiento aleatorio
+ *   dentro de cada celda (nunca mayor a un cuarto de celda)
+ * - Las carreteras candidatas son las de cada celda con sus vecinas
+ *   horizontal y vertical, más una sola diagonal por celda; como los
+ *   cuadriláteros de la cuadrícula siguen siendo convexos, ninguna
+ *   carretera cruza a otra (la red es plana)
+ * - Primero se elige un árbol de expansión aleatorio (la red siempre es
+ *   conexa) y luego se conserva cada candidata restante con una
+ *   probabilidad configurable, lo que da un grado promedio cercano a 3
+ * - Cada carretera se guarda como dos conexiones, una por sentido
+ *
+ * Datos generados:
+ * - Catálogos: los mismos tipos de combustible y cargadores por defecto
+ * - Ciudades: nombres en español, tamaño aleatorio (log-normal) y un número
+ *   de estaciones que sigue una distribución de Poisson proporcional al tamaño
+ * - Usuarios: "admin"/"admin123" más "userN"/"passwordN" para N = 1..cantidad,
+ *   cada uno con al menos un vehículo y el primero como favorito
+ *
+ * Notas:
+ * - Cada entidad se genera con su propio flujo aleatorio derivado de la
+ *   semilla y de su posición, por lo que las listas se generan bajo demanda
+ *   mientras se escriben y nunca se mantienen completas en memoria
+ * - Los IDs también se derivan de la semilla (UUID versión 4 válidos)
+ * - Sobrescribe los archivos existentes del directorio de datos
+ */
+public class SyntheticDataGenerator {
+    /** Número máximo de ciudades soportado */
+    public static final int MAX_CITIES = 1_000_000;
+
+    private static final double JITTER = 0.25;
+    private static final double MAX_ABS_LATITUDE = 85.0;
+    private static final int MAX_STATIONS_PER_CITY = 200;
+
+    // Flujos aleatorios independientes por tipo de entidad
+    private static final long COORDINATE_STREAM = 1;
+    private static final long CITY_STREAM = 2;
+    private static final long ROAD_STREAM = 3;
+    private static final long TOPOLOGY_STREAM = 4;
+    private static final long USER_STREAM = 5;
+    private static final long CITY_ID_STREAM = 6;
+    private static final long STATION_ID_STREAM = 7;
+    private static final long USER_ID_STREAM = 8;
+    private static final long VEHICLE_ID_STREAM = 9;
+
+    private static final String[] NAME_PREFIXES = {
+        "", "", "", "", "San ", "Santa ", "Puerto ", "Villa ", "Nueva ", "Los ", "Las "
+    };
+    private static final String[] SYLLABLES = {
+        "la", "ca", "ra", "ti", "mo", "na", "be", "lo", "sa", "to", "ri", "co",
+        "ma", "pe", "du", "le", "ga", "sol", "mar", "vi", "ce", "ba", "ju", "ron"
+    };
+    private static final String[] NAME_SUFFIXES = {
+        "", "", "", "", "", "", " Norte", " Sur", " Centro", " del Valle", " de Abajo"
+    };
+    private static final String[] STREETS = {
+        "Avenida Central", "Calle Principal", "Ruta Nacional", "Avenida Segunda",
+        "Calle Real", "Boulevard", "Carretera Vieja", "Paseo Colón"
+    };
+    private static final String[][] FUEL_MODELS = {
+        {"Toyota", "Corolla"}, {"Toyota", "Hilux"}, {"Hyundai", "Accent"}, {"Nissan", "Frontier"},
+        {"Suzuki", "Swift"}, {"Mitsubishi", "Montero"}, {"Kia", "Rio"}, {"Honda", "CR-V"}
+    };
+    private static final String[][] ELECTRIC_MODELS = {
+        {"Tesla", "Model 3"}, {"Tesla", "Model Y"}, {"Nissan", "Leaf"}, {"Hyundai", "Kona Electric"},
+        {"BYD", "Dolphin"}, {"Kia", "EV6"}, {"Volkswagen", "ID.4"}, {"Renault", "Zoe"}
+    };
+
+    private final DataManager dataManager;
+    private final long seed;
+
+    private double originLatitude = 9.9281;
+    private double originLongitude = -84.0907;
+    private double cellSizeDegrees = 0.05;
+    private double extraRoadProbability = 0.3;
+    private double stationsPerCity = 1.5;
+    private double vehiclesPerUser = 3.0;
+    private double electricShare = 0.35;
+
+    /**
+     * Constructor del generador
+     *
+     * @param dataManager Gestor de datos donde se escriben los archivos
+     * @param seed Semilla de generación
+     */
+    public SyntheticDataGenerator(DataManager dataManager, long seed) {
+        this.dataManager = dataManager;
+        this.seed = seed;
+    }
+
+    // ========== CONFIGURACIÓN ==========
+
+    /**
+     * Establece el centro de la región generada
+     * @param latitude Latitud del centro (por defecto San José)
+     * @param longitude Longitud del centro
+     */
+    public void setOrigin(double latitude, double longitude) {
+        this.originLatitude = latitude;
+        this.originLongitude = longitude;
+    }
+
+    /**
+     * Establece el tamaño de cada celda de la cuadrícula
+     * @param cellSizeDegrees Grados de latitud por celda (por defecto 0.05, unos 5.5 km)
+     */
+    public void setCellSizeDegrees(double cellSizeDegrees) { this.cellSizeDegrees = cellSizeDegrees; }
+
+    /**
+     * Establece la probabilidad de conservar una carretera fuera del árbol de expansión
+     * @param extraRoadProbability Valor entre 0 (solo el árbol) y 1 (todas las candidatas)
+     */
+    public void setExtraRoadProbability(double extraRoadProbability) { this.extraRoadProbability = extraRoadProbability; }
+
+    /**
+     * Establece el promedio de estaciones por ciudad
+     * @param stationsPerCity Promedio de estaciones (por defecto 1.5)
+     */
+    public void setStationsPerCity(double stationsPerCity) { this.stationsPerCity = stationsPerCity; }
+
+    /**
+     * Establece el promedio de vehículos por usuario
+     * @param vehiclesPerUser Promedio de vehículos (mínimo 1 por usuario)
+     */
+    public void setVehiclesPerUser(double vehiclesPerUser) { this.vehiclesPerUser = vehiclesPerUser; }
+
+    /**
+     * Establece la proporción de estaciones de carga y vehículos eléctricos
+     * @param electricShare Valor entre 0 y 1 (por defecto 0.35)
+     */
+    public void setElectricShare(double electricShare) { this.electricShare = electricShare; }
+
+    // ========== GENERACIÓN ==========
+
+    /**
+     * Genera y escribe todos los archivos de datos
+     *
+     * @param cityCount Número de ciudades (1 a MAX_CITIES)
+     * @param userCount Número de usuarios regulares (además del administrador)
+     * @return true si todos los archivos se escribieron correctamente
+     *
+     * Proceso:
+     * 1. Escribe los catálogos de combustibles y cargadores
+     * 2. Calcula las coordenadas y la red de carreteras
+     * 3. Escribe ciudades, conexiones y usuarios generándolos bajo demanda
+     *
+     * Validaciones:
+     * - La región resultante debe caber entre las latitudes ±85 y en 360° de longitud
+     */
+    public boolean generate(int cityCount, int userCount) {
+        if (cityCount < 1 || cityCount > MAX_CITIES) {
+            System.err.println("City count must be between 1 and " + MAX_CITIES);
+            return false;
+        }
+        if (userCount < 0) {
+            System.err.println("User count cannot be negative");
+            return false;
+        }
+
+        int columns = (int) Math.ceil(Math.sqrt(cityCount));
+        int rows = (cityCount + columns - 1) / columns;
+        double cellLongitude = cellSizeDegrees / Math.cos(Math.toRadians(originLatitude));
+        if (Math.abs(originLatitude) + rows * cellSizeDegrees / 2 > MAX_ABS_LATITUDE
+                || columns * cellLongitude > 360) {
+            System.err.println("Generated region does not fit on the map; use a smaller cell size");
+            return false;
+        }
+
+        try {
+            List<ChargerType> chargerTypes = DataInitializationService.defaultChargerTypes();
+            List<FuelType> fuelTypes = DataInitializationService.defaultFuelTypes();
+            dataManager.saveList(chargerTypes, FileConstants.CHARGER_TYPES_FILE);
+            dataManager.saveList(fuelTypes, FileConstants.FUEL_TYPES_FILE);
+
+            double[] latitudes = new double[cityCount];
+            double[] longitudes = new double[cityCount];
+            for (int i = 0; i < cityCount; i++) {
+                SplittableRandom random = random(COORDINATE_STREAM, i);
+                latitudes[i] = originLatitude
+                    + (i / columns - rows / 2.0 + 0.5 + jitter(random)) * cellSizeDegrees;
+                longitudes[i] = originLongitude
+                    + (i % columns - columns / 2.0 + 0.5 + jitter(random)) * cellLongitude;
+            }
+            int[][] roads = buildRoads(cityCount, columns);
+
+            dataManager.saveList(new GeneratedList<>(cityCount,
+                i -> city(i, latitudes[i], longitudes[i], chargerTypes, fuelTypes)), FileConstants.CITIES_FILE);
+            dataManager.saveList(connections(roads, latitudes, longitudes), FileConstants.CONNECTIONS_FILE);
+            dataManager.saveList(new GeneratedList<>(userCount + 1,
+                i -> user(i, chargerTypes, fuelTypes)), FileConstants.USERS_FILE);
+            // El diario y la partición anteriores no corresponden a los usuarios
+            // generados; users.dat se reparte en fragmentos al cargarlo
+            dataManager.deleteFile(FileConstants.USER_VEHICLES_JOURNAL_FILE);
+            dataManager.deleteFile(FileConstants.USER_SHARDS_FILE);
+
+            long stations = 0;
+            for (int i = 0; i < cityCount; i++) {
+                stations += stationCount(random(CITY_STREAM, i));
+            }
+            long vehicles = 0;
+            for (int i = 1; i <= userCount; i++) {
+                vehicles += vehicleCount(random(USER_STREAM, i));
+            }
+            System.out.printf("Generated %d cities, %d connections, %d stations, %d users and %d vehicles (seed %d)%n",
+                cityCount, roads[0].length * 2L, stations, userCount + 1, vehicles, seed);
+            return true;
+        } catch (SerializationException e) {
+            System.err.println("Failed to generate synthetic data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ========== RED DE CARRETERAS ==========
+
+    /**
+     * Elige las carreteras entre las celdas vecinas de la cuadrícula
+     *
+     * @param cityCount Número de ciudades
+     * @param columns Columnas de la cuadrícula
+     * @return Arreglos paralelos {origen, destino} con los índices de ciudad de cada carretera
+     *
+     * Proceso:
+     * - Mezcla las candidatas horizontales y verticales, y aparte las diagonales
+     * - Recorre primero las horizontales y verticales (las más cortas) con
+     *   union-find: las que unen dos componentes forman el árbol de expansión
+     * - El resto se conserva con probabilidad extraRoadProbability
+     */
+    private int[][] buildRoads(int cityCount, int columns) {
+        int[] from = new int[cityCount * 3];
+        int[] to = new int[cityCount * 3];
+        int count = 0;
+        for (int i = 0; i < cityCount; i++) {
+            if (i % columns + 1 < columns && i + 1 < cityCount) {
+                from[count] = i;
+                to[count++] = i + 1;
+            }
+            if (i + columns < cityCount) {
+                from[count] = i;
+                to[count++] = i + columns;
+            }
+        }
+        int axisCount = count;
+        for (int i = 0; i < cityCount; i++) {
+            if (i % columns + 1 < columns && i + columns + 1 < cityCount) {
+                // Una sola diagonal por celda para no cruzar carreteras
+                boolean descending = random(TOPOLOGY_STREAM, i).nextBoolean();
+                from[count] = descending ? i : i + 1;
+                to[count++] = descending ? i + columns + 1 : i + columns;
+            }
+        }
+
+        SplittableRandom random = random(TOPOLOGY_STREAM, -1);
+        shuffle(from, to, 0, axisCount, random);
+        shuffle(from, to, axisCount, count, random);
+
+        int[] parent = new int[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            parent[i] = i;
+        }
+        int kept = 0;
+        for (int e = 0; e < count; e++) {
+            int a = find(parent, from[e]);
+            int b = find(parent, to[e]);
+            boolean keep;
+            if (a != b) {
+                parent[a] = b;
+                keep = true;
+            } else {
+                keep = random.nextDouble() < extraRoadProbability;
+            }
+            if (keep) {
+                from[kept] = from[e];
+                to[kept++] = to[e];
+            }
+        }
+        return new int[][] { Arrays.copyOf(from, kept), Arrays.copyOf(to, kept) };
+    }
+
+    /**
+     * Construye la lista bajo demanda de conexiones (dos por carretera)
+     *
+     * Notas:
+     * - Connection solo persiste los IDs de sus ciudades, así que cada
+     *   conexión se construye sobre dos ciudades temporales reutilizadas
+     *   en lugar de crear (y generar UUID para) dos ciudades por elemento
+     */
+    private List<Connection> connections(int[][] roads, double[] latitudes, double[] longitudes) {
+        City fromStub = new City();
+        City toStub = new City();
+        return new GeneratedList<>(roads[0].length * 2, i -> {
+            int road = i >>> 1;
+            boolean reverse = (i & 1) == 1;
+            int a = reverse ? roads[1][road] : roads[0][road];
+            int b = reverse ? roads[0][road] : roads[1][road];
+
+            // Ambos sentidos comparten distancia, tiempo y costo
+            SplittableRandom random = random(ROAD_STREAM, road);
+            double straight = CitySpatialIndex.distanceKm(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+            double distance = Math.round(straight * (1.15 + random.nextDouble() * 0.3) * 10) / 10.0;
+            double speedKmh = 40 + random.nextDouble() * 50;
+            int minutes = (int) Math.max(1, Math.round(distance / speedKmh * 60));
+            double cost = Math.round(distance * (30 + random.nextDouble() * 25));
+
+            fromStub.setId(id(CITY_ID_STREAM, a, 0));
+            toStub.setId(id(CITY_ID_STREAM, b, 0));
+            return new Connection(fromStub, toStub, distance, minutes, cost);
+        });
+    }
+
+    // ========== CIUDADES Y ESTACIONES ==========
+
+    private City city(int index, double latitude, double longitude,
+                      List<ChargerType> chargerTypes, List<FuelType> fuelTypes) {
+        SplittableRandom random = random(CITY_STREAM, index);
+        int stations = stationCount(random);
+        City city = new City(cityName(random), latitude, longitude);
+        city.setId(id(CITY_ID_STREAM, index, 0));
+
+        for (int s = 0; s < stations; s++) {
+            String address = STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(400)) + ", " + city.getName();
+            Station station;
+            if (random.nextDouble() < electricShare) {
+                station = new ChargingStation("Charge Point " + (s + 1), address,
+                    pick(chargerTypes, 1 + random.nextInt(3), random), random.nextDouble() < 0.9);
+            } else {
+                station = new FuelStation("Fuel Station " + (s + 1), address,
+                    pick(fuelTypes, 2 + random.nextInt(2), random));
+            }
+            station.setId(id(STATION_ID_STREAM, index, s));
+            city.addStation(station);
+        }
+        return city;
+    }
+
+    /**
+     * Obtiene el número de estaciones de una ciudad
+     *
+     * Notas:
+     * - Debe ser lo primero que se extrae del flujo aleatorio de la ciudad
+     * - El tamaño relativo de la ciudad es log-normal con media 1
+     */
+    private int stationCount(SplittableRandom cityRandom) {
+        double size = Math.exp(cityRandom.nextGaussian() * 0.9 - 0.405);
+        return Math.min(MAX_STATIONS_PER_CITY, poisson(stationsPerCity * size, cityRandom));
+    }
+
+    private static String cityName(SplittableRandom random) {
+        StringBuilder name = new StringBuilder(NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)]);
+        int start = name.length();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(start, Character.toUpperCase(name.charAt(start)));
+        return name.append(NAME_SUFFIXES[random.nextInt(NAME_SUFFIXES.length)]).toString();
+    }
+
+    // ========== USUARIOS Y VEHÍCULOS ==========
+
+    private User user(int index, List<ChargerType> chargerTypes, List<FuelType> fuelTypes) {
+        if (index == 0) {
+            User admin = new User("admin", "admin123", UserRole.ADMIN);
+            admin.setId(id(USER_ID_STREAM, 0, 0));
+            return admin;
+        }
+        SplittableRandom random = random(USER_STREAM, index);
+        int vehicles = vehicleCount(random);
+        User user = new User("user" + index, "password" + index, UserRole.USER);
+        user.setId(id(USER_ID_STREAM, index, 0));
+
+        for (int v = 0; v < vehicles; v++) {
+            int year = 2005 + random.nextInt(21);
+            String plate = "SYN-" + Integer.toString(index, 36).toUpperCase() + "-" + (v + 1);
+            Vehicle vehicle;
+            if (random.nextDouble() < electricShare) {
+                String[] model = ELECTRIC_MODELS[random.nextInt(ELECTRIC_MODELS.length)];
+                vehicle = new ElectricVehicle(model[0], model[1], year, plate,
+                    pick(chargerTypes, 1 + random.nextInt(2), random), 40 + random.nextInt(61));
+            } else {
+                String[] model = FUEL_MODELS[random.nextInt(FUEL_MODELS.length)];
+                vehicle = new FuelVehicle(model[0], model[1], year, plate,
+                    fuelTypes.get(random.nextInt(fuelTypes.size())), 35 + random.nextInt(46));
+            }
+            vehicle.setId(id(VEHICLE_ID_STREAM, index, v));
+            user.addVehicle(vehicle);
+        }
+        user.setFavoriteVehicleId(user.getVehicles().get(0).getId());
+        return user;
+    }
+
+    /**
+     * Obtiene el número de vehículos de un usuario (primer valor de su flujo aleatorio)
+     */
+    private int vehicleCount(SplittableRandom userRandom) {
+        return 1 + poisson(Math.max(0, vehiclesPerUser - 1), userRandom);
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + index));
+    }
+
+    /**
+     * Genera un UUID versión 4 determinista
+     */
+    private String id(long stream, long index, long sub) {
+        long msb = mix(mix(mix(seed + stream) + index) + sub);
+        long lsb = mix(msb ^ 0x5DEECE66DL);
+        msb = (msb & ~0xF000L) | 0x4000L;
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    /** Función de mezcla de SplitMix64 */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double jitter(SplittableRandom random) {
+        return (random.nextDouble() * 2 - 1) * JITTER;
+    }
+
+    private static int poisson(double mean, SplittableRandom random) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean > 30) {
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Elige elementos distintos de una lista (a lo sumo su tamaño)
+     */
+    private static <T> List<T> pick(List<T> options, int count, SplittableRandom random) {
+        List<T> remaining = new ArrayList<>(options);
+        List<T> result = new ArrayList<>(count);
+        while (result.size() < count && !remaining.isEmpty()) {
+            result.add(remaining.remove(random.nextInt(remaining.size())));
+        }
+        return result;
+    }
+
+    private static void shuffle(int[] from, int[] to, int start, int end, SplittableRandom random) {
+        for (int i = end - 1; i > start; i--) {
+            int j = start + random.nextInt(i - start + 1);
+            int swap = from[i];
+            from[i] = from[j];
+            from[j] = swap;
+            swap = to[i];
+            to[i] = to[j];
+            to[j] = swap;
+        }
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /**
+     * Lista de solo lectura cuyos elementos se generan al accederlos
+     */
+    private static final class GeneratedList<T> extends AbstractList<T> implements RandomAccess {
+        private final int size;
+        private final IntFunction<T> generator;
+
+        GeneratedList(int size, IntFunction<T> generator) {
+            this.size = size;
+            this.generator = generator;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return generator.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // ========== LÍNEA DE COMANDOS ==========
+
+    /**
+     * Genera un directorio de datos sintéticos desde la línea de comandos
+     *
+     * Uso: SyntheticDataGenerator &lt;directorio&gt; &lt;ciudades&gt; &lt;usuarios&gt; [semilla]
+     *
+     * @param args Argumentos de la línea de comandos
+     */
+    public static void main(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: SyntheticDataGenerator <dataDirectory> <cities> <users> [seed]");
+            System.exit(2);
+        }
+        try {
+            int cities = Integer.parseInt(args[1]);
+            int users = Integer.parseInt(args[2]);
+            long seed = args.length == 4 ? Long.parseLong(args[3]) : 42L;
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(new BinaryDataManager(args[0]), seed);
+            System.exit(generator.generate(cities, users) ? 0 : 1);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
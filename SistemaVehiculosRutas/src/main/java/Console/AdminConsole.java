@@ -13,9 +13,12 @@
  */
 package Console;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import Admin.AdminService;
+import Metrics.MetricsRegistry;
 import Models.City;
 import Models.Connection;
 import User.User;
@@ -50,6 +53,7 @@ public class AdminConsole {
      * - Gestión de estaciones y tipos de energía
      * - Gestión de usuarios
      * - Información del sistema
+     * - Métricas de rendimiento
      */
     public void showAdminMenu() {
         boolean running = true;
@@ -59,7 +63,8 @@ public class AdminConsole {
                 "Manage Cities & Routes",
                 "Manage Stations & Energy Types",
                 "Manage Users",
-                "System Information"
+                "System Information",
+                "Performance Metrics"
             );
             
             switch (choice) {
@@ -67,6 +72,7 @@ public class AdminConsole {
                 case 1 -> showStationManagementMenu();
                 case 2 -> showUserManagementMenu();
                 case 3 -> showSystemInformation();
+                case 4 -> showMetricsMenu();
                 case -1 -> running = false;
                 default -> MenuUtil.showError("Invalid option.");
             }
@@ -210,7 +216,7 @@ public class AdminConsole {
         
         for (City city : cities) {
             System.out.printf("%-20s %-15.4f %-15.4f %-10d%n", 
-                city.getName(), city.getLatitude(), city.getLongitude(), city.getStations().size());
+                city.getName(), city.getLatitude(), city.getLongitude(), city.getStationCount());
         }
         
         MenuUtil.pause("City list displayed.");
@@ -593,7 +599,7 @@ public class AdminConsole {
         if (adminService.getStationManager().deleteFuelType(fuelTypeToDelete.getId())) {
             MenuUtil.showSuccess("Fuel type deleted successfully!");
         } else {
-            MenuUtil.showError("Failed to delete fuel type.");
+            MenuUtil.showError("Failed to delete fuel type. It may still be used by stations or vehicles.");
         }
     }
     
@@ -690,7 +696,7 @@ public class AdminConsole {
         if (adminService.getStationManager().deleteChargerType(chargerTypeToDelete.getId())) {
             MenuUtil.showSuccess("Charger type deleted successfully!");
         } else {
-            MenuUtil.showError("Failed to delete charger type.");
+            MenuUtil.showError("Failed to delete charger type. It may still be used by stations or vehicles.");
         }
     }
     
@@ -906,4 +912,72 @@ public class AdminConsole {
         
         MenuUtil.pause("System information displayed.");
     }
+    
+    /**
+     * Muestra el menú de métricas de rendimiento
+     * 
+     * Permite consultar las métricas registradas desde el inicio:
+     * - Latencias (p50, p99, p999) de búsquedas de rutas, inicios de sesión
+     *   y operaciones de persistencia
+     * - Bytes y registros leídos y escritos
+     * - Tasas de acierto de los repositorios residentes
+     */
+    private void showMetricsMenu() {
+        boolean running = true;
+        while (running) {
+            int choice = MenuUtil.displayMenu(
+                "📈 Performance Metrics",
+                "Show Metrics Report",
+                "Save Metrics Report to File",
+                "Reset Metrics"
+            );
+            
+            switch (choice) {
+                case 0 -> showMetricsReport();
+                case 1 -> dumpMetricsReport();
+                case 2 -> resetMetrics();
+                case -1 -> running = false;
+                default -> MenuUtil.showError("Invalid option.");
+            }
+        }
+    }
+    
+    /**
+     * Muestra el reporte de métricas en consola
+     */
+    private void showMetricsReport() {
+        System.out.println("\n📈 Metrics Report:");
+        System.out.println("-".repeat(50));
+        System.out.println(MetricsRegistry.getDefault().report());
+        MenuUtil.pause("Metrics displayed.");
+    }
+    
+    /**
+     * Guarda el reporte de métricas en un archivo de texto
+     * 
+     * Notas:
+     * - Si no se indica un nombre, usa metrics-<fecha y hora>.txt en el directorio actual
+     */
+    private void dumpMetricsReport() {
+        String filename = MenuUtil.getStringInput("Enter file name (empty for default): ");
+        if (filename.isEmpty()) {
+            filename = "metrics-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt";
+        }
+        
+        if (MetricsRegistry.getDefault().dumpToFile(filename)) {
+            MenuUtil.showSuccess("Metrics saved to " + filename);
+        } else {
+            MenuUtil.showError("Failed to save metrics.");
+        }
+    }
+    
+    /**
+     * Pone en cero todas las métricas
+     */
+    private void resetMetrics() {
+        if (MenuUtil.getConfirmation("Reset all metrics?")) {
+            MetricsRegistry.getDefault().reset();
+            MenuUtil.showSuccess("Metrics reset.");
+        }
+    }
 }
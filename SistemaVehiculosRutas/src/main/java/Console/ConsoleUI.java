@@ -17,6 +17,7 @@ package Console;
 
 import Admin.AdminService;
 import Services.AuthenticationService;
+import User.User;
 import User.UserConsole;
 import User.UserRole;
 import User.UserService;
@@ -139,8 +140,14 @@ public class ConsoleUI {
      * - Gestión de contraseñas y cierre de sesión
      */
     private boolean showMainMenu() {
-        String userName = authService.getCurrentUser().getUsername();
-        String userRole = authService.getCurrentUser().getRole().getDisplayName();
+        User currentUser = authService.getCurrentUser();
+        if (currentUser == null) {
+            // La sesión venció por inactividad (ver AppConfig.MENU_TIMEOUT_SECONDS)
+            MenuUtil.showInfo("Your session expired. Please log in again.");
+            return true;
+        }
+        String userName = currentUser.getUsername();
+        String userRole = currentUser.getRole().getDisplayName();
         
         int choice = MenuUtil.displayMenu(
             String.format("🏠 Main Menu - Welcome %s (%s)", userName, userRole),
@@ -151,7 +158,10 @@ public class ConsoleUI {
         
         switch (choice) {
             case 0 -> {
-                if (authService.isCurrentUserAdmin()) {
+                if (!authService.isAuthenticated()) {
+                    // Venció mientras se esperaba la opción
+                    MenuUtil.showInfo("Your session expired. Please log in again.");
+                } else if (authService.isCurrentUserAdmin()) {
                     adminConsole.showAdminMenu();
                 } else {
                     userConsole.showUserMenu();
@@ -18,6 +18,7 @@ package Graph;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -28,6 +29,8 @@ import java.util.PriorityQueue;
 import Interfaces.Edge;
 import Interfaces.Graph;
 import Interfaces.Node;
+import Interfaces.SearchVisitor;
+import Metrics.RouteSearchEvent;
 
 /**
  * Grafo implementado con matriz de adyacencia para sistema de rutas
@@ -52,15 +55,23 @@ import Interfaces.Node;
  * 
  * Algoritmos implementados:
  * - Dijkstra para ruta más corta
+ * - Dijkstra de múltiples orígenes y destinos en una sola pasada
+ * - Expansión de múltiples orígenes por distancia con límite de saltos
  * - DFS para todas las rutas posibles
  * - DFS para verificación de conectividad
+ * 
+ * Observabilidad:
+ * - Cada búsqueda de Dijkstra emite un RouteSearchEvent de JFR con los nodos
+ *   fijados; sin grabación activa el costo es prácticamente nulo
  */
 public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
     private final List<T> nodes;
     private final List<Edge> edges;
     private double[][] adjacencyMatrix;
     private final Map<String, Integer> nodeIndexMap;
+    private final String weightMetric;
     private static final double INFINITY = Double.MAX_VALUE;
+    private static final String DEFAULT_WEIGHT_METRIC = "weight";
     
     /**
      * Constructor por defecto del grafo
@@ -77,6 +88,19 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
      * - El mapa de índices se mantiene sincronizado
      */
     public AdjacencyMatrixGraph() {
+        this(DEFAULT_WEIGHT_METRIC);
+    }
+    
+    /**
+     * Constructor con el nombre de la métrica que representan los pesos
+     * 
+     * @param weightMetric Nombre de la métrica de las aristas, por ejemplo "timeMinutes"
+     * 
+     * Notas:
+     * - El nombre solo se usa para etiquetar los eventos RouteSearchEvent
+     */
+    public AdjacencyMatrixGraph(String weightMetric) {
+        this.weightMetric = weightMetric != null ? weightMetric : DEFAULT_WEIGHT_METRIC;
         this.nodes = new ArrayList<>();
         this.edges = new ArrayList<>();
         this.nodeIndexMap = new HashMap<>();
@@ -241,9 +265,14 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
      * - Usa cola de prioridad para eficiencia
      * - Termina cuando encuentra el destino o explora todos los nodos
      * - Reconstruye la ruta usando el array de nodos anteriores
+     * - Emite un RouteSearchEvent con los nodos fijados
      */
     private List<T> dijkstra(int fromIndex, int toIndex) {
+        RouteSearchEvent event = new RouteSearchEvent();
+        event.begin();
+        
         int n = nodes.size();
+        int settled = 0;
         double[] distances = new double[n];
         int[] previous = new int[n];
         boolean[] visited = new boolean[n];
@@ -264,6 +293,7 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
             
             if (visited[current]) continue;
             visited[current] = true;
+            settled++;
             
             if (current == toIndex) break; // Encontrado el destino
             
@@ -282,7 +312,209 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
         }
         
         // Reconstruye la ruta
-        return reconstructPath(previous, fromIndex, toIndex);
+        List<T> path = reconstructPath(previous, fromIndex, toIndex);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "singleSource";
+            event.origin = nodes.get(fromIndex).getName();
+            event.destination = nodes.get(toIndex).getName();
+            event.metric = weightMetric;
+            event.nodesSettled = settled;
+            event.pathNodes = path.size();
+            event.commit();
+        }
+        return path;
+    }
+    
+    /**
+     * Encuentra la mejor ruta entre un conjunto de orígenes y un conjunto de destinos
+     * 
+     * @param sources Nodos de origen con su costo inicial (costo de llegar a cada uno)
+     * @param targets Nodos de destino con su costo final (costo desde cada uno hasta el destino real)
+     * @return Lista de nodos de la ruta que minimiza costo inicial + camino + costo final,
+     *         o lista vacía si ningún destino es alcanzable
+     * 
+     * Proceso:
+     * - Inicializa la cola de prioridad con todos los orígenes a la vez
+     * - Ejecuta una sola pasada de Dijkstra
+     * - Al extraer un destino, registra su costo total como candidato
+     * - Termina cuando la distancia extraída ya no puede mejorar al mejor candidato
+     * 
+     * Validaciones:
+     * - Ignora nodos que no pertenecen al grafo
+     * - Los costos negativos se tratan como cero
+     * 
+     * Notas:
+     * - Equivale a buscar entre cada par origen-destino, pero con una sola búsqueda
+     * - Si un nodo es origen y destino a la vez, la ruta puede tener un solo nodo
+     * - Emite un RouteSearchEvent; origen y destino son los extremos de la
+     *   ruta encontrada (o la cantidad de candidatos si no hay ruta)
+     */
+    public List<T> findPath(Map<T, Double> sources, Map<T, Double> targets) {
+        if (sources == null || targets == null || sources.isEmpty() || targets.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        RouteSearchEvent event = new RouteSearchEvent();
+        event.begin();
+        
+        int n = nodes.size();
+        int settled = 0;
+        double[] distances = new double[n];
+        double[] targetCosts = new double[n];
+        int[] previous = new int[n];
+        boolean[] visited = new boolean[n];
+        
+        // Inicialización
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(targetCosts, INFINITY);
+        Arrays.fill(previous, -1);
+        
+        PriorityQueue<Integer> pq = new PriorityQueue<>(
+            Comparator.comparingDouble(i -> distances[i])
+        );
+        
+        for (Map.Entry<T, Double> source : sources.entrySet()) {
+            Integer index = source.getKey() != null ? nodeIndexMap.get(source.getKey().getId()) : null;
+            double cost = Math.max(0, source.getValue() != null ? source.getValue() : 0);
+            if (index != null && cost < distances[index]) {
+                distances[index] = cost;
+                pq.offer(index);
+            }
+        }
+        for (Map.Entry<T, Double> target : targets.entrySet()) {
+            Integer index = target.getKey() != null ? nodeIndexMap.get(target.getKey().getId()) : null;
+            if (index != null) {
+                targetCosts[index] = Math.min(targetCosts[index],
+                    Math.max(0, target.getValue() != null ? target.getValue() : 0));
+            }
+        }
+        
+        int bestTarget = -1;
+        double bestCost = INFINITY;
+        
+        while (!pq.isEmpty()) {
+            int current = pq.poll();
+            
+            if (visited[current]) continue;
+            visited[current] = true;
+            settled++;
+            
+            // Ningún nodo pendiente puede mejorar al mejor destino encontrado
+            if (distances[current] >= bestCost) break;
+            
+            if (targetCosts[current] != INFINITY && distances[current] + targetCosts[current] < bestCost) {
+                bestCost = distances[current] + targetCosts[current];
+                bestTarget = current;
+            }
+            
+            // Revisa todos los vecinos
+            for (int neighbor = 0; neighbor < n; neighbor++) {
+                if (!visited[neighbor] && adjacencyMatrix[current][neighbor] != 0) {
+                    double newDistance = distances[current] + adjacencyMatrix[current][neighbor];
+                    
+                    if (newDistance < distances[neighbor]) {
+                        distances[neighbor] = newDistance;
+                        previous[neighbor] = current;
+                        pq.offer(neighbor);
+                    }
+                }
+            }
+        }
+        
+        // Reconstruye la ruta hasta el origen que la inició (previous == -1)
+        List<T> path = new ArrayList<>();
+        for (int current = bestTarget; current != -1; current = previous[current]) {
+            path.add(nodes.get(current));
+        }
+        Collections.reverse(path);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "multiSource";
+            event.origin = path.isEmpty() ? sources.size() + " candidates" : path.get(0).getName();
+            event.destination = path.isEmpty() ? targets.size() + " candidates" : path.get(path.size() - 1).getName();
+            event.metric = weightMetric;
+            event.nodesSettled = settled;
+            event.pathNodes = path.size();
+            event.commit();
+        }
+        return path;
+    }
+    
+    /**
+     * Recorre los nodos en orden de distancia desde un conjunto de orígenes
+     * 
+     * @param sources Nodos de origen (todos con distancia 0)
+     * @param maxHops Número máximo de aristas desde el origen (negativo = sin límite)
+     * @param visitor Visitante que recibe cada nodo en orden creciente de distancia
+     * 
+     * Proceso:
+     * - Inicializa la cola de prioridad con todos los orígenes a la vez
+     * - Cada nodo se entrega al visitante una sola vez, al fijar su distancia
+     * - Registra para cada nodo el origen más cercano y los saltos recorridos
+     * - Termina cuando el visitante retorna false o no quedan nodos alcanzables
+     * 
+     * Notas:
+     * - Una sola pasada de Dijkstra, sin importar la cantidad de orígenes
+     * - Los saltos se cuentan sobre el camino más corto encontrado; no se
+     *   relajan aristas desde nodos que ya alcanzaron maxHops
+     */
+    public void expandFrom(Collection<T> sources, int maxHops, SearchVisitor<T> visitor) {
+        if (sources == null || visitor == null) {
+            return;
+        }
+        
+        int n = nodes.size();
+        double[] distances = new double[n];
+        int[] hops = new int[n];
+        int[] origin = new int[n];
+        boolean[] visited = new boolean[n];
+        
+        // Inicialización
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(origin, -1);
+        
+        PriorityQueue<Integer> pq = new PriorityQueue<>(
+            Comparator.comparingDouble(i -> distances[i])
+        );
+        
+        for (T source : sources) {
+            Integer index = source != null ? nodeIndexMap.get(source.getId()) : null;
+            if (index != null && origin[index] == -1) {
+                distances[index] = 0;
+                origin[index] = index;
+                pq.offer(index);
+            }
+        }
+        
+        while (!pq.isEmpty()) {
+            int current = pq.poll();
+            
+            if (visited[current]) continue;
+            visited[current] = true;
+            
+            if (!visitor.visit(nodes.get(current), nodes.get(origin[current]), distances[current], hops[current])) {
+                return;
+            }
+            
+            if (maxHops >= 0 && hops[current] >= maxHops) continue;
+            
+            // Revisa todos los vecinos
+            for (int neighbor = 0; neighbor < n; neighbor++) {
+                if (!visited[neighbor] && adjacencyMatrix[current][neighbor] != 0) {
+                    double newDistance = distances[current] + adjacencyMatrix[current][neighbor];
+                    
+                    if (newDistance < distances[neighbor]) {
+                        distances[neighbor] = newDistance;
+                        hops[neighbor] = hops[current] + 1;
+                        origin[neighbor] = origin[current];
+                        pq.offer(neighbor);
+                    }
+                }
+            }
+        }
     }
     
     /**
@@ -356,10 +588,27 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
      * - Complejidad exponencial en el peor caso
      */
     public List<List<T>> findAllPaths(T from, T to) {
+        return findAllPaths(from, to, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Encuentra rutas entre dos nodos con límites de longitud y cantidad
+     * 
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @param maxEdges Número máximo de aristas por ruta
+     * @param maxPaths Número máximo de rutas a retornar
+     * @return Lista de rutas encontradas, en el orden en que DFS las encuentra
+     * 
+     * Notas:
+     * - La búsqueda no explora caminos más largos que maxEdges y se detiene
+     *   al alcanzar maxPaths, lo que la mantiene acotada en grafos grandes
+     */
+    public List<List<T>> findAllPaths(T from, T to, int maxEdges, int maxPaths) {
         Integer fromIndex = nodeIndexMap.get(from.getId());
         Integer toIndex = nodeIndexMap.get(to.getId());
         
-        if (fromIndex == null || toIndex == null) {
+        if (fromIndex == null || toIndex == null || maxPaths <= 0) {
             return new ArrayList<>();
         }
         
@@ -367,7 +616,7 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
         List<Integer> currentPath = new ArrayList<>();
         boolean[] visited = new boolean[nodes.size()];
         
-        dfsAllPaths(fromIndex, toIndex, visited, currentPath, allPaths);
+        dfsAllPaths(fromIndex, toIndex, visited, currentPath, allPaths, maxEdges, maxPaths);
         
         return allPaths;
     }
@@ -380,6 +629,8 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
      * @param visited Array de nodos visitados
      * @param currentPath Ruta actual siendo explorada
      * @param allPaths Lista donde se almacenan todas las rutas encontradas
+     * @param maxEdges Número máximo de aristas por ruta
+     * @param maxPaths Número máximo de rutas a encontrar
      * 
      * Algoritmo:
      * 1. Marca el nodo actual como visitado
@@ -396,7 +647,8 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
      * - Complejidad exponencial en el peor caso
      */
     private void dfsAllPaths(int current, int target, boolean[] visited, 
-                           List<Integer> currentPath, List<List<T>> allPaths) {
+                           List<Integer> currentPath, List<List<T>> allPaths,
+                           int maxEdges, int maxPaths) {
         visited[current] = true;
         currentPath.add(current);
         
@@ -407,11 +659,11 @@ public class AdjacencyMatrixGraph<T extends Node> implements Graph<T> {
                 path.add(nodes.get(index));
             }
             allPaths.add(path);
-        } else {
+        } else if (currentPath.size() <= maxEdges) {
             // Continuar buscando
-            for (int neighbor = 0; neighbor < nodes.size(); neighbor++) {
+            for (int neighbor = 0; neighbor < nodes.size() && allPaths.size() < maxPaths; neighbor++) {
                 if (!visited[neighbor] && adjacencyMatrix[current][neighbor] != 0) {
-                    dfsAllPaths(neighbor, target, visited, currentPath, allPaths);
+                    dfsAllPaths(neighbor, target, visited, currentPath, allPaths, maxEdges, maxPaths);
                 }
             }
         }
@@ -18,6 +18,7 @@ package Graph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import Interfaces.Node;
 import Models.City;
@@ -36,14 +37,19 @@ import Models.City;
  * - Delega operaciones a la ciudad subyacente
  * - No mantiene sus propias conexiones (responsabilidad del grafo)
  * - Proporciona métodos de comparación y representación
+ * - Puede crearse solo con el ID y cargar la ciudad en el primer uso (ver
+ *   GraphImage): el grafo queda listo sin decodificar el repositorio
  * 
  * Notas:
  * - Los nodos no mantienen sus propias conexiones
  * - Las conexiones son gestionadas por el grafo
- * - La ciudad encapsulada es inmutable (final)
+ * - La referencia a la ciudad no cambia una vez asignada o cargada
  */
 public class CityNode implements Node {
-    private final City city;
+    private final String id;
+    // null si la ciudad se entregó en el constructor
+    private final Function<String, City> loader;
+    private volatile City city;
     
     /**
      * Constructor del nodo de ciudad
@@ -51,14 +57,31 @@ public class CityNode implements Node {
      * @param city Ciudad a encapsular en el nodo
      * 
      * Notas:
-     * - La ciudad se almacena como referencia final
      * - No se permite ciudad null (debería validarse en el constructor)
      * - El nodo delega todas las operaciones a la ciudad
      */
     public CityNode(City city) {
+        this.id = city.getId();
+        this.loader = null;
         this.city = city;
     }
     
+    /**
+     * Constructor de un nodo cuya ciudad se carga en el primer uso
+     * 
+     * @param id ID de la ciudad
+     * @param loader Busca la ciudad por ID (por ejemplo, en el repositorio)
+     * 
+     * Notas:
+     * - getId() no carga la ciudad; getCity(), getName() y toString() sí
+     * - Si el loader no la encuentra, getCity() retorna null y se vuelve a
+     *   intentar en la siguiente llamada
+     */
+    public CityNode(String id, Function<String, City> loader) {
+        this.id = id;
+        this.loader = loader;
+    }
+    
     /**
      * Obtiene la ciudad encapsulada en el nodo
      * 
@@ -70,7 +93,13 @@ public class CityNode implements Node {
      * - Útil para operaciones específicas de ciudad
      */
     public City getCity() {
-        return city;
+        City current = city;
+        if (current == null && loader != null) {
+            // Dos hilos pueden cargarla a la vez; ambos obtienen la misma instancia residente
+            current = loader.apply(id);
+            city = current;
+        }
+        return current;
     }
     
     /**
@@ -78,17 +107,15 @@ public class CityNode implements Node {
      * 
      * @return ID de la ciudad como String
      * 
-     * Proceso:
-     * - Delega la operación al método getId() de la ciudad
-     * 
      * Notas:
      * - Implementa el método de la interfaz Node
      * - El ID es único para cada ciudad
      * - Utilizado por el grafo para identificar nodos
+     * - No carga la ciudad
      */
     @Override
     public String getId() {
-        return city.getId();
+        return id;
     }
     
     /**
@@ -106,7 +133,8 @@ public class CityNode implements Node {
      */
     @Override
     public String getName() {
-        return city.getName();
+        City current = getCity();
+        return current != null ? current.getName() : id;
     }
     
     /**
@@ -137,39 +165,37 @@ public class CityNode implements Node {
      * Proceso:
      * - Verifica si es la misma referencia
      * - Verifica si el objeto es null o de clase diferente
-     * - Compara las ciudades encapsuladas
+     * - Compara los IDs de las ciudades
      * 
      * Criterios de igualdad:
      * - Misma referencia de objeto
      * - Mismo tipo de clase (CityNode)
-     * - Ciudades encapsuladas iguales
+     * - Mismo ID de ciudad
      * 
      * Notas:
-     * - Delega la comparación a la ciudad encapsulada
-     * - Utiliza el método equals de City
+     * - Mismo criterio que City.equals, sin cargar la ciudad
      */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         CityNode cityNode = (CityNode) obj;
-        return city.equals(cityNode.city);
+        return id != null ? id.equals(cityNode.id) : cityNode.id == null;
     }
     
     /**
      * Genera el código hash del nodo
      * 
-     * @return Código hash basado en la ciudad encapsulada
+     * @return Código hash basado en el ID de la ciudad
      * 
      * Notas:
-     * - Delega la operación a la ciudad encapsulada
-     * - Utiliza el método hashCode de City
+     * - Mismo valor que City.hashCode, sin cargar la ciudad
      * - Consistente con el método equals
      * - Útil para estructuras de datos basadas en hash
      */
     @Override
     public int hashCode() {
-        return city.hashCode();
+        return id != null ? id.hashCode() : 0;
     }
     
     /**
@@ -185,6 +211,7 @@ public class CityNode implements Node {
      */
     @Override
     public String toString() {
-        return city.toString();
+        City current = getCity();
+        return current != null ? current.toString() : id;
     }
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+/*
+ * Nombre del Archivo: ConnectionResolver.java
+ *
+ * Descripcion: Resolución masiva de los extremos de las conexiones. Arma una
+ *              sola vez un mapa de ID de ciudad a índice y resuelve todas las
+ *              conexiones en una pasada (en paralelo si son muchas), en lugar
+ *              de buscar cada ciudad recorriendo la lista completa. Las
+ *              conexiones cuyas ciudades no existen se reportan juntas.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import Models.City;
+import Models.Connection;
+
+/**
+ * Resolutor de referencias de conexiones a ciudades
+ *
+ * Proceso:
+ * - El constructor recorre las ciudades una vez y arma el mapa ID -> índice
+ * - resolve() recorre las conexiones una vez y obtiene el índice de origen
+ *   y destino de cada una, o -1 si la ciudad no existe
+ *
+ * Características:
+ * - O(ciudades + conexiones) en lugar de O(ciudades × conexiones)
+ * - Con PARALLEL_THRESHOLD conexiones o más la pasada se reparte entre
+ *   los núcleos disponibles
+ * - Las referencias colgantes (ID null o de una ciudad inexistente) se
+ *   reúnen en la Resolution, en el orden de las conexiones
+ *
+ * Notas:
+ * - No modifica las conexiones; el llamador decide cómo aplicar el resultado
+ * - Si hay ciudades con el ID repetido gana la primera, igual que la
+ *   búsqueda lineal que reemplaza; getCities() retorna solo esas
+ * - Es inmutable y se puede usar desde varios hilos
+ */
+public final class ConnectionResolver {
+    // Conexiones a partir de las cuales la resolución se hace en paralelo
+    public static final int PARALLEL_THRESHOLD = 20_000;
+
+    private final List<City> cities;
+    private final Map<String, Integer> indexById;
+
+    /**
+     * Constructor del resolutor
+     *
+     * @param cities Ciudades contra las que se resuelven las conexiones
+     */
+    public ConnectionResolver(List<City> cities) {
+        this.cities = new ArrayList<>(cities.size());
+        this.indexById = new HashMap<>(Math.max(16, (int) (cities.size() / 0.75f) + 1));
+        for (City city : cities) {
+            if (city != null && city.getId() != null && indexById.putIfAbsent(city.getId(), this.cities.size()) == null) {
+                this.cities.add(city);
+            }
+        }
+    }
+
+    /**
+     * Obtiene las ciudades indexadas
+     * @return Ciudades sin IDs repetidos, en el orden original (índice = posición)
+     */
+    public List<City> getCities() {
+        return new ArrayList<>(cities);
+    }
+
+    /**
+     * Obtiene el índice de una ciudad
+     *
+     * @param cityId ID de la ciudad
+     * @return Índice en getCities(), o -1 si no existe
+     */
+    public int indexOf(String cityId) {
+        Integer index = cityId != null ? indexById.get(cityId) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Busca una ciudad por ID
+     *
+     * @param cityId ID de la ciudad
+     * @return La ciudad, o null si no existe
+     */
+    public City findCity(String cityId) {
+        int index = indexOf(cityId);
+        return index >= 0 ? cities.get(index) : null;
+    }
+
+    /**
+     * Resuelve los extremos de todas las conexiones
+     *
+     * @param connections Conexiones a resolver
+     * @return Índices de origen y destino de cada conexión y las referencias colgantes
+     */
+    public Resolution resolve(List<Connection> connections) {
+        int size = connections.size();
+        int[] fromIndexes = new int[size];
+        int[] toIndexes = new int[size];
+
+        IntStream positions = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            positions = positions.parallel();
+        }
+        List<DanglingReference> dangling = positions
+            .mapToObj(i -> {
+                Connection connection = connections.get(i);
+                int from = indexOf(connection.getFromCityId());
+                int to = indexOf(connection.getToCityId());
+                fromIndexes[i] = from;
+                toIndexes[i] = to;
+                if (from >= 0 && to >= 0) {
+                    return null;
+                }
+                return new DanglingReference(i, connection.getFromCityId(), connection.getToCityId(), from < 0, to < 0);
+            })
+            .filter(Objects::nonNull)
+            .toList();
+
+        return new Resolution(cities, fromIndexes, toIndexes, dangling);
+    }
+
+    /**
+     * Conexión con al menos un extremo sin resolver
+     *
+     * @param position Posición de la conexión en la lista resuelta
+     * @param fromCityId ID de origen guardado en la conexión (puede ser null)
+     * @param toCityId ID de destino guardado en la conexión (puede ser null)
+     * @param fromMissing true si el origen no corresponde a ninguna ciudad
+     * @param toMissing true si el destino no corresponde a ninguna ciudad
+     */
+    public record DanglingReference(int position, String fromCityId, String toCityId,
+                                    boolean fromMissing, boolean toMissing) {
+        @Override
+        public String toString() {
+            return (fromMissing ? "?" : "") + fromCityId + "->" + (toMissing ? "?" : "") + toCityId;
+        }
+    }
+
+    /**
+     * Resultado de resolver una lista de conexiones
+     */
+    public static final class Resolution {
+        private final List<City> cities;
+        private final int[] fromIndexes;
+        private final int[] toIndexes;
+        private final List<DanglingReference> dangling;
+
+        private Resolution(List<City> cities, int[] fromIndexes, int[] toIndexes, List<DanglingReference> dangling) {
+            this.cities = cities;
+            this.fromIndexes = fromIndexes;
+            this.toIndexes = toIndexes;
+            this.dangling = dangling;
+        }
+
+        /**
+         * Obtiene el número de conexiones resueltas
+         * @return Tamaño de la lista de conexiones
+         */
+        public int size() {
+            return fromIndexes.length;
+        }
+
+        /**
+         * Verifica si los dos extremos de una conexión existen
+         *
+         * @param position Posición de la conexión
+         * @return true si origen y destino se resolvieron
+         */
+        public boolean isResolved(int position) {
+            return fromIndexes[position] >= 0 && toIndexes[position] >= 0;
+        }
+
+        /**
+         * Obtiene el índice de la ciudad de origen
+         *
+         * @param position Posición de la conexión
+         * @return Índice en ConnectionResolver.getCities(), o -1 si no existe
+         */
+        public int getFromIndex(int position) {
+            return fromIndexes[position];
+        }
+
+        /**
+         * Obtiene el índice de la ciudad de destino
+         *
+         * @param position Posición de la conexión
+         * @return Índice en ConnectionResolver.getCities(), o -1 si no existe
+         */
+        public int getToIndex(int position) {
+            return toIndexes[position];
+        }
+
+        /**
+         * Obtiene la ciudad de origen
+         *
+         * @param position Posición de la conexión
+         * @return La ciudad, o null si no existe
+         */
+        public City getFromCity(int position) {
+            int index = fromIndexes[position];
+            return index >= 0 ? cities.get(index) : null;
+        }
+
+        /**
+         * Obtiene la ciudad de destino
+         *
+         * @param position Posición de la conexión
+         * @return La ciudad, o null si no existe
+         */
+        public City getToCity(int position) {
+            int index = toIndexes[position];
+            return index >= 0 ? cities.get(index) : null;
+        }
+
+        /**
+         * Obtiene las referencias colgantes
+         * @return Conexiones con algún extremo sin resolver, en orden
+         */
+        public List<DanglingReference> getDangling() {
+            return dangling;
+        }
+
+        /**
+         * Verifica si hay referencias colgantes
+         * @return true si alguna conexión no se pudo resolver
+         */
+        public boolean hasDangling() {
+            return !dangling.isEmpty();
+        }
+
+        /**
+         * Describe las referencias colgantes en una sola línea
+         *
+         * @param limit Máximo de conexiones a listar
+         * @return Texto con el total y las primeras conexiones ("?" marca el extremo inexistente)
+         */
+        public String describeDangling(int limit) {
+            StringBuilder text = new StringBuilder();
+            text.append(dangling.size()).append(" connection(s) reference missing cities: ");
+            int shown = Math.min(limit, dangling.size());
+            text.append(dangling.subList(0, shown).stream()
+                .map(DanglingReference::toString)
+                .collect(Collectors.joining(", ")));
+            if (dangling.size() > shown) {
+                text.append(" (+").append(dangling.size() - shown).append(" more)");
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,892 @@
+/*
+ * Nombre del Archivo: CsrGraph.java
+ *
+ * Descripcion: Grafo inmutable en formato CSR (compressed sparse row): las
+ *              aristas de cada nodo ocupan un tramo contiguo de arreglos de
+ *              destinos y pesos, de modo que recorrer los vecinos de un nodo
+ *              cuesta lo que su grado y no el número total de nodos. Ofrece
+ *              las mismas búsquedas que AdjacencyMatrixGraph y se puede
+ *              construir con CsrGraph.Builder o directamente sobre los
+ *              arreglos de una imagen precompilada (ver GraphImage).
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Graph;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Interfaces.Edge;
+import Interfaces.Graph;
+import Interfaces.Node;
+import Interfaces.SearchVisitor;
+import Metrics.RouteSearchEvent;
+
+/**
+ * Grafo dirigido inmutable en formato CSR
+ *
+ * Estructura de datos:
+ * - offsets (n + 1 enteros): las aristas del nodo i ocupan las posiciones
+ *   [offsets[i], offsets[i + 1]) de los arreglos de aristas
+ * - targets (m enteros): índice del nodo destino de cada arista
+ * - weights (m dobles): peso de cada arista en la métrica del grafo
+ * - edges (m objetos): arista original de cada posición, para getEdge; en
+ *   un grafo armado sobre una imagen (ver GraphImage) cada arista se crea en
+ *   su primer uso a partir del índice de registro guardado en la imagen
+ * - Mapa de ID de nodo a índice para búsqueda rápida
+ *
+ * Características:
+ * - Dijkstra en O((n + m) log n) en lugar de O(n²) de la matriz de adyacencia
+ * - Memoria proporcional a n + m; los arreglos pueden ser vistas sobre un
+ *   archivo mapeado en memoria, sin copiarlos
+ * - Dentro de cada nodo las aristas quedan ordenadas por índice de destino,
+ *   así que las búsquedas recorren los vecinos en el mismo orden que
+ *   AdjacencyMatrixGraph y encuentran las mismas rutas alternativas
+ *
+ * Notas:
+ * - No se puede modificar: addNode y addEdge lanzan
+ *   UnsupportedOperationException; los cambios se publican construyendo un
+ *   grafo nuevo
+ * - Seguro para consultas concurrentes (solo lecturas absolutas sobre los
+ *   arreglos y estructuras por búsqueda)
+ * - A diferencia de la matriz, las aristas con peso 0 se recorren y las
+ *   aristas repetidas entre el mismo par de nodos se conservan (la búsqueda
+ *   usa la de menor peso)
+ *
+ * @param <T> Tipo de nodo del grafo
+ */
+public class CsrGraph<T extends Node> implements Graph<T> {
+    private static final double INFINITY = Double.MAX_VALUE;
+    private static final String DEFAULT_WEIGHT_METRIC = "weight";
+
+    private final String weightMetric;
+    private final List<T> nodes;
+    private final Map<String, Integer> nodeIndexMap;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final DoubleBuffer weights;
+    private final Edge[] edges;
+    // Solo en grafos sobre una imagen: registro de origen de cada posición y fábrica de aristas
+    private final IntBuffer edgeRecords;
+    private final GraphImage.EdgeFactory<T> edgeFactory;
+    // 0 = sin calcular, 1 = conexo, 2 = no conexo
+    private volatile int connectivity;
+
+    /**
+     * Constructor sobre arreglos CSR ya armados
+     *
+     * @param weightMetric Nombre de la métrica de los pesos
+     * @param nodes Nodos en orden de índice (IDs únicos)
+     * @param offsets Inicio de las aristas de cada nodo (n + 1 valores)
+     * @param targets Índice de destino de cada arista
+     * @param weights Peso de cada arista
+     * @param edges Arista original de cada posición
+     *
+     * Notas:
+     * - Los arreglos se usan tal cual, sin copiarlos (ver Builder y GraphImage)
+     */
+    CsrGraph(String weightMetric, List<T> nodes, IntBuffer offsets, IntBuffer targets,
+             DoubleBuffer weights, Edge[] edges) {
+        this(weightMetric, nodes, offsets, targets, weights, edges, null, null);
+    }
+
+    /**
+     * Constructor sobre arreglos CSR con aristas que se crean en su primer uso
+     *
+     * @param weightMetric Nombre de la métrica de los pesos
+     * @param nodes Nodos en orden de índice (IDs únicos)
+     * @param offsets Inicio de las aristas de cada nodo (n + 1 valores)
+     * @param targets Índice de destino de cada arista
+     * @param weights Peso de cada arista
+     * @param edgeRecords Índice del registro de origen de cada arista
+     * @param edgeFactory Crea la arista de una posición a partir de su registro
+     *
+     * Notas:
+     * - Las búsquedas solo usan offsets, destinos y pesos; la fábrica se
+     *   llama desde getEdge, getEdges y la escritura de imágenes
+     */
+    CsrGraph(String weightMetric, List<T> nodes, IntBuffer offsets, IntBuffer targets,
+             DoubleBuffer weights, IntBuffer edgeRecords, GraphImage.EdgeFactory<T> edgeFactory) {
+        this(weightMetric, nodes, offsets, targets, weights, new Edge[targets.limit()], edgeRecords, edgeFactory);
+    }
+
+    private CsrGraph(String weightMetric, List<T> nodes, IntBuffer offsets, IntBuffer targets,
+                     DoubleBuffer weights, Edge[] edges, IntBuffer edgeRecords,
+                     GraphImage.EdgeFactory<T> edgeFactory) {
+        this.weightMetric = weightMetric != null ? weightMetric : DEFAULT_WEIGHT_METRIC;
+        this.nodes = nodes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edges = edges;
+        this.edgeRecords = edgeRecords;
+        this.edgeFactory = edgeFactory;
+        this.nodeIndexMap = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        for (int i = 0; i < nodes.size(); i++) {
+            nodeIndexMap.put(nodes.get(i).getId(), i);
+        }
+    }
+
+    // ========== ESTRUCTURA ==========
+
+    /**
+     * No soportado: el grafo es inmutable (ver Builder)
+     */
+    @Override
+    public boolean addNode(T node) {
+        throw new UnsupportedOperationException("CsrGraph is immutable; use CsrGraph.Builder");
+    }
+
+    /**
+     * No soportado: el grafo es inmutable (ver Builder)
+     */
+    @Override
+    public boolean addEdge(Edge edge) {
+        throw new UnsupportedOperationException("CsrGraph is immutable; use CsrGraph.Builder");
+    }
+
+    /**
+     * Obtiene todos los nodos del grafo
+     * @return Lista copiada de los nodos en orden de índice
+     */
+    @Override
+    public List<T> getNodes() {
+        return new ArrayList<>(nodes);
+    }
+
+    /**
+     * Obtiene todas las aristas del grafo
+     * @return Lista copiada de las aristas, agrupadas por nodo de origen
+     *
+     * Notas:
+     * - En un grafo sobre una imagen crea todas las aristas que falten; las
+     *   que la fábrica no pudo crear se omiten
+     */
+    @Override
+    public List<Edge> getEdges() {
+        if (edgeFactory == null) {
+            return new ArrayList<>(Arrays.asList(edges));
+        }
+        List<Edge> result = new ArrayList<>(edges.length);
+        for (int node = 0; node < nodes.size(); node++) {
+            int end = offsets.get(node + 1);
+            for (int slot = offsets.get(node); slot < end; slot++) {
+                Edge edge = edgeAt(node, slot);
+                if (edge != null) {
+                    result.add(edge);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene un nodo por su ID
+     *
+     * @param id ID del nodo a buscar
+     * @return Nodo con el ID especificado, o null si no se encuentra
+     */
+    @Override
+    public T getNode(String id) {
+        Integer index = nodeIndexMap.get(id);
+        return index != null ? nodes.get(index) : null;
+    }
+
+    /**
+     * Obtiene el número de nodos
+     * @return Cantidad de nodos del grafo
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Obtiene el número de aristas
+     * @return Cantidad de aristas del grafo
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Obtiene el nombre de la métrica de los pesos
+     * @return Métrica de las aristas, por ejemplo "timeMinutes"
+     */
+    public String getWeightMetric() {
+        return weightMetric;
+    }
+
+    // ========== BÚSQUEDAS ==========
+
+    /**
+     * Encuentra la ruta más corta entre dos nodos usando el algoritmo de Dijkstra
+     *
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @return Lista de nodos que forman la ruta más corta, o lista vacía si no hay ruta
+     *
+     * Notas:
+     * - Emite un RouteSearchEvent de JFR, igual que AdjacencyMatrixGraph
+     */
+    @Override
+    public List<T> findPath(T from, T to) {
+        if (from == null || to == null) {
+            return new ArrayList<>();
+        }
+
+        Integer fromIndex = nodeIndexMap.get(from.getId());
+        Integer toIndex = nodeIndexMap.get(to.getId());
+
+        if (fromIndex == null || toIndex == null) {
+            return new ArrayList<>();
+        }
+
+        RouteSearchEvent event = new RouteSearchEvent();
+        event.begin();
+
+        int n = nodes.size();
+        int settled = 0;
+        double[] distances = new double[n];
+        int[] previous = new int[n];
+        boolean[] visited = new boolean[n];
+
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(previous, -1);
+        distances[fromIndex] = 0;
+
+        MinHeap heap = new MinHeap();
+        heap.push(fromIndex, 0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+
+            if (visited[current]) continue;
+            visited[current] = true;
+            settled++;
+
+            if (current == toIndex) break; // Encontrado el destino
+
+            relax(current, distances, previous, visited, heap);
+        }
+
+        List<T> path = new ArrayList<>();
+        if (previous[toIndex] != -1 || fromIndex.equals(toIndex)) {
+            for (int current = toIndex; current != -1; current = previous[current]) {
+                path.add(nodes.get(current));
+            }
+            Collections.reverse(path);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "singleSource";
+            event.origin = from.getName();
+            event.destination = to.getName();
+            event.metric = weightMetric;
+            event.nodesSettled = settled;
+            event.pathNodes = path.size();
+            event.commit();
+        }
+        return path;
+    }
+
+    /**
+     * Encuentra la mejor ruta entre varios orígenes y varios destinos con costo inicial
+     *
+     * @param sources Nodos de origen con el costo de llegar a cada uno
+     * @param targets Nodos de destino con el costo de salir de cada uno
+     * @return Ruta de menor costo total, o lista vacía si no hay ruta
+     *
+     * Notas:
+     * - Misma semántica que AdjacencyMatrixGraph.findPath(Map, Map): una sola
+     *   pasada de Dijkstra que se detiene cuando ningún nodo pendiente puede
+     *   mejorar al mejor destino encontrado
+     */
+    public List<T> findPath(Map<T, Double> sources, Map<T, Double> targets) {
+        if (sources == null || targets == null || sources.isEmpty() || targets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        RouteSearchEvent event = new RouteSearchEvent();
+        event.begin();
+
+        int n = nodes.size();
+        int settled = 0;
+        double[] distances = new double[n];
+        double[] targetCosts = new double[n];
+        int[] previous = new int[n];
+        boolean[] visited = new boolean[n];
+
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(targetCosts, INFINITY);
+        Arrays.fill(previous, -1);
+
+        MinHeap heap = new MinHeap();
+
+        for (Map.Entry<T, Double> source : sources.entrySet()) {
+            Integer index = source.getKey() != null ? nodeIndexMap.get(source.getKey().getId()) : null;
+            double cost = Math.max(0, source.getValue() != null ? source.getValue() : 0);
+            if (index != null && cost < distances[index]) {
+                distances[index] = cost;
+                heap.push(index, cost);
+            }
+        }
+        for (Map.Entry<T, Double> target : targets.entrySet()) {
+            Integer index = target.getKey() != null ? nodeIndexMap.get(target.getKey().getId()) : null;
+            if (index != null) {
+                targetCosts[index] = Math.min(targetCosts[index],
+                    Math.max(0, target.getValue() != null ? target.getValue() : 0));
+            }
+        }
+
+        int bestTarget = -1;
+        double bestCost = INFINITY;
+
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+
+            if (visited[current]) continue;
+            visited[current] = true;
+            settled++;
+
+            // Ningún nodo pendiente puede mejorar al mejor destino encontrado
+            if (distances[current] >= bestCost) break;
+
+            if (targetCosts[current] != INFINITY && distances[current] + targetCosts[current] < bestCost) {
+                bestCost = distances[current] + targetCosts[current];
+                bestTarget = current;
+            }
+
+            relax(current, distances, previous, visited, heap);
+        }
+
+        // Reconstruye la ruta hasta el origen que la inició (previous == -1)
+        List<T> path = new ArrayList<>();
+        for (int current = bestTarget; current != -1; current = previous[current]) {
+            path.add(nodes.get(current));
+        }
+        Collections.reverse(path);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "multiSource";
+            event.origin = path.isEmpty() ? sources.size() + " candidates" : path.get(0).getName();
+            event.destination = path.isEmpty() ? targets.size() + " candidates" : path.get(path.size() - 1).getName();
+            event.metric = weightMetric;
+            event.nodesSettled = settled;
+            event.pathNodes = path.size();
+            event.commit();
+        }
+        return path;
+    }
+
+    /**
+     * Recorre los nodos en orden de distancia desde un conjunto de orígenes
+     *
+     * @param sources Nodos de origen (todos con distancia 0)
+     * @param maxHops Número máximo de aristas desde el origen (negativo = sin límite)
+     * @param visitor Visitante que recibe cada nodo en orden creciente de distancia
+     *
+     * Notas:
+     * - Misma semántica que AdjacencyMatrixGraph.expandFrom
+     */
+    public void expandFrom(Collection<T> sources, int maxHops, SearchVisitor<T> visitor) {
+        if (sources == null || visitor == null) {
+            return;
+        }
+
+        int n = nodes.size();
+        double[] distances = new double[n];
+        int[] hops = new int[n];
+        int[] origin = new int[n];
+        boolean[] visited = new boolean[n];
+
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(origin, -1);
+
+        MinHeap heap = new MinHeap();
+
+        for (T source : sources) {
+            Integer index = source != null ? nodeIndexMap.get(source.getId()) : null;
+            if (index != null && origin[index] == -1) {
+                distances[index] = 0;
+                origin[index] = index;
+                heap.push(index, 0);
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+
+            if (visited[current]) continue;
+            visited[current] = true;
+
+            if (!visitor.visit(nodes.get(current), nodes.get(origin[current]), distances[current], hops[current])) {
+                return;
+            }
+
+            if (maxHops >= 0 && hops[current] >= maxHops) continue;
+
+            int end = offsets.get(current + 1);
+            for (int slot = offsets.get(current); slot < end; slot++) {
+                int neighbor = targets.get(slot);
+                if (!visited[neighbor]) {
+                    double newDistance = distances[current] + weights.get(slot);
+                    if (newDistance < distances[neighbor]) {
+                        distances[neighbor] = newDistance;
+                        hops[neighbor] = hops[current] + 1;
+                        origin[neighbor] = origin[current];
+                        heap.push(neighbor, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Encuentra todas las rutas posibles entre dos nodos
+     *
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @return Lista de todas las rutas (sin ciclos)
+     */
+    public List<List<T>> findAllPaths(T from, T to) {
+        return findAllPaths(from, to, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Encuentra rutas entre dos nodos con límites de profundidad y cantidad
+     *
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @param maxEdges Número máximo de aristas por ruta
+     * @param maxPaths Número máximo de rutas a retornar
+     * @return Lista de rutas encontradas por DFS
+     */
+    public List<List<T>> findAllPaths(T from, T to, int maxEdges, int maxPaths) {
+        Integer fromIndex = nodeIndexMap.get(from.getId());
+        Integer toIndex = nodeIndexMap.get(to.getId());
+
+        if (fromIndex == null || toIndex == null || maxPaths <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<List<T>> allPaths = new ArrayList<>();
+        List<Integer> currentPath = new ArrayList<>();
+        boolean[] visited = new boolean[nodes.size()];
+
+        dfsAllPaths(fromIndex, toIndex, visited, currentPath, allPaths, maxEdges, maxPaths);
+
+        return allPaths;
+    }
+
+    private void dfsAllPaths(int current, int target, boolean[] visited,
+                             List<Integer> currentPath, List<List<T>> allPaths,
+                             int maxEdges, int maxPaths) {
+        visited[current] = true;
+        currentPath.add(current);
+
+        if (current == target) {
+            List<T> path = new ArrayList<>(currentPath.size());
+            for (int index : currentPath) {
+                path.add(nodes.get(index));
+            }
+            allPaths.add(path);
+        } else if (currentPath.size() <= maxEdges) {
+            int end = offsets.get(current + 1);
+            for (int slot = offsets.get(current); slot < end && allPaths.size() < maxPaths; slot++) {
+                int neighbor = targets.get(slot);
+                if (!visited[neighbor]) {
+                    dfsAllPaths(neighbor, target, visited, currentPath, allPaths, maxEdges, maxPaths);
+                }
+            }
+        }
+
+        // Backtrack
+        currentPath.remove(currentPath.size() - 1);
+        visited[current] = false;
+    }
+
+    /**
+     * Obtiene los nodos conectados directamente desde un nodo
+     *
+     * @param node Nodo de origen
+     * @return Destinos de las aristas que salen del nodo
+     */
+    public List<T> getDirectConnections(T node) {
+        Integer index = nodeIndexMap.get(node.getId());
+        if (index == null) {
+            return new ArrayList<>();
+        }
+
+        List<T> connections = new ArrayList<>();
+        int end = offsets.get(index + 1);
+        for (int slot = offsets.get(index); slot < end; slot++) {
+            connections.add(nodes.get(targets.get(slot)));
+        }
+        return connections;
+    }
+
+    /**
+     * Obtiene la arista entre dos nodos
+     *
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @return La primera arista de from hacia to, o null si no existe
+     *
+     * Notas:
+     * - Solo recorre las aristas del nodo de origen
+     * - En un grafo sobre una imagen, crea la arista si es su primer uso (y
+     *   retorna null si la fábrica ya no encuentra su registro)
+     */
+    public Edge getEdge(T from, T to) {
+        Integer fromIndex = from != null ? nodeIndexMap.get(from.getId()) : null;
+        Integer toIndex = to != null ? nodeIndexMap.get(to.getId()) : null;
+        if (fromIndex == null || toIndex == null) {
+            return null;
+        }
+        int end = offsets.get(fromIndex + 1);
+        for (int slot = offsets.get(fromIndex); slot < end; slot++) {
+            if (targets.get(slot) == toIndex) {
+                return edgeAt(fromIndex, slot);
+            }
+        }
+        return null;
+    }
+
+    // ========== ANÁLISIS ==========
+
+    /**
+     * Verifica si el grafo es conexo, ignorando la dirección de las aristas
+     *
+     * @return true si todos los nodos quedan en un mismo componente
+     *
+     * Notas:
+     * - Une los extremos de cada arista (union-find) en O(m); el resultado
+     *   se guarda porque el grafo no cambia
+     */
+    public boolean isConnected() {
+        int state = connectivity;
+        if (state == 0) {
+            state = computeConnected() ? 1 : 2;
+            connectivity = state;
+        }
+        return state == 1;
+    }
+
+    private boolean computeConnected() {
+        int n = nodes.size();
+        if (n == 0) return true;
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        int components = n;
+        for (int node = 0; node < n; node++) {
+            int end = offsets.get(node + 1);
+            for (int slot = offsets.get(node); slot < end; slot++) {
+                int a = find(parent, node);
+                int b = find(parent, targets.get(slot));
+                if (a != b) {
+                    parent[a] = b;
+                    components--;
+                }
+            }
+        }
+        return components == 1;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    /**
+     * Obtiene estadísticas del grafo
+     * @return Texto con nodos, aristas y conectividad (mismo formato que AdjacencyMatrixGraph)
+     */
+    public String getStatistics() {
+        return String.format("Graph Statistics: %d nodes, %d edges, Connected: %s",
+                           nodes.size(), edges.length, isConnected());
+    }
+
+    @Override
+    public String toString() {
+        return "CsrGraph {nodes=" + nodes.size() + ", edges=" + edges.length + ", metric=" + weightMetric + "}";
+    }
+
+    // ========== ACCESO PARA GraphImage ==========
+
+    T nodeAt(int index) { return nodes.get(index); }
+    Edge edgeAt(int slot) {
+        Edge edge = edges[slot];
+        if (edge != null || edgeFactory == null) {
+            return edge;
+        }
+        // Nodo de origen: último offset que no supera la posición
+        int low = 0;
+        int high = nodes.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets.get(mid) <= slot) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return edgeAt(low, slot);
+    }
+    int offsetAt(int index) { return offsets.get(index); }
+    int targetAt(int slot) { return targets.get(slot); }
+    double weightAt(int slot) { return weights.get(slot); }
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Obtiene la arista de una posición, creándola si es su primer uso
+     *
+     * @param from Índice del nodo de origen de la posición
+     * @param slot Posición de la arista
+     * @return La arista, o null si la fábrica no pudo crearla
+     *
+     * Notas:
+     * - Dos hilos pueden crear la misma arista a la vez; ambas son
+     *   equivalentes y la que quede guardada es indistinta (las aristas solo
+     *   tienen campos final, así que se publican completas sin sincronizar)
+     */
+    private Edge edgeAt(int from, int slot) {
+        Edge edge = edges[slot];
+        if (edge == null && edgeFactory != null) {
+            edge = edgeFactory.create(edgeRecords.get(slot), nodes.get(from), nodes.get(targets.get(slot)));
+            edges[slot] = edge;
+        }
+        return edge;
+    }
+
+    /**
+     * Relaja las aristas que salen de un nodo recién fijado
+     */
+    private void relax(int current, double[] distances, int[] previous, boolean[] visited, MinHeap heap) {
+        int end = offsets.get(current + 1);
+        for (int slot = offsets.get(current); slot < end; slot++) {
+            int neighbor = targets.get(slot);
+            if (!visited[neighbor]) {
+                double newDistance = distances[current] + weights.get(slot);
+                if (newDistance < distances[neighbor]) {
+                    distances[neighbor] = newDistance;
+                    previous[neighbor] = current;
+                    heap.push(neighbor, newDistance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Montículo binario de (nodo, distancia) con entradas repetidas
+     *
+     * Notas:
+     * - En lugar de disminuir la clave se inserta otra entrada; las entradas
+     *   de nodos ya fijados se descartan al sacarlas (ver visited)
+     * - La clave se guarda en la entrada, así que el orden no cambia aunque
+     *   la distancia del nodo mejore después
+     */
+    private static final class MinHeap {
+        private double[] keys = new double[16];
+        private int[] items = new int[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int item, double key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                items[i] = items[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+
+        int pop() {
+            int top = items[0];
+            size--;
+            if (size > 0) {
+                double key = keys[size];
+                int item = items[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                    if (keys[child] >= key) break;
+                    keys[i] = keys[child];
+                    items[i] = items[child];
+                    i = child;
+                }
+                keys[i] = key;
+                items[i] = item;
+            }
+            return top;
+        }
+    }
+
+    // ========== CONSTRUCCIÓN ==========
+
+    /**
+     * Constructor incremental de un CsrGraph
+     *
+     * Proceso:
+     * - addNode asigna a cada nodo el siguiente índice
+     * - addEdge resuelve los extremos por ID (o los recibe ya resueltos como
+ *   índices) y guarda la arista
+     * - build() ordena las aristas por origen (conteo) y, dentro de cada
+     *   origen, por destino, y arma los arreglos CSR
+     *
+     * Notas:
+     * - No es seguro para uso concurrente; se usa desde un solo hilo y se descarta
+     *
+     * @param <T> Tipo de nodo del grafo
+     */
+    public static final class Builder<T extends Node> {
+        private final String weightMetric;
+        private final List<T> nodes = new ArrayList<>();
+        private final Map<String, Integer> nodeIndexMap = new HashMap<>();
+        private final List<Edge> edges = new ArrayList<>();
+        private int[] sources = new int[16];
+        private int[] destinations = new int[16];
+
+        /**
+         * Constructor del builder
+         *
+         * @param weightMetric Nombre de la métrica de los pesos de las aristas
+         */
+        public Builder(String weightMetric) {
+            this.weightMetric = weightMetric;
+        }
+
+        /**
+         * Agrega un nodo
+         *
+         * @param node Nodo a agregar
+         * @return true si se agregó, false si es null o su ID ya existe
+         */
+        public boolean addNode(T node) {
+            if (node == null || nodeIndexMap.containsKey(node.getId())) {
+                return false;
+            }
+            nodeIndexMap.put(node.getId(), nodes.size());
+            nodes.add(node);
+            return true;
+        }
+
+        /**
+         * Agrega una arista entre dos nodos ya agregados
+         *
+         * @param edge Arista a agregar
+         * @return true si se agregó, false si es null o algún extremo no está en el grafo
+         */
+        public boolean addEdge(Edge edge) {
+            if (edge == null) {
+                return false;
+            }
+            Integer fromIndex = nodeIndexMap.get(edge.getFrom().getId());
+            Integer toIndex = nodeIndexMap.get(edge.getTo().getId());
+            if (fromIndex == null || toIndex == null) {
+                return false; // Uno o ambos nodos no están en el grafo
+            }
+            return addEdge(fromIndex, toIndex, edge);
+        }
+
+        /**
+         * Agrega una arista con los extremos ya resueltos
+         *
+         * @param fromIndex Índice del nodo de origen (orden de addNode)
+         * @param toIndex Índice del nodo de destino (orden de addNode)
+         * @param edge Arista a agregar
+         * @return true si se agregó, false si es null o algún índice está fuera de rango
+         *
+         * Notas:
+         * - Evita buscar los extremos por ID; se usa con ConnectionResolver
+         */
+        public boolean addEdge(int fromIndex, int toIndex, Edge edge) {
+            if (edge == null || fromIndex < 0 || fromIndex >= nodes.size() || toIndex < 0 || toIndex >= nodes.size()) {
+                return false;
+            }
+            int count = edges.size();
+            if (count == sources.length) {
+                sources = Arrays.copyOf(sources, count * 2);
+                destinations = Arrays.copyOf(destinations, count * 2);
+            }
+            sources[count] = fromIndex;
+            destinations[count] = toIndex;
+            edges.add(edge);
+            return true;
+        }
+
+        /**
+         * Arma el grafo
+         * @return Grafo inmutable con los nodos y aristas agregados
+         */
+        public CsrGraph<T> build() {
+            int n = nodes.size();
+            int m = edges.size();
+
+            // Conteo de aristas por origen
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < m; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            // Cada posición guarda (destino << 32 | arista) para ordenar por destino
+            long[] slots = new long[m];
+            int[] next = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < m; i++) {
+                slots[next[sources[i]]++] = ((long) destinations[i] << 32) | i;
+            }
+
+            int[] targets = new int[m];
+            double[] weights = new double[m];
+            Edge[] ordered = new Edge[m];
+            for (int node = 0; node < n; node++) {
+                Arrays.sort(slots, offsets[node], offsets[node + 1]);
+            }
+            for (int slot = 0; slot < m; slot++) {
+                int edgeIndex = (int) slots[slot];
+                Edge edge = edges.get(edgeIndex);
+                targets[slot] = (int) (slots[slot] >>> 32);
+                weights[slot] = edge.getWeight();
+                ordered[slot] = edge;
+            }
+
+            return new CsrGraph<>(weightMetric, new ArrayList<>(nodes), IntBuffer.wrap(offsets),
+                                  IntBuffer.wrap(targets), DoubleBuffer.wrap(weights), ordered);
+        }
+    }
+}
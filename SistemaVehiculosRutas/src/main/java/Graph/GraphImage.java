@@ -0,0 +1,351 @@
+/*
+ * Nombre del Archivo: GraphImage.java
+ *
+ * Descripcion: Imagen precompilada del grafo de rutas. Guarda junto a los
+ *              archivos de datos los arreglos CSR de un CsrGraph, la tabla de
+ *              IDs de sus nodos, los pesos de la métrica y un hash del
+ *              contenido del que se derivó. Al arrancar se lee el encabezado
+ *              y, si el hash coincide, se mapea en memoria y el grafo se arma
+ *              directamente sobre el archivo sin leer ciudades ni
+ *              conexiones ni ordenar aristas.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Graph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import Interfaces.Edge;
+import Interfaces.Node;
+
+/**
+ * Imagen de un CsrGraph en disco
+ *
+ * Formato (big-endian):
+ * - Entero: número mágico "RGI1"; entero: versión; entero: tamaño del encabezado
+ * - UTF: métrica de los pesos
+ * - Entero + bytes: hash del contenido de origen
+ * - Enteros: número de nodos (n) y de aristas (m)
+ * - n UTF: ID de cada nodo, en orden de índice
+ * - Relleno hasta el tamaño del encabezado (múltiplo de 8)
+ * - n + 1 enteros: offsets; m enteros: destinos; m enteros: índice del
+ *   registro de origen de cada arista (por ejemplo, su posición en
+ *   connections.dat); relleno a 8 bytes; m dobles: pesos
+ *
+ * Características:
+ * - open() lee el encabezado con una lectura normal y solo mapea el archivo
+ *   (en modo lectura) si el hash y la métrica coinciden; una imagen
+ *   desactualizada nunca queda mapeada, así que write() puede reemplazarla
+ *   también en sistemas que no permiten reemplazar archivos mapeados
+ * - Offsets, destinos y pesos del grafo resultante son vistas sobre el
+ *   mapeo, sin copiarlos
+ * - Los nodos se crean a partir de la tabla de IDs y cada arista se crea
+ *   desde su índice de registro la primera vez que se usa
+ * - write() escribe en un archivo temporal y lo mueve sobre la imagen
+ *   anterior, de modo que un lector nunca ve una imagen a medias
+ *
+ * Validaciones:
+ * - open() rechaza archivos con otro número mágico, otra versión o tamaños
+ *   que no coinciden con el archivo
+ * - toGraph() verifica que los offsets y destinos estén en rango; si algo
+ *   no coincide retorna null y el llamador reconstruye el grafo
+ * - Que los IDs y registros correspondan a los datos actuales lo garantiza
+ *   el hash comprobado en open()
+ */
+public final class GraphImage {
+    private static final int MAGIC = 0x52474931; // "RGI1"
+    private static final int VERSION = 1;
+
+    private final ByteBuffer buffer;
+    private final String weightMetric;
+    private final String[] nodeIds;
+    private final int edgeCount;
+    private final int offsetsPosition;
+    private final int targetsPosition;
+    private final int recordsPosition;
+    private final int weightsPosition;
+
+    private GraphImage(ByteBuffer buffer, String weightMetric, String[] nodeIds,
+                       int edgeCount, int headerLength) {
+        this.buffer = buffer;
+        this.weightMetric = weightMetric;
+        this.nodeIds = nodeIds;
+        this.edgeCount = edgeCount;
+        this.offsetsPosition = headerLength;
+        this.targetsPosition = offsetsPosition + (nodeIds.length + 1) * Integer.BYTES;
+        this.recordsPosition = targetsPosition + edgeCount * Integer.BYTES;
+        this.weightsPosition = align(recordsPosition + edgeCount * Integer.BYTES);
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Abre una imagen existente si corresponde a un contenido y una métrica
+     *
+     * @param file Ruta de la imagen
+     * @param expectedHash Hash del contenido actual de origen
+     * @param expectedMetric Métrica de pesos esperada
+     * @return La imagen mapeada, o null si el archivo no existe o su hash o
+     *         su métrica no coinciden
+     * @throws IOException Si el archivo no se puede leer o no es una imagen válida
+     *
+     * Proceso:
+     * - Lee y valida el encabezado sin mapear el archivo
+     * - Compara el hash y la métrica; si no coinciden retorna sin mapear
+     * - Solo entonces lee la tabla de IDs y mapea el archivo completo
+     */
+    public static GraphImage open(Path file, byte[] expectedHash, String expectedMetric) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Graph image too large: " + size + " bytes");
+            }
+            if (size < 3 * Integer.BYTES) {
+                throw new IOException("Not a graph image");
+            }
+
+            ByteBuffer prefix = read(channel, 0, 3 * Integer.BYTES);
+            if (prefix.getInt(0) != MAGIC) {
+                throw new IOException("Not a graph image");
+            }
+            if (prefix.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Unsupported graph image version: " + prefix.getInt(Integer.BYTES));
+            }
+            int headerLength = prefix.getInt(2 * Integer.BYTES);
+            if (headerLength < 3 * Integer.BYTES || headerLength > size || headerLength % Long.BYTES != 0) {
+                throw new IOException("Invalid graph image header length: " + headerLength);
+            }
+
+            byte[] header = read(channel, 3 * Integer.BYTES, headerLength - 3 * Integer.BYTES).array();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+            String weightMetric = in.readUTF();
+            int hashLength = in.readInt();
+            if (hashLength < 0 || hashLength > header.length) {
+                throw new IOException("Invalid graph image hash length: " + hashLength);
+            }
+            byte[] sourceHash = new byte[hashLength];
+            in.readFully(sourceHash);
+            if (!Arrays.equals(sourceHash, expectedHash) || !weightMetric.equals(expectedMetric)) {
+                return null;
+            }
+
+            int nodeCount = in.readInt();
+            int edgeCount = in.readInt();
+            if (nodeCount < 0 || edgeCount < 0) {
+                throw new IOException("Invalid graph image counts: " + nodeCount + " nodes, " + edgeCount + " edges");
+            }
+            String[] nodeIds = new String[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                nodeIds[i] = in.readUTF();
+            }
+
+            long arrays = (long) (nodeCount + 1) * Integer.BYTES + 2L * edgeCount * Integer.BYTES;
+            long expected = align(headerLength + arrays) + (long) edgeCount * Double.BYTES;
+            if (expected != size) {
+                throw new IOException("Graph image size mismatch: expected " + expected + " bytes, found " + size);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new GraphImage(buffer, weightMetric, nodeIds, edgeCount, headerLength);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Obtiene el número de nodos
+     * @return Cantidad de nodos de la imagen
+     */
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+
+    /**
+     * Obtiene el número de aristas
+     * @return Cantidad de aristas de la imagen
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Arma el grafo sobre los arreglos mapeados
+     *
+     * @param nodes Crea el nodo de cada ID de la tabla de la imagen
+     * @param edges Fábrica de la arista de cada posición a partir de su registro de origen
+     * @return El grafo, o null si los offsets o los destinos no son válidos
+     *
+     * Notas:
+     * - Recorre una vez los offsets y los destinos para validarlos; no
+     *   copia ni ordena ningún arreglo
+     * - No crea ninguna arista: el grafo llama a la fábrica en el primer uso
+     *   de cada una
+     */
+    public <T extends Node> CsrGraph<T> toGraph(Function<String, T> nodes, EdgeFactory<T> edges) {
+        int n = nodeIds.length;
+        IntBuffer offsets = buffer.slice(offsetsPosition, (n + 1) * Integer.BYTES).asIntBuffer();
+        IntBuffer targets = buffer.slice(targetsPosition, edgeCount * Integer.BYTES).asIntBuffer();
+        IntBuffer records = buffer.slice(recordsPosition, edgeCount * Integer.BYTES).asIntBuffer();
+        DoubleBuffer weights = buffer.slice(weightsPosition, edgeCount * Double.BYTES).asDoubleBuffer();
+
+        if (offsets.get(0) != 0 || offsets.get(n) != edgeCount) {
+            return null;
+        }
+        for (int node = 0; node < n; node++) {
+            int start = offsets.get(node);
+            int end = offsets.get(node + 1);
+            if (end < start || end > edgeCount) {
+                return null;
+            }
+            for (int slot = start; slot < end; slot++) {
+                int target = targets.get(slot);
+                if (target < 0 || target >= n) {
+                    return null;
+                }
+            }
+        }
+
+        List<T> graphNodes = new ArrayList<>(n);
+        for (String id : nodeIds) {
+            graphNodes.add(nodes.apply(id));
+        }
+        return new CsrGraph<>(weightMetric, List.copyOf(graphNodes), offsets, targets, weights, records, edges);
+    }
+
+    // ========== ESCRITURA ==========
+
+    /**
+     * Escribe la imagen de un grafo
+     *
+     * @param file Ruta de la imagen
+     * @param graph Grafo a guardar
+     * @param sourceHash Hash del contenido del que se construyó el grafo
+     * @param recordIndex Índice del registro de origen de cada arista
+     * @throws IOException Si no se pudo escribir o reemplazar el archivo
+     */
+    public static <T extends Node> void write(Path file, CsrGraph<T> graph, byte[] sourceHash,
+                                              ToIntFunction<Edge> recordIndex) throws IOException {
+        // Temporal único: dos escrituras simultáneas no se pisan
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            writeTo(temp, graph, sourceHash, recordIndex);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <T extends Node> void writeTo(Path temp, CsrGraph<T> graph, byte[] sourceHash,
+                                                 ToIntFunction<Edge> recordIndex) throws IOException {
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            // Encabezado: se arma en memoria para conocer su tamaño
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            DataOutputStream header = new DataOutputStream(headerBytes);
+            header.writeUTF(graph.getWeightMetric());
+            header.writeInt(sourceHash.length);
+            header.write(sourceHash);
+            header.writeInt(n);
+            header.writeInt(m);
+            for (int i = 0; i < n; i++) {
+                header.writeUTF(graph.nodeAt(i).getId());
+            }
+            int headerLength = align(3 * Integer.BYTES + headerBytes.size());
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(headerLength);
+            headerBytes.writeTo(out);
+            pad(out, headerLength);
+
+            for (int i = 0; i <= n; i++) {
+                out.writeInt(graph.offsetAt(i));
+            }
+            for (int slot = 0; slot < m; slot++) {
+                out.writeInt(graph.targetAt(slot));
+            }
+            for (int slot = 0; slot < m; slot++) {
+                out.writeInt(recordIndex.applyAsInt(graph.edgeAt(slot)));
+            }
+            pad(out, align(out.size()));
+            for (int slot = 0; slot < m; slot++) {
+                out.writeDouble(graph.weightAt(slot));
+            }
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static int align(int position) {
+        return (int) align((long) position);
+    }
+
+    private static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated graph image");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void pad(DataOutputStream out, int position) throws IOException {
+        while (out.size() < position) {
+            out.writeByte(0);
+        }
+    }
+
+    /**
+     * Fábrica de aristas de un grafo armado desde la imagen (se llama en el
+     * primer uso de cada arista, posiblemente desde varios hilos)
+     *
+     * @param <T> Tipo de nodo del grafo
+     */
+    @FunctionalInterface
+    public interface EdgeFactory<T extends Node> {
+        /**
+         * Crea la arista de una posición
+         *
+         * @param recordIndex Índice del registro de origen guardado en la imagen
+         * @param from Nodo de origen
+         * @param to Nodo de destino
+         * @return La arista, o null si el registro ya no corresponde a esos nodos
+         */
+        Edge create(int recordIndex, T from, T to);
+    }
+}
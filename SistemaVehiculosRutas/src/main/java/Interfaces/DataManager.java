@@ -4,7 +4,10 @@
  */
 package Interfaces;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -20,7 +23,74 @@ public interface DataManager {
     
     <T extends Serializable> List<T> loadList(String filename, SerializableFactory<T> factory) throws SerializationException;
     
+    /**
+     * Recorre los objetos de un archivo de lista sin cargarlos todos en memoria
+     * 
+     * @param filename Archivo escrito con saveList
+     * @param factory Factory para crear instancias de los objetos
+     * @return Stream perezoso de los objetos en orden de archivo (vacío si el
+     *         archivo no existe); debe cerrarse, por ejemplo con try-with-resources
+     * @throws SerializationException Si el archivo no se puede abrir o su encabezado no es válido
+     * 
+     * Notas:
+     * - Cerrar el stream cierra el archivo
+     * - Un error al decodificar un objeto durante el recorrido se lanza como
+     *   java.io.UncheckedIOException
+     * - La implementación por defecto carga la lista completa con loadList;
+     *   los gestores que pueden leer de forma incremental la reemplazan
+     */
+    default <T extends Serializable> Stream<T> stream(String filename, SerializableFactory<T> factory)
+            throws SerializationException {
+        return loadList(filename, factory).stream();
+    }
+    
     boolean fileExists(String filename);
     
+    /**
+     * Obtiene la ruta en disco de un archivo de datos
+     * 
+     * @param filename Nombre del archivo
+     * @return Ruta del archivo en el directorio de datos, o null si el gestor
+     *         no guarda sus datos en archivos
+     * 
+     * Notas:
+     * - Permite guardar junto a los datos archivos con formato propio, como
+     *   la imagen precompilada del grafo (ver Graph.GraphImage)
+     */
+    default Path resolve(String filename) {
+        return null;
+    }
+    
     boolean deleteFile(String filename);
+    
+    /**
+     * Anexa un registro al final de un archivo de anexos sin reescribirlo
+     * 
+     * @param object Registro a anexar
+     * @param filename Archivo de anexos (se crea si no existe)
+     * @throws SerializationException Si no se pudo escribir o el gestor no admite anexos
+     * 
+     * Notas:
+     * - El costo depende solo del tamaño del registro, no del archivo
+     * - Un archivo de anexos solo se lee con loadAppended
+     */
+    default void append(Serializable object, String filename) throws SerializationException {
+        throw new SerializationException("Append is not supported by " + getClass().getSimpleName());
+    }
+    
+    /**
+     * Carga en orden todos los registros de un archivo de anexos
+     * 
+     * @param filename Archivo de anexos
+     * @param factory Factory para crear instancias de los registros
+     * @return Registros anexados, o lista vacía si el archivo no existe
+     * @throws SerializationException Si no se pudo leer o el gestor no admite anexos
+     */
+    default <T extends Serializable> List<T> loadAppended(String filename, SerializableFactory<T> factory)
+            throws SerializationException {
+        if (!fileExists(filename)) {
+            return new ArrayList<>();
+        }
+        throw new SerializationException("Append is not supported by " + getClass().getSimpleName());
+    }
 }
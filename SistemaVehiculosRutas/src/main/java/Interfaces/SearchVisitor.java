@@ -0,0 +1,32 @@
+/*
+ * Nombre del Archivo: SearchVisitor.java
+ *
+ * Descripcion: Visitante de las expansiones por distancia de los grafos
+ *              (AdjacencyMatrixGraph.expandFrom y CsrGraph.expandFrom).
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Interfaces;
+
+/**
+ * Visitante de la expansión por distancia (ver expandFrom)
+ *
+ * @param <T> Tipo de nodo del grafo
+ */
+@FunctionalInterface
+public interface SearchVisitor<T> {
+    /**
+     * Procesa un nodo en el momento en que se fija su distancia mínima
+     *
+     * @param node Nodo alcanzado
+     * @param origin Origen desde el cual se alcanzó el nodo
+     * @param distance Distancia acumulada desde el origen
+     * @param hops Número de aristas recorridas desde el origen
+     * @return true para continuar la búsqueda, false para detenerla
+     */
+    boolean visit(T node, T origin, double distance, int hops);
+}
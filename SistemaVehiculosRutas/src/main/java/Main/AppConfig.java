@@ -46,6 +46,9 @@ public class AppConfig {
     public static final int GRAPH_CACHE_SIZE = 1000;
     public static final boolean ENABLE_GRAPH_CACHING = true;
     public static final int MAX_CONCURRENT_ROUTES = 100;
+    public static final int USER_SHARD_COUNT = 16; // Archivos en que se reparten los usuarios
+    public static final boolean WRITE_BEHIND_ENABLED = true; // Escribir los repositorios en segundo plano
+    public static final long WRITE_BEHIND_MAX_DELAY_MS = 200; // Máximo que un cambio queda solo en memoria
     
     private AppConfig() {
         // Utility class - prevent instantiation
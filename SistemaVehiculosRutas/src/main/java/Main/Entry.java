@@ -4,19 +4,15 @@
  */
 package Main;
 
-import Admin.AdminService;
-import Admin.CityManagementService;
-import Admin.StationManagementService;
-import Admin.UserManagementService;
+import java.util.ArrayList;
+import java.util.List;
+
 import Binary.BinaryDataManager;
 import Binary.DataInitializationService;
 import Console.ConsoleUI;
 import Interfaces.DataManager;
-import Services.AuthenticationService;
-import Services.RouteService;
-import Services.StationService;
-import Services.VehicleService;
-import User.UserService;
+import Repository.UserRepository;
+import Server.RouteApiServer;
 
 /**
  *
@@ -27,11 +23,16 @@ public class Entry {
     private static final String DATA_DIRECTORY = "data";
     
     public static void main(String[] args) {
+        if (args.length > 0) {
+            handleCommandLineArgs(args);
+            return;
+        }
+        
         System.out.println("🚀 Starting Route Planning System...");
         
         try {
             // Initialize system components
-            RouteSystemContext context = initializeSystem();
+            RouteSystemContext context = initializeSystem(DATA_DIRECTORY);
             
             // Start the console UI
             ConsoleUI consoleUI = new ConsoleUI(
@@ -53,46 +54,22 @@ public class Entry {
     
     /**
      * Initializes the system with all required dependencies
+     * @param dataDirectory directory holding the binary data files
      * @return configured system context
      */
-    private static RouteSystemContext initializeSystem() {
+    public static RouteSystemContext initializeSystem(String dataDirectory) {
         System.out.println("🔧 Initializing system components...");
         
-        // 1. Initialize data manager
-        DataManager dataManager = (DataManager) new BinaryDataManager(DATA_DIRECTORY);
-        System.out.println("✓ Data manager initialized");
-        
-        // 2. Initialize default data if needed
-        DataInitializationService initService = new DataInitializationService(dataManager);
-        initService.initializeDefaultData();
+        // Loads users, cities, connections and catalogs in parallel and builds the graph
+        StartupOrchestrator startup = new StartupOrchestrator(dataDirectory);
+        RouteSystemContext context = startup.start();
         System.out.println("✓ Default data verified");
-        
-        // 3. Initialize core services
-        AuthenticationService authService = new AuthenticationService(dataManager);
-        RouteService routeService = new RouteService(dataManager);
-        StationService stationService = new StationService(dataManager);
-        VehicleService vehicleService = new VehicleService(dataManager, authService);
-        System.out.println("✓ Core services initialized");
-        
-        // 4. Initialize admin services
-        CityManagementService cityManager = new CityManagementService(dataManager);
-        StationManagementService stationManager = new StationManagementService(dataManager);
-        UserManagementService userManager = new UserManagementService(dataManager);
-        AdminService adminService = new AdminService(cityManager, stationManager, userManager, authService);
-        System.out.println("✓ Admin services initialized");
-        
-        // 5. Initialize user services
-        UserService userService = new UserService(vehicleService, routeService);
-        System.out.println("✓ User services initialized");
-        
-        // 6. Create and return system context
-        RouteSystemContext context = new RouteSystemContext(
-            dataManager, authService, routeService, stationService,
-            vehicleService, adminService, userService
-        );
+        System.out.println("✓ Repositories loaded");
+        System.out.println("✓ Services initialized");
         
         System.out.println("✅ System initialization complete!");
-        System.out.println("📊 " + routeService.getGraphStatistics());
+        System.out.println("⏱️ " + startup.formatTimings());
+        System.out.println("📊 " + context.getRouteService().getGraphStatistics());
         
         return context;
     }
@@ -112,6 +89,9 @@ public class Entry {
                     backupSystemData();
                     System.exit(0);
                     break;
+                case "--server":
+                    startServer(args.length > 1 ? args[1] : null);
+                    break;
                 case "--help":
                     showHelp();
                     System.exit(0);
@@ -125,6 +105,32 @@ public class Entry {
         }
     }
     
+    /**
+     * Starts the headless HTTP route API and keeps serving until the process is stopped
+     * @param portArgument port to listen on, or null for the default port
+     */
+    private static void startServer(String portArgument) {
+        int port = RouteApiServer.DEFAULT_PORT;
+        if (portArgument != null) {
+            try {
+                port = Integer.parseInt(portArgument);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port: " + portArgument);
+                System.exit(1);
+            }
+        }
+        
+        RouteSystemContext context = initializeSystem(DATA_DIRECTORY);
+        RouteApiServer server = new RouteApiServer(context, port);
+        if (!server.start()) {
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        
+        System.out.println("🌐 Route API listening on http://localhost:" + server.getPort() + "/api/");
+        System.out.println("   Endpoints: /health, /routes, /isochrone, /stations (Ctrl+C to stop)");
+    }
+    
     /**
      * Resets all system data to defaults
      */
@@ -146,10 +152,11 @@ public class Entry {
         
         BinaryDataManager dataManager = new BinaryDataManager(DATA_DIRECTORY);
         
-        String[] files = {
-            "users.dat", "cities.dat", "connections.dat", 
+        List<String> files = new ArrayList<>(UserRepository.storedFiles(dataManager));
+        files.addAll(List.of(
+            "cities.dat", "connections.dat", 
             "fuel_types.dat", "charger_types.dat"
-        };
+        ));
         
         int backupCount = 0;
         for (String file : files) {
@@ -174,6 +181,8 @@ public class Entry {
         System.out.println("  --help         Show this help message");
         System.out.println("  --reset-data   Reset all data to factory defaults");
         System.out.println("  --backup-data  Create backup of all data files");
+        System.out.println("  --server [port] Serve the route API as JSON over HTTP (default port "
+            + RouteApiServer.DEFAULT_PORT + ")");
         System.out.println();
         System.out.println("Default login credentials:");
         System.out.println("  Admin:  admin / admin123");
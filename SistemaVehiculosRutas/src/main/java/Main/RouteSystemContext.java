@@ -6,6 +6,7 @@ package Main;
 
 import Admin.AdminService;
 import Interfaces.DataManager;
+import Repository.DataStore;
 import Services.AuthenticationService;
 import Services.RouteService;
 import Services.StationService;
@@ -19,6 +20,7 @@ import User.UserService;
 public class RouteSystemContext {
     
     private final DataManager dataManager;
+    private final DataStore dataStore;
     private final AuthenticationService authenticationService;
     private final RouteService routeService;
     private final StationService stationService;
@@ -27,6 +29,7 @@ public class RouteSystemContext {
     private final UserService userService;
     
     public RouteSystemContext(DataManager dataManager,
+                             DataStore dataStore,
                              AuthenticationService authenticationService,
                              RouteService routeService,
                              StationService stationService,
@@ -34,6 +37,7 @@ public class RouteSystemContext {
                              AdminService adminService,
                              UserService userService) {
         this.dataManager = dataManager;
+        this.dataStore = dataStore;
         this.authenticationService = authenticationService;
         this.routeService = routeService;
         this.stationService = stationService;
@@ -44,6 +48,7 @@ public class RouteSystemContext {
     
     // Getters for all services
     public DataManager getDataManager() { return dataManager; }
+    public DataStore getDataStore() { return dataStore; }
     public AuthenticationService getAuthenticationService() { return authenticationService; }
     public RouteService getRouteService() { return routeService; }
     public StationService getStationService() { return stationService; }
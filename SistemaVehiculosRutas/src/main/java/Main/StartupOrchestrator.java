@@ -0,0 +1,256 @@
+/*
+ * Nombre del Archivo: StartupOrchestrator.java
+ *
+ * Descripcion: Arranque del sistema compartido por la consola (Entry) y la
+ *              interfaz gráfica (vista.Main). Verifica los datos por defecto,
+ *              carga en paralelo los archivos independientes (usuarios,
+ *              ciudades, conexiones y catálogos) y arma el grafo de rutas
+ *              sin esperar esas cargas. Mide la duración de cada fase para
+ *              reportarla al terminar.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import Admin.AdminService;
+import Admin.CityManagementService;
+import Admin.StationManagementService;
+import Admin.UserManagementService;
+import Binary.BinaryDataManager;
+import Binary.DataInitializationService;
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Metrics.MetricsRegistry;
+import Repository.DataStore;
+import Services.AuthenticationService;
+import Services.RouteService;
+import Services.StationService;
+import Services.VehicleService;
+import User.UserService;
+
+/**
+ * Orquestador del arranque del sistema
+ *
+ * Fases:
+ * - "defaults": crea los archivos por defecto que falten (secuencial, escribe archivos)
+ * - "users", "catalogs": cargan cada repositorio residente, cada una en su
+ *   propio hilo (los fragmentos de usuarios se cargan a su vez en hilos
+ *   virtuales, ver UserRepository)
+ * - "graph": arma el grafo de rutas en paralelo con las demás fases; si la
+ *   imagen precompilada está vigente no necesita ciudades ni conexiones, y
+ *   si no, las carga él mismo (ver RouteService)
+ * - "cities", "connections": precargan esos repositorios en segundo plano;
+ *   start() no las espera, así que pueden terminar después del arranque (o
+ *   quedar detrás de un primer acceso que ya inició la carga)
+ * - "services": crea los servicios restantes, que no leen archivos
+ *
+ * Características:
+ * - El tiempo total de carga queda acotado por la fase más lenta que se
+ *   espera en lugar de la suma de todas
+ * - Cada fase se registra como "startup.<fase>" en MetricsRegistry y queda
+ *   disponible en getPhaseTimings() / formatTimings()
+ *
+ * Notas:
+ * - Si un archivo no se puede cargar, el error se informa por System.err y
+ *   el arranque continúa; el repositorio vuelve a intentar la carga en su
+ *   siguiente acceso, igual que con la carga perezosa
+ * - Registra el shutdown hook del DataStore para escribir los cambios
+ *   pendientes al salir
+ * - Cada instancia arranca el sistema una sola vez
+ */
+public final class StartupOrchestrator {
+    private static final String METRIC_PREFIX = "startup.";
+    // Hilos de plataforma: las fases decodifican y construyen el grafo sin
+    // bloquearse, y un hilo virtual ocupado no cede su portador a los demás
+    private static final ThreadFactory PHASE_THREADS = Thread.ofPlatform().name("startup-", 0).daemon(true).factory();
+
+    private final String dataDirectory;
+    private final List<PhaseTiming> phases = Collections.synchronizedList(new ArrayList<>());
+    private long startNanos;
+    private long totalMillis;
+
+    /**
+     * Constructor del orquestador
+     *
+     * @param dataDirectory Directorio con los archivos binarios de datos
+     */
+    public StartupOrchestrator(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * Arranca el sistema
+     *
+     * @return Contexto con todos los servicios inicializados
+     * @throws IllegalStateException Si la construcción del grafo falla de
+     *         forma inesperada o el arranque se interrumpe
+     *
+     * Proceso:
+     * - Crea el gestor de datos y verifica los datos por defecto
+     * - Crea el DataStore y registra su shutdown hook
+     * - Lanza en segundo plano la precarga de ciudades y conexiones
+     * - Lanza en paralelo las cargas de usuarios y catálogos y el grafo
+     * - Espera esas fases y crea los demás servicios
+     */
+    public RouteSystemContext start() {
+        if (startNanos != 0) {
+            throw new IllegalStateException("System already started");
+        }
+        startNanos = System.nanoTime();
+
+        // 1. Gestor de datos y datos por defecto (escribe archivos: va antes de las cargas)
+        DataManager dataManager = new BinaryDataManager(dataDirectory);
+        long phaseStart = System.nanoTime();
+        new DataInitializationService(dataManager).initializeDefaultData();
+        record("defaults", phaseStart);
+
+        // 2. Repositorios compartidos
+        DataStore dataStore = new DataStore(dataManager);
+        Runtime.getRuntime().addShutdownHook(dataStore.shutdownHook());
+
+        // 3. Precarga de ciudades y conexiones: el grafo no la espera (hilos daemon, no se unen)
+        PHASE_THREADS.newThread(() -> load("cities", () -> dataStore.getCities().size())).start();
+        PHASE_THREADS.newThread(() -> load("connections", () -> dataStore.getConnections().size())).start();
+
+        // 4. Cargas en paralelo con el grafo
+        RouteService routeService;
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(PHASE_THREADS)) {
+            executor.submit(() -> load("users", () -> dataStore.getUsers().size()));
+            executor.submit(() -> load("catalogs", () -> {
+                dataStore.getFuelTypes().size();
+                dataStore.getChargerTypes().size();
+            }));
+            Future<RouteService> graph = executor.submit(() -> {
+                long graphStart = System.nanoTime();
+                RouteService service = new RouteService(dataStore);
+                record("graph", graphStart);
+                return service;
+            });
+            routeService = graph.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error building route graph: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading system data", e);
+        }
+
+        // 5. Servicios (no leen archivos)
+        phaseStart = System.nanoTime();
+        AuthenticationService authService = new AuthenticationService(dataStore);
+        StationService stationService = new StationService(dataStore);
+        VehicleService vehicleService = new VehicleService(dataStore, authService);
+        CityManagementService cityManager = new CityManagementService(dataStore);
+        StationManagementService stationManager = new StationManagementService(dataStore);
+        UserManagementService userManager = new UserManagementService(dataStore);
+        AdminService adminService = new AdminService(cityManager, stationManager, userManager, authService);
+        UserService userService = new UserService(vehicleService, routeService);
+        record("services", phaseStart);
+
+        totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        MetricsRegistry.getDefault().histogram(METRIC_PREFIX + "total").recordSince(startNanos);
+
+        return new RouteSystemContext(
+            dataManager, dataStore, authService, routeService, stationService,
+            vehicleService, adminService, userService
+        );
+    }
+
+    // ========== TIEMPOS ==========
+
+    /**
+     * Obtiene la duración de cada fase
+     * @return Fases ordenadas por su inicio (vacía si aún no se arrancó)
+     */
+    public List<PhaseTiming> getPhaseTimings() {
+        List<PhaseTiming> snapshot;
+        synchronized (phases) {
+            snapshot = new ArrayList<>(phases);
+        }
+        snapshot.sort(Comparator.comparingLong(PhaseTiming::startMillis));
+        return snapshot;
+    }
+
+    /**
+     * Obtiene la duración total del arranque
+     * @return Milisegundos desde el inicio de start() hasta el contexto listo
+     */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * Formatea los tiempos de arranque para la consola
+     * @return Una línea por fase con su inicio relativo y su duración
+     */
+    public String formatTimings() {
+        StringBuilder report = new StringBuilder();
+        report.append("Startup completed in ").append(totalMillis).append(" ms");
+        for (PhaseTiming phase : getPhaseTimings()) {
+            report.append(String.format("%n   %-12s %6d ms (started at %d ms)",
+                phase.name(), phase.durationMillis(), phase.startMillis()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Duración de una fase del arranque
+     *
+     * @param name Nombre de la fase
+     * @param startMillis Inicio relativo al comienzo del arranque
+     * @param durationMillis Duración de la fase
+     */
+    public record PhaseTiming(String name, long startMillis, long durationMillis) {}
+
+    // ========== AUXILIARES ==========
+
+    /**
+     * Ejecuta la carga de una fase y registra su duración
+     *
+     * @param phase Nombre de la fase
+     * @param task Carga a ejecutar
+     *
+     * Manejo de errores:
+     * - Informa la falla y continúa; el repositorio queda sin cargar y
+     *   reintenta en su siguiente acceso
+     */
+    private void load(String phase, LoadTask task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (SerializationException e) {
+            System.err.println("Error loading " + phase + ": " + e.getMessage());
+        }
+        record(phase, start);
+    }
+
+    private void record(String phase, long start) {
+        long end = System.nanoTime();
+        phases.add(new PhaseTiming(phase,
+            TimeUnit.NANOSECONDS.toMillis(start - startNanos),
+            TimeUnit.NANOSECONDS.toMillis(end - start)));
+        MetricsRegistry.getDefault().histogram(METRIC_PREFIX + phase).recordSince(start);
+    }
+
+    /**
+     * Carga de un repositorio
+     */
+    @FunctionalInterface
+    private interface LoadTask {
+        void run() throws SerializationException;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Nombre del Archivo: CacheStats.java
+ *
+ * Descripcion: Contadores de aciertos y fallos de un caché o de un
+ *              repositorio residente, para calcular su tasa de aciertos.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aciertos y fallos de un caché
+ *
+ * Notas:
+ * - Un acierto es un acceso resuelto en memoria; un fallo es un acceso que
+ *   tuvo que cargar o reconstruir los datos
+ */
+public final class CacheStats {
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CacheStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Obtiene el nombre del caché
+     * @return Nombre registrado
+     */
+    public String getName() { return name; }
+
+    /** Registra un acceso resuelto en memoria */
+    public void hit() { hits.increment(); }
+
+    /** Registra un acceso que tuvo que cargar los datos */
+    public void miss() { misses.increment(); }
+
+    /**
+     * Obtiene el número de aciertos
+     * @return Aciertos desde el último reinicio
+     */
+    public long getHits() { return hits.sum(); }
+
+    /**
+     * Obtiene el número de fallos
+     * @return Fallos desde el último reinicio
+     */
+    public long getMisses() { return misses.sum(); }
+
+    /**
+     * Calcula la tasa de aciertos
+     * @return Fracción de accesos resueltos en memoria (0 si no hubo accesos)
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /** Descarta los contadores */
+    public void reset() {
+        hits.reset();
+        misses.reset();
+    }
+}
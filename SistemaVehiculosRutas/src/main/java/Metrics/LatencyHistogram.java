@@ -0,0 +1,151 @@
+/*
+ * Nombre del Archivo: LatencyHistogram.java
+ *
+ * Descripcion: Histograma de latencias sin candados con cubetas logarítmicas
+ *              al estilo HDR: cada potencia de dos se divide en 32 cubetas
+ *              lineales, de modo que cualquier percentil se reporta con un
+ *              error relativo menor al 3.2% usando memoria fija, sin importar
+ *              si las mediciones son de microsegundos o de minutos.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos
+ *
+ * Características:
+ * - Registro sin candados: un incremento atómico por cubeta y contadores LongAdder
+ * - Valores menores a 32 ns se guardan exactos; los demás en la cubeta
+ *   lineal correspondiente dentro de su potencia de dos
+ * - Los percentiles reportan el valor más alto de la cubeta (nunca subestiman)
+ *
+ * Notas:
+ * - Las lecturas no detienen los registros concurrentes; una instantánea
+ *   puede no incluir las mediciones que ocurren mientras se calcula
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor del histograma
+     * @param name Nombre de la operación medida
+     */
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Obtiene el nombre de la operación medida
+     * @return Nombre del histograma
+     */
+    public String getName() { return name; }
+
+    /**
+     * Registra una medición
+     *
+     * @param nanos Duración en nanosegundos (los valores negativos cuentan como 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(index(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde un instante de System.nanoTime()
+     *
+     * @param startNanos Instante inicial
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Calcula una instantánea con los percentiles principales
+     *
+     * @return Conteo, promedio, p50, p99, p999 y máximo en nanosegundos
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long maxValue = max.get();
+        double mean = total == 0 ? 0 : (double) sum.sum() / total;
+        return new Snapshot(total, mean,
+            percentile(counts, total, 0.50, maxValue),
+            percentile(counts, total, 0.99, maxValue),
+            percentile(counts, total, 0.999, maxValue),
+            maxValue);
+    }
+
+    /**
+     * Descarta todas las mediciones
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    // ========== CUBETAS ==========
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long maxValue) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Instantánea inmutable de un histograma (valores en nanosegundos)
+     */
+    public record Snapshot(long count, double mean, long p50, long p99, long p999, long max) {}
+}
@@ -0,0 +1,155 @@
+/*
+ * Nombre del Archivo: MetricsRegistry.java
+ *
+ * Descripcion: Registro de métricas del proceso. Agrupa por nombre los
+ *              histogramas de latencia, los contadores (LongAdder) y las
+ *              estadísticas de caché que registran los servicios de rutas,
+ *              autenticación y persistencia, y genera un reporte de texto que
+ *              se puede consultar desde la consola de administración o
+ *              guardar en un archivo.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de métricas por nombre
+ *
+ * Características:
+ * - Histogramas de latencia con p50, p99 y p999 (ver LatencyHistogram)
+ * - Contadores LongAdder (bytes leídos y escritos, registros, resultados)
+ * - Aciertos y fallos de cachés y repositorios residentes
+ * - Reporte de texto ordenado por nombre
+ *
+ * Notas:
+ * - Las métricas se crean al primer uso y no se eliminan; reset() solo
+ *   pone sus valores en cero, así que las referencias guardadas en campos
+ *   estáticos siguen siendo válidas
+ * - Los servicios usan el registro por defecto del proceso
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, CacheStats> caches = new ConcurrentSkipListMap<>();
+    private volatile Instant since = Instant.now();
+
+    /**
+     * Obtiene el registro de métricas del proceso
+     * @return Registro compartido por todos los servicios
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // ========== MÉTRICAS ==========
+
+    /**
+     * Obtiene (o crea) un histograma de latencia
+     *
+     * @param name Nombre de la operación, por ejemplo "route.findRoutes"
+     * @return Histograma registrado con ese nombre
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Obtiene (o crea) un contador
+     *
+     * @param name Nombre del contador, por ejemplo "persistence.bytesRead"
+     * @return Contador registrado con ese nombre
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Obtiene (o crea) las estadísticas de un caché
+     *
+     * @param name Nombre del caché, por ejemplo "repository.users.dat"
+     * @return Estadísticas registradas con ese nombre
+     */
+    public CacheStats cache(String name) {
+        return caches.computeIfAbsent(name, CacheStats::new);
+    }
+
+    /**
+     * Pone en cero todas las métricas registradas
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+        caches.values().forEach(CacheStats::reset);
+        since = Instant.now();
+    }
+
+    // ========== REPORTES ==========
+
+    /**
+     * Genera un reporte de texto con todas las métricas
+     *
+     * @return Reporte con latencias en microsegundos, contadores y tasas de acierto
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        Duration elapsed = Duration.between(since, Instant.now());
+        report.append(String.format("Metrics since %s (%d min %d s)%n",
+            since, elapsed.toMinutes(), elapsed.toSecondsPart()));
+
+        report.append(String.format("%nLatency (microseconds)%n%-34s %9s %11s %11s %11s %11s %11s%n",
+            "Operation", "Count", "Mean", "p50", "p99", "p999", "Max"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue().snapshot();
+            report.append(String.format("%-34s %9d %11.1f %11.1f %11.1f %11.1f %11.1f%n",
+                entry.getKey(), s.count(), s.mean() / 1e3, s.p50() / 1e3, s.p99() / 1e3,
+                s.p999() / 1e3, s.max() / 1e3));
+        }
+
+        report.append(String.format("%nCounters%n"));
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            report.append(String.format("%-34s %,20d%n", entry.getKey(), entry.getValue().sum()));
+        }
+
+        report.append(String.format("%nCaches%n%-34s %12s %12s %9s%n", "Name", "Hits", "Misses", "Hit rate"));
+        for (CacheStats cache : caches.values()) {
+            report.append(String.format("%-34s %,12d %,12d %8.1f%%%n",
+                cache.getName(), cache.getHits(), cache.getMisses(), cache.getHitRate() * 100));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Guarda el reporte de métricas en un archivo de texto
+     *
+     * @param filename Ruta del archivo (se sobrescribe si existe)
+     * @return true si se guardó correctamente, false en caso de error
+     */
+    public boolean dumpToFile(String filename) {
+        try {
+            Path path = Paths.get(filename);
+            Files.writeString(path, report(), StandardCharsets.UTF_8);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing metrics file: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Nombre del Archivo: PersistenceEvent.java
+ *
+ * Descripcion: Evento de JDK Flight Recorder emitido por cada lectura o
+ *              escritura de un archivo de datos binario. Registra el archivo,
+ *              la operación, los bytes, la cantidad de registros y la
+ *              duración, de modo que una grabación en producción muestre qué
+ *              guardados y cargas causan picos de latencia.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de entrada/salida de archivos de datos
+ *
+ * Notas:
+ * - Mismo patrón que RouteSearchEvent: begin() antes de la operación y
+ *   commit() solo si shouldCommit() es true
+ * - Incluye la traza de llamada, útil para saber qué servicio provocó el guardado
+ */
+@Name("SistemaVehiculosRutas.Persistence")
+@Label("Data File I/O")
+@Category({"SistemaVehiculosRutas", "Persistence"})
+@Description("Binary data file read or write")
+public class PersistenceEvent extends Event {
+    @Label("File")
+    public String filename;
+
+    @Label("Operation")
+    @Description("save, saveList, load, loadList, stream, append or loadAppended")
+    public String operation;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Records")
+    public int records;
+}
@@ -0,0 +1,65 @@
+/*
+ * Nombre del Archivo: RouteSearchEvent.java
+ *
+ * Descripcion: Evento de JDK Flight Recorder emitido por cada búsqueda de
+ *              Dijkstra del motor de rutas. Registra el origen, el destino, la
+ *              métrica que se minimiza, los nodos fijados y la duración, de
+ *              modo que una grabación en producción muestre exactamente qué
+ *              búsquedas causan picos de latencia.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de búsqueda de ruta
+ *
+ * Uso:
+ * - Crear el evento y llamar begin() antes de la búsqueda
+ * - Al terminar, si shouldCommit() es true, asignar los campos y llamar commit()
+ *
+ * Notas:
+ * - La duración la mide JFR entre begin() y commit()
+ * - Con JFR desactivado begin() y shouldCommit() no hacen nada y el JIT
+ *   elimina la creación del objeto, así que el costo es prácticamente nulo
+ * - Los campos de texto solo se asignan si el evento se va a registrar
+ * - Se activa con: java -XX:StartFlightRecording ... o desde JDK Mission Control
+ */
+@Name("SistemaVehiculosRutas.RouteSearch")
+@Label("Route Search")
+@Category({"SistemaVehiculosRutas", "Routes"})
+@Description("Shortest path search in the route graph")
+@StackTrace(false)
+public class RouteSearchEvent extends Event {
+    @Label("Search")
+    @Description("Kind of search: single source or multiple sources and targets")
+    public String search;
+
+    @Label("Origin")
+    public String origin;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Metric")
+    @Description("Edge weight minimized by the search")
+    public String metric;
+
+    @Label("Nodes Settled")
+    public int nodesSettled;
+
+    @Label("Path Nodes")
+    @Description("Number of nodes in the path found, 0 if there is no path")
+    public int pathNodes;
+}
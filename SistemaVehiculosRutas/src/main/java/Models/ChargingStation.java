@@ -20,9 +20,12 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import Binary.CatalogRegistry;
 import Vehicle.ChargerType;
+import Vehicle.EnergyTypeOrdinals;
 
 /**
  * Clase que representa una estación de carga eléctrica
@@ -41,6 +44,8 @@ public class ChargingStation extends Station{
     
     private List<ChargerType> availableChargers;
     private boolean isPublic;
+    private transient long chargerMask;
+    private transient boolean chargerMaskValid;
     
     /**
      * Constructor por defecto de la estación de carga
@@ -78,9 +83,13 @@ public class ChargingStation extends Station{
     
     /**
      * Obtiene los tipos de cargadores disponibles en la estación
-     * @return Lista de tipos de cargadores disponibles
+     * @return Vista de solo lectura de los tipos de cargadores disponibles
+     * 
+     * Notas:
+     * - Para modificar la lista usar addChargerType/removeChargerType/setAvailableChargers,
+     *   que mantienen actualizada la máscara de compatibilidad
      */
-    public List<ChargerType> getAvailableChargers() { return availableChargers; }
+    public List<ChargerType> getAvailableChargers() { return Collections.unmodifiableList(availableChargers); }
     
     /**
      * Establece los tipos de cargadores disponibles en la estación
@@ -92,6 +101,7 @@ public class ChargingStation extends Station{
      */
     public void setAvailableChargers(List<ChargerType> availableChargers) { 
         this.availableChargers = new ArrayList<>(availableChargers); 
+        invalidateChargerMask();
     }
     
     /**
@@ -118,6 +128,7 @@ public class ChargingStation extends Station{
     public void addChargerType(ChargerType chargerType) {
         if (!availableChargers.contains(chargerType)) {
             availableChargers.add(chargerType);
+            invalidateChargerMask();
         }
     }
     
@@ -128,7 +139,11 @@ public class ChargingStation extends Station{
      * @return true si se eliminó exitosamente, false si no estaba en la lista
      */
     public boolean removeChargerType(ChargerType chargerType) {
-        return availableChargers.remove(chargerType);
+        if (availableChargers.remove(chargerType)) {
+            invalidateChargerMask();
+            return true;
+        }
+        return false;
     }
     
     /**
@@ -140,9 +155,62 @@ public class ChargingStation extends Station{
      * Notas:
      * - Utilizado para verificar compatibilidad con vehículos eléctricos
      * - Útil para filtrado de estaciones en planificación de rutas
+     * - Se resuelve con la máscara de bits, sin recorrer la lista, salvo
+     *   para los tipos que comparten el bit de desborde
      */
     public boolean supportsChargerType(ChargerType chargerType) {
-        return availableChargers.contains(chargerType);
+        if (chargerType == null) {
+            return false;
+        }
+        if (!EnergyTypeOrdinals.hasOwnBit(chargerType.getOrdinal())) {
+            return supportsEnergyOrdinal(chargerType.getOrdinal());
+        }
+        return (getEnergyMask() & chargerType.getMask()) != 0;
+    }
+    
+    /**
+     * Verifica si la estación ofrece el tipo de energía con un ordinal dado
+     * 
+     * @param ordinal Ordinal del tipo
+     * @return true si alguno de los tipos disponibles tiene ese ordinal
+     */
+    @Override
+    public boolean supportsEnergyOrdinal(int ordinal) {
+        for (ChargerType type : availableChargers) {
+            if (type.getOrdinal() == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Obtiene la máscara de bits de los cargadores disponibles
+     * 
+     * @return OR de los bits de cada tipo de cargador disponible
+     * 
+     * Notas:
+     * - Se calcula una sola vez y se guarda hasta que cambian los cargadores
+     */
+    @Override
+    public long getEnergyMask() {
+        if (!chargerMaskValid) {
+            long mask = 0L;
+            for (ChargerType charger : availableChargers) {
+                mask |= charger.getMask();
+            }
+            chargerMask = mask;
+            chargerMaskValid = true;
+        }
+        return chargerMask;
+    }
+    
+    /**
+     * Invalida la máscara precalculada de la estación y de su ciudad
+     */
+    private void invalidateChargerMask() {
+        chargerMaskValid = false;
+        energyTypesChanged();
     }
     
     /**
@@ -168,14 +236,14 @@ public class ChargingStation extends Station{
      * 
      * Datos serializados:
      * - Número de tipos de cargadores disponibles
-     * - Información de cada tipo de cargador
+     * - Referencia (ID) a cada tipo de cargador del catálogo
      * - Estado público/privado de la estación
      */
     @Override
     protected void serializeSpecific(DataOutputStream out) throws IOException {
         out.writeInt(availableChargers.size());
         for (ChargerType charger : availableChargers) {
-            charger.serialize(out);
+            CatalogRegistry.writeChargerRef(out, charger);
         }
         out.writeBoolean(isPublic);
     }
@@ -188,7 +256,7 @@ public class ChargingStation extends Station{
      * 
      * Proceso:
      * - Lee el número de tipos de cargadores
-     * - Deserializa cada tipo de cargador
+     * - Resuelve cada referencia a la instancia canónica del catálogo
      * - Reconstruye la lista de cargadores disponibles
      * - Restaura el estado público/privado de la estación
      */
@@ -197,10 +265,9 @@ public class ChargingStation extends Station{
         int chargerCount = in.readInt();
         this.availableChargers = new ArrayList<>();
         for (int i = 0; i < chargerCount; i++) {
-            ChargerType charger = new ChargerType();
-            charger.deserialize(in);
-            availableChargers.add(charger);
+            availableChargers.add(CatalogRegistry.readChargerRef(in));
         }
+        invalidateChargerMask();
         this.isPublic = in.readBoolean();
     }
     
@@ -6,7 +6,9 @@
  *              integración con algoritmos de grafos y persistencia de datos.
  *              Almacena información geográfica de la ciudad y gestiona las
  *              estaciones ubicadas en ella, proporcionando funcionalidades
- *              para agregar y eliminar estaciones de forma segura.
+ *              para agregar y eliminar estaciones de forma segura. Las
+ *              estaciones leídas de un archivo se decodifican solo cuando
+ *              se consultan por primera vez.
  * 
  * Nombre de los Integrantes:
  * Javier Lee Liang
@@ -19,10 +21,14 @@ package Models;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import Binary.RecordBlock;
+import Binary.RecordFormat;
+import Binary.RecordInputStream;
 import Interfaces.Node;
 import Interfaces.Serializable;
 
@@ -37,13 +43,28 @@ import Interfaces.Serializable;
  * - Funcionalidades para agregar y eliminar estaciones
  * 
  * Utilizada como nodo en el grafo de ciudades para planificación de rutas.
+ * 
+ * Hidratación diferida de estaciones:
+ * - Al deserializar desde un archivo con bloques (ver RecordBlock), las
+ *   estaciones se guardan como bytes sin decodificar junto con su cantidad
+ * - getStations() (y cualquier operación que las use) las decodifica la
+ *   primera vez; getStationCount() no necesita decodificarlas
+ * - Si la ciudad se vuelve a guardar sin haber consultado sus estaciones,
+ *   el bloque se copia tal cual
+ * - Los listados de ciudades, el grafo y el índice espacial nunca
+ *   decodifican estaciones
  */
 public class City implements Node, Serializable {
     private String id;
     private String name;
     private double latitude;
     private double longitude;
-    private List<Station> stations;
+    // null mientras las estaciones estén solo en stationBlock
+    private volatile List<Station> stations;
+    private transient RecordBlock stationBlock;
+    private transient int stationBlockCount;
+    private transient long energyMask;
+    private transient boolean energyMaskValid;
     
     /**
      * Constructor por defecto para deserialización
@@ -123,14 +144,41 @@ public class City implements Node, Serializable {
     /**
      * Obtiene la lista de estaciones de la ciudad
      * @return Lista de estaciones en la ciudad
+     * 
+     * Notas:
+     * - Para agregar o quitar estaciones usar addStation/removeStation, que
+     *   mantienen actualizada la máscara de compatibilidad de la ciudad
+     * - La lista retornada no se modifica nunca: esos métodos publican una
+     *   lista nueva, así que se puede recorrer sin candados
      */
-    public List<Station> getStations() { return stations; }
+    public List<Station> getStations() {
+        List<Station> current = stations;
+        return current != null ? current : hydrateStations();
+    }
+    
+    /**
+     * Obtiene el número de estaciones de la ciudad
+     * @return Cantidad de estaciones, sin decodificarlas si aún no se consultaron
+     */
+    public int getStationCount() {
+        List<Station> current = stations;
+        if (current != null) {
+            return current.size();
+        }
+        synchronized (this) {
+            return stations != null ? stations.size() : stationBlockCount;
+        }
+    }
     
     /**
      * Establece la lista de estaciones de la ciudad
      * @param stations Nueva lista de estaciones
      */
-    public void setStations(List<Station> stations) { this.stations = stations; }
+    public synchronized void setStations(List<Station> stations) { 
+        this.stationBlock = null;
+        this.stations = stations; 
+        invalidateEnergyMask();
+    }
     
     // ========== IMPLEMENTACIÓN DE INTERFAZ NODE ==========
     
@@ -157,11 +205,18 @@ public class City implements Node, Serializable {
      * - Verifica que la estación no esté ya en la lista
      * - Establece automáticamente la referencia de la ciudad en la estación
      * - Evita duplicados automáticamente
+     * - Publica una lista nueva en lugar de modificar la actual, así quien ya
+     *   la esté recorriendo (serialize, el índice de energía) no ve el cambio
      */
-    public void addStation(Station station) {
-        if (!stations.contains(station)) {
-            stations.add(station);
+    public synchronized void addStation(Station station) {
+        List<Station> current = getStations();
+        if (!current.contains(station)) {
+            List<Station> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(station);
+            stations = updated;
             station.setCity(this);
+            invalidateEnergyMask();
         }
     }
     
@@ -175,15 +230,68 @@ public class City implements Node, Serializable {
      * - Elimina la estación de la lista de la ciudad
      * - Quita la referencia de la ciudad en la estación
      * - Mantiene la integridad de las referencias
+     * - Igual que addStation, publica una lista nueva
      */
-    public boolean removeStation(Station station) {
-        if (stations.remove(station)) {
+    public synchronized boolean removeStation(Station station) {
+        List<Station> updated = new ArrayList<>(getStations());
+        if (updated.remove(station)) {
+            stations = updated;
             station.setCity(null);
+            invalidateEnergyMask();
             return true;
         }
         return false;
     }
     
+    // ========== COMPATIBILIDAD ==========
+    
+    /**
+     * Obtiene la máscara precalculada de tipos de energía disponibles en la ciudad
+     * 
+     * @return OR de las máscaras de todas las estaciones de la ciudad
+     * 
+     * Notas:
+     * - Se calcula una sola vez y se guarda hasta que cambian las estaciones
+     *   o los tipos de energía de alguna de ellas
+     * - Permite descartar una ciudad completa con un solo AND
+     */
+    public long getEnergyMask() {
+        if (!energyMaskValid) {
+            long mask = 0L;
+            for (Station station : getStations()) {
+                mask |= station.getEnergyMask();
+            }
+            energyMask = mask;
+            energyMaskValid = true;
+        }
+        return energyMask;
+    }
+    
+    /**
+     * Verifica si la ciudad tiene al menos una estación compatible con una máscara
+     * 
+     * @param vehicleMask Máscara de tipos de energía del vehículo
+     * @return true si alguna estación de la ciudad ofrece alguno de los tipos
+     * 
+     * Notas:
+     * - Es un filtro: si el único bit en común es el de desborde (ver
+     *   Vehicle.EnergyTypeOrdinals) puede dar un falso positivo, que se
+     *   descarta al revisar cada estación con Vehicle.isCompatibleWith
+     */
+    public boolean hasCompatibleStation(long vehicleMask) {
+        return (getEnergyMask() & vehicleMask) != 0;
+    }
+    
+    /**
+     * Invalida la máscara precalculada de la ciudad
+     * 
+     * Notas:
+     * - Llamado por las estaciones cuando cambian sus tipos de energía
+     */
+    void invalidateEnergyMask() {
+        energyMaskValid = false;
+    }
+    
     // ========== SERIALIZACIÓN ==========
     
     /**
@@ -195,19 +303,32 @@ public class City implements Node, Serializable {
      * Datos serializados:
      * - ID, nombre, latitud y longitud de la ciudad
      * - Número de estaciones
-     * - Información completa de cada estación
+     * - Información completa de cada estación (como bloque con longitud en
+     *   un RecordOutputStream, ver RecordBlock)
      */
     @Override
     public void serialize(DataOutputStream out) throws IOException {
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(name != null ? name : "");
         out.writeDouble(latitude);
         out.writeDouble(longitude);
         
-        out.writeInt(stations.size());
-        for (Station station : stations) {
-            station.serialize(out);
+        synchronized (this) {
+            if (stations == null && stationBlock.canCopyTo(out)) {
+                // Estaciones nunca consultadas: copiar el bloque sin decodificarlo
+                out.writeInt(stationBlockCount);
+                stationBlock.copyTo(out);
+                return;
+            }
         }
+        
+        List<Station> current = getStations();
+        out.writeInt(current.size());
+        RecordBlock.write(out, block -> {
+            for (Station station : current) {
+                station.serialize(block);
+            }
+        });
     }
     
     /**
@@ -219,23 +340,69 @@ public class City implements Node, Serializable {
      * Proceso:
      * - Lee la información básica de la ciudad (ID, nombre, coordenadas)
      * - Lee el número de estaciones
-     * - Deserializa cada estación y establece la referencia de la ciudad
-     * - Reconstruye la lista completa de estaciones
+     * - Si el archivo usa bloques, guarda los bytes de las estaciones para
+     *   decodificarlos en el primer acceso
+     * - En formatos anteriores deserializa cada estación en el momento
      */
     @Override
     public void deserialize(DataInputStream in) throws IOException {
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
         this.name = in.readUTF();
         this.latitude = in.readDouble();
         this.longitude = in.readDouble();
         
         int stationCount = in.readInt();
-        this.stations = new ArrayList<>();
-        for (int i = 0; i < stationCount; i++) {
+        RecordBlock block = RecordBlock.read(in);
+        synchronized (this) {
+            if (block != null) {
+                this.stationBlock = block;
+                this.stationBlockCount = stationCount;
+                this.stations = null;
+            } else {
+                this.stationBlock = null;
+                this.stations = readStations(in, stationCount);
+            }
+            invalidateEnergyMask();
+        }
+    }
+    
+    /**
+     * Decodifica las estaciones pendientes del bloque
+     * 
+     * @return La lista de estaciones ya decodificada
+     * @throws UncheckedIOException Si el bloque está dañado
+     * 
+     * Notas:
+     * - Sincronizado: si varios hilos consultan a la vez, se decodifica una sola vez
+     */
+    private synchronized List<Station> hydrateStations() {
+        if (stations == null) {
+            try (RecordInputStream in = stationBlock.open()) {
+                stations = readStations(in, stationBlockCount);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupted station data for city " + id, e);
+            }
+            stationBlock = null;
+        }
+        return stations;
+    }
+    
+    /**
+     * Deserializa una secuencia de estaciones de esta ciudad
+     * 
+     * @param in Stream posicionado en la primera estación
+     * @param count Número de estaciones a leer
+     * @return Lista con las estaciones, cada una con la referencia a la ciudad
+     * @throws IOException Si ocurre un error durante la lectura
+     */
+    private List<Station> readStations(DataInputStream in, int count) throws IOException {
+        List<Station> list = new ArrayList<>(Math.max(0, count));
+        for (int i = 0; i < count; i++) {
             Station station = Station.deserializeFromStream(in);
             station.setCity(this);
-            stations.add(station);
+            list.add(station);
         }
+        return list;
     }
     
     // ========== MÉTODOS DE OBJETO ==========
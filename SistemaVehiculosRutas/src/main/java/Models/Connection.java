@@ -20,6 +20,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 
+import Binary.RecordFormat;
 import Interfaces.Edge;
 import Interfaces.Node;
 import Interfaces.Serializable;
@@ -227,7 +228,7 @@ public class Connection implements Edge, Serializable{
      * @throws IOException Si ocurre un error durante la escritura
      * 
      * Datos serializados:
-     * - IDs de ciudades de origen y destino
+     * - IDs de ciudades de origen y destino (16 bytes por UUID, ver RecordFormat)
      * - Distancia en kilómetros
      * - Tiempo en minutos
      * - Costo en moneda local
@@ -235,8 +236,8 @@ public class Connection implements Edge, Serializable{
     @Override
     public void serialize(DataOutputStream out) throws IOException {
         // Serializar IDs de ciudades para persistencia
-        out.writeUTF(fromCityId != null ? fromCityId : "");
-        out.writeUTF(toCityId != null ? toCityId : "");
+        RecordFormat.writeId(out, fromCityId);
+        RecordFormat.writeId(out, toCityId);
         out.writeDouble(distance);
         out.writeInt(timeMinutes);
         out.writeDouble(cost);
@@ -257,8 +258,8 @@ public class Connection implements Edge, Serializable{
     @Override
     public void deserialize(DataInputStream in) throws IOException {
         // Leer IDs de ciudades desde datos serializados
-        String fromCityId = in.readUTF();
-        String toCityId = in.readUTF();
+        String fromCityId = RecordFormat.readId(in);
+        String toCityId = RecordFormat.readId(in);
         this.distance = in.readDouble();
         this.timeMinutes = in.readInt();
         this.cost = in.readDouble();
@@ -291,6 +292,26 @@ public class Connection implements Edge, Serializable{
         }
     }
     
+    /**
+     * Restaura las referencias de ciudades ya resueltas
+     * 
+     * @param fromCity Ciudad de origen resuelta (null si no existe)
+     * @param toCity Ciudad de destino resuelta (null si no existe)
+     * 
+     * Notas:
+     * - Misma semántica que resolveCityReferences(Function): no modifica los
+     *   IDs guardados, así que una ciudad inexistente deja la referencia en null
+     * - Se usa con Graph.ConnectionResolver, que resuelve todas las conexiones a la vez
+     */
+    public void resolveCityReferences(City fromCity, City toCity) {
+        if (fromCityId != null) {
+            this.fromCity = fromCity;
+        }
+        if (toCityId != null) {
+            this.toCity = toCity;
+        }
+    }
+    
     /**
      * Genera una representación en cadena de la conexión
      * 
@@ -340,8 +361,8 @@ public class Connection implements Edge, Serializable{
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Connection that = (Connection) obj;
-        return fromCity != null ? fromCity.equals(that.fromCity) : that.fromCity == null &&
-               toCity != null ? toCity.equals(that.toCity) : that.toCity == null;
+        return (fromCity != null ? fromCity.equals(that.fromCity) : that.fromCity == null) &&
+               (toCity != null ? toCity.equals(that.toCity) : that.toCity == null);
     }
     
     /**
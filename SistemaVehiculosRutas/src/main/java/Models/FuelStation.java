@@ -20,8 +20,11 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import Binary.CatalogRegistry;
+import Vehicle.EnergyTypeOrdinals;
 import Vehicle.FuelType;
 
 /**
@@ -39,6 +42,8 @@ import Vehicle.FuelType;
 public class FuelStation extends Station{
     
     private List<FuelType> availableFuels;
+    private transient long fuelMask;
+    private transient boolean fuelMaskValid;
     
     /**
      * Constructor por defecto de la estación de combustible
@@ -71,9 +76,13 @@ public class FuelStation extends Station{
     
     /**
      * Obtiene los tipos de combustible disponibles en la estación
-     * @return Lista de tipos de combustible disponibles
+     * @return Vista de solo lectura de los tipos de combustible disponibles
+     * 
+     * Notas:
+     * - Para modificar la lista usar addFuelType/removeFuelType/setAvailableFuels,
+     *   que mantienen actualizada la máscara de compatibilidad
      */
-    public List<FuelType> getAvailableFuels() { return availableFuels; }
+    public List<FuelType> getAvailableFuels() { return Collections.unmodifiableList(availableFuels); }
     
     /**
      * Establece los tipos de combustible disponibles en la estación
@@ -85,6 +94,7 @@ public class FuelStation extends Station{
      */
     public void setAvailableFuels(List<FuelType> availableFuels) { 
         this.availableFuels = new ArrayList<>(availableFuels); 
+        invalidateFuelMask();
     }
     
     /**
@@ -99,6 +109,7 @@ public class FuelStation extends Station{
     public void addFuelType(FuelType fuelType) {
         if (!availableFuels.contains(fuelType)) {
             availableFuels.add(fuelType);
+            invalidateFuelMask();
         }
     }
     
@@ -109,7 +120,11 @@ public class FuelStation extends Station{
      * @return true si se eliminó exitosamente, false si no estaba en la lista
      */
     public boolean removeFuelType(FuelType fuelType) {
-        return availableFuels.remove(fuelType);
+        if (availableFuels.remove(fuelType)) {
+            invalidateFuelMask();
+            return true;
+        }
+        return false;
     }
     
     /**
@@ -121,9 +136,62 @@ public class FuelStation extends Station{
      * Notas:
      * - Utilizado para verificar compatibilidad con vehículos
      * - Útil para filtrado de estaciones en planificación de rutas
+     * - Se resuelve con la máscara de bits, sin recorrer la lista, salvo
+     *   para los tipos que comparten el bit de desborde
      */
     public boolean supportsFuelType(FuelType fuelType) {
-        return availableFuels.contains(fuelType);
+        if (fuelType == null) {
+            return false;
+        }
+        if (!EnergyTypeOrdinals.hasOwnBit(fuelType.getOrdinal())) {
+            return supportsEnergyOrdinal(fuelType.getOrdinal());
+        }
+        return (getEnergyMask() & fuelType.getMask()) != 0;
+    }
+    
+    /**
+     * Verifica si la estación ofrece el tipo de energía con un ordinal dado
+     * 
+     * @param ordinal Ordinal del tipo
+     * @return true si alguno de los tipos disponibles tiene ese ordinal
+     */
+    @Override
+    public boolean supportsEnergyOrdinal(int ordinal) {
+        for (FuelType type : availableFuels) {
+            if (type.getOrdinal() == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Obtiene la máscara de bits de los combustibles disponibles
+     * 
+     * @return OR de los bits de cada tipo de combustible disponible
+     * 
+     * Notas:
+     * - Se calcula una sola vez y se guarda hasta que cambian los combustibles
+     */
+    @Override
+    public long getEnergyMask() {
+        if (!fuelMaskValid) {
+            long mask = 0L;
+            for (FuelType fuel : availableFuels) {
+                mask |= fuel.getMask();
+            }
+            fuelMask = mask;
+            fuelMaskValid = true;
+        }
+        return fuelMask;
+    }
+    
+    /**
+     * Invalida la máscara precalculada de la estación y de su ciudad
+     */
+    private void invalidateFuelMask() {
+        fuelMaskValid = false;
+        energyTypesChanged();
     }
     
     /**
@@ -148,13 +216,13 @@ public class FuelStation extends Station{
      * 
      * Datos serializados:
      * - Número de tipos de combustible disponibles
-     * - Información de cada tipo de combustible
+     * - Referencia (ID) a cada tipo de combustible del catálogo
      */
     @Override
     protected void serializeSpecific(DataOutputStream out) throws IOException {
         out.writeInt(availableFuels.size());
         for (FuelType fuel : availableFuels) {
-            fuel.serialize(out);
+            CatalogRegistry.writeFuelRef(out, fuel);
         }
     }
     
@@ -166,7 +234,7 @@ public class FuelStation extends Station{
      * 
      * Proceso:
      * - Lee el número de tipos de combustible
-     * - Deserializa cada tipo de combustible
+     * - Resuelve cada referencia a la instancia canónica del catálogo
      * - Reconstruye la lista de combustibles disponibles
      */
     @Override
@@ -174,10 +242,9 @@ public class FuelStation extends Station{
         int fuelCount = in.readInt();
         this.availableFuels = new ArrayList<>();
         for (int i = 0; i < fuelCount; i++) {
-            FuelType fuel = new FuelType();
-            fuel.deserialize(in);
-            availableFuels.add(fuel);
+            availableFuels.add(CatalogRegistry.readFuelRef(in));
         }
+        invalidateFuelMask();
     }
     
     /**
@@ -0,0 +1,105 @@
+/*
+ * Nombre del Archivo: NearbyStation.java
+ *
+ * Descripcion: Resultado de la búsqueda de estaciones compatibles cercanas a una
+ *              ruta. Asocia una estación con la ciudad de la ruta desde la cual
+ *              se llega a ella, el tiempo de desvío necesario y el número de
+ *              conexiones fuera de la ruta que hay que recorrer.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Models;
+
+/**
+ * Estación compatible encontrada cerca de una ruta
+ *
+ * Esta clase representa una estación encontrada por la búsqueda de
+ * estaciones cercanas a una ruta:
+ * - La estación y la ciudad donde se encuentra
+ * - La ciudad de la ruta desde la cual se realiza el desvío
+ * - El tiempo de desvío en minutos (0 si la estación está en la ruta)
+ * - El número de conexiones recorridas fuera de la ruta
+ *
+ * Notas:
+ * - Es un objeto de solo lectura, no se persiste
+ */
+public class NearbyStation {
+
+    private final Station station;
+    private final City city;
+    private final City routeCity;
+    private final double detourMinutes;
+    private final int hops;
+
+    /**
+     * Constructor del resultado
+     *
+     * @param station Estación encontrada
+     * @param city Ciudad donde se encuentra la estación
+     * @param routeCity Ciudad de la ruta desde la cual se llega a la estación
+     * @param detourMinutes Tiempo de desvío en minutos desde la ruta
+     * @param hops Número de conexiones fuera de la ruta
+     */
+    public NearbyStation(Station station, City city, City routeCity, double detourMinutes, int hops) {
+        this.station = station;
+        this.city = city;
+        this.routeCity = routeCity;
+        this.detourMinutes = detourMinutes;
+        this.hops = hops;
+    }
+
+    /**
+     * Obtiene la estación encontrada
+     * @return La estación compatible
+     */
+    public Station getStation() { return station; }
+
+    /**
+     * Obtiene la ciudad donde se encuentra la estación
+     * @return La ciudad de la estación
+     */
+    public City getCity() { return city; }
+
+    /**
+     * Obtiene la ciudad de la ruta desde la cual se realiza el desvío
+     * @return La ciudad de la ruta más cercana a la estación
+     */
+    public City getRouteCity() { return routeCity; }
+
+    /**
+     * Obtiene el tiempo de desvío desde la ruta
+     * @return Minutos de viaje desde la ciudad de la ruta hasta la estación
+     */
+    public double getDetourMinutes() { return detourMinutes; }
+
+    /**
+     * Obtiene el número de conexiones fuera de la ruta
+     * @return 0 si la estación está en una ciudad de la ruta
+     */
+    public int getHops() { return hops; }
+
+    /**
+     * Verifica si la estación está directamente sobre la ruta
+     * @return true si no se requiere desvío
+     */
+    public boolean isOnRoute() { return hops == 0; }
+
+    /**
+     * Representación en cadena del resultado
+     *
+     * @return Cadena con la estación, su ciudad y el desvío necesario
+     */
+    @Override
+    public String toString() {
+        if (isOnRoute()) {
+            return String.format("%s in %s (on route)", station.getName(), city.getName());
+        }
+        return String.format("%s in %s (%.0f min detour from %s, %d hop%s)",
+            station.getName(), city.getName(), detourMinutes, routeCity.getName(),
+            hops, hops == 1 ? "" : "s");
+    }
+}
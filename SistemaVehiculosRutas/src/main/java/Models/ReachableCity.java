@@ -0,0 +1,64 @@
+/*
+ * Nombre del Archivo: ReachableCity.java
+ *
+ * Descripcion: Resultado de la búsqueda de isócronas. Asocia una ciudad
+ *              alcanzable desde un origen con el tiempo de viaje mínimo y el
+ *              número de conexiones del camino más rápido.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Models;
+
+/**
+ * Ciudad alcanzable dentro de un tiempo máximo de viaje
+ *
+ * Notas:
+ * - Es un objeto de solo lectura, no se persiste
+ * - El origen también se incluye, con tiempo 0 y 0 conexiones
+ */
+public class ReachableCity {
+
+    private final City city;
+    private final double minutes;
+    private final int hops;
+
+    /**
+     * Constructor del resultado
+     *
+     * @param city Ciudad alcanzada
+     * @param minutes Tiempo de viaje mínimo desde el origen en minutos
+     * @param hops Número de conexiones del camino más rápido
+     */
+    public ReachableCity(City city, double minutes, int hops) {
+        this.city = city;
+        this.minutes = minutes;
+        this.hops = hops;
+    }
+
+    /**
+     * Obtiene la ciudad alcanzada
+     * @return La ciudad
+     */
+    public City getCity() { return city; }
+
+    /**
+     * Obtiene el tiempo de viaje desde el origen
+     * @return Tiempo en minutos
+     */
+    public double getMinutes() { return minutes; }
+
+    /**
+     * Obtiene el número de conexiones recorridas desde el origen
+     * @return Número de conexiones
+     */
+    public int getHops() { return hops; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.0f min, %d hop%s)", city.getName(), minutes, hops, hops == 1 ? "" : "s");
+    }
+}
@@ -175,17 +175,21 @@ public class Route {
      * 
      * Proceso:
      * - Recorre todas las ciudades de la ruta
-     * - Para cada ciudad, verifica todas sus estaciones
-     * - Filtra estaciones compatibles con el vehículo especificado
+     * - Descarta con la máscara de la ciudad las que no tienen ninguna estación compatible
+     * - En las demás, filtra las estaciones con Vehicle.isCompatibleWith
+     *   (un AND de máscaras salvo para tipos que comparten el bit de desborde)
      * 
      * Notas:
-     * - Utiliza el método isCompatibleWith del vehículo
      * - Útil para planificación de paradas de recarga/combustible
      */
     public List<Station> getCompatibleStations(Vehicle vehicle) {
         List<Station> compatibleStations = new ArrayList<>();
+        long vehicleMask = vehicle.getEnergyMask();
         
         for (City city : cities) {
+            if (!city.hasCompatibleStation(vehicleMask)) {
+                continue;
+            }
             for (Station station : city.getStations()) {
                 if (vehicle.isCompatibleWith(station)) {
                     compatibleStations.add(station);
@@ -21,6 +21,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.UUID;
 
+import Binary.RecordFormat;
 import Interfaces.Serializable;
 
 /**
@@ -133,6 +134,44 @@ public abstract class Station implements Serializable {
      */
     public abstract String getStationType();
     
+    /**
+     * Obtiene los tipos de energía que ofrece la estación como máscara de bits
+     * 
+     * @return OR de los bits de cada tipo de cargador o combustible disponible
+     * 
+     * Notas:
+     * - Debe ser implementado por las clases hijas
+     * - Un vehículo es compatible si su máscara comparte algún bit con esta,
+     *   salvo que el único bit compartido sea el de desborde (ver
+     *   Vehicle.EnergyTypeOrdinals y Vehicle.isCompatibleWith)
+     */
+    public abstract long getEnergyMask();
+    
+    /**
+     * Verifica si la estación ofrece el tipo de energía con un ordinal dado
+     * 
+     * @param ordinal Ordinal del tipo de cargador o combustible
+     * @return true si alguno de los tipos disponibles tiene ese ordinal
+     * 
+     * Notas:
+     * - Recorre los tipos disponibles; se usa solo cuando la máscara no
+     *   alcanza para decidir (tipos que comparten el bit de desborde)
+     */
+    public abstract boolean supportsEnergyOrdinal(int ordinal);
+    
+    /**
+     * Notifica que cambiaron los tipos de energía de la estación
+     * 
+     * Notas:
+     * - Las clases hijas lo llaman al modificar sus tipos disponibles
+     * - Invalida la máscara precalculada de la ciudad que contiene la estación
+     */
+    protected void energyTypesChanged() {
+        if (city != null) {
+            city.invalidateEnergyMask();
+        }
+    }
+    
     /**
      * Serializa campos específicos de la estación
      * 
@@ -175,7 +214,7 @@ public abstract class Station implements Serializable {
     @Override
     public void serialize(DataOutputStream out) throws IOException {
         out.writeUTF(getClass().getSimpleName()); // Escribir tipo de clase
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(name != null ? name : "");
         out.writeUTF(address != null ? address : "");
         serializeSpecific(out);
@@ -197,7 +236,7 @@ public abstract class Station implements Serializable {
     @Override
     public void deserialize(DataInputStream in) throws IOException {
         // El tipo de clase ya fue leído por el método de fábrica
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
         this.name = in.readUTF();
         this.address = in.readUTF();
         deserializeSpecific(in);
@@ -0,0 +1,299 @@
+/*
+ * Nombre del Archivo: CityRepository.java
+ *
+ * Descripcion: Repositorio residente de ciudades con un índice adicional por
+ *              nombre normalizado (sin acentos ni mayúsculas). El índice es un
+ *              arreglo ordenado de nombres que permite búsquedas exactas, por
+ *              prefijo (autocompletado) y por distancia de edición acotada
+ *              sin recorrer ni volver a cargar la lista de ciudades.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import Binary.FileConstants;
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Models.City;
+
+/**
+ * Repositorio de ciudades indexado por ID y por nombre
+ *
+ * Características:
+ * - Nombres normalizados: sin acentos, en minúsculas y con espacios simples
+ *   ("San José" y "san jose" son el mismo nombre)
+ * - Arreglo ordenado de nombres reconstruido en cada cambio del repositorio
+ * - Búsqueda exacta y por prefijo con búsqueda binaria
+ * - Búsqueda por distancia de edición (Levenshtein) que recorre el arreglo
+ *   como un trie: reutiliza las filas de cálculo del prefijo común con el
+ *   nombre anterior y salta todos los nombres de un prefijo que ya no puede
+ *   quedar dentro de la distancia máxima
+ *
+ * Notas:
+ * - El índice se publica a través de un campo volatile; las consultas no
+ *   toman el candado del repositorio
+ * - El alta de una ciudad con un nombre normalizado ya existente se rechaza
+ *   de forma atómica
+ */
+public class CityRepository extends EntityRepository<City> {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private volatile NameIndex nameIndex = new NameIndex(new String[0], new City[0]);
+
+    /**
+     * Constructor del repositorio de ciudades
+     *
+     * @param dataManager Gestor de datos para la persistencia
+     */
+    public CityRepository(DataManager dataManager) {
+        super(dataManager, FileConstants.CITIES_FILE, City::new, City::getId);
+    }
+
+    // ========== CONSULTAS POR NOMBRE ==========
+
+    /**
+     * Busca una ciudad por su nombre exacto (normalizado)
+     *
+     * @param name Nombre de la ciudad
+     * @return La primera ciudad con ese nombre, o null si no existe
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    public City findByName(String name) throws SerializationException {
+        String key = normalizeName(name);
+        if (key.isEmpty()) {
+            return null;
+        }
+        ensureLoaded();
+        NameIndex index = nameIndex;
+        int position = index.lowerBound(key);
+        return position < index.keys.length && index.keys[position].equals(key) ? index.cities[position] : null;
+    }
+
+    /**
+     * Busca las ciudades cuyo nombre comienza con un prefijo
+     *
+     * @param prefix Prefijo del nombre (se normaliza)
+     * @param limit Número máximo de resultados
+     * @return Ciudades en orden alfabético de nombre normalizado
+     * @throws SerializationException Si el archivo no se puede cargar
+     *
+     * Notas:
+     * - Pensado para autocompletado en las interfaces de usuario
+     * - Un prefijo vacío retorna las primeras ciudades en orden alfabético
+     */
+    public List<City> findByNamePrefix(String prefix, int limit) throws SerializationException {
+        List<City> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        String key = normalizeName(prefix);
+        ensureLoaded();
+        NameIndex index = nameIndex;
+        for (int i = index.lowerBound(key); i < index.keys.length && result.size() < limit; i++) {
+            if (!index.keys[i].startsWith(key)) {
+                break;
+            }
+            result.add(index.cities[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Busca las ciudades cuyo nombre está a una distancia de edición acotada
+     *
+     * @param name Nombre aproximado (se normaliza)
+     * @param maxDistance Distancia de edición máxima permitida
+     * @param limit Número máximo de resultados
+     * @return Ciudades ordenadas por distancia y luego por nombre
+     * @throws SerializationException Si el archivo no se puede cargar
+     *
+     * Notas:
+     * - Tolera errores de escritura como "Alajuel" o "San Jsoe"
+     */
+    public List<City> findBySimilarName(String name, int maxDistance, int limit) throws SerializationException {
+        String key = normalizeName(name);
+        if (key.isEmpty() || maxDistance < 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        ensureLoaded();
+        NameIndex index = nameIndex;
+        String[] keys = index.keys;
+        int m = key.length();
+
+        // rows[d] = fila de Levenshtein para los primeros d caracteres del nombre actual
+        int[][] rows = new int[index.maxLength + 1][m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+
+        List<int[]> matches = new ArrayList<>(); // {posición, distancia}
+        String previous = "";
+        int validDepth = 0;
+        int i = 0;
+        while (i < keys.length) {
+            String current = keys[i];
+            int depth = Math.min(commonPrefix(previous, current), validDepth) + 1;
+            boolean pruned = false;
+            for (; depth <= current.length(); depth++) {
+                if (computeRow(rows[depth - 1], rows[depth], current.charAt(depth - 1), key) > maxDistance) {
+                    pruned = true;
+                    break;
+                }
+            }
+            previous = current;
+            if (pruned) {
+                // Ningún nombre con este prefijo puede quedar dentro de la distancia
+                validDepth = depth - 1;
+                i = index.skipPrefix(current.substring(0, depth), i);
+                continue;
+            }
+            validDepth = current.length();
+            if (rows[current.length()][m] <= maxDistance) {
+                matches.add(new int[] { i, rows[current.length()][m] });
+            }
+            i++;
+        }
+
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[1]).thenComparingInt(match -> match[0]));
+        List<City> result = new ArrayList<>();
+        for (int k = 0; k < matches.size() && k < limit; k++) {
+            result.add(index.cities[matches.get(k)[0]]);
+        }
+        return result;
+    }
+
+    /**
+     * Normaliza un nombre de ciudad para compararlo
+     *
+     * @param name Nombre original
+     * @return Nombre sin acentos, en minúsculas y con espacios simples (vacío si es null)
+     */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected void rebuildIndexes(List<City> list) {
+        Integer[] order = new Integer[list.size()];
+        String[] normalized = new String[list.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            normalized[i] = normalizeName(list.get(i).getName());
+        }
+        // Orden estable: ante nombres iguales se conserva el orden del archivo
+        Arrays.sort(order, Comparator.comparing(position -> normalized[position]));
+
+        String[] keys = new String[order.length];
+        City[] cities = new City[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = normalized[order[i]];
+            cities[i] = list.get(order[i]);
+        }
+        nameIndex = new NameIndex(keys, cities);
+    }
+
+    @Override
+    protected boolean conflicts(City city) {
+        String key = normalizeName(city.getName());
+        if (key.isEmpty()) {
+            return false;
+        }
+        NameIndex index = nameIndex;
+        int position = index.lowerBound(key);
+        return position < index.keys.length && index.keys[position].equals(key);
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    /**
+     * Calcula una fila de la matriz de Levenshtein
+     *
+     * @return El valor mínimo de la fila (cota inferior para cualquier extensión del prefijo)
+     */
+    private static int computeRow(int[] previousRow, int[] row, char c, String query) {
+        row[0] = previousRow[0] + 1;
+        int min = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previousRow[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(previousRow[j] + 1, row[j - 1] + 1));
+            min = Math.min(min, row[j]);
+        }
+        return min;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Índice inmutable de nombres ordenados
+     */
+    private static final class NameIndex {
+        final String[] keys;
+        final City[] cities;
+        final int maxLength;
+
+        NameIndex(String[] keys, City[] cities) {
+            this.keys = keys;
+            this.cities = cities;
+            int longest = 0;
+            for (String key : keys) {
+                longest = Math.max(longest, key.length());
+            }
+            this.maxLength = longest;
+        }
+
+        /** Primera posición cuyo nombre es mayor o igual a la clave */
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** Primera posición después de from cuyo nombre no comienza con el prefijo */
+        int skipPrefix(String prefix, int from) {
+            int low = from + 1;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].startsWith(prefix)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * Nombre del Archivo: CitySpatialIndex.java
+ *
+ * Descripcion: Índice espacial de ciudades por coordenadas geográficas.
+ *              Divide la superficie en celdas de latitud/longitud de tamaño
+ *              fijo y guarda en cada celda las coordenadas en arreglos
+ *              primitivos, de modo que las consultas de ciudades más cercanas
+ *              a un punto y de ciudades dentro de un radio solo revisan las
+ *              celdas cercanas en lugar de recorrer todas las ciudades.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import Interfaces.SerializationException;
+import Models.City;
+
+/**
+ * Índice espacial de ciudades basado en celdas de latitud/longitud
+ *
+ * Características:
+ * - Celdas de CELL_DEGREES grados (aprox. 55 km de lado en el ecuador)
+ * - Cada celda guarda latitudes y longitudes en arreglos double[] paralelos
+ * - Consulta de las k ciudades más cercanas por anillos de celdas, con corte
+ *   cuando ninguna celda restante puede contener una ciudad más cercana
+ * - Consulta por radio limitada a las celdas que cubren el círculo
+ * - Altas, bajas y cambios de coordenadas incrementales
+ * - Distancias calculadas con la fórmula de haversine
+ *
+ * Notas:
+ * - El índice se construye de forma perezosa desde el repositorio de
+ *   ciudades en la primera consulta o modificación, y se descarta cuando
+ *   el repositorio se recarga completo
+ * - Las coordenadas se copian al índice; si se modifican en el lugar las
+ *   coordenadas de una ciudad se debe llamar a add() de nuevo
+ * - Las longitudes se tratan de forma circular (el antimeridiano no es un borde)
+ */
+public class CitySpatialIndex {
+    /** Radio medio de la Tierra en kilómetros */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Tamaño de cada celda en grados */
+    static final double CELL_DEGREES = 0.5;
+
+    private static final int ROWS = (int) Math.ceil(180.0 / CELL_DEGREES);
+    private static final int COLS = (int) Math.ceil(360.0 / CELL_DEGREES);
+
+    // Desplazamientos de columna que cubren cada longitud exactamente una vez
+    private static final int MIN_COL_OFFSET = -((COLS - 1) / 2);
+    private static final int MAX_COL_OFFSET = COLS / 2;
+
+    private final EntityRepository<City> cities;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Bucket> buckets = new HashMap<>();
+    private final Map<String, Integer> cellOfCity = new HashMap<>();
+    private boolean built;
+
+    /**
+     * Constructor del índice espacial
+     *
+     * @param cities Repositorio desde el cual se construye el índice
+     *
+     * Notas:
+     * - No lee el repositorio; el índice se construye en el primer acceso
+     * - Quien crea el índice debe registrar invalidate() como listener de
+     *   recarga del repositorio (ver DataStore)
+     */
+    public CitySpatialIndex(EntityRepository<City> cities) {
+        this.cities = cities;
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Obtiene las k ciudades más cercanas a un punto
+     *
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @param k Número máximo de ciudades a retornar
+     * @return Ciudades ordenadas de la más cercana a la más lejana
+     * @throws SerializationException Si no se pudo construir el índice
+     *
+     * Proceso:
+     * - Recorre anillos de celdas alrededor de la celda del punto
+     * - Mantiene las k mejores candidatas en un montículo por distancia
+     * - Se detiene cuando la distancia mínima posible a cualquier celda no
+     *   visitada supera a la k-ésima candidata
+     */
+    public List<City> findNearest(double latitude, double longitude, int k) throws SerializationException {
+        if (k <= 0 || !isValidCoordinate(latitude, longitude)) {
+            return new ArrayList<>();
+        }
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>((a, b) -> Double.compare(b.distanceKm, a.distanceKm));
+            int row = rowOf(latitude);
+            int col = colOf(longitude);
+            int remaining = cellOfCity.size();
+
+            for (int ring = 0; remaining > 0; ring++) {
+                for (int r = row - ring; r <= row + ring; r++) {
+                    if (r < 0 || r >= ROWS) {
+                        continue;
+                    }
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    for (int dc = Math.max(-ring, MIN_COL_OFFSET); dc <= Math.min(ring, MAX_COL_OFFSET); dc++) {
+                        // En las filas interiores del anillo solo cuentan las columnas de los extremos
+                        if (!edgeRow && dc != -ring && dc != ring) {
+                            continue;
+                        }
+                        Bucket bucket = buckets.get(cellKey(r, wrapCol(col + dc)));
+                        if (bucket != null) {
+                            remaining -= bucket.size;
+                            bucket.collect(latitude, longitude, best, k);
+                        }
+                    }
+                }
+                if (best.size() == k && lowerBoundOutside(latitude, longitude, row, col, ring) >= best.peek().distanceKm) {
+                    break;
+                }
+                if (ring >= ROWS && ring >= MAX_COL_OFFSET) {
+                    break; // Todas las celdas ya fueron recorridas
+                }
+            }
+            return drain(best);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene la ciudad más cercana a un punto
+     *
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @return La ciudad más cercana, o null si no hay ciudades
+     * @throws SerializationException Si no se pudo construir el índice
+     */
+    public City findNearest(double latitude, double longitude) throws SerializationException {
+        List<City> nearest = findNearest(latitude, longitude, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Obtiene las ciudades dentro de un radio alrededor de un punto
+     *
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @param radiusKm Radio en kilómetros
+     * @return Ciudades dentro del radio, ordenadas por distancia
+     * @throws SerializationException Si no se pudo construir el índice
+     *
+     * Notas:
+     * - Solo revisa las celdas que intersectan el rectángulo que contiene al círculo
+     */
+    public List<City> findWithinRadius(double latitude, double longitude, double radiusKm) throws SerializationException {
+        if (radiusKm < 0 || !isValidCoordinate(latitude, longitude)) {
+            return new ArrayList<>();
+        }
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            double angular = radiusKm / EARTH_RADIUS_KM;
+            double latSpan = Math.toDegrees(angular);
+            int minRow = rowOf(Math.max(-90.0, latitude - latSpan));
+            int maxRow = rowOf(Math.min(90.0, latitude + latSpan));
+
+            // Ancho en longitud del rectángulo; todo el paralelo si el círculo alcanza un polo
+            int minCol = 0;
+            int maxCol = COLS - 1;
+            boolean allCols = Math.abs(latitude) + latSpan >= 90.0 || angular >= Math.PI / 2;
+            if (!allCols) {
+                double lonSpan = Math.toDegrees(Math.asin(Math.min(1.0, Math.sin(angular) / Math.cos(Math.toRadians(latitude)))));
+                int span = (int) Math.ceil(lonSpan / CELL_DEGREES) + 1;
+                int col = colOf(longitude);
+                if (2 * span + 1 < COLS) {
+                    minCol = col - span;
+                    maxCol = col + span;
+                }
+            }
+
+            List<Candidate> found = new ArrayList<>();
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    Bucket bucket = buckets.get(cellKey(r, wrapCol(c)));
+                    if (bucket != null) {
+                        bucket.collectWithin(latitude, longitude, radiusKm, found);
+                    }
+                }
+            }
+            found.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+            List<City> result = new ArrayList<>(found.size());
+            for (Candidate candidate : found) {
+                result.add(candidate.city);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de ciudades indexadas
+     *
+     * @return Número de ciudades en el índice
+     * @throws SerializationException Si no se pudo construir el índice
+     */
+    public int size() throws SerializationException {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return cellOfCity.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MODIFICACIONES INCREMENTALES ==========
+
+    /**
+     * Agrega una ciudad al índice, o la reubica si ya estaba indexada
+     *
+     * @param city Ciudad a indexar
+     * @throws SerializationException Si no se pudo construir el índice
+     *
+     * Notas:
+     * - Utilizado al crear una ciudad y al actualizar sus coordenadas
+     */
+    public void add(City city) throws SerializationException {
+        if (city == null || city.getId() == null) {
+            return;
+        }
+        ensureBuilt();
+        lock.writeLock().lock();
+        try {
+            removeLocked(city.getId());
+            insertLocked(city);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina una ciudad del índice
+     *
+     * @param cityId ID de la ciudad a eliminar
+     * @return true si la ciudad estaba indexada
+     * @throws SerializationException Si no se pudo construir el índice
+     */
+    public boolean remove(String cityId) throws SerializationException {
+        if (cityId == null) {
+            return false;
+        }
+        ensureBuilt();
+        lock.writeLock().lock();
+        try {
+            return removeLocked(cityId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el índice para reconstruirlo en el siguiente acceso
+     *
+     * Notas:
+     * - DataStore lo registra para que se invoque cuando el repositorio de
+     *   ciudades se recarga completo
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== DISTANCIAS ==========
+
+    /**
+     * Calcula la distancia de círculo máximo entre dos puntos
+     *
+     * @param lat1 Latitud del primer punto en grados
+     * @param lon1 Longitud del primer punto en grados
+     * @param lat2 Latitud del segundo punto en grados
+     * @param lon2 Longitud del segundo punto en grados
+     * @return Distancia en kilómetros (fórmula de haversine)
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat
+                 + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    /**
+     * Construye el índice desde el repositorio si aún no se ha construido
+     *
+     * @throws SerializationException Si no se pudieron cargar las ciudades
+     */
+    private void ensureBuilt() throws SerializationException {
+        lock.readLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<City> all = cities.getAll();
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                buckets.clear();
+                cellOfCity.clear();
+                for (City city : all) {
+                    if (city.getId() != null && !cellOfCity.containsKey(city.getId())) {
+                        insertLocked(city);
+                    }
+                }
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insertLocked(City city) {
+        double latitude = city.getLatitude();
+        double longitude = city.getLongitude();
+        if (!isValidCoordinate(latitude, longitude)) {
+            return; // Coordenadas fuera de rango: la ciudad no se puede ubicar
+        }
+        int key = cellKey(rowOf(latitude), colOf(longitude));
+        buckets.computeIfAbsent(key, k -> new Bucket()).add(city, latitude, longitude);
+        cellOfCity.put(city.getId(), key);
+    }
+
+    private boolean removeLocked(String cityId) {
+        Integer key = cellOfCity.remove(cityId);
+        if (key == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(cityId) && bucket.size == 0) {
+            buckets.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Calcula una cota inferior de la distancia desde el punto a cualquier
+     * celda fuera del cuadrado de anillos ya recorridos
+     */
+    private static double lowerBoundOutside(double latitude, double longitude, int row, int col, int ring) {
+        double boxLatMin = (row - ring) * CELL_DEGREES - 90.0;
+        double boxLatMax = (row + ring + 1) * CELL_DEGREES - 90.0;
+        double dLat = Math.min(boxLatMin <= -90.0 ? Double.MAX_VALUE : latitude - boxLatMin,
+                               boxLatMax >= 90.0 ? Double.MAX_VALUE : boxLatMax - latitude);
+        double latBound = dLat == Double.MAX_VALUE ? Double.MAX_VALUE : Math.toRadians(dLat) * EARTH_RADIUS_KM;
+
+        double lonBound = Double.MAX_VALUE;
+        if (ring < MAX_COL_OFFSET) {
+            double boxLonMin = (col - ring) * CELL_DEGREES - 180.0;
+            double boxLonMax = (col + ring + 1) * CELL_DEGREES - 180.0;
+            double dLon = Math.min(180.0, Math.min(longitude - boxLonMin, boxLonMax - longitude));
+            // Dentro de la franja de latitud, el coseno mínimo da la separación mínima
+            double maxAbsLat = Math.min(90.0, Math.max(Math.abs(boxLatMin), Math.abs(boxLatMax)));
+            double cosMin = Math.cos(Math.toRadians(maxAbsLat));
+            lonBound = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, cosMin * Math.sin(Math.toRadians(dLon) / 2)));
+        }
+        return Math.min(latBound, lonBound);
+    }
+
+    private static List<City> drain(PriorityQueue<Candidate> best) {
+        City[] ordered = new City[best.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = best.poll().city;
+        }
+        return new ArrayList<>(Arrays.asList(ordered));
+    }
+
+    private static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90.0 && latitude <= 90.0 && longitude >= -180.0 && longitude <= 180.0;
+    }
+
+    private static int rowOf(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90.0) / CELL_DEGREES));
+    }
+
+    private static int colOf(double longitude) {
+        return wrapCol((int) Math.floor((longitude + 180.0) / CELL_DEGREES));
+    }
+
+    private static int wrapCol(int col) {
+        return Math.floorMod(col, COLS);
+    }
+
+    private static int cellKey(int row, int col) {
+        return row * COLS + col;
+    }
+
+    /**
+     * Ciudad candidata con su distancia al punto de consulta
+     */
+    private record Candidate(City city, double distanceKm) {}
+
+    /**
+     * Celda del índice: coordenadas en arreglos primitivos paralelos
+     */
+    private static final class Bucket {
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private City[] cities = new City[4];
+        private int size;
+
+        void add(City city, double latitude, double longitude) {
+            if (size == cities.length) {
+                int capacity = size * 2;
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                cities = Arrays.copyOf(cities, capacity);
+            }
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            cities[size] = city;
+            size++;
+        }
+
+        boolean remove(String cityId) {
+            for (int i = 0; i < size; i++) {
+                if (cityId.equals(cities[i].getId())) {
+                    // Se reemplaza por el último elemento (el orden no importa)
+                    int last = --size;
+                    latitudes[i] = latitudes[last];
+                    longitudes[i] = longitudes[last];
+                    cities[i] = cities[last];
+                    cities[last] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void collect(double latitude, double longitude, PriorityQueue<Candidate> best, int k) {
+            for (int i = 0; i < size; i++) {
+                double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+                if (best.size() < k) {
+                    best.add(new Candidate(cities[i], distance));
+                } else if (distance < best.peek().distanceKm) {
+                    best.poll();
+                    best.add(new Candidate(cities[i], distance));
+                }
+            }
+        }
+
+        void collectWithin(double latitude, double longitude, double radiusKm, List<Candidate> found) {
+            for (int i = 0; i < size; i++) {
+                double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+                if (distance <= radiusKm) {
+                    found.add(new Candidate(cities[i], distance));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Nombre del Archivo: DataStore.java
+ *
+ * Descripcion: Punto de acceso único a los repositorios residentes del
+ *              sistema (usuarios, ciudades, conexiones, tipos de combustible
+ *              y tipos de cargador). Se crea una sola vez al iniciar la
+ *              aplicación y se comparte entre todos los servicios a través
+ *              de RouteSystemContext, de modo que todos ven los mismos datos
+ *              en memoria y ninguna lectura vuelve a tocar el disco.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import Binary.FileConstants;
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Main.AppConfig;
+import Models.Connection;
+import Vehicle.ChargerType;
+import Vehicle.FuelType;
+
+/**
+ * Conjunto de repositorios residentes del sistema
+ *
+ * Características:
+ * - Un repositorio por archivo de datos, todos sobre el mismo DataManager
+ * - Carga perezosa de cada archivo en su primer acceso
+ * - Escrituras en segundo plano a través de una WriteBehindQueue (si
+ *   AppConfig.WRITE_BEHIND_ENABLED), o write-through hacia el DataManager
+ *
+ * Cierre:
+ * - close() escribe los cambios pendientes y detiene el hilo escritor; las
+ *   aplicaciones lo llaman al salir (o registran shutdownHook())
+ * - flush() escribe los cambios pendientes sin detener el hilo escritor
+ *
+ * Notas:
+ * - Las conexiones no tienen ID propio; se indexan por "origen->destino"
+ *   (ver connectionKey)
+ */
+public class DataStore {
+    private final DataManager dataManager;
+    private final UserRepository users;
+    private final CityRepository cities;
+    private final EntityRepository<Connection> connections;
+    private final EntityRepository<FuelType> fuelTypes;
+    private final EntityRepository<ChargerType> chargerTypes;
+    private final CitySpatialIndex citySpatialIndex;
+    private final StationEnergyIndex stationEnergyIndex;
+    private final WriteBehindQueue writeBehind;
+    // Altas de referencias a tipos de energía (lectura) frente a bajas de tipos (escritura)
+    private final ReadWriteLock catalogUsageLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor del almacén de datos con la persistencia configurada
+     *
+     * @param dataManager Gestor de datos sobre el cual se persisten los repositorios
+     *
+     * Notas:
+     * - No lee ningún archivo; cada repositorio se carga en su primer acceso
+     * - Usa write-behind con AppConfig.WRITE_BEHIND_MAX_DELAY_MS si
+     *   AppConfig.WRITE_BEHIND_ENABLED, o write-through en caso contrario
+     */
+    public DataStore(DataManager dataManager) {
+        this(dataManager, AppConfig.WRITE_BEHIND_ENABLED
+            ? new WriteBehindQueue(AppConfig.WRITE_BEHIND_MAX_DELAY_MS) : null);
+    }
+
+    /**
+     * Constructor del almacén de datos
+     *
+     * @param dataManager Gestor de datos sobre el cual se persisten los repositorios
+     * @param writeBehind Cola de escritura diferida, o null para escribir cada
+     *                    modificación de inmediato (write-through)
+     */
+    public DataStore(DataManager dataManager, WriteBehindQueue writeBehind) {
+        this.dataManager = dataManager;
+        this.users = new UserRepository(dataManager);
+        this.cities = new CityRepository(dataManager);
+        this.connections = new EntityRepository<>(dataManager, FileConstants.CONNECTIONS_FILE, Connection::new,
+                                                  conn -> connectionKey(conn.getFromCityId(), conn.getToCityId()));
+        this.fuelTypes = new EntityRepository<>(dataManager, FileConstants.FUEL_TYPES_FILE, FuelType::new, FuelType::getId);
+        this.chargerTypes = new EntityRepository<>(dataManager, FileConstants.CHARGER_TYPES_FILE, ChargerType::new, ChargerType::getId);
+        this.citySpatialIndex = new CitySpatialIndex(cities);
+        cities.addReloadListener(citySpatialIndex::invalidate);
+        this.stationEnergyIndex = new StationEnergyIndex(cities);
+        cities.addReloadListener(stationEnergyIndex::invalidate);
+        this.writeBehind = writeBehind;
+        if (writeBehind != null) {
+            users.enableWriteBehind(writeBehind);
+            cities.enableWriteBehind(writeBehind);
+            connections.enableWriteBehind(writeBehind);
+            fuelTypes.enableWriteBehind(writeBehind);
+            chargerTypes.enableWriteBehind(writeBehind);
+        }
+    }
+
+    /**
+     * Obtiene el gestor de datos subyacente
+     * @return Gestor de datos de los repositorios
+     */
+    public DataManager getDataManager() { return dataManager; }
+
+    /**
+     * Obtiene el repositorio de usuarios
+     * @return Repositorio repartido en fragmentos por ID, indexado también por nombre de usuario
+     */
+    public UserRepository getUsers() { return users; }
+
+    /**
+     * Obtiene el repositorio de ciudades
+     * @return Repositorio respaldado por cities.dat, indexado también por nombre
+     */
+    public CityRepository getCities() { return cities; }
+
+    /**
+     * Obtiene el repositorio de conexiones
+     * @return Repositorio respaldado por connections.dat, indexado por connectionKey
+     */
+    public EntityRepository<Connection> getConnections() { return connections; }
+
+    /**
+     * Obtiene el repositorio de tipos de combustible
+     * @return Repositorio respaldado por fuel_types.dat
+     */
+    public EntityRepository<FuelType> getFuelTypes() { return fuelTypes; }
+
+    /**
+     * Obtiene el repositorio de tipos de cargador
+     * @return Repositorio respaldado por charger_types.dat
+     */
+    public EntityRepository<ChargerType> getChargerTypes() { return chargerTypes; }
+
+    /**
+     * Obtiene el índice espacial de ciudades
+     * @return Índice por coordenadas construido sobre el repositorio de ciudades
+     */
+    public CitySpatialIndex getCitySpatialIndex() { return citySpatialIndex; }
+
+    /**
+     * Obtiene el índice de estaciones por tipo de energía
+     * @return Índice invertido construido sobre el repositorio de ciudades
+     */
+    public StationEnergyIndex getStationEnergyIndex() { return stationEnergyIndex; }
+
+    /**
+     * Obtiene el candado de uso de los catálogos de tipos de energía
+     * @return Candado compartido por los servicios de estaciones y vehículos
+     *
+     * Notas:
+     * - Agregar una estación o guardar un vehículo (que pueden empezar a usar
+     *   un tipo) toma el candado de lectura
+     * - Eliminar un tipo de combustible o de cargador toma el de escritura
+     *   durante la verificación de uso y la baja, así que ninguna estación ni
+     *   vehículo puede empezar a usarlo entre ambas
+     */
+    public ReadWriteLock getCatalogUsageLock() { return catalogUsageLock; }
+
+    /**
+     * Construye la clave de índice de una conexión
+     *
+     * @param fromCityId ID de la ciudad de origen
+     * @param toCityId ID de la ciudad de destino
+     * @return Clave "origen->destino", o null si alguno de los IDs es null
+     */
+    public static String connectionKey(String fromCityId, String toCityId) {
+        if (fromCityId == null || toCityId == null) {
+            return null;
+        }
+        return fromCityId + "->" + toCityId;
+    }
+
+    // ========== PERSISTENCIA ==========
+
+    /**
+     * Escribe todos los cambios pendientes de write-behind
+     *
+     * @throws SerializationException Si algún archivo no se pudo escribir
+     *
+     * Notas:
+     * - Barrera: al retornar, toda modificación hecha antes de la llamada
+     *   está en disco
+     * - No hace nada si el almacén es write-through
+     */
+    public void flush() throws SerializationException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes y detiene el hilo escritor
+     *
+     * @throws SerializationException Si algún archivo no se pudo escribir
+     *
+     * Notas:
+     * - Las modificaciones posteriores se escriben de inmediato
+     */
+    public void close() throws SerializationException {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    /**
+     * Verifica si hay modificaciones que aún no se escribieron
+     * @return true si algún repositorio tiene cambios solo en memoria
+     */
+    public boolean hasPendingWrites() {
+        return writeBehind != null && writeBehind.hasPendingWrites();
+    }
+
+    /**
+     * Crea un hilo para Runtime.addShutdownHook que cierra el almacén
+     *
+     * @return Hilo que llama a close() y reporta el error si falla
+     *
+     * Notas:
+     * - Cubre las salidas con System.exit (por ejemplo, EXIT_ON_CLOSE en Swing)
+     */
+    public Thread shutdownHook() {
+        return new Thread(() -> {
+            try {
+                close();
+            } catch (SerializationException e) {
+                System.err.println("Error writing pending changes: " + e.getMessage());
+            }
+        }, "data-store-shutdown");
+    }
+
+    /**
+     * Descarta el contenido en memoria de todos los repositorios
+     *
+     * Notas:
+     * - Utilizado cuando los archivos se modifican por fuera de los
+     *   repositorios (por ejemplo, al restaurar datos por defecto); llamar
+     *   antes a flush() si se quieren conservar los cambios pendientes
+     * - Los índices derivados de las ciudades se descartan junto con su repositorio
+     */
+    public void invalidateAll() {
+        users.invalidate();
+        cities.invalidate();
+        connections.invalidate();
+        fuelTypes.invalidate();
+        chargerTypes.invalidate();
+    }
+}
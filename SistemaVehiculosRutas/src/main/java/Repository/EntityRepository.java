@@ -0,0 +1,784 @@
+/*
+ * Nombre del Archivo: EntityRepository.java
+ *
+ * Descripcion: Repositorio genérico residente en memoria para un conjunto de
+ *              entidades persistidas en un archivo de datos. Carga el archivo
+ *              una sola vez, mantiene un índice hash por ID y escribe cada
+ *              modificación de vuelta al DataManager (write-through, o en
+ *              segundo plano con una WriteBehindQueue), de modo que las
+ *              operaciones de lectura no tocan el disco.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import Interfaces.DataManager;
+import Interfaces.Serializable;
+import Interfaces.SerializableFactory;
+import Interfaces.SerializationException;
+import Metrics.CacheStats;
+import Metrics.MetricsRegistry;
+
+/**
+ * Repositorio residente de entidades con índice por ID
+ *
+ * Características:
+ * - Carga perezosa: el archivo se lee la primera vez que se consulta
+ * - Índice hash por ID para búsquedas en tiempo constante
+ * - Write-through: cada alta, modificación o baja se guarda inmediatamente
+ * - Write-behind opcional (ver enableWriteBehind): las modificaciones se
+ *   aplican solo en memoria y el archivo se reescribe después, una vez por
+ *   lote de cambios, desde el hilo de la WriteBehindQueue
+ * - Conserva el orden de inserción del archivo original
+ * - Seguro para uso concurrente (lecturas en paralelo, escrituras exclusivas)
+ * - Registra aciertos (datos ya residentes) y cargas desde disco como el
+ *   caché "repository.<archivo>" en MetricsRegistry
+ *
+ * Notas:
+ * - Las entidades retornadas son las instancias residentes; si se modifican
+ *   en el lugar, se debe llamar a update() o save() para persistir el cambio;
+ *   si el escritor diferido puede estar serializándolas, el cambio se hace
+ *   con modify(), bajo el candado de escritura
+ * - Si una escritura write-through falla, el estado en memoria no se
+ *   modifica (salvo los cambios que el llamador ya haya hecho en el lugar
+ *   sobre una entidad); con write-behind la modificación queda en memoria y
+ *   la escritura se reintenta
+ * - replaceAll() siempre escribe de inmediato, también con write-behind,
+ *   porque se usa en migraciones que luego eliminan los archivos anteriores
+ * - Las secuencias leer-modificar-guardar sobre una entidad se protegen con
+ *   su candado de entidad (ver entityLock); ediciones de entidades distintas
+ *   no se bloquean entre sí
+ *
+ * @param <T> Tipo de entidad almacenada
+ */
+public class EntityRepository<T extends Serializable> {
+    private final DataManager dataManager;
+    private final String filename;
+    private final SerializableFactory<T> factory;
+    private final Function<T, String> idExtractor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final CacheStats cacheStats;
+    private final StripedLocks entityLocks = new StripedLocks();
+    // Serializa las escrituras diferidas del archivo (se toma antes del candado de lectura)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private List<T> entities;
+    private Map<String, T> index;
+    private boolean loaded;
+
+    // Write-behind: versión en memoria y última versión escrita (iguales si no hay pendientes);
+    // changeVersion solo se modifica bajo el candado de escritura
+    private volatile WriteBehindQueue writeBehind;
+    private volatile long changeVersion;
+    private volatile long persistedVersion;
+
+    /**
+     * Constructor del repositorio
+     *
+     * @param dataManager Gestor de datos para la persistencia
+     * @param filename Archivo donde se almacenan las entidades
+     * @param factory Factory para crear instancias al cargar
+     * @param idExtractor Función que obtiene el ID de una entidad
+     *
+     * Notas:
+     * - No lee el archivo; la carga ocurre en el primer acceso
+     */
+    public EntityRepository(DataManager dataManager, String filename,
+                            SerializableFactory<T> factory, Function<T, String> idExtractor) {
+        this.dataManager = dataManager;
+        this.filename = filename;
+        this.factory = factory;
+        this.idExtractor = idExtractor;
+        this.cacheStats = MetricsRegistry.getDefault().cache("repository." + filename);
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Obtiene todas las entidades del repositorio
+     *
+     * @return Copia de la lista de entidades en orden de archivo
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    public List<T> getAll() throws SerializationException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(entities);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las entidades del repositorio sin copiarlas
+     *
+     * @return Stream sobre el contenido vigente al momento de la llamada, en orden de archivo
+     * @throws SerializationException Si el archivo no se puede cargar
+     *
+     * Notas:
+     * - El contenido residente nunca se modifica en el lugar (cada cambio
+     *   instala una lista nueva), así que el recorrido no toma el candado y
+     *   no ve las modificaciones posteriores
+     * - Preferible a getAll() para filtros y conteos
+     */
+    public Stream<T> stream() throws SerializationException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return entities.stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca una entidad por su ID
+     *
+     * @param id ID de la entidad
+     * @return La entidad encontrada, o null si no existe o el ID es null
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    public T findById(String id) throws SerializationException {
+        if (id == null) {
+            return null;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene la entidad de una posición del archivo
+     *
+     * @param position Posición de la entidad en orden de archivo
+     * @return La entidad, o null si la posición está fuera de rango
+     * @throws SerializationException Si el archivo no se puede cargar
+     *
+     * Notas:
+     * - Pensado para índices guardados aparte (por ejemplo, la imagen del
+     *   grafo); el llamador debe verificar que la entidad sea la esperada
+     */
+    public T findAt(int position) throws SerializationException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return position >= 0 && position < entities.size() ? entities.get(position) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica si existe una entidad con el ID dado
+     *
+     * @param id ID a verificar
+     * @return true si existe una entidad con ese ID
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    public boolean containsId(String id) throws SerializationException {
+        return findById(id) != null;
+    }
+
+    /**
+     * Obtiene el número de entidades del repositorio
+     *
+     * @return Número de entidades
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    public int size() throws SerializationException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return entities.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MODIFICACIONES (WRITE-THROUGH) ==========
+
+    /**
+     * Agrega una entidad nueva
+     *
+     * @param entity Entidad a agregar
+     * @return true si se agregó, false si es null, ya existe una entidad con el
+     *         mismo ID o entra en conflicto con un índice secundario (ver conflicts)
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    public boolean add(T entity) throws SerializationException {
+        if (entity == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            String id = idExtractor.apply(entity);
+            if ((id != null && index.containsKey(id)) || conflicts(entity)) {
+                return false;
+            }
+            List<T> updated = new ArrayList<>(entities);
+            updated.add(entity);
+            commit(updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza la entidad con el ID dado, conservando su posición
+     *
+     * @param id ID de la entidad a reemplazar
+     * @param entity Nueva versión de la entidad (puede ser la misma instancia modificada)
+     * @return true si se reemplazó, false si no existe una entidad con ese ID
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    public boolean update(String id, T entity) throws SerializationException {
+        if (id == null || entity == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            int position = positionOf(id);
+            if (position < 0) {
+                return false;
+            }
+            List<T> updated = new ArrayList<>(entities);
+            updated.set(position, entity);
+            commit(updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modifica en su lugar la entidad residente con el ID dado y la guarda
+     *
+     * @param id ID de la entidad a modificar
+     * @param modification Cambio a aplicar; devuelve cómo deshacerlo
+     * @return true si se aplicó y guardó el cambio, false si la entidad no
+     *         existe o la modificación no cambió nada
+     * @throws SerializationException Si no se pudo guardar el archivo (el cambio se deshace)
+     *
+     * Notas:
+     * - El cambio se aplica bajo el candado de escritura, así que nunca
+     *   coincide con flush(), que serializa la lista bajo el de lectura
+     * - Si el guardado falla, se ejecuta la acción de deshacer antes de
+     *   propagar el error, y la entidad residente queda como estaba
+     */
+    public boolean modify(String id, Modification<T> modification) throws SerializationException {
+        if (id == null || modification == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            T entity = index.get(id);
+            if (entity == null) {
+                return false;
+            }
+            Runnable undo = modification.apply(entity);
+            if (undo == null) {
+                return false;
+            }
+            try {
+                commit(new ArrayList<>(entities));
+            } catch (SerializationException | RuntimeException e) {
+                undo.run();
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina la entidad con el ID dado
+     *
+     * @param id ID de la entidad a eliminar
+     * @return true si se eliminó, false si no existía
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    public boolean remove(String id) throws SerializationException {
+        if (id == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            int position = positionOf(id);
+            if (position < 0) {
+                return false;
+            }
+            List<T> updated = new ArrayList<>(entities);
+            updated.remove(position);
+            commit(updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina todas las entidades que cumplen una condición
+     *
+     * @param filter Condición de eliminación
+     * @return true si se eliminó al menos una entidad
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    public boolean removeIf(Predicate<? super T> filter) throws SerializationException {
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            List<T> updated = new ArrayList<>(entities);
+            if (!updated.removeIf(filter)) {
+                return false;
+            }
+            commit(updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reemplaza todo el contenido del repositorio
+     *
+     * @param replacement Nueva lista completa de entidades
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    public void replaceAll(List<? extends T> replacement) throws SerializationException {
+        lock.writeLock().lock();
+        try {
+            commitNow(new ArrayList<>(replacement));
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        fireReload();
+    }
+
+    /**
+     * Guarda el estado actual en memoria
+     *
+     * @throws SerializationException Si no se pudo guardar el archivo
+     *
+     * Notas:
+     * - Utilizado después de modificar en el lugar entidades residentes
+     * - Reconstruye el índice por si cambió algún ID
+     * - Con write-behind solo marca el archivo como pendiente (ver flush)
+     */
+    public void save() throws SerializationException {
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            commit(new ArrayList<>(entities));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el contenido en memoria
+     *
+     * Notas:
+     * - El siguiente acceso vuelve a leer el archivo (hasta entonces las
+     *   lecturas concurrentes siguen viendo el contenido anterior)
+     * - Utilizado cuando el archivo se modificó o eliminó por fuera del repositorio
+     * - Descarta también los cambios pendientes de write-behind, para no
+     *   sobrescribir el archivo nuevo con el contenido anterior
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            persistedVersion = changeVersion;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        fireReload();
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando el contenido se reemplaza completo
+     *
+     * @param listener Acción a ejecutar después de replaceAll() o invalidate()
+     *
+     * Notas:
+     * - Utilizado por los índices derivados del repositorio para descartarse;
+     *   las altas, modificaciones y bajas individuales no la disparan
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    // ========== WRITE-BEHIND ==========
+
+    /**
+     * Activa la escritura diferida a través de una cola
+     *
+     * @param queue Cola cuyo hilo escritor guarda el archivo
+     *
+     * Notas:
+     * - A partir de este momento add, update, remove, removeIf y save
+     *   retornan sin tocar el disco; el archivo se escribe en la siguiente
+     *   ronda de la cola o con flush()
+     */
+    public void enableWriteBehind(WriteBehindQueue queue) {
+        lock.writeLock().lock();
+        try {
+            if (writeBehind == null) {
+                writeBehind = queue;
+                queue.register(this);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes de write-behind, si los hay
+     *
+     * @throws SerializationException Si no se pudo guardar el archivo (los
+     *         cambios siguen pendientes)
+     *
+     * Proceso:
+     * - Espera a que termine cualquier otra escritura diferida del archivo
+     * - Bajo el candado de lectura, guarda la lista residente completa, de
+     *   modo que las modificaciones esperan a que termine la escritura y
+     *   ninguna queda a medias dentro del archivo
+     *
+     * Notas:
+     * - No debe llamarse mientras se tiene el candado de escritura del repositorio
+     */
+    public void flush() throws SerializationException {
+        if (persistedVersion == changeVersion) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            lock.readLock().lock();
+            try {
+                long version = changeVersion;
+                if (!loaded || persistedVersion == version) {
+                    return;
+                }
+                dataManager.saveList(entities, filename);
+                persistedVersion = version;
+                afterCommit();
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Verifica si hay cambios que solo están en memoria
+     * @return true si alguna modificación aún no se escribió al archivo
+     */
+    public boolean hasPendingWrites() {
+        return persistedVersion != changeVersion;
+    }
+
+    /**
+     * Obtiene el candado de una entidad
+     *
+     * @param id ID de la entidad
+     * @return Candado compartido por todos los que editan esa entidad
+     *
+     * Notas:
+     * - Se toma antes de leer la entidad y se libera después de guardarla,
+     *   para que dos ediciones simultáneas no pierdan cambios
+     * - Dos IDs pueden compartir candado (ver StripedLocks)
+     */
+    public Lock entityLock(String id) {
+        return entityLocks.get(id);
+    }
+
+    /**
+     * Obtiene los candados de varias entidades en orden global
+     *
+     * @param ids IDs de las entidades
+     * @return Candados a tomar con StripedLocks.lockAll y liberar con unlockAll
+     */
+    public Lock[] entityLocks(String... ids) {
+        return entityLocks.ordered(ids);
+    }
+
+    /**
+     * Obtiene el nombre del archivo respaldado por este repositorio
+     * @return Nombre del archivo de datos
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    // ========== EXTENSIÓN ==========
+
+    /**
+     * Reconstruye los índices secundarios de una subclase
+     *
+     * @param list Lista de entidades que se acaba de instalar
+     *
+     * Notas:
+     * - Se invoca bajo el candado de escritura cada vez que cambia el contenido
+     * - La implementación por defecto no hace nada
+     */
+    protected void rebuildIndexes(List<T> list) {
+    }
+
+    /**
+     * Verifica si una entidad nueva entra en conflicto con un índice secundario
+     *
+     * @param entity Entidad que se quiere agregar
+     * @return true si se debe rechazar el alta
+     *
+     * Notas:
+     * - Se invoca bajo el candado de escritura, por lo que la verificación y
+     *   el alta son atómicas
+     * - La implementación por defecto no rechaza ninguna entidad
+     */
+    protected boolean conflicts(T entity) {
+        return false;
+    }
+
+    /**
+     * Completa la carga de una subclase después de leer el archivo
+     *
+     * @param list Lista de entidades recién cargada e instalada
+     * @throws SerializationException Si la carga adicional falla (el
+     *         repositorio queda sin cargar y se reintenta en el siguiente acceso)
+     *
+     * Notas:
+     * - Se invoca bajo el candado de escritura; las entidades se pueden
+     *   modificar en el lugar (por ejemplo, para aplicar cambios anexados)
+     * - La implementación por defecto no hace nada
+     */
+    protected void afterLoad(List<T> list) throws SerializationException {
+    }
+
+    /**
+     * Notifica a una subclase que se reescribió el archivo completo
+     *
+     * Notas:
+     * - Se invoca después de cada escritura exitosa, bajo el candado de
+     *   escritura o, si la escritura fue diferida, bajo el candado de lectura
+     *   desde flush() (en ambos casos ninguna modificación corre en paralelo)
+     * - La implementación por defecto no hace nada
+     */
+    protected void afterCommit() {
+    }
+
+    /**
+     * Ejecuta una acción bajo el candado de escritura con el repositorio cargado
+     *
+     * @param action Acción a ejecutar
+     * @return Resultado de la acción
+     * @throws SerializationException Si la carga o la acción fallan
+     *
+     * Notas:
+     * - Permite a las subclases persistir cambios parciales de forma atómica
+     *   respecto a las demás modificaciones; dentro de la acción se pueden
+     *   usar las consultas y modificaciones del repositorio
+     */
+    protected final <R> R withWriteLock(LockedAction<R> action) throws SerializationException {
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+            return action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene el gestor de datos del repositorio
+     * @return Gestor de datos sobre el cual se persiste el archivo
+     */
+    protected final DataManager getDataManager() {
+        return dataManager;
+    }
+
+    /**
+     * Acción ejecutada bajo el candado de escritura del repositorio
+     *
+     * @param <R> Tipo del resultado
+     */
+    @FunctionalInterface
+    protected interface LockedAction<R> {
+        R run() throws SerializationException;
+    }
+
+    /**
+     * Cambio en su lugar sobre una entidad residente (ver modify)
+     *
+     * @param <T> Tipo de la entidad
+     */
+    @FunctionalInterface
+    public interface Modification<T> {
+        /**
+         * Aplica el cambio
+         *
+         * @param entity Entidad residente a modificar
+         * @return Acción que deshace el cambio, o null si no se cambió nada
+         */
+        Runnable apply(T entity);
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    private void fireReload() {
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Carga el archivo si aún no se ha cargado
+     *
+     * @throws SerializationException Si el archivo no se puede cargar
+     *
+     * Notas:
+     * - Si la carga falla, el repositorio queda sin cargar y se reintenta
+     *   en el siguiente acceso
+     * - Las subclases lo usan antes de consultar sus índices secundarios
+     */
+    protected final void ensureLoaded() throws SerializationException {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                cacheStats.hit();
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Carga el archivo si aún no se ha cargado (requiere el candado de escritura)
+     *
+     * @throws SerializationException Si el archivo no se puede cargar
+     */
+    private void loadLocked() throws SerializationException {
+        if (!loaded) {
+            cacheStats.miss();
+            List<T> list = dataManager.loadList(filename, factory);
+            install(list);
+            afterLoad(list);
+            loaded = true;
+        } else {
+            cacheStats.hit();
+        }
+    }
+
+    /**
+     * Instala una nueva versión de la lista y la persiste (de inmediato o en
+     * la siguiente ronda de write-behind)
+     *
+     * @param updated Nueva lista completa de entidades
+     * @throws SerializationException Si no se pudo guardar el archivo
+     */
+    private void commit(List<T> updated) throws SerializationException {
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            commitNow(updated);
+            return;
+        }
+        install(updated);
+        changeVersion++;
+        if (!queue.markDirty(this)) {
+            // La cola ya se cerró: escribir en este hilo
+            dataManager.saveList(updated, filename);
+            persistedVersion = changeVersion;
+            afterCommit();
+        }
+    }
+
+    /**
+     * Guarda una nueva versión de la lista y, si tiene éxito, la instala en memoria
+     *
+     * @param updated Nueva lista completa de entidades
+     * @throws SerializationException Si no se pudo guardar el archivo
+     *
+     * Notas:
+     * - La escritura incluye cualquier cambio pendiente de write-behind
+     */
+    private void commitNow(List<T> updated) throws SerializationException {
+        dataManager.saveList(updated, filename);
+        install(updated);
+        persistedVersion = ++changeVersion;
+        afterCommit();
+    }
+
+    /**
+     * Instala una lista como contenido residente y reconstruye el índice
+     *
+     * @param list Lista de entidades a instalar
+     */
+    private void install(List<T> list) {
+        Map<String, T> newIndex = new HashMap<>(Math.max(16, list.size() * 2));
+        for (T entity : list) {
+            String id = idExtractor.apply(entity);
+            if (id != null) {
+                newIndex.putIfAbsent(id, entity);
+            }
+        }
+        this.entities = list;
+        this.index = newIndex;
+        rebuildIndexes(list);
+    }
+
+    /**
+     * Busca la posición en la lista de la entidad con el ID dado
+     *
+     * @param id ID a buscar
+     * @return Posición de la entidad, o -1 si no existe
+     */
+    private int positionOf(String id) {
+        T target = index.get(id);
+        if (target == null) {
+            return -1;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Nombre del Archivo: StationEnergyIndex.java
+ *
+ * Descripcion: Índice invertido de estaciones por tipo de energía. Para cada
+ *              ordinal de tipo de cargador o de combustible guarda qué
+ *              ciudades lo ofrecen y con qué estaciones, de modo que la
+ *              pregunta "dónde puede cargar este vehículo a lo largo de esta
+ *              ruta" se resuelve cruzando las ciudades de la ruta con el
+ *              índice en lugar de revisar cada estación de cada ciudad.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import Interfaces.SerializationException;
+import Models.City;
+import Models.Station;
+import Vehicle.EnergyTypeOrdinals;
+import Vehicle.Vehicle;
+
+/**
+ * Índice invertido: ordinal de tipo de energía -> ciudad -> estaciones
+ *
+ * Características:
+ * - Un mapa por ordinal (ver EnergyTypeOrdinals) de ID de ciudad a estaciones
+ * - Una estación aparece bajo cada ordinal que soporta
+ * - Altas y bajas de estaciones incrementales
+ * - Consultas por máscara de vehículo: solo se revisan los ordinales de la máscara
+ * - Los tipos sin bit propio comparten el último mapa (EnergyTypeOrdinals.OVERFLOW_BIT);
+ *   las estaciones de ese mapa se confirman con Vehicle.isCompatibleWith
+ *
+ * Notas:
+ * - Se llena de forma perezosa, ciudad por ciudad: una ciudad se indexa la
+ *   primera vez que se consultan sus estaciones, así que solo se decodifican
+ *   los bloques de estaciones (ver City) de las ciudades consultadas
+ * - findCitiesOffering necesita todas las ciudades y es la única consulta
+ *   que indexa el repositorio completo
+ * - Se descarta cuando el repositorio se recarga completo
+ * - Los tipos de energía de una estación se leen al indexarla; si cambian
+ *   después, la estación se debe volver a indexar
+ */
+public class StationEnergyIndex {
+    private final EntityRepository<City> cities;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<String, List<Station>>> byOrdinal = new ArrayList<>(EnergyTypeOrdinals.MASK_BITS);
+    // Ciudades cuyas estaciones ya están en byOrdinal
+    private final Set<String> indexedCities = new HashSet<>();
+
+    /**
+     * Constructor del índice
+     *
+     * @param cities Repositorio desde el cual se construye el índice
+     *
+     * Notas:
+     * - No lee el repositorio; cada ciudad se indexa en su primera consulta
+     * - Quien crea el índice debe registrar invalidate() como listener de
+     *   recarga del repositorio (ver DataStore)
+     */
+    public StationEnergyIndex(EntityRepository<City> cities) {
+        this.cities = cities;
+        for (int i = 0; i < EnergyTypeOrdinals.MASK_BITS; i++) {
+            byOrdinal.add(new HashMap<>());
+        }
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Obtiene las estaciones compatibles con un vehículo en un conjunto de ciudades
+     *
+     * @param corridor Ciudades a revisar, en el orden en que se quieren los resultados
+     * @param vehicle Vehículo para verificar compatibilidad
+     * @return Estaciones compatibles agrupadas por ciudad en el orden del corredor
+     * @throws SerializationException Si no se pudieron cargar las ciudades
+     *
+     * Proceso:
+     * - Indexa las ciudades del corredor que aún no estén en el índice
+     * - Para cada ciudad del corredor, cruza su ID con el mapa de cada
+     *   ordinal presente en la máscara del vehículo
+     * - Una estación compatible por varios ordinales se incluye una sola vez
+     */
+    public List<Station> findCompatibleStations(List<City> corridor, Vehicle vehicle) throws SerializationException {
+        List<Station> result = new ArrayList<>();
+        if (corridor == null || vehicle == null) {
+            return result;
+        }
+        long mask = vehicle.getEnergyMask();
+        if (mask == 0) {
+            return result;
+        }
+        List<String> cityIds = new ArrayList<>(corridor.size());
+        for (City city : corridor) {
+            if (city != null && city.getId() != null) {
+                cityIds.add(city.getId());
+            }
+        }
+        ensureIndexed(cityIds);
+        lock.readLock().lock();
+        try {
+            for (City city : corridor) {
+                if (city != null && city.getId() != null) {
+                    collect(city.getId(), vehicle, result);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las estaciones compatibles con un vehículo en una ciudad
+     *
+     * @param cityId ID de la ciudad
+     * @param vehicle Vehículo para verificar compatibilidad
+     * @return Estaciones compatibles de la ciudad
+     * @throws SerializationException Si no se pudieron cargar las ciudades
+     *
+     * Notas:
+     * - Si la ciudad aún no está en el índice, se indexa solo esa ciudad
+     */
+    public List<Station> findCompatibleStations(String cityId, Vehicle vehicle) throws SerializationException {
+        List<Station> result = new ArrayList<>();
+        if (cityId == null || vehicle == null || vehicle.getEnergyMask() == 0) {
+            return result;
+        }
+        ensureIndexed(List.of(cityId));
+        lock.readLock().lock();
+        try {
+            collect(cityId, vehicle, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los IDs de las ciudades que ofrecen alguno de los tipos de una máscara
+     *
+     * @param mask Máscara de tipos de energía
+     * @return IDs de ciudades con al menos una estación compatible
+     * @throws SerializationException Si no se pudieron cargar las ciudades
+     *
+     * Notas:
+     * - Con el bit de desborde el resultado puede incluir ciudades que solo
+     *   ofrecen otro tipo sin bit propio; es un conjunto de candidatas
+     * - Indexa todas las ciudades que falten, lo que decodifica sus
+     *   estaciones; pensado para verificaciones administrativas, no para
+     *   consultas frecuentes
+     */
+    public Set<String> findCitiesOffering(long mask) throws SerializationException {
+        Set<String> result = new LinkedHashSet<>();
+        if (mask == 0) {
+            return result;
+        }
+        ensureIndexed(cities.stream()
+            .map(City::getId)
+            .filter(Objects::nonNull)
+            .toList());
+        lock.readLock().lock();
+        try {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                result.addAll(byOrdinal.get(Long.numberOfTrailingZeros(bits)).keySet());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== MODIFICACIONES INCREMENTALES ==========
+
+    /**
+     * Indexa una estación de una ciudad
+     *
+     * @param cityId ID de la ciudad donde se encuentra la estación
+     * @param station Estación a indexar
+     *
+     * Notas:
+     * - Utilizado al agregar una estación a una ciudad
+     * - Si la ciudad aún no está en el índice no hace nada: cuando se indexe
+     *   se leerán sus estaciones actuales, incluida esta
+     */
+    public void addStation(String cityId, Station station) {
+        if (cityId == null || station == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (indexedCities.contains(cityId)) {
+                insertLocked(cityId, station);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita una estación del índice
+     *
+     * @param cityId ID de la ciudad donde se encontraba la estación
+     * @param station Estación a quitar
+     *
+     * Notas:
+     * - Utilizado al eliminar una estación de una ciudad
+     */
+    public void removeStation(String cityId, Station station) {
+        if (cityId == null || station == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map<String, List<Station>> cityStations : byOrdinal) {
+                List<Station> stations = cityStations.get(cityId);
+                if (stations != null && stations.remove(station) && stations.isEmpty()) {
+                    cityStations.remove(cityId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa todas las estaciones de una ciudad, reemplazando las anteriores
+     *
+     * @param city Ciudad a indexar
+     *
+     * Notas:
+     * - Utilizado al crear o actualizar una ciudad
+     */
+    public void addCity(City city) {
+        if (city == null || city.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            indexCityLocked(city);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita del índice todas las estaciones de una ciudad
+     *
+     * @param cityId ID de la ciudad
+     */
+    public void removeCity(String cityId) {
+        if (cityId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeCityLocked(cityId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descarta el índice para reconstruirlo en el siguiente acceso
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            for (Map<String, List<Station>> cityStations : byOrdinal) {
+                cityStations.clear();
+            }
+            indexedCities.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    /**
+     * Indexa las ciudades dadas que aún no estén en el índice
+     *
+     * @param cityIds IDs de las ciudades a consultar
+     * @throws SerializationException Si no se pudieron cargar las ciudades
+     *
+     * Notas:
+     * - La ciudad se busca y sus estaciones se leen bajo el candado de
+     *   escritura del índice, así que una alta o baja de estación posterior
+     *   a esa lectura siempre encuentra la ciudad ya indexada
+     * - Los IDs que no existen en el repositorio se ignoran (y se vuelven a
+     *   buscar en la siguiente consulta)
+     */
+    private void ensureIndexed(List<String> cityIds) throws SerializationException {
+        lock.readLock().lock();
+        try {
+            if (indexedCities.containsAll(cityIds)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String cityId : cityIds) {
+                if (!indexedCities.contains(cityId)) {
+                    City city = cities.findById(cityId);
+                    if (city != null) {
+                        indexCityLocked(city);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexCityLocked(City city) {
+        removeCityLocked(city.getId());
+        for (Station station : city.getStations()) {
+            insertLocked(city.getId(), station);
+        }
+        indexedCities.add(city.getId());
+    }
+
+    private void insertLocked(String cityId, Station station) {
+        for (long bits = station.getEnergyMask(); bits != 0; bits &= bits - 1) {
+            List<Station> stations = byOrdinal.get(Long.numberOfTrailingZeros(bits))
+                .computeIfAbsent(cityId, k -> new ArrayList<>());
+            if (!stations.contains(station)) {
+                stations.add(station);
+            }
+        }
+    }
+
+    private void removeCityLocked(String cityId) {
+        for (Map<String, List<Station>> cityStations : byOrdinal) {
+            cityStations.remove(cityId);
+        }
+        indexedCities.remove(cityId);
+    }
+
+    private void collect(String cityId, Vehicle vehicle, List<Station> result) {
+        long mask = vehicle.getEnergyMask();
+        // Caso común: un solo ordinal con bit propio, las estaciones ya están sin repetir
+        if (Long.bitCount(mask) == 1 && mask != EnergyTypeOrdinals.OVERFLOW_BIT) {
+            List<Station> stations = byOrdinal.get(Long.numberOfTrailingZeros(mask)).get(cityId);
+            if (stations != null) {
+                result.addAll(stations);
+            }
+            return;
+        }
+        Set<Station> unique = new LinkedHashSet<>();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            long bit = Long.lowestOneBit(bits);
+            List<Station> stations = byOrdinal.get(Long.numberOfTrailingZeros(bits)).get(cityId);
+            if (stations == null) {
+                continue;
+            }
+            if (bit == EnergyTypeOrdinals.OVERFLOW_BIT) {
+                for (Station station : stations) {
+                    if (vehicle.isCompatibleWith(station)) {
+                        unique.add(station);
+                    }
+                }
+            } else {
+                unique.addAll(stations);
+            }
+        }
+        result.addAll(unique);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Nombre del Archivo: StripedLocks.java
+ *
+ * Descripcion: Conjunto fijo de candados repartidos por el hash de una clave
+ *              (por ejemplo, el ID de una entidad). Permite hacer atómicas las
+ *              secuencias leer-modificar-guardar sobre una misma entidad sin
+ *              bloquear las ediciones de entidades distintas y sin crear un
+ *              candado por entidad.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Candados por franja (striped locks)
+ *
+ * Características:
+ * - Número fijo de candados reentrantes (potencia de dos)
+ * - Una clave siempre corresponde al mismo candado; dos claves distintas
+ *   comparten candado solo si caen en la misma franja
+ * - ordered() retorna los candados de varias claves sin repetir y en un
+ *   orden global, de modo que tomar varios nunca produce un interbloqueo
+ *
+ * Notas:
+ * - Los candados de entidad se toman antes que el candado de escritura del
+ *   repositorio (nunca al revés)
+ * - Uso típico:
+ * <pre>
+ * Lock[] locks = stripes.ordered(fromId, toId);
+ * StripedLocks.lockAll(locks);
+ * try {
+ *     ...
+ * } finally {
+ *     StripedLocks.unlockAll(locks);
+ * }
+ * </pre>
+ */
+public final class StripedLocks {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Constructor con el número de franjas por defecto
+     */
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor con un número de franjas
+     *
+     * @param stripes Número mínimo de franjas (se redondea a potencia de dos)
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Obtiene el candado de una clave
+     *
+     * @param key Clave (null corresponde a la primera franja)
+     * @return Candado de la franja de la clave
+     */
+    public Lock get(String key) {
+        return stripes[indexOf(key)];
+    }
+
+    /**
+     * Obtiene los candados de varias claves en orden global
+     *
+     * @param keys Claves a proteger
+     * @return Candados distintos ordenados por franja
+     */
+    public Lock[] ordered(String... keys) {
+        int[] indexes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = indexOf(keys[i]);
+        }
+        int[] distinct = Arrays.stream(indexes).distinct().sorted().toArray();
+        Lock[] locks = new Lock[distinct.length];
+        for (int i = 0; i < distinct.length; i++) {
+            locks[i] = stripes[distinct[i]];
+        }
+        return locks;
+    }
+
+    /**
+     * Toma varios candados en el orden dado
+     *
+     * @param locks Candados obtenidos con ordered()
+     */
+    public static void lockAll(Lock[] locks) {
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Libera varios candados en orden inverso
+     *
+     * @param locks Candados tomados con lockAll()
+     */
+    public static void unlockAll(Lock[] locks) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private int indexOf(String key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // Mezcla los bits altos, como HashMap, para repartir claves parecidas
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
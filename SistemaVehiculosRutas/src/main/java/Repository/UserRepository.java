@@ -0,0 +1,791 @@
+/*
+ * Nombre del Archivo: UserRepository.java
+ *
+ * Descripcion: Repositorio residente de usuarios repartido en fragmentos por
+ *              el hash del ID de usuario, cada uno con su propio archivo y su
+ *              propio candado de escritura, con un índice adicional por nombre
+ *              de usuario normalizado, de modo que el inicio de sesión y la
+ *              verificación de nombres duplicados se resuelven con una sola
+ *              búsqueda hash en lugar de recorrer toda la lista. Los cambios
+ *              de vehículos se anexan al diario del fragmento en lugar de
+ *              reescribir su archivo.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import Binary.FileConstants;
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Main.AppConfig;
+import User.User;
+import Vehicle.Vehicle;
+
+/**
+ * Repositorio de usuarios fragmentado, indexado por ID y por nombre de usuario
+ *
+ * Estructura:
+ * - N fragmentos (UserShard); el usuario con ID id vive en el fragmento
+ *   floorMod(id.hashCode(), N), en el archivo users_N_i.dat y con su diario de
+ *   vehículos en user_vehicles_N_i.journal
+ * - users.shards guarda el número de fragmentos de la partición vigente
+ * - Índice concurrente nombre de usuario -> User común a todos los fragmentos
+ *
+ * Características:
+ * - Cada fragmento tiene su propio candado: las escrituras a fragmentos
+ *   distintos se ejecutan en paralelo y cada alta, modificación o baja
+ *   reescribe solo el archivo de su fragmento
+ * - Los fragmentos se cargan en paralelo en el primer acceso
+ * - Los nombres se comparan normalizados (sin espacios extremos y en minúsculas),
+ *   por lo que "Admin" y "admin" son el mismo usuario
+ * - El alta de un usuario con un nombre ya existente se rechaza de forma
+ *   atómica aunque las altas ocurran en fragmentos distintos (el nombre se
+ *   reserva en el índice con putIfAbsent antes de escribir el fragmento)
+ *
+ * Migración:
+ * - Si existe users.dat (formato de un solo archivo, por ejemplo recién
+ *   creado por DataInitializationService) o la partición guardada tiene otro
+ *   número de fragmentos, la carga reparte todos los usuarios en la partición
+ *   configurada, guarda users.shards y luego elimina los archivos anteriores
+ * - Si el proceso termina a mitad de la migración, la partición anterior
+ *   sigue vigente y la migración se repite en el siguiente inicio
+ *
+ * Notas:
+ * - Las consultas por nombre no toman ningún candado
+ * - Con write-behind (ver enableWriteBehind) cada fragmento se escribe por
+ *   separado desde la cola; replaceAll() y la migración escriben de inmediato
+ * - getAll() retorna los usuarios agrupados por fragmento, no en orden de alta
+ * - Si hay nombres que solo difieren en mayúsculas, el índice conserva uno de ellos
+ */
+public class UserRepository {
+    private final DataManager dataManager;
+    private final UserShard[] shards;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final Object loadLock = new Object();
+    private final StripedLocks entityLocks = new StripedLocks();
+
+    private volatile ConcurrentHashMap<String, User> byUsername = new ConcurrentHashMap<>();
+    // Nombre normalizado con que cada usuario está en byUsername (para renombres en el lugar)
+    private volatile ConcurrentHashMap<String, String> usernameById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Constructor del repositorio de usuarios
+     *
+     * @param dataManager Gestor de datos para la persistencia
+     *
+     * Notas:
+     * - Utiliza AppConfig.USER_SHARD_COUNT fragmentos
+     */
+    public UserRepository(DataManager dataManager) {
+        this(dataManager, AppConfig.USER_SHARD_COUNT);
+    }
+
+    /**
+     * Constructor con un número de fragmentos
+     *
+     * @param dataManager Gestor de datos para la persistencia
+     * @param shardCount Número de fragmentos (archivos) en que se reparten los usuarios
+     *
+     * Notas:
+     * - No lee ningún archivo; la carga ocurre en el primer acceso
+     */
+    public UserRepository(DataManager dataManager, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.dataManager = dataManager;
+        this.shards = createShards(dataManager, shardCount);
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Obtiene todos los usuarios
+     *
+     * @return Lista nueva con los usuarios de todos los fragmentos
+     * @throws SerializationException Si algún fragmento no se puede cargar
+     */
+    public List<User> getAll() throws SerializationException {
+        ensureLoaded();
+        List<User> all = new ArrayList<>();
+        for (UserShard shard : shards) {
+            all.addAll(shard.getAll());
+        }
+        return all;
+    }
+
+    /**
+     * Recorre los usuarios de todos los fragmentos sin copiarlos
+     *
+     * @return Stream sobre el contenido vigente de cada fragmento (ver EntityRepository.stream)
+     * @throws SerializationException Si algún fragmento no se puede cargar
+     */
+    public Stream<User> stream() throws SerializationException {
+        ensureLoaded();
+        List<Stream<User>> parts = new ArrayList<>(shards.length);
+        for (UserShard shard : shards) {
+            parts.add(shard.stream());
+        }
+        return parts.stream().flatMap(part -> part);
+    }
+
+    /**
+     * Busca un usuario por su ID
+     *
+     * @param id ID del usuario
+     * @return El usuario encontrado, o null si no existe o el ID es null
+     * @throws SerializationException Si los fragmentos no se pueden cargar
+     */
+    public User findById(String id) throws SerializationException {
+        if (id == null) {
+            return null;
+        }
+        ensureLoaded();
+        return shardFor(id).findById(id);
+    }
+
+    /**
+     * Verifica si existe un usuario con el ID dado
+     *
+     * @param id ID a verificar
+     * @return true si existe un usuario con ese ID
+     * @throws SerializationException Si los fragmentos no se pueden cargar
+     */
+    public boolean containsId(String id) throws SerializationException {
+        return findById(id) != null;
+    }
+
+    /**
+     * Obtiene el número de usuarios
+     *
+     * @return Suma de los usuarios de todos los fragmentos
+     * @throws SerializationException Si los fragmentos no se pueden cargar
+     */
+    public int size() throws SerializationException {
+        ensureLoaded();
+        int size = 0;
+        for (UserShard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Busca un usuario por su nombre de usuario
+     *
+     * @param username Nombre de usuario (se normaliza antes de buscar)
+     * @return El usuario encontrado, o null si no existe o el nombre es vacío
+     * @throws SerializationException Si los fragmentos no se pueden cargar
+     */
+    public User findByUsername(String username) throws SerializationException {
+        String key = normalizeUsername(username);
+        if (key == null) {
+            return null;
+        }
+        ensureLoaded();
+        return byUsername.get(key);
+    }
+
+    /**
+     * Verifica si un nombre de usuario ya está registrado
+     *
+     * @param username Nombre de usuario a verificar
+     * @return true si existe un usuario con ese nombre normalizado
+     * @throws SerializationException Si los fragmentos no se pueden cargar
+     */
+    public boolean usernameExists(String username) throws SerializationException {
+        return findByUsername(username) != null;
+    }
+
+    /**
+     * Obtiene el número de fragmentos
+     * @return Número de archivos en que se reparten los usuarios
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // ========== MODIFICACIONES (WRITE-THROUGH) ==========
+
+    /**
+     * Agrega un usuario nuevo
+     *
+     * @param user Usuario a agregar
+     * @return true si se agregó, false si es null o ya existe un usuario con
+     *         el mismo ID o el mismo nombre normalizado
+     * @throws SerializationException Si no se pudo guardar el fragmento
+     *
+     * Proceso:
+     * - Reserva el nombre en el índice; si ya estaba reservado, rechaza el alta
+     * - Agrega el usuario a su fragmento (solo se reescribe ese archivo)
+     * - Si el alta falla, libera la reserva del nombre
+     */
+    public boolean add(User user) throws SerializationException {
+        if (user == null) {
+            return false;
+        }
+        ensureLoaded();
+        UserShard shard = shardFor(user.getId());
+        return shard.withWriteLock(() -> {
+            String key = normalizeUsername(user.getUsername());
+            if (key != null && byUsername.putIfAbsent(key, user) != null) {
+                return false;
+            }
+            boolean added = false;
+            try {
+                added = shard.add(user);
+            } finally {
+                if (!added && key != null) {
+                    byUsername.remove(key, user);
+                }
+            }
+            if (added && key != null) {
+                usernameById.put(user.getId(), key);
+            }
+            return added;
+        });
+    }
+
+    /**
+     * Reemplaza el usuario con el ID dado
+     *
+     * @param id ID del usuario a reemplazar
+     * @param user Nueva versión del usuario (puede ser la misma instancia modificada)
+     * @return true si se reemplazó, false si no existe un usuario con ese ID
+     * @throws SerializationException Si no se pudo guardar el fragmento
+     *
+     * Notas:
+     * - Si cambió el nombre de usuario, actualiza el índice por nombre
+     */
+    public boolean update(String id, User user) throws SerializationException {
+        if (id == null || user == null) {
+            return false;
+        }
+        ensureLoaded();
+        UserShard shard = shardFor(id);
+        return shard.withWriteLock(() -> {
+            if (!shard.update(id, user)) {
+                return false;
+            }
+            unindexUsername(id);
+            String key = normalizeUsername(user.getUsername());
+            if (key != null) {
+                byUsername.compute(key, (k, current) ->
+                    current == null || id.equals(current.getId()) ? user : current);
+                usernameById.put(id, key);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Modifica en su lugar el usuario residente con el ID dado y guarda su fragmento
+     *
+     * @param id ID del usuario a modificar
+     * @param modification Cambio a aplicar; devuelve cómo deshacerlo
+     * @return true si se aplicó y guardó el cambio, false si el usuario no
+     *         existe o la modificación no cambió nada
+     * @throws SerializationException Si no se pudo guardar el fragmento (el cambio se deshace)
+     *
+     * Notas:
+     * - Delega en EntityRepository.modify del fragmento: el cambio ocurre bajo
+     *   su candado de escritura, nunca mientras el escritor diferido lo serializa
+     * - No debe cambiar el nombre de usuario; para eso se usa update(), que
+     *   mantiene el índice por nombre
+     */
+    public boolean modify(String id, EntityRepository.Modification<User> modification) throws SerializationException {
+        if (id == null || modification == null) {
+            return false;
+        }
+        ensureLoaded();
+        return shardFor(id).modify(id, modification);
+    }
+
+    /**
+     * Elimina el usuario con el ID dado
+     *
+     * @param id ID del usuario a eliminar
+     * @return true si se eliminó, false si no existía
+     * @throws SerializationException Si no se pudo guardar el fragmento
+     */
+    public boolean remove(String id) throws SerializationException {
+        if (id == null) {
+            return false;
+        }
+        ensureLoaded();
+        UserShard shard = shardFor(id);
+        return shard.withWriteLock(() -> {
+            if (!shard.remove(id)) {
+                return false;
+            }
+            unindexUsername(id);
+            return true;
+        });
+    }
+
+    /**
+     * Reemplaza todos los usuarios
+     *
+     * @param replacement Nueva lista completa de usuarios
+     * @throws SerializationException Si no se pudo guardar algún fragmento
+     *
+     * Notas:
+     * - Escribe los fragmentos en paralelo y deja vigente la partición configurada
+     */
+    public void replaceAll(List<? extends User> replacement) throws SerializationException {
+        synchronized (loadLock) {
+            install(new ArrayList<>(replacement));
+            deleteLegacyFile();
+            rebuildUsernameIndex();
+            loaded = true;
+        }
+        fireReload();
+    }
+
+    /**
+     * Guarda el estado actual en memoria de todos los fragmentos
+     *
+     * @throws SerializationException Si no se pudo guardar algún fragmento
+     *
+     * Notas:
+     * - Utilizado después de modificar en el lugar usuarios residentes
+     */
+    public void save() throws SerializationException {
+        ensureLoaded();
+        forEachShard(index -> shards[index].save());
+        rebuildUsernameIndex();
+    }
+
+    /**
+     * Descarta el contenido en memoria de todos los fragmentos
+     *
+     * Notas:
+     * - El siguiente acceso vuelve a leer (o a migrar) los archivos
+     * - Utilizado cuando los archivos se modificaron o eliminaron por fuera del repositorio
+     */
+    public void invalidate() {
+        synchronized (loadLock) {
+            loaded = false;
+            for (UserShard shard : shards) {
+                shard.invalidate();
+            }
+        }
+        fireReload();
+    }
+
+    /**
+     * Activa la escritura diferida de todos los fragmentos
+     *
+     * @param queue Cola cuyo hilo escritor guarda los archivos de los fragmentos
+     */
+    public void enableWriteBehind(WriteBehindQueue queue) {
+        for (UserShard shard : shards) {
+            shard.enableWriteBehind(queue);
+        }
+    }
+
+    /**
+     * Obtiene el candado de un usuario
+     *
+     * @param id ID del usuario
+     * @return Candado compartido por todos los que editan ese usuario
+     *
+     * Notas:
+     * - Protege las secuencias leer-modificar-guardar (ver EntityRepository.entityLock)
+     */
+    public Lock entityLock(String id) {
+        return entityLocks.get(id);
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando el contenido se reemplaza completo
+     *
+     * @param listener Acción a ejecutar después de replaceAll() o invalidate()
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    // ========== DIARIO DE VEHÍCULOS ==========
+
+    /**
+     * Agrega o reemplaza un vehículo de un usuario
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID del vehículo a reemplazar (si no existe, se agrega al final)
+     * @param vehicle Vehículo nuevo
+     * @return true si se guardó el cambio, false si el usuario no existe o el vehículo es null
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     *
+     * Notas:
+     * - Solo anexa un registro al diario del fragmento del usuario (ver UserShard)
+     */
+    public boolean putVehicle(String userId, String vehicleId, Vehicle vehicle) throws SerializationException {
+        if (userId == null || vehicle == null) {
+            return false;
+        }
+        ensureLoaded();
+        return shardFor(userId).putVehicle(userId, vehicleId, vehicle);
+    }
+
+    /**
+     * Elimina un vehículo de un usuario
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID del vehículo a eliminar
+     * @return true si se eliminó, false si el usuario o el vehículo no existen
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     *
+     * Notas:
+     * - Si el vehículo era el favorito, el usuario queda sin favorito
+     */
+    public boolean removeVehicle(String userId, String vehicleId) throws SerializationException {
+        if (userId == null) {
+            return false;
+        }
+        ensureLoaded();
+        return shardFor(userId).removeVehicle(userId, vehicleId);
+    }
+
+    /**
+     * Establece el vehículo favorito de un usuario
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID de un vehículo del usuario, o null para quitar el favorito
+     * @return true si se guardó, false si el usuario no existe o el vehículo no es suyo
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     */
+    public boolean setFavoriteVehicle(String userId, String vehicleId) throws SerializationException {
+        if (userId == null) {
+            return false;
+        }
+        ensureLoaded();
+        return shardFor(userId).setFavoriteVehicle(userId, vehicleId);
+    }
+
+    // ========== ARCHIVOS ==========
+
+    /**
+     * Normaliza un nombre de usuario para usarlo como clave del índice
+     *
+     * @param username Nombre de usuario
+     * @return Nombre sin espacios extremos y en minúsculas, o null si es null o vacío
+     */
+    public static String normalizeUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        String trimmed = username.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Verifica si un directorio de datos ya tiene usuarios guardados
+     *
+     * @param dataManager Gestor de datos del directorio
+     * @return true si existe users.dat o una partición en fragmentos
+     */
+    public static boolean hasStoredUsers(DataManager dataManager) {
+        return dataManager.fileExists(FileConstants.USERS_FILE)
+            || dataManager.fileExists(FileConstants.USER_SHARDS_FILE);
+    }
+
+    /**
+     * Obtiene los archivos de usuarios existentes en un directorio de datos
+     *
+     * @param dataManager Gestor de datos del directorio
+     * @return Nombres de users.dat, users.shards, los fragmentos y sus diarios que existen
+     *
+     * Notas:
+     * - Utilizado para respaldar los datos de usuarios
+     */
+    public static List<String> storedFiles(DataManager dataManager) {
+        List<String> files = new ArrayList<>();
+        List<String> candidates = new ArrayList<>(List.of(
+            FileConstants.USERS_FILE, FileConstants.USER_VEHICLES_JOURNAL_FILE, FileConstants.USER_SHARDS_FILE));
+        int shardCount = storedShardCount(dataManager);
+        for (int i = 0; i < shardCount; i++) {
+            candidates.add(shardFilename(shardCount, i));
+            candidates.add(shardJournalFilename(shardCount, i));
+        }
+        for (String candidate : candidates) {
+            if (dataManager.fileExists(candidate)) {
+                files.add(candidate);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Obtiene el nombre del archivo de un fragmento
+     *
+     * @param shardCount Número de fragmentos de la partición
+     * @param index Índice del fragmento
+     * @return Nombre users_N_i.dat (la cantidad evita mezclar particiones distintas)
+     */
+    static String shardFilename(int shardCount, int index) {
+        return FileConstants.USER_SHARD_PREFIX + shardCount + "_" + index + ".dat";
+    }
+
+    /**
+     * Obtiene el nombre del diario de vehículos de un fragmento
+     *
+     * @param shardCount Número de fragmentos de la partición
+     * @param index Índice del fragmento
+     * @return Nombre user_vehicles_N_i.journal
+     */
+    static String shardJournalFilename(int shardCount, int index) {
+        return FileConstants.USER_SHARD_JOURNAL_PREFIX + shardCount + "_" + index + ".journal";
+    }
+
+    // ========== MÉTODOS INTERNOS ==========
+
+    private static UserShard[] createShards(DataManager dataManager, int shardCount) {
+        UserShard[] created = new UserShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            created[i] = new UserShard(dataManager, shardFilename(shardCount, i), shardJournalFilename(shardCount, i));
+        }
+        return created;
+    }
+
+    /**
+     * Lee el número de fragmentos de la partición guardada
+     *
+     * @param dataManager Gestor de datos del directorio
+     * @return Número de fragmentos, o 0 si no hay partición guardada o no se puede leer
+     */
+    private static int storedShardCount(DataManager dataManager) {
+        if (!dataManager.fileExists(FileConstants.USER_SHARDS_FILE)) {
+            return 0;
+        }
+        try {
+            return dataManager.load(FileConstants.USER_SHARDS_FILE, UserShardLayout::new).getShardCount();
+        } catch (SerializationException e) {
+            System.err.println("Error reading user shard layout: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private UserShard shardFor(String id) {
+        int hash = id != null ? id.hashCode() : 0;
+        return shards[Math.floorMod(hash, shards.length)];
+    }
+
+    /**
+     * Carga los fragmentos si aún no se han cargado
+     *
+     * @throws SerializationException Si algún fragmento no se puede cargar o migrar
+     *
+     * Proceso:
+     * - Si la partición guardada es la configurada y no hay users.dat, carga
+     *   los fragmentos en paralelo
+     * - Si no, migra los usuarios a la partición configurada (ver migrate)
+     * - Reconstruye el índice por nombre con los usuarios de todos los fragmentos
+     */
+    private void ensureLoaded() throws SerializationException {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            int storedCount = storedShardCount(dataManager);
+            if (storedCount != shards.length || dataManager.fileExists(FileConstants.USERS_FILE)) {
+                migrate(storedCount);
+            } else {
+                forEachShard(index -> shards[index].size());
+            }
+            rebuildUsernameIndex();
+            loaded = true;
+        }
+    }
+
+    /**
+     * Reparte en la partición configurada los usuarios de la partición
+     * guardada y de users.dat
+     *
+     * @param storedCount Número de fragmentos de la partición guardada (0 si no hay)
+     * @throws SerializationException Si no se pudo leer o escribir algún archivo
+     *
+     * Proceso:
+     * - Carga en paralelo los fragmentos guardados y users.dat (con sus diarios)
+     * - Une los usuarios por ID (si un ID está repetido, gana la partición guardada)
+     * - Escribe todos los fragmentos nuevos y luego users.shards
+     * - Elimina los archivos de la partición anterior y users.dat
+     */
+    private void migrate(int storedCount) throws SerializationException {
+        List<UserShard> sources = new ArrayList<>();
+        for (int i = 0; i < storedCount; i++) {
+            sources.add(new UserShard(dataManager, shardFilename(storedCount, i), shardJournalFilename(storedCount, i)));
+        }
+        boolean legacy = dataManager.fileExists(FileConstants.USERS_FILE);
+        if (legacy) {
+            sources.add(new UserShard(dataManager, FileConstants.USERS_FILE, FileConstants.USER_VEHICLES_JOURNAL_FILE));
+        }
+
+        List<List<User>> loadedSources = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            loadedSources.add(null);
+        }
+        runParallel(sources.size(), index -> loadedSources.set(index, sources.get(index).getAll()));
+
+        Map<String, User> merged = new LinkedHashMap<>();
+        for (List<User> source : loadedSources) {
+            for (User user : source) {
+                merged.putIfAbsent(user.getId(), user);
+            }
+        }
+
+        install(new ArrayList<>(merged.values()));
+
+        if (storedCount != shards.length) {
+            for (UserShard source : sources) {
+                if (!FileConstants.USERS_FILE.equals(source.getFilename())) {
+                    dataManager.deleteFile(source.getFilename());
+                    dataManager.deleteFile(source.getJournalFilename());
+                }
+            }
+        }
+        if (legacy) {
+            deleteLegacyFile();
+        }
+        if (!merged.isEmpty()) {
+            System.out.println("Migrated " + merged.size() + " users into " + shards.length + " shards");
+        }
+    }
+
+    /**
+     * Reparte una lista de usuarios en los fragmentos y guarda la partición
+     *
+     * @param users Usuarios a instalar
+     * @throws SerializationException Si no se pudo guardar algún fragmento
+     */
+    private void install(List<User> users) throws SerializationException {
+        List<List<User>> partitions = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (User user : users) {
+            String id = user.getId();
+            partitions.get(Math.floorMod(id != null ? id.hashCode() : 0, shards.length)).add(user);
+        }
+        forEachShard(index -> shards[index].replaceAll(partitions.get(index)));
+        dataManager.save(new UserShardLayout(shards.length), FileConstants.USER_SHARDS_FILE);
+    }
+
+    private void deleteLegacyFile() {
+        dataManager.deleteFile(FileConstants.USERS_FILE);
+        dataManager.deleteFile(FileConstants.USER_VEHICLES_JOURNAL_FILE);
+    }
+
+    private void rebuildUsernameIndex() throws SerializationException {
+        ConcurrentHashMap<String, User> newIndex = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, String> newKeys = new ConcurrentHashMap<>();
+        for (UserShard shard : shards) {
+            for (User user : shard.getAll()) {
+                String key = normalizeUsername(user.getUsername());
+                if (key != null && newIndex.putIfAbsent(key, user) == null) {
+                    newKeys.put(user.getId(), key);
+                }
+            }
+        }
+        byUsername = newIndex;
+        usernameById = newKeys;
+    }
+
+    /**
+     * Quita del índice por nombre la entrada de un usuario
+     *
+     * @param id ID del usuario
+     */
+    private void unindexUsername(String id) {
+        String key = usernameById.remove(id);
+        if (key != null) {
+            byUsername.computeIfPresent(key, (k, current) -> id.equals(current.getId()) ? null : current);
+        }
+    }
+
+    private void fireReload() {
+        for (Runnable listener : reloadListeners) {
+            listener.run();
+        }
+    }
+
+    private void forEachShard(ShardTask task) throws SerializationException {
+        runParallel(shards.length, task);
+    }
+
+    /**
+     * Ejecuta una tarea por índice en paralelo, un hilo virtual por índice
+     *
+     * @param count Número de índices
+     * @param task Tarea a ejecutar para cada índice
+     * @throws SerializationException La primera excepción de las tareas, si alguna falló
+     *
+     * Notas:
+     * - Espera a que terminen todas las tareas antes de retornar o lanzar
+     */
+    private static void runParallel(int count, ShardTask task) throws SerializationException {
+        if (count == 1) {
+            task.run(0);
+            return;
+        }
+        List<Future<Void>> futures = new ArrayList<>(count);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    task.run(index);
+                    return null;
+                }));
+            }
+        }
+
+        SerializationException failure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof SerializationException cause
+                        ? cause
+                        : new SerializationException("Error in user shard: " + e.getCause(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SerializationException("Interrupted while accessing user shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Tarea sobre un fragmento identificado por su índice
+     */
+    @FunctionalInterface
+    private interface ShardTask {
+        void run(int index) throws SerializationException;
+    }
+}
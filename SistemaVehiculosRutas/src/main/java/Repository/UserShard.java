@@ -0,0 +1,193 @@
+/*
+ * Nombre del Archivo: UserShard.java
+ *
+ * Descripcion: Fragmento del almacén de usuarios: repositorio residente de
+ *              los usuarios cuyo ID cae en una partición, con su propio
+ *              archivo de datos, su propio candado de escritura y su propio
+ *              diario de cambios de vehículos.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import User.User;
+import Vehicle.Vehicle;
+
+/**
+ * Fragmento de usuarios con diario de vehículos
+ *
+ * Características:
+ * - Diario de vehículos: putVehicle, removeVehicle y setFavoriteVehicle anexan
+ *   un registro (UserVehicleDelta) al diario del fragmento, con un costo que
+ *   no depende del número de usuarios; al cargar el archivo se vuelven a
+ *   aplicar los registros del diario
+ * - Compactación: cuando el diario tiene tantos registros como usuarios tiene el
+ *   fragmento (mínimo MIN_COMPACTION_RECORDS), se reescribe el archivo y se
+ *   vacía el diario, así que el costo amortizado por cambio sigue siendo constante
+ *
+ * Notas:
+ * - Cualquier escritura completa del archivo ya incluye los cambios del
+ *   diario, por lo que el diario se elimina después de cada una
+ * - Los fragmentos no comparten candados: las escrituras a fragmentos
+ *   distintos se ejecutan en paralelo
+ */
+final class UserShard extends EntityRepository<User> {
+    // Registros mínimos del diario antes de compactarlo en el archivo del fragmento
+    static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final String journalFilename;
+
+    // Registros en el diario de vehículos (protegido por el candado de escritura)
+    private int journalRecords;
+    // Hay una reescritura pendiente en la cola write-behind que vaciará el diario
+    private boolean compactionQueued;
+
+    /**
+     * Constructor del fragmento
+     *
+     * @param dataManager Gestor de datos para la persistencia
+     * @param filename Archivo de usuarios del fragmento
+     * @param journalFilename Archivo de anexos con los cambios de vehículos
+     */
+    UserShard(DataManager dataManager, String filename, String journalFilename) {
+        super(dataManager, filename, User::new, User::getId);
+        this.journalFilename = journalFilename;
+    }
+
+    /**
+     * Obtiene el nombre del diario de vehículos del fragmento
+     * @return Nombre del archivo de anexos
+     */
+    String getJournalFilename() {
+        return journalFilename;
+    }
+
+    // ========== DIARIO DE VEHÍCULOS ==========
+
+    /**
+     * Agrega o reemplaza un vehículo de un usuario del fragmento
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID del vehículo a reemplazar (si no existe, se agrega al final)
+     * @param vehicle Vehículo nuevo
+     * @return true si se guardó el cambio, false si el usuario no existe
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     */
+    boolean putVehicle(String userId, String vehicleId, Vehicle vehicle) throws SerializationException {
+        return applyDelta(new UserVehicleDelta(UserVehicleDelta.PUT_VEHICLE, userId, vehicleId, vehicle));
+    }
+
+    /**
+     * Elimina un vehículo de un usuario del fragmento
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID del vehículo a eliminar
+     * @return true si se eliminó, false si el usuario o el vehículo no existen
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     */
+    boolean removeVehicle(String userId, String vehicleId) throws SerializationException {
+        return applyDelta(new UserVehicleDelta(UserVehicleDelta.REMOVE_VEHICLE, userId, vehicleId, null));
+    }
+
+    /**
+     * Establece el vehículo favorito de un usuario del fragmento
+     *
+     * @param userId ID del usuario
+     * @param vehicleId ID de un vehículo del usuario, o null para quitar el favorito
+     * @return true si se guardó, false si el usuario no existe o el vehículo no es suyo
+     * @throws SerializationException Si no se pudo anexar el cambio al diario
+     */
+    boolean setFavoriteVehicle(String userId, String vehicleId) throws SerializationException {
+        return applyDelta(new UserVehicleDelta(UserVehicleDelta.SET_FAVORITE, userId, vehicleId, null));
+    }
+
+    /**
+     * Anexa un cambio al diario y lo aplica sobre el usuario residente
+     *
+     * @param delta Cambio a persistir
+     * @return true si se aplicó, false si el usuario no existe o el cambio no es aplicable
+     * @throws SerializationException Si no se pudo anexar el cambio
+     *
+     * Proceso:
+     * - Bajo el candado de escritura, busca el usuario por ID
+     * - Anexa el cambio al diario y, solo si tuvo éxito, lo aplica en memoria
+     * - Compacta el diario si alcanzó el umbral y no hay ya una compactación
+     *   pendiente en la cola write-behind
+     */
+    private boolean applyDelta(UserVehicleDelta delta) throws SerializationException {
+        if (delta.getUserId() == null) {
+            return false;
+        }
+        return withWriteLock(() -> {
+            User user = findById(delta.getUserId());
+            if (user == null || !delta.isApplicable(user)) {
+                return false;
+            }
+            getDataManager().append(delta, journalFilename);
+            delta.applyTo(user);
+            journalRecords++;
+            if (!compactionQueued && journalRecords >= Math.max(MIN_COMPACTION_RECORDS, size())) {
+                compact();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Reescribe el archivo del fragmento con los cambios del diario (que luego se elimina)
+     *
+     * Notas:
+     * - Si la reescritura falla, el diario se conserva y se reintenta con el siguiente cambio
+     * - Con write-behind, save() solo encola la reescritura y el diario se vacía
+     *   cuando el escritor termina (afterCommit); mientras tanto se marca la
+     *   compactación como pendiente para no volver a encolarla con cada cambio
+     */
+    private void compact() {
+        compactionQueued = true;
+        try {
+            save();
+        } catch (SerializationException e) {
+            compactionQueued = false;
+            System.err.println("Error compacting vehicle journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void afterLoad(List<User> list) throws SerializationException {
+        List<UserVehicleDelta> deltas = getDataManager().loadAppended(journalFilename, UserVehicleDelta::new);
+        if (!deltas.isEmpty()) {
+            Map<String, User> byId = new HashMap<>(Math.max(16, list.size() * 2));
+            for (User user : list) {
+                byId.putIfAbsent(user.getId(), user);
+            }
+            for (UserVehicleDelta delta : deltas) {
+                User user = byId.get(delta.getUserId());
+                if (user != null) {
+                    delta.applyTo(user);
+                }
+            }
+        }
+        journalRecords = deltas.size();
+        compactionQueued = false;
+    }
+
+    @Override
+    protected void afterCommit() {
+        journalRecords = 0;
+        compactionQueued = false;
+        DataManager dataManager = getDataManager();
+        if (!dataManager.deleteFile(journalFilename) && dataManager.fileExists(journalFilename)) {
+            System.err.println("Error deleting vehicle journal: " + journalFilename);
+        }
+    }
+}
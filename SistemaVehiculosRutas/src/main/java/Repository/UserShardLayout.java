@@ -0,0 +1,69 @@
+/*
+ * Nombre del Archivo: UserShardLayout.java
+ *
+ * Descripcion: Descripción persistida de la partición de usuarios en
+ *              fragmentos (número de fragmentos). Permite detectar al iniciar
+ *              si los archivos de usuarios están en la partición configurada
+ *              o si se deben migrar (desde users.dat o desde otra cantidad
+ *              de fragmentos).
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import Interfaces.Serializable;
+
+/**
+ * Partición vigente del almacén de usuarios
+ *
+ * Notas:
+ * - Se guarda en users.shards después de escribir todos los fragmentos, así
+ *   que mientras no se guarde sigue vigente la partición anterior
+ */
+final class UserShardLayout implements Serializable {
+    private int shardCount;
+
+    /**
+     * Constructor vacío para deserialización
+     */
+    UserShardLayout() {
+    }
+
+    /**
+     * Constructor con el número de fragmentos
+     *
+     * @param shardCount Número de fragmentos de la partición
+     */
+    UserShardLayout(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Obtiene el número de fragmentos
+     * @return Número de fragmentos de la partición
+     */
+    int getShardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public void serialize(DataOutputStream out) throws IOException {
+        out.writeInt(shardCount);
+    }
+
+    @Override
+    public void deserialize(DataInputStream in) throws IOException {
+        this.shardCount = in.readInt();
+        if (shardCount <= 0) {
+            throw new IOException("Invalid user shard count: " + shardCount);
+        }
+    }
+}
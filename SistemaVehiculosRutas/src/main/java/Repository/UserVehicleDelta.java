@@ -0,0 +1,184 @@
+/*
+ * Nombre del Archivo: UserVehicleDelta.java
+ *
+ * Descripcion: Registro de un cambio sobre los vehículos de un usuario
+ *              (agregar o reemplazar un vehículo, eliminarlo o cambiar el
+ *              favorito). Se anexa al diario de vehículos en lugar de
+ *              reescribir el archivo completo de usuarios, y se vuelve a
+ *              aplicar sobre los usuarios cargados al iniciar.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import Binary.RecordFormat;
+import Interfaces.Serializable;
+import User.User;
+import Vehicle.Vehicle;
+
+/**
+ * Cambio individual sobre el garaje de un usuario
+ *
+ * Operaciones:
+ * - PUT_VEHICLE: reemplaza el vehículo con el ID indicado (o con el ID del
+ *   vehículo nuevo), o lo agrega al final si no existe
+ * - REMOVE_VEHICLE: elimina el vehículo con el ID indicado (y el favorito si era ese)
+ * - SET_FAVORITE: establece el ID del vehículo favorito (vacío para quitarlo)
+ *
+ * Notas:
+ * - Aplicar un cambio dos veces deja el mismo resultado que aplicarlo una vez,
+ *   así que volver a aplicar el diario sobre un archivo de usuarios que ya
+ *   incluye algunos de sus cambios es seguro
+ */
+final class UserVehicleDelta implements Serializable {
+    static final int PUT_VEHICLE = 1;
+    static final int REMOVE_VEHICLE = 2;
+    static final int SET_FAVORITE = 3;
+
+    private int operation;
+    private String userId;
+    private String vehicleId;
+    private Vehicle vehicle;
+
+    /**
+     * Constructor vacío para deserialización
+     */
+    UserVehicleDelta() {
+    }
+
+    /**
+     * Constructor de un cambio
+     *
+     * @param operation Operación (PUT_VEHICLE, REMOVE_VEHICLE o SET_FAVORITE)
+     * @param userId ID del usuario dueño del garaje
+     * @param vehicleId ID del vehículo afectado (null para quitar el favorito)
+     * @param vehicle Vehículo nuevo (solo para PUT_VEHICLE)
+     */
+    UserVehicleDelta(int operation, String userId, String vehicleId, Vehicle vehicle) {
+        this.operation = operation;
+        this.userId = userId;
+        this.vehicleId = vehicleId;
+        this.vehicle = vehicle;
+    }
+
+    /**
+     * Obtiene el ID del usuario al que se aplica el cambio
+     * @return ID del usuario
+     */
+    String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Verifica si el cambio tiene efecto sobre un usuario
+     *
+     * @param user Usuario al que se aplicaría
+     * @return true si el cambio es válido para el usuario
+     *
+     * Validaciones:
+     * - PUT_VEHICLE siempre es aplicable
+     * - REMOVE_VEHICLE requiere que el vehículo exista
+     * - SET_FAVORITE requiere que el vehículo exista (o que se quite el favorito)
+     */
+    boolean isApplicable(User user) {
+        switch (operation) {
+            case PUT_VEHICLE:
+                return vehicle != null;
+            case REMOVE_VEHICLE:
+                return positionOf(user.getVehicles(), vehicleId) >= 0;
+            case SET_FAVORITE:
+                return vehicleId == null || positionOf(user.getVehicles(), vehicleId) >= 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Aplica el cambio sobre un usuario residente
+     *
+     * @param user Usuario a modificar en el lugar
+     */
+    void applyTo(User user) {
+        List<Vehicle> vehicles = user.getVehicles();
+        int position = positionOf(vehicles, vehicleId);
+        switch (operation) {
+            case PUT_VEHICLE:
+                if (position < 0) {
+                    // Al volver a aplicarse, el vehículo ya puede estar con su ID nuevo
+                    position = positionOf(vehicles, vehicle.getId());
+                }
+                if (position >= 0) {
+                    vehicles.set(position, vehicle);
+                } else {
+                    vehicles.add(vehicle);
+                }
+                break;
+            case REMOVE_VEHICLE:
+                if (position >= 0) {
+                    vehicles.remove(position);
+                    if (vehicleId.equals(user.getFavoriteVehicleId())) {
+                        user.setFavoriteVehicleId(null);
+                    }
+                }
+                break;
+            case SET_FAVORITE:
+                if (vehicleId == null || position >= 0) {
+                    user.setFavoriteVehicleId(vehicleId);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static int positionOf(List<Vehicle> vehicles, String id) {
+        if (id == null) {
+            return -1;
+        }
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (id.equals(vehicles.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Serializa el cambio
+     *
+     * Formato:
+     * - Byte: operación
+     * - ID del usuario y ID del vehículo (vacío si es null)
+     * - Vehículo completo (solo PUT_VEHICLE)
+     */
+    @Override
+    public void serialize(DataOutputStream out) throws IOException {
+        out.writeByte(operation);
+        RecordFormat.writeId(out, userId);
+        RecordFormat.writeId(out, vehicleId);
+        if (operation == PUT_VEHICLE) {
+            vehicle.serialize(out);
+        }
+    }
+
+    @Override
+    public void deserialize(DataInputStream in) throws IOException {
+        this.operation = in.readUnsignedByte();
+        if (operation < PUT_VEHICLE || operation > SET_FAVORITE) {
+            throw new IOException("Unknown vehicle change: " + operation);
+        }
+        this.userId = RecordFormat.readId(in);
+        String id = RecordFormat.readId(in);
+        this.vehicleId = id.isEmpty() ? null : id;
+        this.vehicle = operation == PUT_VEHICLE ? Vehicle.deserializeFromStream(in) : null;
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Nombre del Archivo: WriteBehindQueue.java
+ *
+ * Descripcion: Escritor en segundo plano de los repositorios residentes.
+ *              Las modificaciones se aplican en memoria de inmediato y el
+ *              repositorio solo se marca como pendiente; un único hilo
+ *              escritor agrupa todos los cambios acumulados de cada archivo
+ *              y los guarda en una sola escritura, con una latencia máxima
+ *              configurable. flush() funciona como barrera para el cierre.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import Interfaces.SerializationException;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+
+/**
+ * Cola de escritura diferida (write-behind) con agrupación de cambios
+ *
+ * Características:
+ * - Un repositorio pendiente aparece una sola vez en la cola, sin importar
+ *   cuántos cambios acumule: la escritura guarda el estado más reciente de
+ *   todas sus entidades de una vez
+ * - Latencia acotada: un cambio no permanece solo en memoria más de
+ *   maxDelayMillis (más lo que tarde la escritura), salvo que la escritura falle
+ * - Un solo hilo escritor (daemon, "write-behind"), que se inicia con el
+ *   primer cambio pendiente
+ * - Registra la duración de cada ronda como "persistence.writeBehind" y los
+ *   cambios agrupados como "persistence.writeBehind.coalesced" en MetricsRegistry
+ *
+ * Notas:
+ * - Si una escritura falla, el repositorio vuelve a la cola y se reintenta
+ *   en la siguiente ronda (al menos un segundo después); el error se
+ *   reporta por System.err
+ * - flush() escribe en el hilo que lo llama todo lo pendiente al momento
+ *   de llamarlo; se usa antes de cerrar la aplicación o de modificar los
+ *   archivos por fuera de los repositorios
+ * - Si el proceso termina sin flush(), se pierden como máximo los cambios
+ *   de la última ventana de maxDelayMillis
+ */
+public final class WriteBehindQueue {
+    private static final LatencyHistogram FLUSH_LATENCY = MetricsRegistry.getDefault().histogram("persistence.writeBehind");
+    private static final LongAdder COALESCED = MetricsRegistry.getDefault().counter("persistence.writeBehind.coalesced");
+    // Espera mínima antes de reintentar una escritura fallida
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long maxDelayNanos;
+    private final Object monitor = new Object();
+    private final List<EntityRepository<?>> registered = new CopyOnWriteArrayList<>();
+
+    // Protegidos por monitor
+    private final LinkedHashSet<EntityRepository<?>> dirty = new LinkedHashSet<>();
+    private long firstDirtyNanos;
+    private boolean retrying;
+    private long retryNotBeforeNanos;
+    private Thread writer;
+    private boolean closed;
+
+    /**
+     * Constructor de la cola
+     *
+     * @param maxDelayMillis Tiempo máximo que se acumulan cambios antes de escribirlos
+     */
+    public WriteBehindQueue(long maxDelayMillis) {
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Write-behind delay must not be negative");
+        }
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    /**
+     * Registra un repositorio para que flush() lo incluya
+     *
+     * @param repository Repositorio que persiste a través de esta cola
+     */
+    void register(EntityRepository<?> repository) {
+        registered.add(repository);
+    }
+
+    /**
+     * Marca un repositorio como pendiente de escritura
+     *
+     * @param repository Repositorio con cambios solo en memoria
+     * @return true si la cola aceptó el cambio, false si ya se cerró (el
+     *         repositorio debe escribirlo por su cuenta)
+     *
+     * Notas:
+     * - Si el repositorio ya estaba pendiente, el cambio se agrupa con los anteriores
+     */
+    boolean markDirty(EntityRepository<?> repository) {
+        synchronized (monitor) {
+            if (closed) {
+                return false;
+            }
+            if (dirty.isEmpty()) {
+                firstDirtyNanos = System.nanoTime();
+            }
+            if (!dirty.add(repository)) {
+                COALESCED.increment();
+            }
+            startWriterLocked();
+            monitor.notifyAll();
+            return true;
+        }
+    }
+
+    /**
+     * Escribe todos los cambios pendientes y espera a que terminen
+     *
+     * @throws SerializationException La primera falla de escritura, si alguna
+     *         escritura falló (los demás repositorios se escriben igualmente)
+     *
+     * Notas:
+     * - Si el hilo escritor está guardando un repositorio, espera a que
+     *   termine y luego escribe lo que haya quedado pendiente
+     */
+    public void flush() throws SerializationException {
+        synchronized (monitor) {
+            dirty.clear();
+        }
+        SerializationException failure = null;
+        for (EntityRepository<?> repository : registered) {
+            try {
+                repository.flush();
+            } catch (SerializationException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                requeue(repository);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Escribe los cambios pendientes y detiene el hilo escritor
+     *
+     * @throws SerializationException Si alguna escritura falló
+     *
+     * Notas:
+     * - Los cambios posteriores al cierre se escriben de forma sincrónica
+     */
+    public void close() throws SerializationException {
+        Thread current;
+        synchronized (monitor) {
+            closed = true;
+            current = writer;
+            monitor.notifyAll();
+        }
+        if (current != null && current != Thread.currentThread()) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Verifica si quedan cambios sin escribir
+     * @return true si algún repositorio registrado tiene cambios solo en memoria
+     */
+    public boolean hasPendingWrites() {
+        for (EntityRepository<?> repository : registered) {
+            if (repository.hasPendingWrites()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene la latencia máxima configurada
+     * @return Milisegundos que se acumulan cambios antes de escribirlos
+     */
+    public long getMaxDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDelayNanos);
+    }
+
+    // ========== HILO ESCRITOR ==========
+
+    private void startWriterLocked() {
+        if (writer == null) {
+            writer = new Thread(this::runWriter, "write-behind");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor
+     *
+     * Proceso:
+     * - Espera el primer cambio pendiente
+     * - Espera hasta que se cumpla maxDelayMillis desde ese cambio (los
+     *   cambios que lleguen mientras tanto se agrupan en la misma ronda)
+     * - Toma todos los repositorios pendientes y los escribe uno por uno
+     * - Termina cuando la cola se cierra y ya no hay pendientes
+     */
+    private void runWriter() {
+        while (true) {
+            List<EntityRepository<?>> batch;
+            synchronized (monitor) {
+                try {
+                    while (!closed) {
+                        if (dirty.isEmpty()) {
+                            monitor.wait();
+                            continue;
+                        }
+                        long deadline = firstDirtyNanos + maxDelayNanos;
+                        if (retrying && retryNotBeforeNanos - deadline > 0) {
+                            deadline = retryNotBeforeNanos;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true;
+                }
+                if (closed) {
+                    // close() escribe lo que quede en el hilo que lo llamó
+                    writer = null;
+                    return;
+                }
+                batch = new ArrayList<>(dirty);
+                dirty.clear();
+            }
+
+            long start = System.nanoTime();
+            boolean failed = false;
+            for (EntityRepository<?> repository : batch) {
+                if (!flushQuietly(repository)) {
+                    failed = true;
+                    requeue(repository);
+                }
+            }
+            FLUSH_LATENCY.recordSince(start);
+            synchronized (monitor) {
+                retrying = failed;
+                retryNotBeforeNanos = System.nanoTime() + RETRY_DELAY_NANOS;
+            }
+        }
+    }
+
+    /**
+     * Vuelve a poner un repositorio en la cola después de una falla
+     *
+     * @param repository Repositorio que no se pudo escribir
+     */
+    private void requeue(EntityRepository<?> repository) {
+        synchronized (monitor) {
+            if (!closed && repository.hasPendingWrites()) {
+                if (dirty.isEmpty()) {
+                    firstDirtyNanos = System.nanoTime();
+                }
+                dirty.add(repository);
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private static boolean flushQuietly(EntityRepository<?> repository) {
+        try {
+            repository.flush();
+            return true;
+        } catch (SerializationException e) {
+            System.err.println("Error writing " + repository.getFilename() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
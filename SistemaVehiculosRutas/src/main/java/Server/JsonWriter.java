@@ -0,0 +1,161 @@
+/*
+ * Nombre del Archivo: JsonWriter.java
+ *
+ * Descripcion: Escritor mínimo de JSON usado por el servidor HTTP de rutas.
+ *              Construye el documento en un StringBuilder con llamadas
+ *              encadenadas (objetos, arreglos, nombres y valores) y se encarga
+ *              de las comas y del escape de cadenas, sin dependencias externas.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Server;
+
+/**
+ * Escritor de JSON por llamadas encadenadas
+ *
+ * Uso:
+ * <pre>
+ * String json = new JsonWriter()
+ *     .beginObject()
+ *     .name("status").value("ok")
+ *     .name("cities").value(12)
+ *     .endObject()
+ *     .toString();
+ * </pre>
+ *
+ * Notas:
+ * - No valida la estructura; el llamador debe abrir y cerrar en orden
+ * - Los números no finitos (NaN, infinito) se escriben como null
+ * - Una instancia no es segura para varios hilos; se crea una por respuesta
+ */
+final class JsonWriter {
+    private final StringBuilder json = new StringBuilder(256);
+    // true justo después de abrir un objeto o arreglo, o después de un nombre
+    private boolean first = true;
+
+    // ========== ESTRUCTURA ==========
+
+    JsonWriter beginObject() {
+        separator();
+        json.append('{');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        json.append('}');
+        first = false;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        json.append('[');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        json.append(']');
+        first = false;
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separator();
+        appendString(name);
+        json.append(':');
+        first = true;
+        return this;
+    }
+
+    // ========== VALORES ==========
+
+    JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            json.append("null");
+        } else {
+            appendString(value);
+        }
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separator();
+        json.append(value);
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(double value) {
+        separator();
+        if (Double.isFinite(value)) {
+            json.append(value);
+        } else {
+            json.append("null");
+        }
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separator();
+        json.append(value);
+        first = false;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    // ========== AUXILIARES ==========
+
+    private void separator() {
+        if (!first) {
+            json.append(',');
+        }
+    }
+
+    /**
+     * Escribe una cadena entre comillas escapando comillas, barras y caracteres de control
+     */
+    private void appendString(String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+        json.append('"');
+    }
+}
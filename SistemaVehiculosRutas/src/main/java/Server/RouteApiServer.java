@@ -0,0 +1,403 @@
+/*
+ * Nombre del Archivo: RouteApiServer.java
+ *
+ * Descripcion: Servidor HTTP sin interfaz gráfica que expone la búsqueda de
+ *              rutas, las isócronas y la consulta de estaciones como JSON.
+ *              Usa el servidor HTTP incluido en el JDK (com.sun.net.httpserver)
+ *              con un hilo virtual por solicitud, y atiende a muchos clientes
+ *              a la vez sobre la instantánea inmutable del grafo que mantiene
+ *              el RouteService del RouteSystemContext.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import Main.RouteSystemContext;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Models.ChargingStation;
+import Models.City;
+import Models.FuelStation;
+import Models.ReachableCity;
+import Models.Route;
+import Models.Station;
+import Services.RouteService;
+import Vehicle.ChargerType;
+import Vehicle.FuelType;
+
+/**
+ * Servidor HTTP de la API de rutas
+ *
+ * Endpoints (todos GET, respuestas application/json):
+ * - /api/health: estado del servidor y estadísticas del grafo
+ * - /api/routes?from=ID&to=ID: ruta más corta y alternativas entre dos ciudades
+ * - /api/routes?fromLat=..&fromLon=..&toLat=..&toLon=..: mejor ruta entre dos coordenadas
+ * - /api/isochrone?city=ID&minutes=N: ciudades alcanzables en N minutos
+ * - /api/stations?city=ID: estaciones de una ciudad
+ * - /api/stations?lat=..&lon=..: estaciones de la ciudad más cercana a un punto
+ *
+ * Códigos de respuesta:
+ * - 200 con el resultado
+ * - 400 si faltan parámetros o no son válidos
+ * - 404 si la ciudad no existe o la ruta no es de la API
+ * - 405 si el método no es GET
+ * - 500 ante un error inesperado (el detalle va a System.err)
+ *
+ * Notas:
+ * - Cada solicitud se atiende en su propio hilo virtual
+ * - El servidor no guarda estado por solicitud; las consultas de RouteService
+ *   toman una instantánea del grafo, así que pueden ejecutarse en paralelo
+ * - Registra la latencia de cada endpoint en MetricsRegistry ("server.*")
+ */
+public class RouteApiServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    // Cola de conexiones pendientes del socket; el valor por defecto del JDK es muy bajo para carga alta
+    private static final int BACKLOG = 1024;
+    private static final double DEFAULT_ISOCHRONE_MINUTES = 60;
+    private static final double MAX_ISOCHRONE_MINUTES = 24 * 60;
+
+    private static final LatencyHistogram ROUTES_LATENCY = MetricsRegistry.getDefault().histogram("server.routes");
+    private static final LatencyHistogram ISOCHRONE_LATENCY = MetricsRegistry.getDefault().histogram("server.isochrone");
+    private static final LatencyHistogram STATIONS_LATENCY = MetricsRegistry.getDefault().histogram("server.stations");
+    private static final LatencyHistogram HEALTH_LATENCY = MetricsRegistry.getDefault().histogram("server.health");
+    private static final LongAdder ERRORS = MetricsRegistry.getDefault().counter("server.errors");
+
+    private final RouteService routeService;
+    private final int port;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Respuesta de un endpoint: código HTTP y cuerpo JSON
+     */
+    private record Response(int status, String body) {
+        static Response ok(String body) {
+            return new Response(200, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, new JsonWriter().beginObject().name("error").value(message).endObject().toString());
+        }
+    }
+
+    /**
+     * Error de parámetros de una solicitud (se responde con 400)
+     */
+    private static class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Constructor del servidor
+     *
+     * @param context Contexto del sistema ya inicializado
+     * @param port Puerto TCP donde escuchar (0 = puerto libre elegido por el sistema)
+     */
+    public RouteApiServer(RouteSystemContext context, int port) {
+        this.routeService = context.getRouteService();
+        this.port = port;
+    }
+
+    // ========== CICLO DE VIDA ==========
+
+    /**
+     * Inicia el servidor
+     *
+     * @return true si el servidor quedó escuchando, false si no se pudo abrir el puerto
+     *
+     * Proceso:
+     * - Abre el socket en todas las interfaces
+     * - Registra los endpoints de la API
+     * - Usa un ejecutor de un hilo virtual por solicitud
+     */
+    public synchronized boolean start() {
+        if (server != null) {
+            return true;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        } catch (IOException e) {
+            System.err.println("Error starting HTTP server on port " + port + ": " + e.getMessage());
+            server = null;
+            return false;
+        }
+
+        server.createContext("/api/health", exchange -> handle(exchange, HEALTH_LATENCY, this::health));
+        server.createContext("/api/routes", exchange -> handle(exchange, ROUTES_LATENCY, this::routes));
+        server.createContext("/api/isochrone", exchange -> handle(exchange, ISOCHRONE_LATENCY, this::isochrone));
+        server.createContext("/api/stations", exchange -> handle(exchange, STATIONS_LATENCY, this::stations));
+        server.createContext("/", exchange -> send(exchange, Response.error(404, "Unknown endpoint")));
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.start();
+        return true;
+    }
+
+    /**
+     * Detiene el servidor
+     *
+     * @param delaySeconds Segundos de espera para que terminen las solicitudes en curso
+     */
+    public synchronized void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.close();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Obtiene el puerto donde escucha el servidor
+     * @return Puerto real (útil cuando se inició con puerto 0), o -1 si no está iniciado
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    // ========== ENDPOINTS ==========
+
+    private Response health(Map<String, String> params) {
+        return Response.ok(new JsonWriter()
+            .beginObject()
+            .name("status").value("ok")
+            .name("graph").value(routeService.getGraphStatistics())
+            .endObject()
+            .toString());
+    }
+
+    private Response routes(Map<String, String> params) {
+        List<Route> routes;
+        if (params.containsKey("from") || params.containsKey("to")) {
+            String from = requireParameter(params, "from");
+            String to = requireParameter(params, "to");
+            if (routeService.findCityById(from) == null || routeService.findCityById(to) == null) {
+                return Response.error(404, "City not found");
+            }
+            routes = routeService.findRoutes(from, to);
+        } else {
+            routes = routeService.findRoutes(
+                coordinateParameter(params, "fromLat", 90), coordinateParameter(params, "fromLon", 180),
+                coordinateParameter(params, "toLat", 90), coordinateParameter(params, "toLon", 180));
+        }
+
+        JsonWriter json = new JsonWriter().beginObject().name("routes").beginArray();
+        for (Route route : routes) {
+            writeRoute(json, route);
+        }
+        return Response.ok(json.endArray().endObject().toString());
+    }
+
+    private Response isochrone(Map<String, String> params) {
+        String cityId = requireParameter(params, "city");
+        double minutes = params.containsKey("minutes")
+            ? numberParameter(params, "minutes", 0, MAX_ISOCHRONE_MINUTES)
+            : DEFAULT_ISOCHRONE_MINUTES;
+
+        City origin = routeService.findCityById(cityId);
+        if (origin == null) {
+            return Response.error(404, "City not found");
+        }
+
+        JsonWriter json = new JsonWriter().beginObject()
+            .name("origin");
+        writeCity(json, origin);
+        json.name("maxMinutes").value(minutes)
+            .name("cities").beginArray();
+        for (ReachableCity reachable : routeService.findReachableCities(cityId, minutes)) {
+            json.beginObject()
+                .name("id").value(reachable.getCity().getId())
+                .name("name").value(reachable.getCity().getName())
+                .name("minutes").value(reachable.getMinutes())
+                .name("hops").value(reachable.getHops())
+                .endObject();
+        }
+        return Response.ok(json.endArray().endObject().toString());
+    }
+
+    private Response stations(Map<String, String> params) {
+        City city;
+        if (params.containsKey("city")) {
+            city = routeService.findCityById(params.get("city"));
+        } else {
+            city = routeService.findNearestCity(coordinateParameter(params, "lat", 90),
+                                                coordinateParameter(params, "lon", 180));
+        }
+        if (city == null) {
+            return Response.error(404, "City not found");
+        }
+
+        JsonWriter json = new JsonWriter().beginObject().name("city");
+        writeCity(json, city);
+        json.name("stations").beginArray();
+        for (Station station : routeService.getStationsInCity(city.getId())) {
+            writeStation(json, station);
+        }
+        return Response.ok(json.endArray().endObject().toString());
+    }
+
+    // ========== SERIALIZACIÓN ==========
+
+    private static void writeCity(JsonWriter json, City city) {
+        json.beginObject()
+            .name("id").value(city.getId())
+            .name("name").value(city.getName())
+            .name("latitude").value(city.getLatitude())
+            .name("longitude").value(city.getLongitude())
+            .endObject();
+    }
+
+    private static void writeRoute(JsonWriter json, Route route) {
+        json.beginObject()
+            .name("distanceKm").value(route.getTotalDistance())
+            .name("timeMinutes").value(route.getTotalTimeMinutes())
+            .name("cost").value(route.getTotalCost())
+            .name("cities").beginArray();
+        for (City city : route.getCities()) {
+            writeCity(json, city);
+        }
+        json.endArray().endObject();
+    }
+
+    private static void writeStation(JsonWriter json, Station station) {
+        json.beginObject()
+            .name("id").value(station.getId())
+            .name("name").value(station.getName())
+            .name("address").value(station.getAddress())
+            .name("type").value(station.getStationType())
+            .name("energy").beginArray();
+        if (station instanceof ChargingStation charging) {
+            for (ChargerType charger : charging.getAvailableChargers()) {
+                json.value(charger.getName());
+            }
+        } else if (station instanceof FuelStation fuel) {
+            for (FuelType fuelType : fuel.getAvailableFuels()) {
+                json.value(fuelType.getName());
+            }
+        }
+        json.endArray().endObject();
+    }
+
+    // ========== PROTOCOLO ==========
+
+    /**
+     * Atiende una solicitud: valida el método, ejecuta el endpoint y envía la respuesta
+     *
+     * Manejo de errores:
+     * - BadRequestException se responde con 400 y su mensaje
+     * - Cualquier otra excepción se responde con 500 y se informa en System.err
+     */
+    private void handle(HttpExchange exchange, LatencyHistogram latency,
+                        Function<Map<String, String>, Response> endpoint) throws IOException {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                response = Response.error(405, "Only GET is supported");
+            } else {
+                response = endpoint.apply(parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (BadRequestException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+            response = Response.error(500, "Internal server error");
+        }
+
+        if (response.status() >= 500) {
+            ERRORS.increment();
+        }
+        send(exchange, response);
+        latency.recordSince(start);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Convierte la cadena de consulta en un mapa de parámetros (el último valor gana)
+     *
+     * @throws BadRequestException Si un nombre o valor tiene un escape % mal formado
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            if (!key.isEmpty()) {
+                params.put(decode(key), decode(value));
+            }
+        }
+        return params;
+    }
+
+    private static String decode(String component) {
+        try {
+            return URLDecoder.decode(component, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed query string: " + e.getMessage());
+        }
+    }
+
+    private static String requireParameter(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static double numberParameter(Map<String, String> params, String name, double min, double max) {
+        String value = requireParameter(params, name);
+        try {
+            double number = Double.parseDouble(value);
+            if (!(number >= min && number <= max)) {
+                throw new BadRequestException("Parameter out of range: " + name);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid number for parameter: " + name);
+        }
+    }
+
+    private static double coordinateParameter(Map<String, String> params, String name, double limit) {
+        return numberParameter(params, name, -limit, limit);
+    }
+}
@@ -16,12 +16,15 @@
  */
 package Services;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 
-import Binary.FileConstants;
-import Interfaces.DataManager;
 import Interfaces.SerializationException;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
+import Repository.DataStore;
+import Repository.UserRepository;
 import User.User;
 import User.UserRole;
 
@@ -37,23 +40,102 @@ import User.UserRole;
  * - Actualización de información de usuario
  * 
  * Mantiene la seguridad y integridad de las sesiones de usuario.
+ * 
+ * Sesiones:
+ * - Las sesiones viven en un SessionStore concurrente, identificadas por token,
+ *   y vencen tras AppConfig.MENU_TIMEOUT_SECONDS de inactividad
+ * - Los métodos que reciben una Session o un token permiten atender a muchos
+ *   usuarios a la vez (por ejemplo desde un servidor)
+ * - Los métodos "current" (login, logout, getCurrentUser, ...) operan sobre la
+ *   sesión de la interfaz interactiva local (consola o ventanas), cuyo token
+ *   guarda este servicio
  */
 public class AuthenticationService {
     
-    private final DataManager dataManager;
-    private Session currentSession;
+    private static final LatencyHistogram LOGIN_LATENCY = MetricsRegistry.getDefault().histogram("auth.login");
+    private static final LongAdder LOGIN_SUCCESSES = MetricsRegistry.getDefault().counter("auth.loginSuccesses");
+    private static final LongAdder LOGIN_FAILURES = MetricsRegistry.getDefault().counter("auth.loginFailures");
+    
+    private final UserRepository users;
+    private final SessionStore sessions;
+    private final ReadWriteLock catalogUsageLock;
+    // Token de la sesión de la interfaz interactiva local
+    private volatile String currentToken;
     
     /**
      * Constructor del servicio de autenticación
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      * 
      * Notas:
-     * - Establece la dependencia del gestor de datos
+     * - Utiliza el repositorio residente de usuarios
+     * - Crea un almacén de sesiones con el tiempo de inactividad de la configuración
      * - Inicializa sin sesión activa
      */
-    public AuthenticationService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public AuthenticationService(DataStore dataStore) {
+        this(dataStore, new SessionStore());
+    }
+    
+    /**
+     * Constructor con un almacén de sesiones propio
+     * 
+     * @param dataStore Almacén de datos compartido con los demás servicios
+     * @param sessions Almacén de sesiones (por ejemplo con otro tiempo de inactividad)
+     */
+    public AuthenticationService(DataStore dataStore, SessionStore sessions) {
+        this.users = dataStore.getUsers();
+        this.catalogUsageLock = dataStore.getCatalogUsageLock();
+        this.sessions = sessions;
+    }
+    
+    /**
+     * Obtiene el almacén de sesiones
+     * @return Almacén con todas las sesiones activas
+     */
+    public SessionStore getSessionStore() {
+        return sessions;
+    }
+    
+    // ========== SESIONES POR TOKEN ==========
+    
+    /**
+     * Autentica un usuario y abre una sesión nueva
+     * 
+     * @param username El nombre de usuario
+     * @param password La contraseña del usuario
+     * @return La sesión creada (con su token), o null si las credenciales no son válidas
+     * 
+     * Notas:
+     * - Un mismo usuario puede tener varias sesiones abiertas
+     * - Registra la latencia y el resultado en MetricsRegistry
+     */
+    public Session openSession(String username, String password) {
+        long start = System.nanoTime();
+        User user = authenticate(username, password);
+        Session session = user != null ? sessions.create(user) : null;
+        LOGIN_LATENCY.recordSince(start);
+        (session != null ? LOGIN_SUCCESSES : LOGIN_FAILURES).increment();
+        return session;
+    }
+    
+    /**
+     * Obtiene una sesión activa por su token
+     * 
+     * @param token Token de la sesión
+     * @return La sesión (se registra el acceso), o null si no existe o venció
+     */
+    public Session getSession(String token) {
+        return sessions.get(token);
+    }
+    
+    /**
+     * Cierra una sesión por su token
+     * 
+     * @param token Token de la sesión
+     * @return true si la sesión existía
+     */
+    public boolean closeSession(String token) {
+        return sessions.invalidate(token);
     }
     
     /**
@@ -65,36 +147,52 @@ public class AuthenticationService {
      * 
      * Proceso:
      * - Valida que username y password no sean null o vacíos
-     * - Carga la lista de usuarios desde el archivo
-     * - Busca coincidencia exacta de username y password
-     * - Crea una nueva sesión si la autenticación es exitosa
+     * - Busca el usuario en el índice por nombre del repositorio (sin
+     *   distinguir mayúsculas ni espacios extremos)
+     * - Verifica coincidencia exacta de la contraseña
+     * - Crea una nueva sesión si la autenticación es exitosa y la
+     *   convierte en la sesión de la interfaz local (cierra la anterior)
      * 
      * Validaciones:
      * - Username no puede ser null o vacío
      * - Password no puede ser null
      * - Maneja errores de serialización
+     * 
+     * Notas:
+     * - Registra la latencia y el resultado en MetricsRegistry (ver openSession)
      */
     public boolean login(String username, String password) {
-        if (username == null || password == null || username.trim().isEmpty()) {
+        Session session = openSession(username, password);
+        if (session == null) {
             return false;
         }
+        sessions.invalidate(currentToken);
+        currentToken = session.getToken();
+        return true;
+    }
+    
+    /**
+     * Verifica las credenciales (ver login)
+     * 
+     * @return El usuario autenticado, o null si las credenciales no son válidas
+     */
+    private User authenticate(String username, String password) {
+        if (username == null || password == null || username.trim().isEmpty()) {
+            return null;
+        }
         
         try {
-            List<User> users = dataManager.loadList(FileConstants.USERS_FILE, User::new);
-            Optional<User> userOpt = users.stream()
-                .filter(user -> username.equals(user.getUsername()) && password.equals(user.getPassword()))
-                .findFirst();
+            User user = users.findByUsername(username);
             
-            if (userOpt.isPresent()) {
-                currentSession = new Session(userOpt.get());
-                return true;
+            if (user != null && password.equals(user.getPassword())) {
+                return user;
             }
             
         } catch (SerializationException e) {
             System.err.println("Error loading users during login: " + e.getMessage());
         }
         
-        return false;
+        return null;
     }
     
     /**
@@ -107,7 +205,7 @@ public class AuthenticationService {
      * 
      * Proceso:
      * - Valida que username y password no sean null o vacíos
-     * - Verifica que el nombre de usuario no exista ya
+     * - Verifica que el nombre de usuario no exista ya (índice por nombre)
      * - Crea un nuevo usuario con los datos proporcionados
      * - Guarda la lista actualizada de usuarios
      * 
@@ -122,22 +220,18 @@ public class AuthenticationService {
         }
         
         try {
-            List<User> users = dataManager.loadList(FileConstants.USERS_FILE, User::new);
-            
             // Verificar que el nombre de usuario no exista ya
-            boolean usernameExists = users.stream()
-                .anyMatch(user -> username.equals(user.getUsername()));
-            
-            if (usernameExists) {
+            if (users.usernameExists(username)) {
                 return null; // Nombre de usuario ya tomado
             }
             
             // Crear nuevo usuario
             User newUser = new User(username, password, role);
-            users.add(newUser);
             
-            // Guardar lista actualizada de usuarios
-            dataManager.saveList(users, FileConstants.USERS_FILE);
+            // Agregar y guardar en el repositorio (rechaza un alta concurrente con el mismo nombre)
+            if (!users.add(newUser)) {
+                return null;
+            }
             
             return newUser;
             
@@ -151,12 +245,13 @@ public class AuthenticationService {
      * Cierra la sesión del usuario actual
      * 
      * Notas:
-     * - Elimina la referencia a la sesión actual
+     * - Elimina la sesión actual del almacén de sesiones
      * - No requiere confirmación
      * - Útil para cerrar sesión de forma segura
      */
     public void logout() {
-        currentSession = null;
+        sessions.invalidate(currentToken);
+        currentToken = null;
     }
     
     /**
@@ -169,20 +264,22 @@ public class AuthenticationService {
      * - Proporciona acceso al usuario de la sesión actual
      */
     public User getCurrentUser() {
-        return currentSession != null ? currentSession.getUser() : null;
+        Session session = getCurrentSession();
+        return session != null ? session.getUser() : null;
     }
     
     /**
      * Obtiene la sesión actual
      * 
-     * @return La sesión actual, o null si no hay sesión activa
+     * @return La sesión actual, o null si no hay sesión activa o venció por inactividad
      * 
      * Notas:
      * - Proporciona acceso completo a la información de la sesión
      * - Útil para obtener timestamp de login y otros datos de sesión
+     * - Cada consulta cuenta como actividad de la sesión
      */
     public Session getCurrentSession() {
-        return currentSession;
+        return sessions.get(currentToken);
     }
     
     /**
@@ -195,7 +292,7 @@ public class AuthenticationService {
      * - Útil para control de acceso a funcionalidades
      */
     public boolean isAuthenticated() {
-        return currentSession != null;
+        return getCurrentSession() != null;
     }
     
     /**
@@ -209,7 +306,8 @@ public class AuthenticationService {
      * - Útil para control de acceso a funcionalidades administrativas
      */
     public boolean isCurrentUserAdmin() {
-        return currentSession != null && currentSession.isAdmin();
+        Session session = getCurrentSession();
+        return session != null && session.isAdmin();
     }
     
     /**
@@ -220,8 +318,7 @@ public class AuthenticationService {
      * 
      * Proceso:
      * - Verifica que haya una sesión activa
-     * - Busca el usuario en la lista de usuarios
-     * - Actualiza la información del usuario
+     * - Reemplaza el usuario en el repositorio por su ID
      * - Guarda la lista actualizada
      * - Actualiza la sesión actual
      * 
@@ -231,26 +328,44 @@ public class AuthenticationService {
      * - Maneja errores de serialización
      */
     public boolean updateCurrentUser(User updatedUser) {
-        if (currentSession == null || updatedUser == null) {
+        return updateUser(getCurrentSession(), updatedUser);
+    }
+    
+    /**
+     * Actualiza la información del usuario de una sesión
+     * 
+     * @param session Sesión del usuario a actualizar
+     * @param updatedUser La información actualizada del usuario
+     * @return true si la actualización fue exitosa, false en caso contrario
+     * 
+     * Notas:
+     * - Mismo proceso que updateCurrentUser, para cualquier sesión activa
+     * - Se ejecuta bajo el candado de entidad del usuario (el mismo que usa
+     *   UserManagementService), así que no se pisa con una edición del administrador
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de un tipo de
+     *   energía que alguno de sus vehículos use
+     */
+    public boolean updateUser(Session session, User updatedUser) {
+        if (session == null || updatedUser == null) {
             return false;
         }
         
+        catalogUsageLock.readLock().lock();
+        Lock lock = users.entityLock(session.getUser().getId());
+        lock.lock();
         try {
-            List<User> users = dataManager.loadList(FileConstants.USERS_FILE, User::new);
-            
-            for (int i = 0; i < users.size(); i++) {
-                if (users.get(i).getId().equals(currentSession.getUser().getId())) {
-                    users.set(i, updatedUser);
-                    dataManager.saveList(users, FileConstants.USERS_FILE);
-                    
-                    // Actualizar sesión actual
-                    currentSession = new Session(updatedUser);
-                    return true;
-                }
+            if (users.update(session.getUser().getId(), updatedUser)) {
+                // Actualizar la sesión
+                session.setUser(updatedUser);
+                return true;
             }
             
         } catch (SerializationException e) {
             System.err.println("Error updating user: " + e.getMessage());
+        } finally {
+            lock.unlock();
+            catalogUsageLock.readLock().unlock();
         }
         
         return false;
@@ -275,16 +390,54 @@ public class AuthenticationService {
      * - Las contraseñas no pueden ser null
      */
     public boolean changePassword(String oldPassword, String newPassword) {
-        if (currentSession == null || oldPassword == null || newPassword == null) {
+        return changePassword(getCurrentSession(), oldPassword, newPassword);
+    }
+    
+    /**
+     * Cambia la contraseña del usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @param oldPassword La contraseña actual
+     * @param newPassword La nueva contraseña
+     * @return true si el cambio de contraseña fue exitoso, false en caso contrario
+     * 
+     * Notas:
+     * - La verificación y el cambio ocurren con users.modify, bajo el candado
+     *   de escritura del fragmento del usuario: dos cambios simultáneos con la
+     *   misma contraseña actual no pueden aceptarse ambos, y el escritor
+     *   diferido nunca serializa el usuario a medio cambiar
+     * - Si el guardado falla, se restaura la contraseña anterior
+     * - La sesión pasa a apuntar al usuario residente ya modificado
+     */
+    public boolean changePassword(Session session, String oldPassword, String newPassword) {
+        if (session == null || oldPassword == null || newPassword == null) {
             return false;
         }
         
-        User currentUser = currentSession.getUser();
-        if (!oldPassword.equals(currentUser.getPassword())) {
-            return false; // La contraseña actual no coincide
+        String userId = session.getUser().getId();
+        Lock lock = users.entityLock(userId);
+        lock.lock();
+        try {
+            User[] changed = new User[1];
+            boolean updated = users.modify(userId, user -> {
+                String previous = user.getPassword();
+                if (!oldPassword.equals(previous)) {
+                    return null; // La contraseña actual no coincide
+                }
+                user.setPassword(newPassword);
+                changed[0] = user;
+                return () -> user.setPassword(previous);
+            });
+            if (updated) {
+                session.setUser(changed[0]);
+                return true;
+            }
+        } catch (SerializationException e) {
+            System.err.println("Error changing password: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
         
-        currentUser.setPassword(newPassword);
-        return updateCurrentUser(currentUser);
+        return false;
     }
 }
@@ -15,20 +15,42 @@
  */
 package Services;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
 
 import Binary.FileConstants;
-import Graph.AdjacencyMatrixGraph;
 import Graph.CityNode;
 import Graph.ConnectionEdge;
+import Graph.ConnectionResolver;
+import Graph.CsrGraph;
+import Graph.GraphImage;
 import Interfaces.DataManager;
 import Interfaces.SerializationException;
+import Main.AppConfig;
+import Metrics.LatencyHistogram;
+import Metrics.MetricsRegistry;
 import Models.City;
 import Models.Connection;
+import Models.NearbyStation;
+import Models.ReachableCity;
 import Models.Route;
 import Models.Station;
+import Repository.CityRepository;
+import Repository.CitySpatialIndex;
+import Repository.DataStore;
+import Repository.EntityRepository;
+import Repository.StationEnergyIndex;
 import Vehicle.Vehicle;
 
 /**
@@ -42,24 +64,76 @@ import Vehicle.Vehicle;
  * - Estadísticas y análisis del grafo de ciudades
  * 
  * Utiliza algoritmos de grafos para encontrar las mejores rutas disponibles.
+ * 
+ * Concurrencia:
+ * - El grafo se construye completo y luego se publica (campo volatile); no se
+ *   modifica después, así que es una instantánea inmutable (un grafo armado
+ *   sobre la imagen solo completa en el primer uso sus ciudades y aristas,
+ *   que son equivalentes para todos los hilos)
+ * - Cada consulta toma la instantánea una sola vez, de modo que varias
+ *   consultas concurrentes (por ejemplo desde Server.RouteApiServer) pueden
+ *   ejecutarse mientras refreshGraph() publica un grafo nuevo
+ * 
+ * Imagen precompilada:
+ * - El grafo (CsrGraph) se guarda en FileConstants.GRAPH_IMAGE_FILE con la
+ *   huella de los archivos de ciudades y conexiones de los que se construyó
+ * - Al cargar, la huella de los archivos se compara con el encabezado de la
+ *   imagen; si coincide, el grafo se arma sobre la imagen mapeada en memoria
+ *   sin decodificar los repositorios: cada nodo carga su ciudad y cada
+ *   arista su conexión en el primer uso
+ * - Si no coincide, se cargan los repositorios, se reconstruye el grafo y se
+ *   reemplaza la imagen
  */
 public class RouteService {
     
-    private final DataManager dataManager;
-    private AdjacencyMatrixGraph<CityNode> graph;
+    // Número de ciudades candidatas a las que se ajusta cada coordenada
+    private static final int SNAP_CANDIDATES = 3;
+    // Velocidad supuesta para llegar desde una coordenada a una ciudad (km/h)
+    private static final double ACCESS_SPEED_KMH = 40.0;
+    // Máximo de rutas alternativas además de la más corta
+    private static final int MAX_ALTERNATIVE_ROUTES = 5;
+    // Métrica que representan los pesos del grafo (Connection.getWeight), para los eventos JFR
+    private static final String WEIGHT_METRIC = "timeMinutes";
+    // Máximo de conexiones colgantes que se listan al construir el grafo
+    private static final int DANGLING_REPORT_LIMIT = 10;
+    
+    private static final LatencyHistogram FIND_ROUTES_LATENCY = MetricsRegistry.getDefault().histogram("route.findRoutes");
+    private static final LatencyHistogram FIND_ROUTES_BY_COORDINATES_LATENCY =
+        MetricsRegistry.getDefault().histogram("route.findRoutesByCoordinates");
+    private static final LatencyHistogram BUILD_GRAPH_LATENCY = MetricsRegistry.getDefault().histogram("route.buildGraph");
+    private static final LatencyHistogram LOAD_GRAPH_IMAGE_LATENCY = MetricsRegistry.getDefault().histogram("route.loadGraphImage");
+    
+    private final CityRepository cities;
+    private final EntityRepository<Connection> connections;
+    private final CitySpatialIndex spatialIndex;
+    private final StationEnergyIndex stationIndex;
+    private final Path graphImageFile;
+    // Archivos de los que se deriva el grafo (null si no hay imagen)
+    private final List<Path> graphSourceFiles;
+    private volatile CsrGraph<CityNode> graph;
     
     /**
      * Constructor del servicio de rutas
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      * 
      * Notas:
-     * - Establece la dependencia del gestor de datos
+     * - Utiliza los repositorios residentes de ciudades y conexiones
      * - Carga automáticamente el grafo desde los datos persistentes
      * - Inicializa el grafo de ciudades y conexiones
+     * - Guarda la imagen precompilada del grafo junto a los archivos de datos
+     *   (si el gestor de datos usa archivos)
      */
-    public RouteService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public RouteService(DataStore dataStore) {
+        this.cities = dataStore.getCities();
+        this.connections = dataStore.getConnections();
+        this.spatialIndex = dataStore.getCitySpatialIndex();
+        this.stationIndex = dataStore.getStationEnergyIndex();
+        DataManager dataManager = dataStore.getDataManager();
+        this.graphImageFile = dataManager.resolve(FileConstants.GRAPH_IMAGE_FILE);
+        this.graphSourceFiles = graphImageFile == null ? null : List.of(
+            dataManager.resolve(cities.getFilename()),
+            dataManager.resolve(connections.getFilename()));
         loadGraphFromData();
     }
     
@@ -67,21 +141,45 @@ public class RouteService {
      * Carga el grafo desde los datos persistentes
      * 
      * Proceso:
-     * - Carga ciudades y conexiones desde archivos
-     * - Construye el grafo con los datos cargados
+     * - Calcula la huella de los archivos de ciudades y conexiones
+     * - Abre la imagen precompilada solo si su encabezado tiene la misma huella
+     * - Si hay imagen, arma el grafo sobre ella sin cargar los repositorios
+     * - Si no, obtiene ciudades y conexiones de los repositorios, construye
+     *   el grafo y guarda una imagen nueva
      * - Maneja errores de serialización
      * - Inicializa grafo vacío si hay errores
+     * 
+     * Notas:
+     * - Con cambios pendientes de write-behind los archivos no reflejan los
+     *   repositorios: el grafo se construye desde memoria y no se usa ni se
+     *   guarda la imagen (también si aparecen cambios mientras se carga)
      */
     private void loadGraphFromData() {
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            List<Connection> connections = dataManager.loadList(FileConstants.CONNECTIONS_FILE, Connection::new);
+            long start = System.nanoTime();
+            byte[] sourceHash = graphSourceHash();
+            GraphImage image = openGraphImage(sourceHash);
             
-            buildGraph(cities, connections);
+            CsrGraph<CityNode> graph = image != null ? loadGraphImage(image) : null;
+            if (graph != null) {
+                LOAD_GRAPH_IMAGE_LATENCY.recordSince(start);
+            } else {
+                List<City> cityList = cities.getAll();
+                List<Connection> connectionList = connections.getAll();
+                boolean filesCurrent = !hasPendingSourceWrites();
+                graph = buildGraph(cityList, connectionList);
+                BUILD_GRAPH_LATENCY.recordSince(start);
+                if (sourceHash != null && filesCurrent) {
+                    saveGraphImage(graph, connectionList, sourceHash);
+                }
+            }
+            
+            // Publica la instantánea ya completa
+            this.graph = graph;
             
         } catch (SerializationException e) {
             System.err.println("Error loading graph data: " + e.getMessage());
-            this.graph = new AdjacencyMatrixGraph<>();
+            this.graph = new CsrGraph.Builder<CityNode>(WEIGHT_METRIC).build();
         }
     }
     
@@ -90,60 +188,213 @@ public class RouteService {
      * 
      * @param cities Lista de ciudades para agregar como nodos
      * @param connections Lista de conexiones para agregar como aristas
+     * @return Grafo CSR con las ciudades y las conexiones resueltas
      * 
      * Proceso:
-     * - Crea un nuevo grafo de matriz de adyacencia
-     * - Agrega todas las ciudades como nodos
-     * - Resuelve referencias de ciudades en conexiones
-     * - Agrega conexiones como aristas del grafo
+     * - Indexa las ciudades por ID y las agrega como nodos en el mismo orden
+     * - Resuelve los extremos de todas las conexiones en una pasada
+     *   (ConnectionResolver, en paralelo si son muchas)
+     * - Agrega las conexiones resueltas como aristas por índice
+     * - Informa en un solo mensaje las conexiones a ciudades inexistentes
+     * - Arma los arreglos CSR
      */
-    private void buildGraph(List<City> cities, List<Connection> connections) {
-        this.graph = new AdjacencyMatrixGraph<>();
+    private CsrGraph<CityNode> buildGraph(List<City> cities, List<Connection> connections) {
+        CsrGraph.Builder<CityNode> builder = new CsrGraph.Builder<>(WEIGHT_METRIC);
         
-        // Agregar todas las ciudades como nodos
-        for (City city : cities) {
-            graph.addNode(new CityNode(city));
+        // Los índices del resolutor coinciden con el orden de los nodos
+        ConnectionResolver resolver = new ConnectionResolver(cities);
+        for (City city : resolver.getCities()) {
+            builder.addNode(new CityNode(city));
         }
         
         // Resolver referencias de ciudades en conexiones y agregar aristas
-        for (Connection connection : connections) {
-            // Resolver referencias de ciudades por ID
-            City fromCity = findCityById(cities, connection.getFromCityId());
-            City toCity = findCityById(cities, connection.getToCityId());
-            
-            if (fromCity != null && toCity != null) {
-                connection.setFromCity(fromCity);
-                connection.setToCity(toCity);
-                graph.addEdge(new ConnectionEdge(connection));
+        ConnectionResolver.Resolution resolution = resolver.resolve(connections);
+        for (int i = 0; i < connections.size(); i++) {
+            if (resolution.isResolved(i)) {
+                Connection connection = connections.get(i);
+                connection.setFromCity(resolution.getFromCity(i));
+                connection.setToCity(resolution.getToCity(i));
+                builder.addEdge(resolution.getFromIndex(i), resolution.getToIndex(i), new ConnectionEdge(connection));
             }
         }
+        if (resolution.hasDangling()) {
+            System.err.println("Skipped " + resolution.describeDangling(DANGLING_REPORT_LIMIT));
+        }
+        
+        return builder.build();
     }
     
+    // ========== IMAGEN PRECOMPILADA DEL GRAFO ==========
+    
     /**
-     * Busca una ciudad por ID en una lista
+     * Abre la imagen precompilada si corresponde a los archivos actuales
      * 
-     * @param cities Lista de ciudades donde buscar
-     * @param cityId ID de la ciudad a buscar
-     * @return La ciudad encontrada, o null si no existe
+     * @param sourceHash Huella de los archivos de origen (ver graphSourceHash), o null
+     * @return La imagen, o null si no hay imagen, no coincide o no se pudo leer
+     * 
+     * Notas:
+     * - Solo lee el encabezado de la imagen; la mapea únicamente si coincide
+     */
+    private GraphImage openGraphImage(byte[] sourceHash) {
+        if (sourceHash == null) {
+            return null;
+        }
+        try {
+            return GraphImage.open(graphImageFile, sourceHash, WEIGHT_METRIC);
+        } catch (IOException e) {
+            System.err.println("Error reading graph image: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Arma el grafo sobre la imagen precompilada
+     * 
+     * @param image Imagen que corresponde a los archivos actuales
+     * @return El grafo, o null si los arreglos de la imagen no son válidos
+     * 
+     * Notas:
+     * - Los nodos se crean desde la tabla de IDs de la imagen y cargan su
+     *   ciudad en el primer uso (ver loadCity)
+     * - Cada arista se crea en su primer uso desde la posición de su conexión
+     *   guardada en la imagen (ver loadConnection)
+     */
+    private CsrGraph<CityNode> loadGraphImage(GraphImage image) {
+        return image.toGraph(id -> new CityNode(id, this::loadCity), this::loadConnection);
+    }
+    
+    /**
+     * Carga la ciudad de un nodo armado desde la imagen
+     * 
+     * @param id ID de la ciudad
+     * @return La ciudad, o null si ya no existe o no se pudo cargar
+     */
+    private City loadCity(String id) {
+        try {
+            return cities.findById(id);
+        } catch (SerializationException e) {
+            System.err.println("Error loading city " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Crea la arista de una posición de la imagen
+     * 
+     * @param recordIndex Posición de la conexión en el repositorio al guardar la imagen
+     * @param from Nodo de origen
+     * @param to Nodo de destino
+     * @return La arista, o null si la conexión ya no existe o no se pudo cargar
+     * 
+     * Validaciones:
+     * - Verifica que la conexión de esa posición siga uniendo las mismas
+     *   ciudades; si no (el repositorio cambió después de armar el grafo),
+     *   la busca por su clave
+     */
+    private ConnectionEdge loadConnection(int recordIndex, CityNode from, CityNode to) {
+        try {
+            Connection connection = connections.findAt(recordIndex);
+            if (connection == null || !from.getId().equals(connection.getFromCityId())
+                    || !to.getId().equals(connection.getToCityId())) {
+                connection = connections.findById(DataStore.connectionKey(from.getId(), to.getId()));
+            }
+            if (connection == null) {
+                return null;
+            }
+            connection.setFromCity(from.getCity());
+            connection.setToCity(to.getCity());
+            return new ConnectionEdge(connection);
+        } catch (SerializationException e) {
+            System.err.println("Error loading connection " + from.getId() + " -> " + to.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Guarda la imagen precompilada de un grafo recién construido
+     * 
+     * @param graph Grafo construido desde los repositorios
+     * @param connections Conexiones usadas para construirlo, en orden de repositorio
+     * @param sourceHash Huella de los archivos de origen (ver graphSourceHash)
+     * 
+     * Manejo de errores:
+     * - Si no se puede escribir se informa y se continúa; el siguiente
+     *   arranque reconstruye el grafo
+     */
+    private void saveGraphImage(CsrGraph<CityNode> graph, List<Connection> connections, byte[] sourceHash) {
+        if (graphImageFile == null) {
+            return;
+        }
+        Map<Connection, Integer> records = new IdentityHashMap<>(connections.size());
+        for (int i = 0; i < connections.size(); i++) {
+            records.put(connections.get(i), i);
+        }
+        try {
+            GraphImage.write(graphImageFile, graph, sourceHash,
+                             edge -> records.get(((ConnectionEdge) edge).getConnection()));
+        } catch (IOException e) {
+            System.err.println("Error writing graph image: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Calcula la huella de los archivos de los que depende el grafo
+     * 
+     * @return Tamaño (8 bytes) y CRC32C (4 bytes) de los archivos de ciudades
+     *         y conexiones, o null si no hay imagen o los archivos no se pueden usar
      * 
      * Notas:
-     * - Utiliza stream para búsqueda eficiente
-     * - Retorna null si cityId es null
-     * - Comparación exacta por ID
+     * - Lee los archivos tal cual, sin decodificar registros, así que se
+     *   puede comparar con la imagen antes de cargar los repositorios
+     * - Es una clave de caché contra cambios accidentales o de otra versión
+     *   de los datos, no una firma: CRC32C detecta cualquier cambio de pocos
+     *   bytes y cuesta bastante menos que un hash criptográfico
+     * - No usa fechas de modificación, así que copiar la carpeta de datos
+     *   conserva la imagen
+     * - Un archivo inexistente se cuenta con tamaño -1
+     * - Cualquier cambio en los archivos (también en las estaciones de las
+     *   ciudades) cambia la huella; la imagen se reconstruye de más, nunca de menos
+     * - Retorna null si hay cambios pendientes de write-behind, porque los
+     *   archivos no reflejan los repositorios
      */
-    private City findCityById(List<City> cities, String cityId) {
-        if (cityId == null) return null;
-        return cities.stream()
-            .filter(city -> cityId.equals(city.getId()))
-            .findFirst()
-            .orElse(null);
+    private byte[] graphSourceHash() {
+        if (graphSourceFiles == null || hasPendingSourceWrites()) {
+            return null;
+        }
+        ByteBuffer fingerprint = ByteBuffer.allocate(graphSourceFiles.size() * (Long.BYTES + Integer.BYTES));
+        ByteBuffer chunk = ByteBuffer.allocateDirect(64 * 1024);
+        CRC32C crc = new CRC32C();
+        try {
+            for (Path file : graphSourceFiles) {
+                crc.reset();
+                long size = -1;
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    size = channel.size();
+                    while (channel.read(chunk.clear()) > 0) {
+                        crc.update(chunk.flip());
+                    }
+                } catch (NoSuchFileException e) {
+                    // Se cuenta como tamaño -1
+                }
+                fingerprint.putLong(size).putInt((int) crc.getValue());
+            }
+            return fingerprint.array();
+        } catch (IOException e) {
+            System.err.println("Error hashing graph source files: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private boolean hasPendingSourceWrites() {
+        return cities.hasPendingWrites() || connections.hasPendingWrites();
     }
     
     /**
      * Actualiza el grafo desde los datos actuales
      * 
      * Notas:
-     * - Recarga ciudades y conexiones desde archivos
+     * - Si la imagen precompilada sigue vigente arma el grafo sobre ella;
+     *   si no, toma ciudades y conexiones de los repositorios
      * - Reconstruye el grafo completo
      * - Útil después de cambios en datos de ciudades o conexiones
      */
@@ -161,31 +412,37 @@ public class RouteService {
      * Proceso:
      * - Busca los nodos de las ciudades en el grafo
      * - Encuentra la ruta más corta
-     * - Busca rutas alternativas adicionales
+     * - Busca hasta MAX_ALTERNATIVE_ROUTES rutas alternativas de a lo sumo
+     *   AppConfig.MAX_ROUTE_SEARCH_DEPTH conexiones
      * - Convierte caminos de nodos en objetos Route
      * 
      * Validaciones:
      * - Verifica que el grafo esté cargado
      * - Valida que los IDs de ciudad no sean null
      * - Retorna lista vacía si no encuentra las ciudades
+     * 
+     * Notas:
+     * - Registra la latencia en MetricsRegistry ("route.findRoutes")
      */
     public List<Route> findRoutes(String fromCityId, String toCityId) {
+        long start = System.nanoTime();
+        List<Route> routes = searchRoutes(fromCityId, toCityId);
+        FIND_ROUTES_LATENCY.recordSince(start);
+        return routes;
+    }
+    
+    /**
+     * Busca la ruta más corta y las alternativas entre dos ciudades (ver findRoutes)
+     */
+    private List<Route> searchRoutes(String fromCityId, String toCityId) {
+        CsrGraph<CityNode> graph = this.graph;
         if (graph == null || fromCityId == null || toCityId == null) {
             return new ArrayList<>();
         }
         
-        CityNode fromNode = null;
-        CityNode toNode = null;
-        
         // Buscar los nodos de las ciudades
-        for (CityNode node : graph.getNodes()) {
-            if (fromCityId.equals(node.getId())) {
-                fromNode = node;
-            }
-            if (toCityId.equals(node.getId())) {
-                toNode = node;
-            }
-        }
+        CityNode fromNode = graph.getNode(fromCityId);
+        CityNode toNode = graph.getNode(toCityId);
         
         if (fromNode == null || toNode == null) {
             return new ArrayList<>();
@@ -196,17 +453,21 @@ public class RouteService {
         List<Route> routes = new ArrayList<>();
         
         if (!shortestPath.isEmpty()) {
-            Route route = createRouteFromPath(shortestPath);
+            Route route = createRouteFromPath(graph, shortestPath);
             if (route != null) {
                 routes.add(route);
             }
         }
         
-        // Opcionalmente encontrar rutas alternativas
-        List<List<CityNode>> allPaths = graph.findAllPaths(fromNode, toNode);
+        // Rutas alternativas acotadas: la enumeración completa es exponencial
+        List<List<CityNode>> allPaths = graph.findAllPaths(fromNode, toNode,
+            AppConfig.MAX_ROUTE_SEARCH_DEPTH, MAX_ALTERNATIVE_ROUTES + 1);
         for (List<CityNode> path : allPaths) {
+            if (routes.size() > MAX_ALTERNATIVE_ROUTES) {
+                break;
+            }
             if (!path.equals(shortestPath)) {
-                Route alternativeRoute = createRouteFromPath(path);
+                Route alternativeRoute = createRouteFromPath(graph, path);
                 if (alternativeRoute != null) {
                     routes.add(alternativeRoute);
                 }
@@ -216,9 +477,78 @@ public class RouteService {
         return routes;
     }
     
+    /**
+     * Encuentra la mejor ruta entre dos coordenadas geográficas
+     * 
+     * @param fromLatitude Latitud del punto de origen
+     * @param fromLongitude Longitud del punto de origen
+     * @param toLatitude Latitud del punto de destino
+     * @param toLongitude Longitud del punto de destino
+     * @return Lista con la mejor ruta encontrada, o lista vacía si no hay ruta
+     * 
+     * Proceso:
+     * - Ajusta cada punto a sus ciudades más cercanas usando el índice espacial
+     * - Asigna a cada ciudad candidata el tiempo estimado de acceso desde el punto
+     * - Ejecuta una sola búsqueda de múltiples orígenes y destinos en el grafo
+     * - Convierte el camino resultante en un objeto Route
+     * 
+     * Notas:
+     * - El costo de acceso se expresa en minutos, igual que el peso de las conexiones
+     * - Si ambos puntos se ajustan a la misma ciudad no hay ruta que mostrar
+     * - Retorna lista vacía si las coordenadas son inválidas
+     * - Registra la latencia en MetricsRegistry ("route.findRoutesByCoordinates")
+     */
+    public List<Route> findRoutes(double fromLatitude, double fromLongitude,
+                                  double toLatitude, double toLongitude) {
+        CsrGraph<CityNode> graph = this.graph;
+        if (graph == null) {
+            return new ArrayList<>();
+        }
+        
+        long start = System.nanoTime();
+        Map<CityNode, Double> sources = snapToGraph(graph, fromLatitude, fromLongitude);
+        Map<CityNode, Double> targets = snapToGraph(graph, toLatitude, toLongitude);
+        
+        List<CityNode> path = graph.findPath(sources, targets);
+        List<Route> routes = new ArrayList<>();
+        
+        Route route = createRouteFromPath(graph, path);
+        if (route != null) {
+            routes.add(route);
+        }
+        
+        FIND_ROUTES_BY_COORDINATES_LATENCY.recordSince(start);
+        return routes;
+    }
+    
+    /**
+     * Ajusta una coordenada a las ciudades cercanas presentes en el grafo
+     * 
+     * @param graph Instantánea del grafo usada por la consulta
+     * @param latitude Latitud del punto
+     * @param longitude Longitud del punto
+     * @return Nodos candidatos con el tiempo de acceso en minutos desde el punto
+     */
+    private Map<CityNode, Double> snapToGraph(CsrGraph<CityNode> graph,
+                                              double latitude, double longitude) {
+        Map<CityNode, Double> candidates = new LinkedHashMap<>();
+        
+        for (City city : findNearestCities(latitude, longitude, SNAP_CANDIDATES)) {
+            CityNode node = graph.getNode(city.getId());
+            if (node != null) {
+                double distanceKm = CitySpatialIndex.distanceKm(latitude, longitude,
+                                                                city.getLatitude(), city.getLongitude());
+                candidates.put(node, distanceKm / ACCESS_SPEED_KMH * 60.0);
+            }
+        }
+        
+        return candidates;
+    }
+    
     /**
      * Crea un objeto Route a partir de un camino de nodos de ciudad
      * 
+     * @param graph Instantánea del grafo de la cual proviene el camino
      * @param path Lista de nodos de ciudad que forman el camino
      * @return El objeto Route creado, o null si el camino es inválido
      * 
@@ -231,12 +561,15 @@ public class RouteService {
      * - Requiere al menos 2 ciudades para formar una ruta
      * - Maneja casos donde no se encuentran conexiones
      */
-    private Route createRouteFromPath(List<CityNode> path) {
+    private Route createRouteFromPath(CsrGraph<CityNode> graph, List<CityNode> path) {
         if (path.size() < 2) {
             return null;
         }
         
         List<City> cities = path.stream().map(CityNode::getCity).collect(Collectors.toList());
+        if (cities.contains(null)) {
+            return null;
+        }
         
         List<Connection> connections = new ArrayList<>();
         
@@ -260,13 +593,137 @@ public class RouteService {
      * @return Lista de todas las ciudades del sistema
      * 
      * Notas:
-     * - Carga desde el archivo de ciudades
+     * - Obtiene las ciudades del repositorio residente
      * - Retorna lista vacía si hay errores de carga
      * - Maneja errores de serialización automáticamente
      */
     public List<City> getAllCities() {
         try {
-            return dataManager.loadList(FileConstants.CITIES_FILE, City::new);
+            return cities.getAll();
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Busca una ciudad por ID
+     *
+     * @param cityId ID de la ciudad
+     * @return La ciudad encontrada, o null si no existe
+     *
+     * Notas:
+     * - Utiliza el índice por ID del repositorio de ciudades
+     */
+    public City findCityById(String cityId) {
+        try {
+            return cityId != null ? cities.findById(cityId) : null;
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Busca una ciudad por nombre
+     *
+     * @param name Nombre de la ciudad
+     * @return La ciudad encontrada, o null si no existe
+     * 
+     * Notas:
+     * - Insensible a mayúsculas, acentos y espacios repetidos
+     * - Utiliza el índice por nombre del repositorio de ciudades
+     */
+    public City findCityByName(String name) {
+        try {
+            return cities.findByName(name);
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Busca ciudades cuyo nombre comienza con un prefijo (autocompletado)
+     * 
+     * @param prefix Prefijo escrito por el usuario
+     * @param limit Número máximo de sugerencias
+     * @return Ciudades en orden alfabético
+     */
+    public List<City> findCitiesByPrefix(String prefix, int limit) {
+        try {
+            return cities.findByNamePrefix(prefix, limit);
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Busca ciudades con nombre similar al indicado
+     * 
+     * @param name Nombre aproximado
+     * @param maxDistance Número máximo de caracteres distintos (distancia de edición)
+     * @param limit Número máximo de resultados
+     * @return Ciudades ordenadas de la más parecida a la menos parecida
+     */
+    public List<City> findCitiesBySimilarName(String name, int maxDistance, int limit) {
+        try {
+            return cities.findBySimilarName(name, maxDistance, limit);
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Obtiene las ciudades más cercanas a un punto geográfico
+     * 
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @param count Número máximo de ciudades a retornar
+     * @return Ciudades ordenadas de la más cercana a la más lejana
+     * 
+     * Notas:
+     * - Utiliza el índice espacial de ciudades (no recorre todas las ciudades)
+     * - Retorna lista vacía si las coordenadas son inválidas o hay errores de carga
+     */
+    public List<City> findNearestCities(double latitude, double longitude, int count) {
+        try {
+            return spatialIndex.findNearest(latitude, longitude, count);
+        } catch (SerializationException e) {
+            System.err.println("Error loading cities: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Ajusta un punto geográfico a la ciudad más cercana
+     * 
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @return La ciudad más cercana, o null si no hay ciudades
+     */
+    public City findNearestCity(double latitude, double longitude) {
+        List<City> nearest = findNearestCities(latitude, longitude, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+    
+    /**
+     * Obtiene las ciudades dentro de un radio alrededor de un punto geográfico
+     * 
+     * @param latitude Latitud del punto en grados
+     * @param longitude Longitud del punto en grados
+     * @param radiusKm Radio en kilómetros
+     * @return Ciudades dentro del radio, ordenadas por distancia
+     * 
+     * Notas:
+     * - Utiliza el índice espacial de ciudades (no recorre todas las ciudades)
+     * - Retorna lista vacía si los parámetros son inválidos o hay errores de carga
+     */
+    public List<City> findCitiesWithinRadius(double latitude, double longitude, double radiusKm) {
+        try {
+            return spatialIndex.findWithinRadius(latitude, longitude, radiusKm);
         } catch (SerializationException e) {
             System.err.println("Error loading cities: " + e.getMessage());
             return new ArrayList<>();
@@ -282,15 +739,137 @@ public class RouteService {
      * 
      * Notas:
      * - Retorna lista vacía si route o vehicle son null
-     * - Utiliza el método getCompatibleStations del objeto Route
-     * - Filtra estaciones según compatibilidad con el vehículo
+     * - Cruza las ciudades de la ruta con el índice de estaciones por tipo
+     *   de energía (no revisa cada estación de cada ciudad)
+     * - Si el índice no está disponible usa getCompatibleStations del objeto Route
      */
     public List<Station> getCompatibleStationsOnRoute(Route route, Vehicle vehicle) {
         if (route == null || vehicle == null) {
             return new ArrayList<>();
         }
         
-        return route.getCompatibleStations(vehicle);
+        try {
+            return stationIndex.findCompatibleStations(route.getCities(), vehicle);
+        } catch (SerializationException e) {
+            System.err.println("Error loading station index: " + e.getMessage());
+            return route.getCompatibleStations(vehicle);
+        }
+    }
+    
+    /**
+     * Encuentra las estaciones compatibles más cercanas a una ruta
+     * 
+     * @param route La ruta de referencia
+     * @param vehicle El vehículo para verificar compatibilidad
+     * @param limit Número máximo de estaciones a retornar
+     * @param maxHops Número máximo de conexiones fuera de la ruta (0 = solo la ruta)
+     * @return Estaciones ordenadas por tiempo de desvío desde la ruta
+     * 
+     * Proceso:
+     * - Inicia una sola búsqueda de Dijkstra desde todas las ciudades de la ruta a la vez
+     * - Por cada ciudad alcanzada consulta el índice de estaciones por tipo de
+     *   energía, que solo decodifica las estaciones de las ciudades alcanzadas
+     * - Se detiene al reunir el número de estaciones solicitado
+     * 
+     * Notas:
+     * - El desvío se mide en minutos, igual que el peso de las conexiones
+     * - Las estaciones sobre la ruta tienen desvío 0 y aparecen primero
+     * - Retorna lista vacía si algún parámetro es inválido
+     */
+    public List<NearbyStation> findNearestCompatibleStations(Route route, Vehicle vehicle, int limit, int maxHops) {
+        CsrGraph<CityNode> graph = this.graph;
+        List<NearbyStation> result = new ArrayList<>();
+        if (graph == null || route == null || vehicle == null || limit <= 0 || maxHops < 0) {
+            return result;
+        }
+        
+        List<CityNode> sources = new ArrayList<>();
+        for (City city : route.getCities()) {
+            CityNode node = graph.getNode(city.getId());
+            if (node != null) {
+                sources.add(node);
+            }
+        }
+        
+        if (vehicle.getEnergyMask() == 0) {
+            return result;
+        }
+        
+        graph.expandFrom(sources, maxHops, (node, origin, minutes, hops) -> {
+            try {
+                for (Station station : stationIndex.findCompatibleStations(node.getId(), vehicle)) {
+                    result.add(new NearbyStation(station, node.getCity(), origin.getCity(), minutes, hops));
+                    if (result.size() >= limit) {
+                        return false;
+                    }
+                }
+            } catch (SerializationException e) {
+                System.err.println("Error loading station index: " + e.getMessage());
+                return false;
+            }
+            return true;
+        });
+        
+        return result;
+    }
+    
+    /**
+     * Encuentra las ciudades alcanzables desde una ciudad dentro de un tiempo máximo (isócrona)
+     * 
+     * @param cityId ID de la ciudad de origen
+     * @param maxMinutes Tiempo máximo de viaje en minutos
+     * @return Ciudades alcanzables ordenadas por tiempo de viaje, incluido el origen
+     * 
+     * Proceso:
+     * - Expande el grafo desde el origen en orden de tiempo (ver expandFrom)
+     * - Se detiene en la primera ciudad que supera el tiempo máximo
+     * 
+     * Notas:
+     * - Retorna lista vacía si la ciudad no existe o el tiempo es negativo
+     */
+    public List<ReachableCity> findReachableCities(String cityId, double maxMinutes) {
+        CsrGraph<CityNode> graph = this.graph;
+        List<ReachableCity> result = new ArrayList<>();
+        if (graph == null || cityId == null || maxMinutes < 0) {
+            return result;
+        }
+        
+        CityNode origin = graph.getNode(cityId);
+        if (origin == null) {
+            return result;
+        }
+        
+        graph.expandFrom(List.of(origin), -1, (node, source, minutes, hops) -> {
+            if (minutes > maxMinutes) {
+                return false;
+            }
+            City city = node.getCity();
+            if (city != null) {
+                result.add(new ReachableCity(city, minutes, hops));
+            }
+            return true;
+        });
+        return result;
+    }
+    
+    /**
+     * Obtiene las estaciones de una ciudad compatibles con un vehículo
+     * 
+     * @param cityId ID de la ciudad
+     * @param vehicle El vehículo para verificar compatibilidad
+     * @return Lista de estaciones compatibles en la ciudad
+     * 
+     * Notas:
+     * - Consulta el índice de estaciones por tipo de energía
+     * - Retorna lista vacía si no encuentra la ciudad o hay errores de carga
+     */
+    public List<Station> getCompatibleStationsInCity(String cityId, Vehicle vehicle) {
+        try {
+            return stationIndex.findCompatibleStations(cityId, vehicle);
+        } catch (SerializationException e) {
+            System.err.println("Error loading station index: " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
     
     /**
@@ -300,8 +879,7 @@ public class RouteService {
      * @return Lista de estaciones en la ciudad especificada
      * 
      * Proceso:
-     * - Carga todas las ciudades del sistema
-     * - Busca la ciudad por ID
+     * - Busca la ciudad por ID en el índice del repositorio
      * - Extrae las estaciones de la ciudad encontrada
      * 
      * Notas:
@@ -310,12 +888,8 @@ public class RouteService {
      */
     public List<Station> getStationsInCity(String cityId) {
         try {
-            List<City> cities = dataManager.loadList(FileConstants.CITIES_FILE, City::new);
-            return cities.stream()
-                .filter(city -> cityId.equals(city.getId()))
-                .findFirst()
-                .map(City::getStations)
-                .orElse(new ArrayList<>());
+            City city = cities.findById(cityId);
+            return city != null ? city.getStations() : new ArrayList<>();
         } catch (SerializationException e) {
             System.err.println("Error loading stations for city: " + e.getMessage());
             return new ArrayList<>();
@@ -333,6 +907,7 @@ public class RouteService {
      * - Útil para análisis y debugging del grafo
      */
     public String getGraphStatistics() {
+        CsrGraph<CityNode> graph = this.graph;
         return graph != null ? graph.getStatistics() : "Graph not loaded";
     }
     
@@ -347,6 +922,7 @@ public class RouteService {
      * - Útil para validar integridad de la red de ciudades
      */
     public boolean isGraphConnected() {
+        CsrGraph<CityNode> graph = this.graph;
         return graph != null && graph.isConnected();
     }
 }
@@ -21,16 +21,22 @@ import User.User;
  * Clase que representa una sesión de usuario activa
  * 
  * Esta clase encapsula la información de una sesión de usuario autenticado:
+ * - Token opaco que identifica la sesión en el SessionStore
  * - Referencia al usuario autenticado
- * - Timestamp del momento de inicio de sesión
+ * - Timestamp del momento de inicio de sesión y del último acceso
  * - Métodos para verificar permisos y roles
  * 
  * Proporciona funcionalidades para gestión de sesiones y control de acceso.
+ * 
+ * Notas:
+ * - Puede usarse desde varios hilos: el usuario y el último acceso son volatile
  */
 public class Session {
     
-    private final User user;
+    private final String token;
+    private volatile User user;
     private final long loginTime;
+    private volatile long lastAccessTime;
     
     /**
      * Constructor de una nueva sesión de usuario
@@ -43,8 +49,29 @@ public class Session {
      * - Utiliza el tiempo actual del sistema en milisegundos
      */
     public Session(User user) {
+        this(null, user);
+    }
+    
+    /**
+     * Constructor de una sesión registrada en un SessionStore
+     * 
+     * @param token Token opaco de la sesión (null si no pertenece a un almacén)
+     * @param user El usuario que inicia la sesión
+     */
+    public Session(String token, User user) {
+        this.token = token;
         this.user = user;
         this.loginTime = System.currentTimeMillis();
+        this.lastAccessTime = loginTime;
+    }
+    
+    /**
+     * Obtiene el token de la sesión
+     * 
+     * @return Token opaco con el que los clientes identifican la sesión
+     */
+    public String getToken() {
+        return token;
     }
     
     /**
@@ -56,6 +83,15 @@ public class Session {
         return user;
     }
     
+    /**
+     * Reemplaza el usuario de la sesión después de actualizar sus datos
+     * 
+     * @param user Usuario actualizado
+     */
+    void setUser(User user) {
+        this.user = user;
+    }
+    
     /**
      * Obtiene el timestamp de inicio de la sesión
      * 
@@ -69,6 +105,24 @@ public class Session {
         return loginTime;
     }
     
+    /**
+     * Obtiene el timestamp del último acceso a la sesión
+     * 
+     * @return El tiempo del último acceso en milisegundos desde epoch
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+    
+    /**
+     * Registra un acceso a la sesión (reinicia el tiempo de inactividad)
+     * 
+     * @param now Tiempo actual en milisegundos desde epoch
+     */
+    void touch(long now) {
+        lastAccessTime = now;
+    }
+    
     /**
      * Verifica si el usuario de esta sesión es administrador
      * 
@@ -0,0 +1,270 @@
+/*
+ * Nombre del Archivo: SessionStore.java
+ *
+ * Descripcion: Almacén concurrente de sesiones de usuario identificadas por un
+ *              token opaco. Permite que muchos usuarios tengan sesión activa
+ *              en el mismo proceso y vence las sesiones inactivas usando una
+ *              rueda de tiempo (timing wheel), sin recorrer todas las sesiones.
+ *
+ * Nombre de los Integrantes:
+ * Javier Lee Liang
+ * Paulo César Herrera Arias
+ * José Emilio Alvarado Mendez
+ * Josué Santiago Hidalgo Sandoval
+ */
+package Services;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import Main.AppConfig;
+import Metrics.MetricsRegistry;
+import User.User;
+
+/**
+ * Almacén de sesiones con vencimiento por inactividad
+ *
+ * Estructura:
+ * - Mapa concurrente de token a sesión
+ * - Rueda de tiempo: arreglo circular de colas, una por intervalo (tick);
+ *   cada sesión está en la cola del intervalo en que vencería
+ *
+ * Proceso de vencimiento:
+ * - Un hilo daemon avanza la rueda un intervalo por tick
+ * - Solo revisa las sesiones de la cola del intervalo actual: si siguen
+ *   inactivas se eliminan, si tuvieron accesos se vuelven a programar según
+ *   su último acceso
+ * - Registrar un acceso solo actualiza un campo (no mueve la sesión en la rueda)
+ *
+ * Notas:
+ * - El tiempo de inactividad por defecto es AppConfig.MENU_TIMEOUT_SECONDS
+ * - get() también verifica el vencimiento, así que una sesión vencida nunca
+ *   se entrega aunque la rueda todavía no haya pasado por ella
+ * - Las sesiones cerradas se quedan en la rueda hasta su intervalo y ahí se descartan
+ * - El hilo de la rueda se inicia con la primera sesión
+ */
+public class SessionStore implements AutoCloseable {
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final int TOKEN_BYTES = 32;
+    private static final LongAdder SESSIONS_EXPIRED = MetricsRegistry.getDefault().counter("auth.sessionsExpired");
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final List<Queue<Session>> wheel;
+    private final long idleTimeoutMillis;
+    private final long tickMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    // Último intervalo procesado (absoluto: milisegundos / tickMillis)
+    private volatile long processedTick;
+    private volatile ScheduledExecutorService ticker;
+
+    /**
+     * Constructor con el tiempo de inactividad de la configuración
+     */
+    public SessionStore() {
+        this(TimeUnit.SECONDS.toMillis(AppConfig.MENU_TIMEOUT_SECONDS), DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Constructor con parámetros de vencimiento
+     *
+     * @param idleTimeoutMillis Tiempo de inactividad tras el cual vence una sesión
+     * @param tickMillis Duración de cada intervalo de la rueda (precisión del vencimiento)
+     * @param wheelSize Número de intervalos de la rueda
+     *
+     * Notas:
+     * - Conviene que wheelSize * tickMillis cubra el tiempo de inactividad;
+     *   si no, algunas sesiones se revisan más de una vez antes de vencer
+     */
+    public SessionStore(long idleTimeoutMillis, long tickMillis, int wheelSize) {
+        if (idleTimeoutMillis <= 0 || tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Session timeout, tick and wheel size must be positive");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.tickMillis = tickMillis;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.processedTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    // ========== SESIONES ==========
+
+    /**
+     * Crea una sesión para un usuario
+     *
+     * @param user Usuario autenticado
+     * @return Sesión nueva con un token aleatorio de 256 bits
+     */
+    public Session create(User user) {
+        startTicker();
+        Session session;
+        do {
+            session = new Session(newToken(), user);
+        } while (sessions.putIfAbsent(session.getToken(), session) != null);
+        schedule(session, processedTick + 1);
+        return session;
+    }
+
+    /**
+     * Obtiene una sesión activa y registra el acceso
+     *
+     * @param token Token de la sesión
+     * @return La sesión, o null si no existe o venció
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - session.getLastAccessTime() >= idleTimeoutMillis) {
+            expire(session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Cierra una sesión
+     *
+     * @param token Token de la sesión
+     * @return true si la sesión existía y se cerró
+     */
+    public boolean invalidate(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    /**
+     * Obtiene el número de sesiones activas
+     * @return Sesiones registradas (incluye las vencidas que la rueda aún no revisó)
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Obtiene el tiempo de inactividad tras el cual vence una sesión
+     * @return Tiempo en milisegundos
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    // ========== RUEDA DE TIEMPO ==========
+
+    /**
+     * Avanza la rueda hasta un instante, venciendo las sesiones inactivas
+     *
+     * @param nowMillis Instante actual en milisegundos desde epoch
+     *
+     * Notas:
+     * - La llama el hilo de la rueda en cada tick; es pública para poder
+     *   avanzar la rueda manualmente (por ejemplo en pruebas)
+     * - Si se atrasó varios intervalos, los procesa todos (a lo sumo una vuelta)
+     */
+    public synchronized void advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        long from = Math.max(processedTick + 1, target - wheel.size() + 1);
+        for (long tick = from; tick <= target; tick++) {
+            processSlot(tick, nowMillis);
+            processedTick = tick;
+        }
+    }
+
+    /**
+     * Detiene el hilo de la rueda (las sesiones siguen venciendo al consultarlas)
+     */
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private void processSlot(long tick, long nowMillis) {
+        Queue<Session> slot = wheel.get((int) (tick % wheel.size()));
+        // Se vacía primero la cola: las sesiones reprogramadas pueden caer en esta misma cola
+        List<Session> due = new ArrayList<>();
+        for (Session session = slot.poll(); session != null; session = slot.poll()) {
+            due.add(session);
+        }
+        for (Session session : due) {
+            if (sessions.get(session.getToken()) != session) {
+                continue; // Sesión cerrada
+            }
+            if (nowMillis - session.getLastAccessTime() >= idleTimeoutMillis) {
+                expire(session);
+            } else {
+                schedule(session, tick + 1);
+            }
+        }
+    }
+
+    /**
+     * Coloca una sesión en la cola del intervalo en que vencería según su último acceso
+     *
+     * @param session Sesión a programar
+     * @param earliestTick Primer intervalo que todavía no se procesó
+     */
+    private void schedule(Session session, long earliestTick) {
+        long deadline = session.getLastAccessTime() + idleTimeoutMillis;
+        long tick = Math.max((deadline + tickMillis - 1) / tickMillis, earliestTick);
+        wheel.get((int) (tick % wheel.size())).add(session);
+    }
+
+    private void expire(Session session) {
+        if (sessions.remove(session.getToken(), session)) {
+            SESSIONS_EXPIRED.increment();
+        }
+    }
+
+    private void startTicker() {
+        if (ticker == null) {
+            startTickerLocked();
+        }
+    }
+
+    private synchronized void startTickerLocked() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                // Una excepción cancelaría las siguientes ejecuciones
+                System.err.println("Error expiring sessions: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
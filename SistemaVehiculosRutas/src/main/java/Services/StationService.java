@@ -20,10 +20,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import Binary.FileConstants;
-import Interfaces.DataManager;
 import Interfaces.SerializationException;
 import Models.Station;
+import Repository.DataStore;
+import Repository.EntityRepository;
 import Vehicle.ChargerType;
 import Vehicle.FuelType;
 import Vehicle.Vehicle;
@@ -37,24 +37,25 @@ import Vehicle.Vehicle;
  * - Filtrado de estaciones por compatibilidad con vehículos
  * - Generación de información detallada de estaciones
  * 
- * Actúa como intermediario entre el gestor de datos y las funcionalidades
- * relacionadas con estaciones y energía.
+ * Actúa como intermediario entre los repositorios de tipos de energía y las
+ * funcionalidades relacionadas con estaciones y energía.
  */
 public class StationService {
     
-    private final DataManager dataManager;
+    private final EntityRepository<FuelType> fuelTypes;
+    private final EntityRepository<ChargerType> chargerTypes;
     
     /**
      * Constructor del servicio de estaciones
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      * 
      * Notas:
-     * - Establece la dependencia del gestor de datos
-     * - Permite acceso a archivos de tipos de energía
+     * - Utiliza los repositorios residentes de tipos de energía
      */
-    public StationService(DataManager dataManager) {
-        this.dataManager = dataManager;
+    public StationService(DataStore dataStore) {
+        this.fuelTypes = dataStore.getFuelTypes();
+        this.chargerTypes = dataStore.getChargerTypes();
     }
     
     /**
@@ -63,13 +64,13 @@ public class StationService {
      * @return Lista de todos los tipos de combustible del sistema
      * 
      * Notas:
-     * - Carga desde el archivo de tipos de combustible
+     * - Obtiene los tipos del repositorio residente
      * - Retorna lista vacía si hay errores de carga
      * - Maneja errores de serialización automáticamente
      */
     public List<FuelType> getAllFuelTypes() {
         try {
-            return dataManager.loadList(FileConstants.FUEL_TYPES_FILE, FuelType::new);
+            return fuelTypes.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading fuel types: " + e.getMessage());
             return new ArrayList<>();
@@ -82,13 +83,13 @@ public class StationService {
      * @return Lista de todos los tipos de cargadores del sistema
      * 
      * Notas:
-     * - Carga desde el archivo de tipos de cargadores
+     * - Obtiene los tipos del repositorio residente
      * - Retorna lista vacía si hay errores de carga
      * - Maneja errores de serialización automáticamente
      */
     public List<ChargerType> getAllChargerTypes() {
         try {
-            return dataManager.loadList(FileConstants.CHARGER_TYPES_FILE, ChargerType::new);
+            return chargerTypes.getAll();
         } catch (SerializationException e) {
             System.err.println("Error loading charger types: " + e.getMessage());
             return new ArrayList<>();
@@ -102,15 +103,16 @@ public class StationService {
      * @return El tipo de combustible encontrado, o null si no existe
      * 
      * Notas:
-     * - Utiliza stream para búsqueda eficiente
-     * - Comparación exacta por ID
-     * - Retorna null si no se encuentra el tipo
+     * - Búsqueda en el índice por ID del repositorio
+     * - Retorna null si no se encuentra el tipo o hay errores de carga
      */
     public FuelType findFuelTypeById(String fuelTypeId) {
-        return getAllFuelTypes().stream()
-            .filter(ft -> fuelTypeId.equals(ft.getId()))
-            .findFirst()
-            .orElse(null);
+        try {
+            return fuelTypes.findById(fuelTypeId);
+        } catch (SerializationException e) {
+            System.err.println("Error loading fuel types: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -120,15 +122,16 @@ public class StationService {
      * @return El tipo de cargador encontrado, o null si no existe
      * 
      * Notas:
-     * - Utiliza stream para búsqueda eficiente
-     * - Comparación exacta por ID
-     * - Retorna null si no se encuentra el tipo
+     * - Búsqueda en el índice por ID del repositorio
+     * - Retorna null si no se encuentra el tipo o hay errores de carga
      */
     public ChargerType findChargerTypeById(String chargerTypeId) {
-        return getAllChargerTypes().stream()
-            .filter(ct -> chargerTypeId.equals(ct.getId()))
-            .findFirst()
-            .orElse(null);
+        try {
+            return chargerTypes.findById(chargerTypeId);
+        } catch (SerializationException e) {
+            System.err.println("Error loading charger types: " + e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -16,8 +16,11 @@
 package Services;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
-import Interfaces.DataManager;
+import Interfaces.SerializationException;
+import Repository.DataStore;
+import Repository.UserRepository;
 import User.User;
 import Vehicle.Vehicle;
 
@@ -30,25 +33,28 @@ import Vehicle.Vehicle;
  * - Búsqueda de vehículos por ID
  * - Integración con autenticación de usuarios
  * 
- * Todas las operaciones están asociadas al usuario autenticado actual.
+ * Cada operación existe en dos formas: con una Session explícita (para
+ * atender a varios usuarios a la vez) y sin ella, asociada a la sesión de la
+ * interfaz local (ver AuthenticationService.getCurrentSession).
  */
 public class VehicleService {
     
-    private final DataManager dataManager;
+    private final DataStore dataStore;
     private final AuthenticationService authService;
     
     /**
      * Constructor del servicio de vehículos
      * 
-     * @param dataManager Gestor de datos para operaciones de persistencia
+     * @param dataStore Almacén de datos compartido con los demás servicios
      * @param authService Servicio de autenticación para gestión de usuarios
      * 
      * Notas:
      * - Establece las dependencias necesarias para gestión de vehículos
-     * - Permite integración con sistema de autenticación
+     * - Los cambios se anexan al diario de vehículos del repositorio de usuarios
+     *   (ver UserRepository.putVehicle), sin reescribir users.dat
      */
-    public VehicleService(DataManager dataManager, AuthenticationService authService) {
-        this.dataManager = dataManager;
+    public VehicleService(DataStore dataStore, AuthenticationService authService) {
+        this.dataStore = dataStore;
         this.authService = authService;
     }
     
@@ -64,13 +70,39 @@ public class VehicleService {
      * - Actualiza automáticamente la información del usuario
      */
     public boolean addVehicle(Vehicle vehicle) {
-        User currentUser = authService.getCurrentUser();
-        if (currentUser == null || vehicle == null) {
+        return addVehicle(authService.getCurrentSession(), vehicle);
+    }
+    
+    /**
+     * Agrega un vehículo al usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @param vehicle El vehículo a agregar
+     * @return true si se agregó exitosamente, false en caso contrario
+     * 
+     * Notas:
+     * - Toma el candado de lectura de uso de catálogos (ver
+     *   DataStore.getCatalogUsageLock): no coincide con la baja de su tipo
+     */
+    public boolean addVehicle(Session session, Vehicle vehicle) {
+        if (session == null || vehicle == null) {
             return false;
         }
         
-        currentUser.addVehicle(vehicle);
-        return authService.updateCurrentUser(currentUser);
+        Lock catalogLock = dataStore.getCatalogUsageLock().readLock();
+        catalogLock.lock();
+        try {
+            if (users().putVehicle(session.getUser().getId(), vehicle.getId(), vehicle)) {
+                refreshSession(session);
+                return true;
+            }
+        } catch (SerializationException e) {
+            System.err.println("Error adding vehicle: " + e.getMessage());
+        } finally {
+            catalogLock.unlock();
+        }
+        
+        return false;
     }
     
     /**
@@ -86,14 +118,28 @@ public class VehicleService {
      * - Maneja la eliminación del vehículo favorito si es necesario
      */
     public boolean removeVehicle(Vehicle vehicle) {
-        User currentUser = authService.getCurrentUser();
-        if (currentUser == null || vehicle == null) {
+        return removeVehicle(authService.getCurrentSession(), vehicle);
+    }
+    
+    /**
+     * Elimina un vehículo del usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @param vehicle El vehículo a eliminar
+     * @return true si se eliminó exitosamente, false en caso contrario
+     */
+    public boolean removeVehicle(Session session, Vehicle vehicle) {
+        if (session == null || vehicle == null) {
             return false;
         }
         
-        boolean removed = currentUser.removeVehicle(vehicle);
-        if (removed) {
-            return authService.updateCurrentUser(currentUser);
+        try {
+            if (users().removeVehicle(session.getUser().getId(), vehicle.getId())) {
+                refreshSession(session);
+                return true;
+            }
+        } catch (SerializationException e) {
+            System.err.println("Error removing vehicle: " + e.getMessage());
         }
         
         return false;
@@ -112,17 +158,41 @@ public class VehicleService {
      * - Actualiza automáticamente la información del usuario
      */
     public boolean updateVehicle(String vehicleId, Vehicle updatedVehicle) {
-        User currentUser = authService.getCurrentUser();
-        if (currentUser == null || vehicleId == null || updatedVehicle == null) {
+        return updateVehicle(authService.getCurrentSession(), vehicleId, updatedVehicle);
+    }
+    
+    /**
+     * Actualiza un vehículo del usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @param vehicleId El ID del vehículo a actualizar
+     * @param updatedVehicle La información actualizada del vehículo
+     * @return true si se actualizó exitosamente, false en caso contrario
+     * 
+     * Notas:
+     * - Igual que addVehicle, toma el candado de lectura de uso de catálogos
+     */
+    public boolean updateVehicle(Session session, String vehicleId, Vehicle updatedVehicle) {
+        if (session == null || vehicleId == null || updatedVehicle == null) {
             return false;
         }
         
-        List<Vehicle> vehicles = currentUser.getVehicles();
-        for (int i = 0; i < vehicles.size(); i++) {
-            if (vehicleId.equals(vehicles.get(i).getId())) {
-                vehicles.set(i, updatedVehicle);
-                return authService.updateCurrentUser(currentUser);
+        User user = session.getUser();
+        if (user.getVehicles().stream().noneMatch(v -> vehicleId.equals(v.getId()))) {
+            return false;
+        }
+        
+        Lock catalogLock = dataStore.getCatalogUsageLock().readLock();
+        catalogLock.lock();
+        try {
+            if (users().putVehicle(user.getId(), vehicleId, updatedVehicle)) {
+                refreshSession(session);
+                return true;
             }
+        } catch (SerializationException e) {
+            System.err.println("Error updating vehicle: " + e.getMessage());
+        } finally {
+            catalogLock.unlock();
         }
         
         return false;
@@ -141,18 +211,37 @@ public class VehicleService {
      * - Actualiza automáticamente la configuración del usuario
      */
     public boolean setFavoriteVehicle(Vehicle vehicle) {
-        User currentUser = authService.getCurrentUser();
-        if (currentUser == null) {
+        return setFavoriteVehicle(authService.getCurrentSession(), vehicle);
+    }
+    
+    /**
+     * Establece un vehículo como favorito para el usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @param vehicle El vehículo a establecer como favorito (null para quitarlo)
+     * @return true si se estableció exitosamente, false en caso contrario
+     */
+    public boolean setFavoriteVehicle(Session session, Vehicle vehicle) {
+        if (session == null) {
             return false;
         }
         
         // Verificar que el vehículo pertenezca al usuario
-        if (vehicle != null && !currentUser.getVehicles().contains(vehicle)) {
+        User user = session.getUser();
+        if (vehicle != null && !user.getVehicles().contains(vehicle)) {
             return false;
         }
         
-        currentUser.setFavoriteVehicle(vehicle);
-        return authService.updateCurrentUser(currentUser);
+        try {
+            if (users().setFavoriteVehicle(user.getId(), vehicle != null ? vehicle.getId() : null)) {
+                refreshSession(session);
+                return true;
+            }
+        } catch (SerializationException e) {
+            System.err.println("Error setting favorite vehicle: " + e.getMessage());
+        }
+        
+        return false;
     }
     
     /**
@@ -165,8 +254,17 @@ public class VehicleService {
      * - Proporciona acceso directo a la flota personal del usuario
      */
     public List<Vehicle> getCurrentUserVehicles() {
-        User currentUser = authService.getCurrentUser();
-        return currentUser != null ? currentUser.getVehicles() : List.of();
+        return getVehicles(authService.getCurrentSession());
+    }
+    
+    /**
+     * Obtiene todos los vehículos del usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @return Lista de vehículos del usuario, o lista vacía si la sesión es null
+     */
+    public List<Vehicle> getVehicles(Session session) {
+        return session != null ? session.getUser().getVehicles() : List.of();
     }
     
     /**
@@ -180,8 +278,17 @@ public class VehicleService {
      * - Útil para operaciones por defecto en planificación de rutas
      */
     public Vehicle getCurrentUserFavoriteVehicle() {
-        User currentUser = authService.getCurrentUser();
-        return currentUser != null ? currentUser.getFavoriteVehicle() : null;
+        return getFavoriteVehicle(authService.getCurrentSession());
+    }
+    
+    /**
+     * Obtiene el vehículo favorito del usuario de una sesión
+     * 
+     * @param session Sesión del usuario
+     * @return El vehículo favorito, o null si no está configurado o la sesión es null
+     */
+    public Vehicle getFavoriteVehicle(Session session) {
+        return session != null ? session.getUser().getFavoriteVehicle() : null;
     }
     
     /**
@@ -202,4 +309,24 @@ public class VehicleService {
             .findFirst()
             .orElse(null);
     }
+    
+    private UserRepository users() {
+        return dataStore.getUsers();
+    }
+    
+    /**
+     * Asocia a la sesión la instancia residente del usuario ya modificada
+     * 
+     * @param session Sesión cuyo usuario se acaba de modificar
+     */
+    private void refreshSession(Session session) {
+        try {
+            User resident = users().findById(session.getUser().getId());
+            if (resident != null) {
+                session.setUser(resident);
+            }
+        } catch (SerializationException e) {
+            System.err.println("Error refreshing session: " + e.getMessage());
+        }
+    }
 }
@@ -19,6 +19,7 @@ package User;
 import java.util.List;
 
 import Models.City;
+import Models.NearbyStation;
 import Models.Route;
 import Models.Station;
 import Services.RouteService;
@@ -72,6 +73,24 @@ public class RouteSearchService {
         return routeService.findRoutes(fromCityId, toCityId);
     }
     
+    /**
+     * Encuentra la mejor ruta entre dos coordenadas geográficas
+     * 
+     * @param fromLatitude Latitud del punto de origen
+     * @param fromLongitude Longitud del punto de origen
+     * @param toLatitude Latitud del punto de destino
+     * @param toLongitude Longitud del punto de destino
+     * @return Lista con la mejor ruta encontrada, o lista vacía si no hay ruta
+     * 
+     * Notas:
+     * - Cada punto se ajusta a las ciudades más cercanas del grafo
+     * - Útil para posiciones GPS que no coinciden con una ciudad
+     */
+    public List<Route> findRoutes(double fromLatitude, double fromLongitude,
+                                  double toLatitude, double toLongitude) {
+        return routeService.findRoutes(fromLatitude, fromLongitude, toLatitude, toLongitude);
+    }
+    
     /**
      * Obtiene todas las ciudades disponibles para planificación de rutas
      * 
@@ -121,6 +140,27 @@ public class RouteSearchService {
         return routeService.getCompatibleStationsOnRoute(route, vehicle);
     }
     
+    /**
+     * Encuentra las estaciones compatibles más cercanas a una ruta, incluso fuera de ella
+     * 
+     * @param route La ruta de referencia
+     * @param vehicle El vehículo para verificar compatibilidad (usa el favorito si es null)
+     * @param limit Número máximo de estaciones a retornar
+     * @param maxHops Número máximo de conexiones fuera de la ruta
+     * @return Estaciones ordenadas por tiempo de desvío, o lista vacía si no hay vehículo
+     * 
+     * Notas:
+     * - Útil cuando la ruta no tiene estaciones compatibles o están muy separadas
+     */
+    public List<NearbyStation> findNearestCompatibleStations(Route route, Vehicle vehicle, int limit, int maxHops) {
+        Vehicle selectedVehicle = vehicle != null ? vehicle : getCurrentUserFavoriteVehicle();
+        if (selectedVehicle == null) {
+            return List.of();
+        }
+        
+        return routeService.findNearestCompatibleStations(route, selectedVehicle, limit, maxHops);
+    }
+    
     /**
      * Obtiene todas las estaciones en una ciudad específica
      * 
@@ -168,15 +208,35 @@ public class RouteSearchService {
      * @return La ciudad encontrada, o null si no existe
      * 
      * Notas:
-     * - Búsqueda insensible a mayúsculas y minúsculas
-     * - Utiliza stream para búsqueda eficiente
+     * - Búsqueda insensible a mayúsculas, minúsculas y acentos ("San Jose" = "San José")
+     * - Utiliza el índice por nombre en memoria (no recorre la lista de ciudades)
      * - Útil para búsquedas por nombre en interfaces de usuario
      */
     public City findCityByName(String cityName) {
-        return getAllCities().stream()
-            .filter(city -> city.getName().equalsIgnoreCase(cityName))
-            .findFirst()
-            .orElse(null);
+        return routeService.findCityByName(cityName);
+    }
+    
+    /**
+     * Obtiene sugerencias de ciudades para autocompletar un nombre
+     * 
+     * @param prefix Texto escrito hasta el momento
+     * @param limit Número máximo de sugerencias
+     * @return Ciudades cuyo nombre comienza con el texto, en orden alfabético
+     */
+    public List<City> suggestCities(String prefix, int limit) {
+        return routeService.findCitiesByPrefix(prefix, limit);
+    }
+    
+    /**
+     * Busca ciudades con nombre parecido, tolerando errores de escritura
+     * 
+     * @param cityName Nombre aproximado de la ciudad
+     * @param maxDistance Número máximo de caracteres distintos permitidos
+     * @param limit Número máximo de resultados
+     * @return Ciudades ordenadas de la más parecida a la menos parecida
+     */
+    public List<City> findSimilarCities(String cityName, int maxDistance, int limit) {
+        return routeService.findCitiesBySimilarName(cityName, maxDistance, limit);
     }
     
     /**
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import Binary.RecordFormat;
 import Interfaces.Serializable;
 import Vehicle.Vehicle;
 
@@ -239,11 +240,11 @@ public class User implements Serializable{
      */
     @Override
     public void serialize(DataOutputStream out) throws IOException {
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(username != null ? username : "");
         out.writeUTF(password != null ? password : "");
         out.writeUTF(role != null ? role.name() : UserRole.USER.name());
-        out.writeUTF(favoriteVehicleId != null ? favoriteVehicleId : "");
+        RecordFormat.writeId(out, favoriteVehicleId);
         
         // Serializar lista de vehículos
         out.writeInt(vehicles.size());
@@ -266,11 +267,11 @@ public class User implements Serializable{
      */
     @Override
     public void deserialize(DataInputStream in) throws IOException {
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
         this.username = in.readUTF();
         this.password = in.readUTF();
         this.role = UserRole.valueOf(in.readUTF());
-        String favVehicleId = in.readUTF();
+        String favVehicleId = RecordFormat.readId(in);
         this.favoriteVehicleId = favVehicleId.isEmpty() ? null : favVehicleId;
         
         // Deserializar lista de vehículos
@@ -587,7 +587,7 @@ public class UserConsole {
         System.out.println("-".repeat(60));
         
         for (City city : cities) {
-            System.out.printf("%-30s %-10d%n", city.getName(), city.getStations().size());
+            System.out.printf("%-30s %-10d%n", city.getName(), city.getStationCount());
         }
         
         MenuUtil.pause("City list displayed.");
@@ -615,7 +615,7 @@ public class UserConsole {
         System.out.println("\n🏙️ Select City to View Stations:");
         for (int i = 0; i < cities.size(); i++) {
             System.out.printf("%d. %s (%d stations)\n", i + 1, 
-                cities.get(i).getName(), cities.get(i).getStations().size());
+                cities.get(i).getName(), cities.get(i).getStationCount());
         }
         
         int index = MenuUtil.getIntInput("Select city: ") - 1;
@@ -4,6 +4,7 @@
  */
 package Vehicle;
 
+import Binary.RecordFormat;
 import Interfaces.Serializable;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -19,6 +20,7 @@ public class ChargerType implements Serializable{
     private String name;
     private String standard; // e.g., "SAE J1772", "CHAdeMO", "Tesla"
     private int maxPowerKW;
+    private transient int ordinal = -1; // cached, see EnergyTypeOrdinals
     
     public ChargerType() {} // Required for deserialization
     
@@ -31,7 +33,7 @@ public class ChargerType implements Serializable{
     
     // Getters and setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) { this.id = id; this.ordinal = -1; }
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -42,9 +44,28 @@ public class ChargerType implements Serializable{
     public int getMaxPowerKW() { return maxPowerKW; }
     public void setMaxPowerKW(int maxPowerKW) { this.maxPowerKW = maxPowerKW; }
     
+    /**
+     * Gets the dense ordinal of this charger type
+     * @return ordinal shared by every instance with the same id
+     */
+    public int getOrdinal() {
+        if (ordinal < 0) {
+            ordinal = EnergyTypeOrdinals.ofCharger(id);
+        }
+        return ordinal;
+    }
+    
+    /**
+     * Gets the mask bit of this charger type
+     * @return single-bit mask for compatibility checks
+     */
+    public long getMask() {
+        return EnergyTypeOrdinals.bit(getOrdinal());
+    }
+    
     @Override
     public void serialize(DataOutputStream out) throws IOException {
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(name != null ? name : "");
         out.writeUTF(standard != null ? standard : "");
         out.writeInt(maxPowerKW);
@@ -52,7 +73,8 @@ public class ChargerType implements Serializable{
     
     @Override
     public void deserialize(DataInputStream in) throws IOException {
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
+        this.ordinal = -1;
         this.name = in.readUTF();
         this.standard = in.readUTF();
         this.maxPowerKW = in.readInt();
@@ -4,12 +4,12 @@
  */
 package Vehicle;
 
-import Models.ChargingStation;
-import Models.Station;
+import Binary.CatalogRegistry;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,6 +20,8 @@ public class ElectricVehicle extends Vehicle{
     
     private List<ChargerType> supportedChargers;
     private double batteryCapacity; // in kWh
+    private transient long chargerMask;
+    private transient boolean chargerMaskValid;
     
     public ElectricVehicle() {
         super();
@@ -33,9 +35,10 @@ public class ElectricVehicle extends Vehicle{
         this.batteryCapacity = batteryCapacity;
     }
     
-    public List<ChargerType> getSupportedChargers() { return supportedChargers; }
+    public List<ChargerType> getSupportedChargers() { return Collections.unmodifiableList(supportedChargers); }
     public void setSupportedChargers(List<ChargerType> supportedChargers) { 
         this.supportedChargers = new ArrayList<>(supportedChargers); 
+        this.chargerMaskValid = false;
     }
     
     public double getBatteryCapacity() { return batteryCapacity; }
@@ -44,11 +47,16 @@ public class ElectricVehicle extends Vehicle{
     public void addSupportedCharger(ChargerType charger) {
         if (!supportedChargers.contains(charger)) {
             supportedChargers.add(charger);
+            chargerMaskValid = false;
         }
     }
     
     public boolean removeSupportedCharger(ChargerType charger) {
-        return supportedChargers.remove(charger);
+        if (supportedChargers.remove(charger)) {
+            chargerMaskValid = false;
+            return true;
+        }
+        return false;
     }
     
     @Override
@@ -57,26 +65,28 @@ public class ElectricVehicle extends Vehicle{
     }
     
     @Override
-    public boolean isCompatibleWith(Station station) {
-        if (!(station instanceof ChargingStation)) {
-            return false;
-        }
-        ChargingStation chargingStation = (ChargingStation) station;
-        
-        // Check if any supported charger is available at the station
-        for (ChargerType supportedCharger : supportedChargers) {
-            if (chargingStation.getAvailableChargers().contains(supportedCharger)) {
-                return true;
+    public long getEnergyMask() {
+        if (!chargerMaskValid) {
+            long mask = 0L;
+            for (ChargerType charger : supportedChargers) {
+                mask |= charger.getMask();
             }
+            chargerMask = mask;
+            chargerMaskValid = true;
         }
-        return false;
+        return chargerMask;
+    }
+    
+    @Override
+    public int[] getEnergyOrdinals() {
+        return supportedChargers.stream().mapToInt(ChargerType::getOrdinal).toArray();
     }
     
     @Override
     protected void serializeSpecific(DataOutputStream out) throws IOException {
         out.writeInt(supportedChargers.size());
         for (ChargerType charger : supportedChargers) {
-            charger.serialize(out);
+            CatalogRegistry.writeChargerRef(out, charger);
         }
         out.writeDouble(batteryCapacity);
     }
@@ -86,10 +96,9 @@ public class ElectricVehicle extends Vehicle{
         int chargerCount = in.readInt();
         this.supportedChargers = new ArrayList<>();
         for (int i = 0; i < chargerCount; i++) {
-            ChargerType charger = new ChargerType();
-            charger.deserialize(in);
-            supportedChargers.add(charger);
+            supportedChargers.add(CatalogRegistry.readChargerRef(in));
         }
+        this.chargerMaskValid = false;
         this.batteryCapacity = in.readDouble();
     }
 }
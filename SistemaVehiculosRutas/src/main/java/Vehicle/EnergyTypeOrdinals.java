@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package Vehicle;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense ordinals to charger and fuel types so that stations,
+ * vehicles and cities can describe the energy types they support as a
+ * single long bitmask. Chargers and fuels share one ordinal space, so a
+ * compatibility check between any vehicle and any station is one AND.
+ *
+ * Ordinals are assigned on first use, per type id, and stay fixed for the
+ * lifetime of the process. They are never persisted. There is no limit on
+ * the number of types: the first EXACT_BITS ordinals get their own bit and
+ * every later ordinal maps to OVERFLOW_BIT. When two masks share only the
+ * overflow bit the caller has to compare the actual types (see
+ * needsExactCheck and Vehicle.isCompatibleWith).
+ *
+ * @author JE
+ */
+public final class EnergyTypeOrdinals {
+
+    /** Bits in a mask (one per exact ordinal plus the overflow bit) */
+    public static final int MASK_BITS = Long.SIZE;
+
+    /** Ordinals below this value have a bit of their own */
+    public static final int EXACT_BITS = MASK_BITS - 1;
+
+    /** Bit shared by every ordinal from EXACT_BITS on */
+    public static final long OVERFLOW_BIT = 1L << EXACT_BITS;
+
+    private static final ConcurrentHashMap<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+    private EnergyTypeOrdinals() {} // Utility class
+
+    /**
+     * Gets the ordinal of a charger type id
+     * @param id charger type id
+     * @return dense ordinal, or -1 if the id is null or empty
+     */
+    public static int ofCharger(String id) {
+        return ordinalOf("charger:", id);
+    }
+
+    /**
+     * Gets the ordinal of a fuel type id
+     * @param id fuel type id
+     * @return dense ordinal, or -1 if the id is null or empty
+     */
+    public static int ofFuel(String id) {
+        return ordinalOf("fuel:", id);
+    }
+
+    /**
+     * Converts an ordinal into its mask bit
+     * @param ordinal ordinal returned by ofCharger/ofFuel
+     * @return single-bit mask (OVERFLOW_BIT past EXACT_BITS), or 0 for a negative ordinal
+     */
+    public static long bit(int ordinal) {
+        if (ordinal < 0) {
+            return 0L;
+        }
+        return ordinal < EXACT_BITS ? 1L << ordinal : OVERFLOW_BIT;
+    }
+
+    /**
+     * Checks if an ordinal has a bit of its own
+     * @param ordinal ordinal returned by ofCharger/ofFuel
+     * @return true if its mask bit identifies it exactly
+     */
+    public static boolean hasOwnBit(int ordinal) {
+        return ordinal >= 0 && ordinal < EXACT_BITS;
+    }
+
+    /**
+     * Checks if the shared bits of two masks are ambiguous
+     * @param sharedBits AND of the two masks
+     * @return true if they share only the overflow bit, so the types have
+     *         to be compared one by one
+     */
+    public static boolean needsExactCheck(long sharedBits) {
+        return sharedBits == OVERFLOW_BIT;
+    }
+
+    /**
+     * Gets how many ordinals have been assigned so far
+     * @return number of distinct energy types seen
+     */
+    public static int size() {
+        return ORDINALS.size();
+    }
+
+    private static int ordinalOf(String kind, String id) {
+        if (id == null || id.isEmpty()) {
+            return -1;
+        }
+        String key = kind + id;
+        Integer ordinal = ORDINALS.get(key);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        // Assignment is serialized so that ordinals stay dense
+        synchronized (ORDINALS) {
+            ordinal = ORDINALS.get(key);
+            if (ordinal == null) {
+                ordinal = ORDINALS.size();
+                ORDINALS.put(key, ordinal);
+            }
+            return ordinal;
+        }
+    }
+}
@@ -4,6 +4,7 @@
  */
 package Vehicle;
 
+import Binary.RecordFormat;
 import Interfaces.Serializable;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -18,6 +19,7 @@ public class FuelType implements Serializable{
     private String id;
     private String name;
     private String description;
+    private transient int ordinal = -1; // cached, see EnergyTypeOrdinals
     
     public FuelType() {} // Required for deserialization
     
@@ -29,7 +31,7 @@ public class FuelType implements Serializable{
     
     // Getters and setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) { this.id = id; this.ordinal = -1; }
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -37,16 +39,36 @@ public class FuelType implements Serializable{
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
+    /**
+     * Gets the dense ordinal of this fuel type
+     * @return ordinal shared by every instance with the same id
+     */
+    public int getOrdinal() {
+        if (ordinal < 0) {
+            ordinal = EnergyTypeOrdinals.ofFuel(id);
+        }
+        return ordinal;
+    }
+    
+    /**
+     * Gets the mask bit of this fuel type
+     * @return single-bit mask for compatibility checks
+     */
+    public long getMask() {
+        return EnergyTypeOrdinals.bit(getOrdinal());
+    }
+    
     @Override
     public void serialize(DataOutputStream out) throws IOException {
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(name != null ? name : "");
         out.writeUTF(description != null ? description : "");
     }
     
     @Override
     public void deserialize(DataInputStream in) throws IOException {
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
+        this.ordinal = -1;
         this.name = in.readUTF();
         this.description = in.readUTF();
     }
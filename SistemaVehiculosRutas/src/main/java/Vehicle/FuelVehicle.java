@@ -4,8 +4,7 @@
  */
 package Vehicle;
 
-import Models.FuelStation;
-import Models.Station;
+import Binary.CatalogRegistry;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -42,19 +41,20 @@ public class FuelVehicle extends Vehicle{
     }
     
     @Override
-    public boolean isCompatibleWith(Station station) {
-        if (!(station instanceof FuelStation)) {
-            return false;
-        }
-        FuelStation fuelStation = (FuelStation) station;
-        return fuelType != null && fuelStation.getAvailableFuels().contains(fuelType);
+    public long getEnergyMask() {
+        return fuelType != null ? fuelType.getMask() : 0L;
+    }
+    
+    @Override
+    public int[] getEnergyOrdinals() {
+        return fuelType != null ? new int[] { fuelType.getOrdinal() } : new int[0];
     }
     
     @Override
     protected void serializeSpecific(DataOutputStream out) throws IOException {
         if (fuelType != null) {
             out.writeBoolean(true);
-            fuelType.serialize(out);
+            CatalogRegistry.writeFuelRef(out, fuelType);
         } else {
             out.writeBoolean(false);
         }
@@ -65,8 +65,7 @@ public class FuelVehicle extends Vehicle{
     protected void deserializeSpecific(DataInputStream in) throws IOException {
         boolean hasFuelType = in.readBoolean();
         if (hasFuelType) {
-            this.fuelType = new FuelType();
-            fuelType.deserialize(in);
+            this.fuelType = CatalogRegistry.readFuelRef(in);
         }
         this.tankCapacity = in.readDouble();
     }
@@ -4,10 +4,9 @@
  */
 package Vehicle;
 
+import Binary.RecordFormat;
 import Interfaces.Serializable;
 import Models.Station;
-import Models.FuelStation;
-import Models.ChargingStation;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -59,17 +58,48 @@ public abstract class Vehicle implements Serializable{
      */
     public abstract String getEnergyType();
     
+    /**
+     * Gets the energy types this vehicle can use as a bitmask
+     * @return OR of the mask bits of every supported charger/fuel type
+     * @see EnergyTypeOrdinals
+     */
+    public abstract long getEnergyMask();
+    
+    /**
+     * Gets the ordinals of the energy types this vehicle can use
+     * @return one ordinal per supported charger/fuel type
+     * @see EnergyTypeOrdinals
+     */
+    public abstract int[] getEnergyOrdinals();
+    
     /**
      * Checks if this vehicle can use a specific station
      * @param station the station to check
      * @return true if compatible
+     * 
+     * The mask AND decides on its own unless the only shared bit is the
+     * overflow bit; then the overflow types are compared one by one.
      */
-    public abstract boolean isCompatibleWith(Station station);
+    public boolean isCompatibleWith(Station station) {
+        if (station == null) {
+            return false;
+        }
+        long shared = getEnergyMask() & station.getEnergyMask();
+        if (!EnergyTypeOrdinals.needsExactCheck(shared)) {
+            return shared != 0;
+        }
+        for (int ordinal : getEnergyOrdinals()) {
+            if (!EnergyTypeOrdinals.hasOwnBit(ordinal) && station.supportsEnergyOrdinal(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
     
     @Override
     public void serialize(DataOutputStream out) throws IOException {
         out.writeUTF(getClass().getSimpleName()); // Write class type
-        out.writeUTF(id != null ? id : "");
+        RecordFormat.writeId(out, id);
         out.writeUTF(make != null ? make : "");
         out.writeUTF(model != null ? model : "");
         out.writeInt(year);
@@ -80,7 +110,7 @@ public abstract class Vehicle implements Serializable{
     @Override
     public void deserialize(DataInputStream in) throws IOException {
         // Class type already read by factory method
-        this.id = in.readUTF();
+        this.id = RecordFormat.readId(in);
         this.make = in.readUTF();
         this.model = in.readUTF();
         this.year = in.readInt();
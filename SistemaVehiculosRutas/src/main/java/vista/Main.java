@@ -4,19 +4,8 @@
  */
 package vista;
 
-import Admin.AdminService;
-import Admin.CityManagementService;
-import Admin.StationManagementService;
-import Admin.UserManagementService;
-import Binary.BinaryDataManager;
-import Binary.DataInitializationService;
-import Interfaces.DataManager;
 import Main.RouteSystemContext;
-import Services.AuthenticationService;
-import Services.RouteService;
-import Services.StationService;
-import Services.VehicleService;
-import User.UserService;
+import Main.StartupOrchestrator;
 import com.formdev.flatlaf.FlatLightLaf;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
@@ -60,35 +49,9 @@ public class Main {
      * @return configured system context
      */
     private static RouteSystemContext initializeSystem() {
-        // 1. Initialize data manager
-        DataManager dataManager = (DataManager) new BinaryDataManager(DATA_DIRECTORY);
-        
-        // 2. Initialize default data if needed
-        DataInitializationService initService = new DataInitializationService(dataManager);
-        initService.initializeDefaultData();
-        
-        // 3. Initialize core services
-        AuthenticationService authService = new AuthenticationService(dataManager);
-        RouteService routeService = new RouteService(dataManager);
-        StationService stationService = new StationService(dataManager);
-        VehicleService vehicleService = new VehicleService(dataManager, authService);
-        
-        // 4. Initialize admin services
-        CityManagementService cityManager = new CityManagementService(dataManager);
-        StationManagementService stationManager = new StationManagementService(dataManager);
-        UserManagementService userManager = new UserManagementService(dataManager);
-        AdminService adminService = new AdminService(cityManager, stationManager, userManager, authService);
-        
-        // 5. Initialize user services
-        UserService userService = new UserService(vehicleService, routeService);
-        
-        // 6. Create and return system context
-        RouteSystemContext context = new RouteSystemContext(
-            dataManager, authService, routeService, stationService,
-            vehicleService, adminService, userService
-        );
-        
-        return context;
+        // Carga los archivos en paralelo; registra el hook que escribe los cambios
+        // pendientes, ya que las ventanas salen con EXIT_ON_CLOSE
+        return new StartupOrchestrator(DATA_DIRECTORY).start();
     }
     
 }
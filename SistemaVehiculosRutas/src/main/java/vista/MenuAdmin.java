@@ -99,7 +99,7 @@ public class MenuAdmin extends javax.swing.JFrame {
                         ciudad.getName(),
                         String.format("%.4f", ciudad.getLatitude()),
                         String.format("%.4f", ciudad.getLongitude()),
-                        ciudad.getStations().size()
+                        ciudad.getStationCount()
                     });
                 }
             }